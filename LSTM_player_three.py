@@ -52,22 +52,33 @@ feature_columns = ['card_played_0', 'card_played_1', 'card_played_2', 'card_play
                  'hCP0P3', 'hCP1P3', 'hCP2P3', 'hCP3P3', 'hCP4P3', 'hCP5P3', 'hCP6P3', 'hCP7P3', 'hCP8P3', 'hCP9P3', 'hCP10P3', 'hCP11P3', 'hCP12P3']
 
 
-input_features_string = sys.stdin.readline().strip()
-input_features_list = list(map(float, input_features_string.split(',')))
-
-
-input_df = pd.DataFrame([input_features_list], columns=feature_columns)
-
-
-scaled_features = scaler.transform(input_df)
-
-
-scaled_features_tensor = torch.Tensor(scaled_features).float().unsqueeze(1)
-
-
-with torch.no_grad():
-    outputs = model(scaled_features_tensor)
-    _, predicted = torch.max(outputs.data, 1)
-
-
-print(predicted.item())
+def predict_card_ids(input_features_lists):
+    input_df = pd.DataFrame(input_features_lists, columns=feature_columns)
+    scaled_features = scaler.transform(input_df)
+    scaled_features_tensor = torch.Tensor(scaled_features).float().unsqueeze(1)
+    with torch.no_grad():
+        outputs = model(scaled_features_tensor)
+        _, predicted = torch.max(outputs.data, 1)
+    return predicted.tolist()
+
+
+def parse_features(input_features_string):
+    return list(map(float, input_features_string.strip().split(',')))
+
+
+def serve():
+    print("READY", flush=True)
+    for count_line in sys.stdin:
+        if not count_line.strip():
+            continue
+        count = int(count_line)
+        input_features_lists = [parse_features(sys.stdin.readline()) for _ in range(count)]
+        card_ids = predict_card_ids(input_features_lists)
+        sys.stdout.write(''.join(str(card_id) + '\n' for card_id in card_ids))
+        sys.stdout.flush()
+
+
+if len(sys.argv) > 1 and sys.argv[1] == '--serve':
+    serve()
+else:
+    print(predict_card_ids([parse_features(sys.stdin.readline())])[0])
@@ -59,23 +59,55 @@ scaler = joblib.load(scaler_path)
 feature_columns = ['card_played_0', 'card_played_1', 'card_played_2', 'card_played_3', 'card_played_4', 'card_played_5', 'card_played_6', 'card_played_7', 'card_played_8', 'card_played_9', 'card_played_10', 'card_played_11', 'card_played_12', 'card_played_13', 'card_played_14', 'card_played_15', 'card_played_16', 'card_played_17', 'card_played_18', 'card_played_19', 'card_played_20', 'card_played_21', 'card_played_22', 'card_played_23', 'card_played_24', 'card_played_25', 'card_played_26', 'card_played_27', 'card_played_28', 'card_played_29', 'card_played_30', 'card_played_31', 'card_played_32', 'card_played_33', 'card_played_34', 'card_played_35', 'card_played_36', 'card_played_37', 'card_played_38', 'card_played_39', 'card_played_40', 'card_played_41', 'card_played_42', 'card_played_43', 'card_played_44', 'card_played_45', 'card_played_46', 'card_played_47', 'card_played_48', 'card_played_49', 'card_played_50', 'card_played_51', 
                  'hCP0P0', 'hCP1P0', 'hCP2P0', 'hCP3P0', 'hCP4P0', 'hCP5P0', 'hCP6P0', 'hCP7P0', 'hCP8P0', 'hCP9P0', 'hCP10P0', 'hCP11P0', 'hCP12P0']
 
-# Read input features from stdin and scale using the loaded scaler
-input_features_string = sys.stdin.readline().strip()
-input_features_list = list(map(float, input_features_string.split(',')))
+def predict_card_ids(input_features_lists):
+    """
+    Predicts the card IDs for several feature arrays with one forward pass.
+
+    Args:
+        input_features_lists (list): Lists of input features, one per prediction.
+
+    Returns:
+        list: The predicted card IDs in the order of the feature arrays.
+    """
+    # Create a DataFrame for scaling
+    input_df = pd.DataFrame(input_features_lists, columns=feature_columns)
+
+    # Scale features
+    scaled_features = scaler.transform(input_df)
 
-# Create a DataFrame for scaling
-input_df = pd.DataFrame([input_features_list], columns=feature_columns)
+    # Convert scaled features to tensor
+    scaled_features_tensor = torch.Tensor(scaled_features).float().unsqueeze(1)
 
-# Scale features
-scaled_features = scaler.transform(input_df)
+    # Predict the card IDs using the LSTM model
+    with torch.no_grad():
+        outputs = model(scaled_features_tensor)
+        _, predicted = torch.max(outputs.data, 1)
+    return predicted.tolist()
 
-# Convert scaled features to tensor
-scaled_features_tensor = torch.Tensor(scaled_features).float().unsqueeze(1)
 
-# Predict the card ID using the LSTM model
-with torch.no_grad():
-    outputs = model(scaled_features_tensor)
-    _, predicted = torch.max(outputs.data, 1)
+def parse_features(input_features_string):
+    return list(map(float, input_features_string.strip().split(',')))
+
+
+def serve():
+    """
+    Answers requests until stdin is closed, so the model is only loaded once.
+    Every request is a line with the number n of feature arrays followed by n lines of comma separated features.
+    The answer consists of n lines, each containing the predicted card ID.
+    """
+    print("READY", flush=True)
+    for count_line in sys.stdin:
+        if not count_line.strip():
+            continue
+        count = int(count_line)
+        input_features_lists = [parse_features(sys.stdin.readline()) for _ in range(count)]
+        card_ids = predict_card_ids(input_features_lists)
+        sys.stdout.write(''.join(str(card_id) + '\n' for card_id in card_ids))
+        sys.stdout.flush()
+
 
-# Output the predicted card ID
-print(predicted.item())
+if len(sys.argv) > 1 and sys.argv[1] == '--serve':
+    serve()
+else:
+    # Read input features from stdin and output the predicted card ID
+    print(predict_card_ids([parse_features(sys.stdin.readline())])[0])
@@ -3,6 +3,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.IOException;
 import game.AI.AiTypes;
 import game.AI.AiCFR.DeepCFR;
 import game.AI.AiCFR.AiCFRClustering;
@@ -243,7 +244,7 @@ public class HeartsGameGUI {
 
         
 
-        AiTypes[] AI4Options = {AiTypes.RULE_BASED, AiTypes.CFR_CLUSTERING, AiTypes.Cheating_MCTS, AiTypes.PIMC, AiTypes.SO_ISMCTS, AiTypes.MO_ISMCTS , AiTypes.DeepCFR, AiTypes.MCCFR, AiTypes.ISMCTSANN};
+        AiTypes[] AI4Options = {AiTypes.RULE_BASED, AiTypes.CFR_CLUSTERING, AiTypes.Cheating_MCTS, AiTypes.PIMC, AiTypes.SO_ISMCTS, AiTypes.SO_ISMCTS_ARENA, AiTypes.MO_ISMCTS , AiTypes.DeepCFR, AiTypes.MCCFR, AiTypes.ISMCTSANN};
         AI4ComboBox = new JComboBox<>(AI4Options);
         AI4ComboBox.setVisible(false);
 
@@ -261,7 +262,7 @@ public class HeartsGameGUI {
         constraints.gridy = 6;
         inputPanel.add(AI4ComboBoxPanel, constraints);
 
-        AiTypes[] AI1To3Options = {AiTypes.RULE_BASED, AiTypes.CFR_CLUSTERING, AiTypes.Cheating_MCTS, AiTypes.PIMC, AiTypes.SO_ISMCTS, AiTypes.MO_ISMCTS , AiTypes.DeepCFR, AiTypes.MCCFR, AiTypes.ISMCTSANN};
+        AiTypes[] AI1To3Options = {AiTypes.RULE_BASED, AiTypes.CFR_CLUSTERING, AiTypes.Cheating_MCTS, AiTypes.PIMC, AiTypes.SO_ISMCTS, AiTypes.SO_ISMCTS_ARENA, AiTypes.MO_ISMCTS , AiTypes.DeepCFR, AiTypes.MCCFR, AiTypes.ISMCTSANN};
         AI1To3ComboBox = new JComboBox<>(AI1To3Options);
 
         AI1To3Label = new JLabel("AI Player 1 to 3");
@@ -457,6 +458,8 @@ public class HeartsGameGUI {
                                 AiCFRClustering cfr = new AiCFRClustering();
                                 cfr.trainCFR(i2, i1);
 
+                            } catch (IOException ee) {
+                                JOptionPane.showMessageDialog(null, "The trained info sets could not be saved: " + ee.getMessage());
                             } catch (Exception ee) {
                                 JOptionPane.showMessageDialog(null, "Please only enter integers!");
                             }
@@ -497,6 +500,8 @@ public class HeartsGameGUI {
                             mccfr.trainMCCFR(i1);
                             mccfr.trainMCCFRPass(i2);
 
+                        } catch (IOException ee) {
+                            JOptionPane.showMessageDialog(null, "The trained info sets could not be saved: " + ee.getMessage());
                         } catch (Exception ee) {
                             JOptionPane.showMessageDialog(null, "Please only enter integers!");
                         }
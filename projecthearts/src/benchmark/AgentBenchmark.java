@@ -0,0 +1,66 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import game.Difficulty;
+import game.GameController;
+import game.GameState;
+import game.Memory;
+import game.AI.AiInterface;
+import game.AI.AiTypes;
+import rules.Rules;
+
+/**
+ * Macrobenchmarks of {@code bestMove} and {@code bestPass} of the AIs at every difficulty.
+ * <p>
+ * {@code bestMove} is measured on the fixed mid-round states and {@code bestPass} on the fixed states before passing of
+ * {@link BenchmarkStates}, one state per sample. Every call gets a copy of the state, so the time includes one
+ * {@link GameState#deepCopy()}. AIs that cannot be created or fail, e.g. because their model files are missing, are skipped.
+ * <p>
+ * Usage: {@code java benchmark.AgentBenchmark [resultFile] [aiTypes] [difficulties]}, with comma separated lists, e.g.
+ * {@code benchmark-results/agents.json SO_ISMCTS,PIMC EASY,MEDIUM}. By default all AIs are measured at all difficulties.
+ */
+public class AgentBenchmark {
+
+    private static final int NUMBER_OF_STATES = 8;
+
+    public static void main(String[] args) throws IOException {
+        String resultFile = args.length > 0 ? args[0] : "benchmark-results/agents.json";
+        List<AiTypes> aiTypes = args.length > 1
+                                ? Arrays.stream(args[1].split(",")).map(AiTypes::valueOf).toList()
+                                : Arrays.asList(AiTypes.values());
+        List<Difficulty> difficulties = args.length > 2
+                                ? Arrays.stream(args[2].split(",")).map(Difficulty::valueOf).toList()
+                                : Arrays.asList(Difficulty.values());
+        BenchmarkHarness harness = new BenchmarkHarness(1, NUMBER_OF_STATES, 0);
+
+        for (AiTypes aiType : aiTypes) {
+            for (Difficulty difficulty : difficulties) {
+                List<GameState> midRound = BenchmarkStates.midRound(NUMBER_OF_STATES, difficulty, Memory.NORMAL);
+                List<GameState> beforePass = BenchmarkStates.beforePass(NUMBER_OF_STATES, difficulty, Memory.NORMAL);
+                try {
+                    AiInterface ai = GameController.getAiClass(aiType, 1);
+                    ai.setRandom(new SplittableRandom(1));
+
+                    int[] nextMove = {0};
+                    harness.measure(aiType + "." + difficulty + ".bestMove", () -> {
+                        GameState state = midRound.get(nextMove[0]++ % midRound.size()).deepCopy();
+                        return ai.bestMove(state, state.getPlayerToMove());
+                    });
+                    int[] nextPass = {0};
+                    harness.measure(aiType + "." + difficulty + ".bestPass", () -> {
+                        GameState state = beforePass.get(nextPass[0]++ % beforePass.size()).deepCopy();
+                        return ai.bestPass(state, 0, Rules.getPassReceiverNo(0, state.getRoundNo()));
+                    });
+                } catch (RuntimeException e) {
+                    System.out.println(aiType + " " + difficulty + " übersprungen: " + e);
+                }
+            }
+        }
+        harness.writeJson(Paths.get(resultFile));
+    }
+}
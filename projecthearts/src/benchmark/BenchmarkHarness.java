@@ -0,0 +1,243 @@
+package benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Small benchmark harness in the manner of JMH: warm-up samples, measured samples and the average time per operation.
+ * <p>
+ * Every sample runs the benchmark a fixed number of times. For fast benchmarks the number of operations per sample is
+ * calibrated during the warm-up until a sample takes at least the target sample time, slow benchmarks run once per sample.
+ * The results of the benchmark are consumed, so that the JIT compiler cannot remove the measured code.
+ * <p>
+ * The results are written as JSON with the commit, the JVM and for every benchmark the score in ns/op, its standard
+ * deviation and the number of samples. Two result files are compared with
+ * {@code java benchmark.BenchmarkHarness old.json new.json}.
+ */
+public class BenchmarkHarness {
+
+    /**
+     * A benchmarked operation. The returned value is consumed by the harness.
+     */
+    @FunctionalInterface
+    public interface Benchmark {
+        Object run();
+    }
+
+    /**
+     * The result of a benchmark.
+     */
+    public static class Result {
+        private final String name;
+        private final double nanosPerOperation;
+        private final double standardDeviation;
+        private final int samples;
+        private final long operationsPerSample;
+
+        Result(String name, double nanosPerOperation, double standardDeviation, int samples, long operationsPerSample) {
+            this.name = name;
+            this.nanosPerOperation = nanosPerOperation;
+            this.standardDeviation = standardDeviation;
+            this.samples = samples;
+            this.operationsPerSample = operationsPerSample;
+        }
+
+        public String getName() {return name;}
+        public double getNanosPerOperation() {return nanosPerOperation;}
+        public double getStandardDeviation() {return standardDeviation;}
+        public int getSamples() {return samples;}
+        public long getOperationsPerSample() {return operationsPerSample;}
+    }
+
+    private final int warmUpSamples;
+    private final int measuredSamples;
+    private final long targetSampleNanos;
+    private final List<Result> results = new ArrayList<>();
+    private int sink;
+
+    /**
+     * Creates a harness.
+     *
+     * @param warmUpSamples The number of samples that are run but not measured.
+     * @param measuredSamples The number of measured samples.
+     * @param targetSampleMillis The minimum time of a sample of a fast benchmark.
+     * @throws IllegalArgumentException If there is no measured sample.
+     */
+    public BenchmarkHarness(int warmUpSamples, int measuredSamples, long targetSampleMillis) throws IllegalArgumentException {
+        if (measuredSamples < 1) {
+            throw new IllegalArgumentException("At least one measured sample is required.");
+        }
+        this.warmUpSamples = warmUpSamples;
+        this.measuredSamples = measuredSamples;
+        this.targetSampleNanos = targetSampleMillis * 1_000_000;
+    }
+
+    /**
+     * Runs a benchmark, prints its result and keeps it for {@link #writeJson(Path)}.
+     *
+     * @param name The name of the benchmark.
+     * @param benchmark The benchmarked operation.
+     * @return The result.
+     */
+    public Result measure(String name, Benchmark benchmark) {
+        long operations = 1;
+        for (int i = 0; i < warmUpSamples; i++) {
+            long nanos = runSample(benchmark, operations);
+            while (nanos < targetSampleNanos && operations < Long.MAX_VALUE / 2) {
+                operations *= 2;
+                nanos = runSample(benchmark, operations);
+            }
+        }
+
+        double[] nanosPerOperation = new double[measuredSamples];
+        for (int i = 0; i < measuredSamples; i++) {
+            nanosPerOperation[i] = (double) runSample(benchmark, operations) / operations;
+        }
+        double mean = 0;
+        for (double value : nanosPerOperation) mean += value;
+        mean /= measuredSamples;
+        double variance = 0;
+        for (double value : nanosPerOperation) variance += (value - mean) * (value - mean);
+        double standardDeviation = measuredSamples > 1 ? Math.sqrt(variance / (measuredSamples - 1)) : 0;
+
+        Result result = new Result(name, mean, standardDeviation, measuredSamples, operations);
+        results.add(result);
+        System.out.println(String.format("%-70s %16.1f +- %12.1f ns/op", name, mean, standardDeviation));
+        return result;
+    }
+
+    private long runSample(Benchmark benchmark, long operations) {
+        long start = System.nanoTime();
+        for (long i = 0; i < operations; i++) {
+            sink += Objects.hashCode(benchmark.run());
+        }
+        return System.nanoTime() - start;
+    }
+
+    public List<Result> getResults() {
+        return results;
+    }
+
+    /**
+     * Writes the results as JSON.
+     *
+     * @param path The result file.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeJson(Path path) throws IOException {
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+             JsonWriter writer = new JsonWriter(out)) {
+            writer.setIndent("  ");
+            writer.beginObject();
+            writer.name("commit").value(currentCommit());
+            writer.name("timestamp").value(Instant.now().toString());
+            writer.name("jvm").value(System.getProperty("java.vm.name") + " " + System.getProperty("java.version"));
+            writer.name("processors").value(Runtime.getRuntime().availableProcessors());
+            writer.name("sink").value(sink);
+            writer.name("results").beginArray();
+            for (Result result : results) {
+                writer.beginObject();
+                writer.name("benchmark").value(result.name);
+                writer.name("unit").value("ns/op");
+                writer.name("score").value(result.nanosPerOperation);
+                writer.name("stdev").value(result.standardDeviation);
+                writer.name("samples").value(result.samples);
+                writer.name("opsPerSample").value(result.operationsPerSample);
+                writer.endObject();
+            }
+            writer.endArray();
+            writer.endObject();
+        }
+        System.out.println("Ergebnisse gespeichert: " + path);
+    }
+
+    /**
+     * Reads the scores of a result file written by {@link #writeJson(Path)}.
+     *
+     * @param path The result file.
+     * @return The score in ns/op of every benchmark, in the order of the file.
+     * @throws IOException If the file cannot be read.
+     */
+    public static Map<String, Double> readScores(Path path) throws IOException {
+        Map<String, Double> scores = new LinkedHashMap<>();
+        try (Reader in = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+             JsonReader reader = new JsonReader(in)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!reader.nextName().equals("results")) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    String name = null;
+                    double score = Double.NaN;
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String field = reader.nextName();
+                        if (field.equals("benchmark")) name = reader.nextString();
+                        else if (field.equals("score")) score = reader.nextDouble();
+                        else reader.skipValue();
+                    }
+                    reader.endObject();
+                    if (name != null) scores.put(name, score);
+                }
+                reader.endArray();
+            }
+            reader.endObject();
+        }
+        return scores;
+    }
+
+    // Gets the commit of the working directory, so that the result files of different commits can be told apart.
+    private static String currentCommit() {
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(git.getInputStream(), StandardCharsets.UTF_8))) {
+                String line = in.readLine();
+                return git.waitFor() == 0 && line != null ? line.trim() : "unknown";
+            }
+        } catch (IOException e) {
+            return "unknown";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "unknown";
+        }
+    }
+
+    /**
+     * Compares two result files and prints the ratio of the scores of every benchmark contained in both.
+     * A ratio below 1 means that the new commit is faster.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java benchmark.BenchmarkHarness old.json new.json");
+            return;
+        }
+        Map<String, Double> before = readScores(Paths.get(args[0]));
+        Map<String, Double> after = readScores(Paths.get(args[1]));
+        System.out.println(String.format("%-70s %14s %14s %8s", "benchmark", "old ns/op", "new ns/op", "ratio"));
+        for (Map.Entry<String, Double> entry : after.entrySet()) {
+            Double old = before.get(entry.getKey());
+            if (old == null) continue;
+            System.out.println(String.format("%-70s %14.1f %14.1f %8.3f", entry.getKey(), old, entry.getValue(), entry.getValue() / old));
+        }
+    }
+}
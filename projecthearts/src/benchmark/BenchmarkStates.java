@@ -0,0 +1,79 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import game.Difficulty;
+import game.GameMode;
+import game.GameState;
+import game.Memory;
+import game.AI.AiCFR.MCCFR.AiMCCFR;
+
+/**
+ * The fixed game states of the benchmarks. The deals and moves only depend on the seeds, so every commit is measured on
+ * the same states.
+ */
+final class BenchmarkStates {
+
+    static final int TRICKS_PLAYED_IN_MID_ROUND = 6;
+
+    private BenchmarkStates() {
+    }
+
+    /**
+     * Creates game states in the middle of a round: five tricks are completed and the starter of the sixth trick has
+     * played a card, so the player to move has to follow suit.
+     *
+     * @param count The number of game states, dealt with the seeds 1 to count.
+     */
+    static List<GameState> midRound(int count, Difficulty difficulty, Memory memory) {
+        List<GameState> states = new ArrayList<>();
+        for (long seed = 1; seed <= count; seed++) {
+            SplittableRandom random = new SplittableRandom(seed);
+            GameState gameState = createGameState(difficulty, memory, false);
+            gameState.createDeck(true, random);
+            gameState.handOutCards();
+            gameState.setRoundNo(1);
+            gameState.setTricksPlayed(1);
+            gameState.initTrick(gameState.getStarterOfRound().getPlayerNo());
+            gameState.setPlayableCardsForEachPlayerInTrick0or1();
+
+            while (gameState.getTricksPlayed() < TRICKS_PLAYED_IN_MID_ROUND || gameState.getNewestTrick().getNumPlayedCards() < 1) {
+                List<Integer> playable = gameState.determineListOfPlayableCardIds(gameState.getPlayerToMove());
+                gameState.doMove(playable.get(random.nextInt(playable.size())));
+            }
+            states.add(gameState);
+        }
+        return states;
+    }
+
+    /**
+     * Creates game states at the beginning of the first round of a game with passing, before the cards are passed.
+     *
+     * @param count The number of game states, dealt with the seeds 1 to count.
+     */
+    static List<GameState> beforePass(int count, Difficulty difficulty, Memory memory) {
+        List<GameState> states = new ArrayList<>();
+        for (long seed = 1; seed <= count; seed++) {
+            GameState gameState = createGameState(difficulty, memory, true);
+            gameState.createDeck(true);
+            AiMCCFR.initNewRound(gameState, new SplittableRandom(seed));
+            states.add(gameState);
+        }
+        return states;
+    }
+
+    private static GameState createGameState(Difficulty difficulty, Memory memory, boolean isGameWithPassing) {
+        GameState gameState = new GameState();
+        gameState.init();
+        gameState.setSimulationAI();
+        gameState.setGameMode(GameMode.SIMULATION);
+        gameState.setDifficulty(difficulty);
+        gameState.setDifficulty4thAi(difficulty);
+        gameState.setMemory(memory);
+        gameState.setMemory4thAi(memory);
+        gameState.setIsGameWithPassing(isGameWithPassing);
+        return gameState;
+    }
+}
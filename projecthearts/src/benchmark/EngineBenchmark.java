@@ -0,0 +1,131 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+import game.BitboardGameState;
+import game.Card;
+import game.DeterminizationSampler;
+import game.Difficulty;
+import game.GameState;
+import game.Memory;
+import game.AI.AiMCTS.RolloutKernel;
+import game.AI.AiMCTS.UCT;
+import game.AI.AiMCTS.AiISMCTS.ISMCTSArena;
+import game.AI.AiMCTS.AiISMCTS.ISMCTSNode;
+import rules.Rules;
+
+/**
+ * Microbenchmarks of the engine primitives used by the searches: copying a game state, determining the playable cards,
+ * determinization, random playouts and the UCT selection.
+ * <p>
+ * Every benchmark cycles through the same fixed mid-round states of {@link BenchmarkStates}.
+ * <p>
+ * Usage: {@code java benchmark.EngineBenchmark [resultFile]}, by default {@code benchmark-results/engine.json}.
+ */
+public class EngineBenchmark {
+
+    private static final int NUMBER_OF_STATES = 16;
+
+    public static void main(String[] args) throws IOException {
+        String resultFile = args.length > 0 ? args[0] : "benchmark-results/engine.json";
+        List<GameState> states = BenchmarkStates.midRound(NUMBER_OF_STATES, Difficulty.HARD, Memory.HIGH);
+        BenchmarkHarness harness = new BenchmarkHarness(5, 10, 200);
+
+        harness.measure("GameState.deepCopy", cycle(states, GameState::deepCopy));
+        harness.measure("GameState.determineListOfPlayableCards", cycle(states, state ->
+                state.determineListOfPlayableCards(state.getPlayerToMove())));
+        harness.measure("Rules.getPlayableCardsOfNonStarterInTrick2orLater", cycle(states, state ->
+                Rules.getPlayableCardsOfNonStarterInTrick2orLater(state, state.getPlayers()[state.getPlayerToMove()],
+                                                                state.getFirstCardOfNewestTrick())));
+        harness.measure("Rules.getPlayableCardsOfStarterInTrick2orLater", cycle(states, state ->
+                Rules.getPlayableCardsOfStarterInTrick2orLater(state, state.getPlayers()[state.getStarterOfNewestTrick()])));
+        harness.measure("Rules.getPlayableCardsInTrick0or1", cycle(states, state ->
+                Rules.getPlayableCardsInTrick0or1(state, state.getPlayers()[state.getPlayerToMove()])));
+        harness.measure("Rules.getPlayableCards(mask)", cycle(states, state ->
+                Rules.getPlayableCards(state.getPlayers()[state.getPlayerToMove()].getHandCards().toMask(), state.getTricksPlayed(),
+                                       false, state.getFirstCardOfNewestTrick(), state.getIsHeartBroken(), state.getDeckSize())));
+
+        SplittableRandom random = new SplittableRandom(1);
+        harness.measure("GameState.deepCopy+determinization", cycle(states, state -> {
+            GameState copy = state.deepCopy();
+            copy.determinization(state.getPlayerToMove(), random);
+            return copy;
+        }));
+        List<DeterminizationSampler> samplers = states.stream().map(state -> new DeterminizationSampler(state, state.getPlayerToMove())).toList();
+        int[] nextSampler = {0};
+        harness.measure("DeterminizationSampler.sample", () -> samplers.get(nextSampler[0]++ % samplers.size()).sample(random)[0]);
+
+        RolloutKernel kernel = new RolloutKernel();
+        harness.measure("GameState.deepCopy+RolloutKernel.playout", cycle(states, state -> {
+            GameState copy = state.deepCopy();
+            kernel.playout(copy, random);
+            return copy;
+        }));
+        List<BitboardGameState> bitboards = states.stream().map(BitboardGameState::fromGameState).toList();
+        BitboardGameState workingState = bitboards.get(0).deepCopy();
+        int[] nextBitboard = {0};
+        harness.measure("RolloutKernel.playout(BitboardGameState)", () -> {
+            workingState.copyFrom(bitboards.get(nextBitboard[0]++ % bitboards.size()));
+            RolloutKernel.playout(workingState, random);
+            return workingState.getRoundPts(0);
+        });
+
+        List<ISMCTSNode> roots = states.stream().map(EngineBenchmark::createRootWithChildren).toList();
+        List<List<Card>> moves = states.stream().map(state -> state.determineListOfPlayableCards(state.getPlayerToMove())).toList();
+        int[] next = {0};
+        harness.measure("UCT.findBestNodeWithUCT", () -> {
+            int i = next[0]++ % roots.size();
+            return UCT.findBestNodeWithUCT(roots.get(i), moves.get(i));
+        });
+        List<ISMCTSArena> arenas = states.stream().map(EngineBenchmark::createArenaWithChildren).toList();
+        List<Long> moveMasks = states.stream().map(state ->
+                state.getPlayers()[state.getPlayerToMove()].getHandCardsPlayable().toMask()).toList();
+        int[] nextArena = {0};
+        harness.measure("UCT.findBestNodeWithUCT(ISMCTSArena)", () -> {
+            int i = nextArena[0]++ % arenas.size();
+            return UCT.findBestNodeWithUCT(arenas.get(i), ISMCTSArena.ROOT, moveMasks.get(i));
+        });
+
+        harness.writeJson(Paths.get(resultFile));
+    }
+
+    // Runs the operation on the states in turn.
+    private static <V> BenchmarkHarness.Benchmark cycle(List<GameState> states, Function<GameState, V> operation) {
+        int[] next = {0};
+        return () -> operation.apply(states.get(next[0]++ % states.size()));
+    }
+
+    // Creates a root node with one visited child for every playable card of the player to move.
+    private static ISMCTSNode createRootWithChildren(GameState state) {
+        int playerNo = state.getPlayerToMove();
+        ISMCTSNode root = new ISMCTSNode(playerNo, null, null);
+        int visits = 10;
+        for (Card card : state.determineListOfPlayableCards(playerNo)) {
+            ISMCTSNode child = root.addChild(card, playerNo);
+            child.setVisits(visits);
+            child.setWinScore(visits / 2);
+            visits += 3;
+        }
+        return root;
+    }
+
+    // Creates an arena with the same root and children as createRootWithChildren.
+    private static ISMCTSArena createArenaWithChildren(GameState state) {
+        int playerNo = state.getPlayerToMove();
+        ISMCTSArena arena = new ISMCTSArena();
+        arena.reset(playerNo);
+        int visits = 10;
+        for (Card card : state.determineListOfPlayableCards(playerNo)) {
+            int child = arena.addChild(ISMCTSArena.ROOT, card.getId(), playerNo);
+            for (int i = 0; i < visits; i++) {
+                arena.update(child, 0.5);
+            }
+            visits += 3;
+        }
+        return arena;
+    }
+}
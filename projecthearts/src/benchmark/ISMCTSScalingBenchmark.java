@@ -0,0 +1,101 @@
+package benchmark;
+
+import java.util.function.IntFunction;
+
+import game.Difficulty;
+import game.GameMode;
+import game.GameState;
+import game.Memory;
+import game.AI.AiMCTS.AiISMCTS.ISMCTS;
+import game.AI.AiMCTS.AiISMCTS.MO_ISMCTS;
+import game.AI.AiMCTS.AiISMCTS.ParallelizationMode;
+import game.AI.AiMCTS.AiISMCTS.SO_ISMCTS;
+
+/**
+ * Measures how the parallel ISMCTS searches scale with the number of threads.
+ * <p>
+ * For 1, 2, 4, 8 and 16 threads, the tree-parallel SO-ISMCTS, the root-parallel SO-ISMCTS and the tree-parallel MO-ISMCTS
+ * decide the second move of the first trick of a fixed deal several times, and the completed iterations per second are printed.
+ * Every worker runs the number of iterations of the difficulty, so the total work grows with the number of threads.
+ * <p>
+ * Usage: {@code java benchmark.ISMCTSScalingBenchmark [difficulty] [repetitions]}, e.g. {@code HARD 5}.
+ */
+public class ISMCTSScalingBenchmark {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16};
+
+    public static void main(String[] args) {
+        Difficulty difficulty = args.length > 0 ? Difficulty.valueOf(args[0]) : Difficulty.HARD;
+        int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        GameState gameState = createGameState(difficulty);
+
+        System.out.println("Difficulty: " + difficulty + ", repetitions: " + repetitions
+                            + ", available processors: " + Runtime.getRuntime().availableProcessors());
+        System.out.println(String.format("%-16s %8s %14s %10s", "search", "threads", "iterations/s", "speedup"));
+
+        IntFunction<ISMCTS<?, ?>> soTree = threads -> new SO_ISMCTS(threads, ParallelizationMode.TREE);
+        IntFunction<ISMCTS<?, ?>> soRoot = threads -> new SO_ISMCTS(threads, ParallelizationMode.ROOT);
+        IntFunction<ISMCTS<?, ?>> moTree = threads -> new MO_ISMCTS(threads);
+        warmUp(gameState, repetitions, soTree, soRoot, moTree);
+
+        measure("SO-ISMCTS tree", gameState, repetitions, soTree);
+        measure("SO-ISMCTS root", gameState, repetitions, soRoot);
+        measure("MO-ISMCTS tree", gameState, repetitions, moTree);
+    }
+
+    // Runs every search sequentially and with two threads, so that the measurements are not distorted by the JIT compiler.
+    @SafeVarargs
+    private static void warmUp(GameState gameState, int repetitions, IntFunction<ISMCTS<?, ?>>... factories) {
+        int playerNo = gameState.getPlayerToMove();
+        for (IntFunction<ISMCTS<?, ?>> factory : factories) {
+            for (int threads = 1; threads <= 2; threads++) {
+                ISMCTS<?, ?> ai = factory.apply(threads);
+                for (int i = 0; i < repetitions; i++) {
+                    ai.bestMove(gameState, playerNo);
+                }
+            }
+        }
+    }
+
+    // Runs the search for every thread count and prints the iterations per second.
+    private static void measure(String name, GameState gameState, int repetitions, IntFunction<ISMCTS<?, ?>> factory) {
+        int playerNo = gameState.getPlayerToMove();
+        double iterationsPerSecondWithOneThread = 0;
+        for (int threads : THREAD_COUNTS) {
+            ISMCTS<?, ?> ai = factory.apply(threads);
+            long iterations = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < repetitions; i++) {
+                ai.bestMove(gameState, playerNo);
+                iterations += ai.getCompletedIterations();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            double iterationsPerSecond = iterations / seconds;
+            if (threads == 1) iterationsPerSecondWithOneThread = iterationsPerSecond;
+            System.out.println(String.format("%-16s %8d %14.1f %9.2fx", name, threads, iterationsPerSecond,
+                                                iterationsPerSecond / iterationsPerSecondWithOneThread));
+        }
+    }
+
+    // Creates a game state in the first trick of a round without passing.
+    private static GameState createGameState(Difficulty difficulty) {
+        GameState gameState = new GameState();
+        gameState.init();
+        gameState.setSimulationAI();
+        gameState.setGameMode(GameMode.SIMULATION);
+        gameState.setDifficulty(difficulty);
+        gameState.setDifficulty4thAi(difficulty);
+        gameState.setMemory(Memory.HIGH);
+        gameState.setMemory4thAi(Memory.HIGH);
+        gameState.createDeck(true);
+        gameState.handOutCards();
+        gameState.setTricksPlayed(1);
+        gameState.initTrick(gameState.getStarterOfRound().getPlayerNo());
+        gameState.setPlayableCardsForEachPlayerInTrick0or1();
+
+        // the starter has to play clubs 2, so the first real decision is the second move
+        int starter = gameState.getPlayerToMove();
+        gameState.doMove(gameState.determineListOfPlayableCardIds(starter).get(0));
+        return gameState;
+    }
+}
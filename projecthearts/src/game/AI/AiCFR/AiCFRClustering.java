@@ -5,9 +5,12 @@ import java.util.List;
 import static org.junit.Assert.assertArrayEquals;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
 
 import weka.clusterers.SimpleKMeans;
 import game.Difficulty;
@@ -36,13 +39,14 @@ public class AiCFRClustering implements AiInterface{
     private final String fileNamePass = "projecthearts\\src\\game\\AI\\AiCFR\\Data\\clusterInfoSetsPass.json";
     private final String fileNamePlay = "projecthearts\\src\\game\\AI\\AiCFR\\Data\\clusterInfoSetsPlay.json";
     
-    private HashMap<String, double[][]> infoSetHashMapPlay;
-    private HashMap<String, double[][]> infoSetHashMapPass;
+    private Map<String, double[][]> infoSetHashMapPlay;
+    private Map<String, double[][]> infoSetHashMapPass;
 
     // model for easy and low difficulty
-    private HashMap<String, double[][]> infoSetHashMapPlayLow;
+    private Map<String, double[][]> infoSetHashMapPlayLow;
     private SimpleKMeans kmeansPlayLow;
     private final String fileNamePlayLowDiff = "projecthearts\\src\\game\\AI\\AiCFR\\Data\\clusterInfoSetsPlayLow.json";
+    private SplittableRandom random = new SplittableRandom();
 
     /**
     * Constructor for initializing the CFR clustering algorithm.
@@ -64,27 +68,32 @@ public class AiCFRClustering implements AiInterface{
         datasetPlay = new Instances("dataset", attributesPlay, 0);
         
         // load InfoSets for the pass mode
-        infoSetHashMapPass = CFRUtil.deserializeInfoSets(fileNamePass);
+        infoSetHashMapPass = CFRUtil.loadInfoSets(fileNamePass);
         if (infoSetHashMapPass == null){
             System.out.println("Keine InfoSets zum Modus Pass vorhanden.");
             infoSetHashMapPass = new HashMap<String, double[][]>();
         }
 
         // load InfoSets for the play mode
-        infoSetHashMapPlay = CFRUtil.deserializeInfoSets(fileNamePlay);
+        infoSetHashMapPlay = CFRUtil.loadInfoSets(fileNamePlay);
         if (infoSetHashMapPlay == null){
             System.out.println("Keine InfoSets zum Modus Play vorhanden.");
             infoSetHashMapPlay = new HashMap<String, double[][]>();
         } 
 
         // load InfoSets for the low difficulty play mode
-        infoSetHashMapPlayLow = CFRUtil.deserializeInfoSets(fileNamePlayLowDiff);
+        infoSetHashMapPlayLow = CFRUtil.loadInfoSets(fileNamePlayLowDiff);
         if (infoSetHashMapPlayLow == null){
             System.out.println("Keine InfoSets zum Modus Play mit Schwierigkeitsgrad Easy/Low vorhanden.");
             infoSetHashMapPlayLow = new HashMap<String, double[][]>();
         } 
 
     }
+
+    @Override
+    public void setRandom(SplittableRandom random){
+        this.random = random;
+    }
     
     /**
     * Determines the best cards to pass for a given player based on the current game state and strategy.
@@ -118,7 +127,7 @@ public class AiCFRClustering implements AiInterface{
             // strategy for the determined cluster
             double[] strat = infoSetHashMapPass.get(Integer.toString(clusterNumber))[1];
 
-            idxToPass = CFRUtil.getCardsToPassFromStrategy(strat);
+            idxToPass = CFRUtil.getCardsToPassFromStrategy(strat, random);
             int[] cardsToPass = new int[3];
 
             for (int i = 0; i < 3; i++) {
@@ -222,7 +231,7 @@ public class AiCFRClustering implements AiInterface{
             }
             else stratWithDiff = strat;
             
-            int cardpos = CFRUtil.getCardToMoveFromStrategy(stratWithDiff);     
+            int cardpos = CFRUtil.getCardToMoveFromStrategy(stratWithDiff, random);     
             int cardNo = -1;
 
 
@@ -246,7 +255,7 @@ public class AiCFRClustering implements AiInterface{
         return 0;
     } 
 
-    public void trainCFR(int numberOfGames , int numberOfIterations){
+    public void trainCFR(int numberOfGames , int numberOfIterations) throws IOException{
         
         try {
             int iterationsPerformed = 0;
@@ -261,15 +270,15 @@ public class AiCFRClustering implements AiInterface{
             CFRUtil.calcAverageRegret(infoSetHashMapPass, iterationsPerformed);
             CFRUtil.calcAverageRegret(infoSetHashMapPlay, iterationsPerformed);
             CFRUtil.calcAverageRegret(infoSetHashMapPlayLow, iterationsPerformed);
-
-            CFRUtil.serializeInfoSets(infoSetHashMapPass, fileNamePass);
-            CFRUtil.serializeInfoSets(infoSetHashMapPlay, fileNamePlay);
-            CFRUtil.serializeInfoSets(infoSetHashMapPlayLow, fileNamePlayLowDiff);
             
         } catch (Exception e) {
             System.out.println("Fehler bei trainCFR");
             e.printStackTrace();
-        } 
+            return;
+        }
+        CFRUtil.saveInfoSets(infoSetHashMapPass, fileNamePass);
+        CFRUtil.saveInfoSets(infoSetHashMapPlay, fileNamePlay);
+        CFRUtil.saveInfoSets(infoSetHashMapPlayLow, fileNamePlayLowDiff);
     }
 
     /**
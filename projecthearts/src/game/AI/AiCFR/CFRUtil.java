@@ -1,5 +1,6 @@
 package game.AI.AiCFR;
 
+import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
@@ -12,8 +13,9 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
@@ -47,9 +49,19 @@ public class CFRUtil {
     * @return The ID of the selected card according to the strategy. Returns -1 if no card is selected.
     */
      public static int getCardToMoveFromStrategy(double[] strategy){
+        return getCardToMoveFromStrategy(strategy, new SplittableRandom());
+    }
+
+    /**
+    * Selects a card based on a given probability strategy, using the given random number generator.
+    *
+    * @param strategy An array of probabilities influencing card selection.
+    * @param rand The random number generator used for sampling.
+    * @return The ID of the selected card according to the strategy. Returns -1 if no card is selected.
+    */
+    public static int getCardToMoveFromStrategy(double[] strategy, RandomGenerator rand){
         int cardIndex = -1;
         double sumOfProbabilities = Arrays.stream(strategy).sum();
-        Random rand = new Random();
 
         if (sumOfProbabilities == 0) return cardIndex;
 
@@ -77,7 +89,17 @@ public class CFRUtil {
     * @return An array containing the IDs of the three selected cards according to the strategy.
     */
     public static int[] getCardsToPassFromStrategy(double[] strategy){
-        Random rand = new Random();
+        return getCardsToPassFromStrategy(strategy, new SplittableRandom());
+    }
+
+    /**
+    * Selects three cards to pass based on a given probability strategy, using the given random number generator.
+    *
+    * @param strategy An array of probabilities influencing card selection.
+    * @param rand The random number generator used for sampling.
+    * @return An array containing the IDs of the three selected cards according to the strategy.
+    */
+    public static int[] getCardsToPassFromStrategy(double[] strategy, RandomGenerator rand){
         double sumOfProbabilities = Arrays.stream(strategy).sum();
 
         if (sumOfProbabilities == 0.0) {
@@ -260,7 +282,7 @@ public class CFRUtil {
     * @param infoSetHashMap The HashMap, which's regret values shall get averaged.
     * @param numIterations The number of iterations performed.
     */    
-    public static void calcAverageRegret(HashMap<String, double[][]> infoSetHashMap, int numIterations){
+    public static void calcAverageRegret(Map<String, double[][]> infoSetHashMap, int numIterations){
         for (Map.Entry<String, double[][]> entry : infoSetHashMap.entrySet()){
             double[][] values = entry.getValue();
             for (int i = 0; i < values[0].length; i++){
@@ -275,7 +297,7 @@ public class CFRUtil {
     * normalizing the average strategy is done after updating it, so this method is not used.
     * @param infoSetHashMap The HashMap, which's strategy values shall get normalized.
     */    
-    public static void normalizeAverageStrat(HashMap<String, double[][]> infoSetHashMap){
+    public static void normalizeAverageStrat(Map<String, double[][]> infoSetHashMap){
         for (Map.Entry<String, double[][]> entry : infoSetHashMap.entrySet()){
             double sum = 0;
             double[][] values = entry.getValue();
@@ -331,7 +353,7 @@ public class CFRUtil {
     *                 is a 2D array of doubles.
     * @param fileName The name of the JSON file to which the information sets will be serialized.
     */
-    public static void serializeInfoSets(HashMap<String, double[][]> infoSets, String fileName) {
+    public static void serializeInfoSets(Map<String, double[][]> infoSets, String fileName) {
         
         try (JsonWriter writer = new JsonWriter(new FileWriter(fileName))) {
             writeHashMapToJson(infoSets, writer);
@@ -348,7 +370,7 @@ public class CFRUtil {
     *               is a 2D array of doubles.
     * @param writer A JsonWriter object used to write JSON data.
     */
-    private static void writeHashMapToJson(HashMap<String, double[][]> map, JsonWriter writer){
+    private static void writeHashMapToJson(Map<String, double[][]> map, JsonWriter writer){
         try{
             writer.beginObject();
                 for (String key : map.keySet()) {
@@ -382,6 +404,63 @@ public class CFRUtil {
         }  
     }
 
+    /**
+    * Gets the name of the binary info set store that belongs to a JSON file of information sets.
+    *
+    * @param fileName The name of the JSON file.
+    * @return The file name with the extension ".bin" instead of ".json".
+    */
+    public static String getBinaryFileName(String fileName){
+        if (fileName.endsWith(".json")) return fileName.substring(0, fileName.length() - ".json".length()) + ".bin";
+        return fileName + ".bin";
+    }
+
+    /**
+    * Checks whether the binary info set store of a JSON file exists and is not older than the JSON file.
+    * The store is newer if the information sets have been saved after training, see {@link #saveInfoSets}.
+    *
+    * @param fileName The name of the JSON file.
+    * @return true if the store can be used instead of the JSON file.
+    */
+    public static boolean isBinaryFileUpToDate(String fileName){
+        File binaryFile = new File(getBinaryFileName(fileName));
+        File jsonFile = new File(fileName);
+        return binaryFile.exists() && (!jsonFile.exists() || binaryFile.lastModified() >= jsonFile.lastModified());
+    }
+
+    /**
+    * Loads information sets. If a binary info set store next to the JSON file is up to date, see {@link #isBinaryFileUpToDate},
+    * it is mapped into memory and the information sets are read on first access. Otherwise the JSON file is deserialized.
+    *
+    * @param fileName The name of the JSON file containing the information sets.
+    * @return The information sets; empty if neither file can be read.
+    */
+    public static Map<String, double[][]> loadInfoSets(String fileName) {
+        String binaryFileName = getBinaryFileName(fileName);
+        if (isBinaryFileUpToDate(fileName)){
+            try {
+                return InfoSetStore.open(binaryFileName);
+            } catch (IOException e) {
+                System.out.println("Fehler beim Laden des InfoSetStores " + binaryFileName + ", lade JSON.");
+            }
+        }
+        return deserializeInfoSets(fileName);
+    }
+
+    /**
+    * Saves information sets as a binary info set store next to the given JSON file name.
+    * Stores that still map the file are closed first, see {@link InfoSetStore#write}. The JSON file is not changed.
+    *
+    * @param infoSets The information sets to save.
+    * @param fileName The name of the JSON file; the store is written to the corresponding ".bin" file.
+    * @throws IOException If the store cannot be written, in which case the information sets are not saved.
+    * @throws IllegalArgumentException If the value arrays do not have the same number of rows.
+    */
+    public static void saveInfoSets(Map<String, double[][]> infoSets, String fileName) throws IOException, IllegalArgumentException {
+        InfoSetStore.write(infoSets, getBinaryFileName(fileName));
+        System.out.println("InfoSets wurden erfolgreich gespeichert.");
+    }
+
     /**
     * Deserializes information sets from a JSON file and returns them as a HashMap.
     *
@@ -657,24 +736,7 @@ public class CFRUtil {
     public static double[] normalize(double[] probabilities) {
         
         try{
-           double sum = 0.0;
-            for (int i = 0; i < probabilities.length; i++) {
-                if (probabilities[i] < 0) {
-                probabilities[i] = 0;
-                }
-                sum += probabilities[i];
-            }
-        
-            if (sum!= 0){
-                for (int i = 0; i < probabilities.length; i++) {
-                probabilities[i] /= sum; 
-
-                //Hier Runde ich nochmal ab, dies dient eig. nur der Lesbarkeit  TODO: später entfernen
-                BigDecimal bd = new BigDecimal(Double.toString(probabilities[i]));
-                bd = bd.setScale(3, RoundingMode.HALF_DOWN);
-                probabilities[i] = bd.doubleValue(); 
-                }
-            } 
+            normalize(probabilities, 0, probabilities.length);
         } catch (NumberFormatException e){
             probabilities = new double[probabilities.length];
         }
@@ -682,6 +744,36 @@ public class CFRUtil {
         return probabilities;
     }
 
+    /**
+    * Normalizes a range of an array of probabilities in place so that they sum up to 1. Negative values are set to 0.
+    *
+    * @param values The array containing the probabilities.
+    * @param from The index of the first probability.
+    * @param to The index after the last probability.
+    * @throws NumberFormatException If a probability is not finite after normalizing.
+    */
+    public static void normalize(double[] values, int from, int to) throws NumberFormatException {
+        
+        double sum = 0.0;
+        for (int i = from; i < to; i++) {
+            if (values[i] < 0) {
+                values[i] = 0;
+            }
+            sum += values[i];
+        }
+    
+        if (sum!= 0){
+            for (int i = from; i < to; i++) {
+                values[i] /= sum; 
+
+                //Hier Runde ich nochmal ab, dies dient eig. nur der Lesbarkeit  TODO: später entfernen
+                BigDecimal bd = new BigDecimal(Double.toString(values[i]));
+                bd = bd.setScale(3, RoundingMode.HALF_DOWN);
+                values[i] = bd.doubleValue(); 
+            }
+        } 
+    }
+
     /**
     * Filters out negative regret values and sets them to zero (CFR+).
     *
@@ -30,7 +30,7 @@ import weka.core.Instances;
 
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.Map;
 import java.util.List;
 import java.io.File;
 import java.io.FileInputStream;
@@ -206,11 +206,10 @@ public class DeepCFR implements AiInterface {
 
         SimpleKMeans Cluster = null;
         Instances dataset = null;   
-        BasicNetwork network = null;  
-        HashMap<String, double[][]> Map = null;
+        Map<String, double[][]> Map = null;
         try {
             Cluster = KMeansClusterer.loadClusterModel("pass");
-            Map = CFRUtil.deserializeInfoSets(fileNamePass);         
+            Map = CFRUtil.loadInfoSets(fileNamePass);         
             dataset = new Instances("dataset", KMeansClusterer.createATTPass(), 0);                 
         } catch (Exception e) {
             System.out.println("Fehler beim Laden des Clusters + Map in DeepCFR");
@@ -228,7 +227,7 @@ public class DeepCFR implements AiInterface {
                 Gameinfo[i] = values[i];
             } 
 
-            output = getGoodProb(values, 0, Cluster, Map, dataset, network);
+            output = getGoodProb(values, 0, Cluster, Map, dataset, null);
 
             //Erstelle DataPair und füge es hinzu
             MLDataPair pair = new BasicMLDataPair(new BasicMLData(values), new BasicMLData(output));
@@ -252,11 +251,10 @@ public class DeepCFR implements AiInterface {
 
         SimpleKMeans Cluster = null;
         Instances dataset = null;   
-        BasicNetwork network = loadNeuralNetwork("projecthearts\\src\\game\\AI\\AiCFR\\Data\\DeepCFRNeuralPlay.ser");     ;  
-        HashMap<String, double[][]> Map = null;
+        Map<String, double[][]> Map = null;
         try {
             Cluster = KMeansClusterer.loadClusterModel("play");
-            Map = CFRUtil.deserializeInfoSets(fileNamePlay);         
+            Map = CFRUtil.loadInfoSets(fileNamePlay);         
             dataset = new Instances("dataset", KMeansClusterer.createATTPlay(), 0);                 
         } catch (Exception e) {
             System.out.println("Fehler beim Laden des Clusters + Map in DeepCFR");
@@ -275,7 +273,7 @@ public class DeepCFR implements AiInterface {
                 Gameinfo[i] = values[i];
             } 
 
-            output = getGoodProb(values, 1,  Cluster, Map, dataset, network);
+            output = getGoodProb(values, 1,  Cluster, Map, dataset, "projecthearts\\src\\game\\AI\\AiCFR\\Data\\DeepCFRNeuralPlay.ser");
 
             //Erstelle DataPair und füge es hinzu
             MLDataPair pair = new BasicMLDataPair(new BasicMLData(values), new BasicMLData(output));
@@ -318,6 +316,7 @@ public class DeepCFR implements AiInterface {
         } catch (IOException e) {
             e.printStackTrace();
         }
+        NeuralNetworkRegistry.invalidate(filePath);
     }
 
 
@@ -397,9 +396,6 @@ public class DeepCFR implements AiInterface {
     public int[] bestPass(GameState g, int playerNo, int receiverNo) {
         ArrayList<Card> listOfHandCards = CardEvaluation.getPlaybleCards(g.getPlayers()[playerNo].getHandCards());
 
-        BasicNetwork network  = loadNeuralNetwork("projecthearts\\src\\game\\AI\\AiCFR\\Data\\DeepCFRNeuralPass.ser");
-
-        
         double[] input = new double[14];
 
         int t = 1;
@@ -408,16 +404,12 @@ public class DeepCFR implements AiInterface {
             t++;
         }
 
-        //Eingabe  umwandeln
-        MLData inputData = new BasicMLData(input);
-        MLDataPair inputPair = new BasicMLDataPair(inputData, null);
-
-        //Netzwerk Vorhersage
-        MLData predictedOutput = network.compute(inputPair.getInput());
+        //Netzwerk Vorhersage, das Netz wird nur beim ersten Aufruf oder nach einer Änderung der Datei geladen
+        double[] predictedOutput = NeuralNetworkRegistry.compute("projecthearts\\src\\game\\AI\\AiCFR\\Data\\DeepCFRNeuralPass.ser", input);
 
         double[] probabilities = new double[13];
-        for (int i = 0; i < predictedOutput.size(); i++) {
-            probabilities[i] = predictedOutput.getData(i);
+        for (int i = 0; i < predictedOutput.length; i++) {
+            probabilities[i] = predictedOutput[i];
         }
 
         int[] temp = getTopIndices(probabilities , 3);      
@@ -487,19 +479,13 @@ public class DeepCFR implements AiInterface {
             }
         }
 
-        BasicNetwork network  = loadNeuralNetwork("projecthearts\\src\\game\\AI\\AiCFR\\Data\\DeepCFRNeuralPlay.ser");
-
-        //Eingabe  umwandeln
-        MLData inputData = new BasicMLData(values);
-        MLDataPair inputPair = new BasicMLDataPair(inputData, null);
-
-        //Netzwerk Vorhersage
-        MLData predictedOutput = network.compute(inputPair.getInput());
+        //Netzwerk Vorhersage, das Netz wird nur beim ersten Aufruf oder nach einer Änderung der Datei geladen
+        double[] predictedOutput = NeuralNetworkRegistry.compute("projecthearts\\src\\game\\AI\\AiCFR\\Data\\DeepCFRNeuralPlay.ser", values);
 
         
         double[] probabilities = new double[13];
-        for (int i = 0; i < predictedOutput.size(); i++) {      
-            probabilities[i] = predictedOutput.getData(i);
+        for (int i = 0; i < predictedOutput.length; i++) {      
+            probabilities[i] = predictedOutput[i];
             //System.out.print(probabilities[i]+ "  ") ;
         }
 
@@ -567,7 +553,7 @@ public class DeepCFR implements AiInterface {
     }
 
     //modi 0 = pass , 1 = play
-    private static double[] getGoodProb(double[] gameInfo , int modi  , SimpleKMeans cluster , HashMap<String, double[][]>  Map ,Instances dataset , BasicNetwork network ){     
+    private static double[] getGoodProb(double[] gameInfo , int modi  , SimpleKMeans cluster , Map<String, double[][]>  Map ,Instances dataset , String networkFilePath ){     
         double[] r = new double[13]; 
 
         if(modi == 0){      //Pass  , directiontoPlay + 13Handkarten
@@ -641,15 +627,12 @@ public class DeepCFR implements AiInterface {
                 Instance clusterCenter = cluster.getClusterCentroids().instance(ClusterNo);
 
                  
-                //Eingabe  umwandeln
-                MLData inputData = new BasicMLData(gameInfo);
-                MLDataPair inputPair = new BasicMLDataPair(inputData, null);
-                //Netzwerk Vorhersage
-                MLData predictedOutput = network.compute(inputPair.getInput());
+                //Netzwerk Vorhersage, mit der Kopie des Netzwerks für diesen Thread
+                double[] predictedOutput = NeuralNetworkRegistry.compute(networkFilePath, gameInfo);
                 
                 double[] probabilities = new double[13];
-                for (int i = 0; i < predictedOutput.size(); i++) {      
-                    probabilities[i] = predictedOutput.getData(i);
+                for (int i = 0; i < predictedOutput.length; i++) {      
+                    probabilities[i] = predictedOutput[i];
                 }
    
 
@@ -0,0 +1,376 @@
+package game.AI.AiCFR;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Information sets stored in a binary file that is opened with {@link FileChannel#map}.
+ * <p>
+ * Opening the file only maps it into memory. The values of an information set are read from the file when it is
+ * accessed for the first time and are then kept in memory, so that the caller can update them like the values of a
+ * {@link HashMap}. Iterating over the entries reads all remaining information sets.
+ * <p>
+ * A mapped file cannot be replaced on Windows. Once all information sets have been read, e.g. by {@link #close()},
+ * the file is unmapped. {@link #write} closes every open store of the file it replaces, so that the stores keep their
+ * information sets in memory and the new file can be moved into place.
+ * <p>
+ * File layout (big endian):
+ * <ul>
+ * <li>header: magic number, version, number of information sets, number of rows of every value array, offset of the values</li>
+ * <li>index: per information set the 64 bit FNV-1a hash of the key, offset and length of the key and the number of actions,
+ *     sorted by hash</li>
+ * <li>keys: the UTF-8 encoded keys one after another</li>
+ * <li>values: per information set the rows (regret, average strategy) as contiguous doubles</li>
+ * </ul>
+ */
+public class InfoSetStore extends AbstractMap<String, double[][]> implements Closeable {
+
+    private static final int MAGIC = 0x49535431; // "IST1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final int INDEX_ENTRY_SIZE = 24;
+
+    // the stores that may still map a file, by the absolute path of the file
+    private static final HashMap<Path, List<WeakReference<InfoSetStore>>> OPEN_STORES = new HashMap<>();
+
+    private final Path path;
+    private MappedByteBuffer buffer;    // null once every information set has been read
+    private final int numberOfStoredInfoSets;
+    private final int numberOfRows;
+    private final HashMap<String, double[][]> loadedInfoSets;
+    private int numberOfAddedInfoSets;  // information sets put into the map that are not stored in the file
+
+    private InfoSetStore(Path path, MappedByteBuffer buffer) throws IOException{
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC){
+            unmap(buffer);
+            throw new IOException("Not an info set store.");
+        }
+        if (buffer.getInt(4) != VERSION){
+            int version = buffer.getInt(4);
+            unmap(buffer);
+            throw new IOException("Unsupported info set store version " + version + ".");
+        }
+        this.path = path;
+        this.buffer = buffer;
+        this.numberOfStoredInfoSets = buffer.getInt(8);
+        this.numberOfRows = buffer.getInt(12);
+        this.loadedInfoSets = new HashMap<String, double[][]>();
+        this.numberOfAddedInfoSets = 0;
+    }
+
+    /**
+     * Opens an info set store. Only the file is mapped; no information set is read yet.
+     *
+     * @param fileName The name of the binary file.
+     * @return The information sets of the file.
+     * @throws IOException If the file cannot be read, is not an info set store or is larger than 2 GB.
+     */
+    public static InfoSetStore open(String fileName) throws IOException{
+        Path path = Path.of(fileName).toAbsolutePath().normalize();
+        InfoSetStore store;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            if (channel.size() > Integer.MAX_VALUE){
+                throw new IOException("Info set stores larger than 2 GB are not supported.");
+            }
+            store = new InfoSetStore(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        synchronized (OPEN_STORES){
+            OPEN_STORES.computeIfAbsent(path, p -> new ArrayList<>()).add(new WeakReference<>(store));
+        }
+        return store;
+    }
+
+    /**
+     * Writes information sets to a binary file that can be opened with {@link #open}.
+     * Open stores of an existing file are closed before it is replaced, see {@link #close()}.
+     *
+     * @param infoSets The information sets. Every value array needs the same number of rows, all rows of one array the same length.
+     * @param fileName The name of the binary file.
+     * @throws IOException If the file cannot be written.
+     * @throws IllegalArgumentException If the value arrays do not have the required shape.
+     */
+    public static void write(Map<String, double[][]> infoSets, String fileName) throws IOException, IllegalArgumentException{
+
+        // sort the information sets by the hash of the key so that they can be found with a binary search
+        List<Map.Entry<String, double[][]>> entries = new ArrayList<>(infoSets.entrySet());
+        int numberOfRows = entries.isEmpty() ? 0 : entries.get(0).getValue().length;
+        long[] hashes = new long[entries.size()];
+        byte[][] keys = new byte[entries.size()][];
+        Integer[] order = new Integer[entries.size()];
+        for (int i = 0; i < entries.size(); i++){
+            double[][] values = entries.get(i).getValue();
+            if (values.length != numberOfRows){
+                throw new IllegalArgumentException("Info set " + entries.get(i).getKey() + " has " + values.length + " rows instead of " + numberOfRows + ".");
+            }
+            for (double[] row : values){
+                if (row.length != values[0].length){
+                    throw new IllegalArgumentException("Info set " + entries.get(i).getKey() + " has rows of different length.");
+                }
+            }
+            keys[i] = entries.get(i).getKey().getBytes(StandardCharsets.UTF_8);
+            hashes[i] = hash(keys[i]);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(hashes[a], hashes[b]));
+
+        long keysSize = 0;
+        long valuesSize = 0;
+        for (int i = 0; i < entries.size(); i++){
+            keysSize += keys[i].length;
+            valuesSize += 8L * numberOfRows * (numberOfRows == 0 ? 0 : entries.get(i).getValue()[0].length);
+        }
+        long keysOffset = HEADER_SIZE + (long) INDEX_ENTRY_SIZE * entries.size();
+        int padding = (int) ((8 - (keysOffset + keysSize) % 8) % 8);
+        long valuesOffset = keysOffset + keysSize + padding;
+        if (valuesOffset + valuesSize > Integer.MAX_VALUE){
+            throw new IOException("Info set stores larger than 2 GB are not supported.");
+        }
+
+        // write to a temporary file first, so that a store that is still mapped is only replaced by a complete file
+        Path target = Path.of(fileName);
+        Path temporary = Path.of(fileName + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary.toFile()), 1 << 16))){
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            out.writeInt(numberOfRows);
+            out.writeLong(valuesOffset);
+
+            long keyOffset = keysOffset;
+            long valueOffset = valuesOffset;
+            for (int i : order){
+                int numActions = numberOfRows == 0 ? 0 : entries.get(i).getValue()[0].length;
+                out.writeLong(hashes[i]);
+                out.writeInt((int) keyOffset);
+                out.writeInt(keys[i].length);
+                out.writeInt((int) valueOffset);
+                out.writeInt(numActions);
+                keyOffset += keys[i].length;
+                valueOffset += 8L * numberOfRows * numActions;
+            }
+            for (int i : order){
+                out.write(keys[i]);
+            }
+            out.write(new byte[padding]);
+            for (int i : order){
+                for (double[] row : entries.get(i).getValue()){
+                    for (double value : row){
+                        out.writeDouble(value);
+                    }
+                }
+            }
+        }
+        closeOpenStores(target.toAbsolutePath().normalize());
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads every information set that has not been read yet and unmaps the file, so that it can be replaced.
+     * The store stays usable and keeps all information sets in memory.
+     */
+    @Override
+    public synchronized void close(){
+        loadAll();
+    }
+
+    @Override
+    public synchronized double[][] get(Object key){
+        double[][] values = loadedInfoSets.get(key);
+        if (values == null && buffer != null && key instanceof String){
+            int indexNo = findIndexNo((String) key);
+            if (indexNo >= 0){
+                values = readValues(indexNo);
+                loadedInfoSets.put((String) key, values);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public synchronized boolean containsKey(Object key){
+        return get(key) != null;
+    }
+
+    @Override
+    public synchronized double[][] put(String key, double[][] values){
+        double[][] previousValues = get(key);
+        if (previousValues == null && buffer != null) numberOfAddedInfoSets++;
+        loadedInfoSets.put(key, values);
+        return previousValues;
+    }
+
+    @Override
+    public synchronized double[][] remove(Object key){
+        loadAll();
+        return loadedInfoSets.remove(key);
+    }
+
+    @Override
+    public synchronized void clear(){
+        if (buffer != null) unmap(buffer);
+        buffer = null;
+        loadedInfoSets.clear();
+    }
+
+    @Override
+    public synchronized int size(){
+        if (buffer == null) return loadedInfoSets.size();
+        return numberOfStoredInfoSets + numberOfAddedInfoSets;
+    }
+
+    @Override
+    public synchronized Set<Map.Entry<String, double[][]>> entrySet(){
+        loadAll();
+        return loadedInfoSets.entrySet();
+    }
+
+    /**
+     * Checks whether the file is still mapped, i.e. not every information set has been read and the store is not closed.
+     */
+    public synchronized boolean isFileMapped(){
+        return buffer != null;
+    }
+
+    /**
+     * Gets the number of information sets stored in the file.
+     */
+    public int getNumberOfStoredInfoSets(){
+        return numberOfStoredInfoSets;
+    }
+
+    /**
+     * Reads every information set that has not been read yet and unmaps the file.
+     */
+    private void loadAll(){
+        if (buffer == null) return;
+        for (int i = 0; i < numberOfStoredInfoSets; i++){
+            String key = readKey(i);
+            if (!loadedInfoSets.containsKey(key)) loadedInfoSets.put(key, readValues(i));
+        }
+        unmap(buffer);
+        buffer = null;
+    }
+
+    /*
+    * Closes the stores that may still map the file with the given absolute path.
+    */
+    private static void closeOpenStores(Path path){
+        List<WeakReference<InfoSetStore>> stores;
+        synchronized (OPEN_STORES){
+            stores = OPEN_STORES.remove(path);
+        }
+        if (stores == null) return;
+        for (WeakReference<InfoSetStore> reference : stores){
+            InfoSetStore store = reference.get();
+            if (store != null) store.close();
+        }
+    }
+
+    /*
+    * Unmaps a buffer at once instead of when it is garbage collected. The buffer must not be accessed afterwards.
+    * Without access to the cleaner of the JDK, the buffer is left to the garbage collector.
+    */
+    private static void unmap(MappedByteBuffer buffer){
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            System.out.println("InfoSetStore konnte nicht freigegeben werden: " + e);
+        }
+    }
+
+    /*
+    * Finds the position of a key in the index with a binary search over the hashes.
+    * Returns -1 if the key is not stored.
+    */
+    private int findIndexNo(String key){
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long keyHash = hash(keyBytes);
+        int low = 0;
+        int high = numberOfStoredInfoSets - 1;
+        while (low <= high){
+            int mid = (low + high) >>> 1;
+            long midHash = buffer.getLong(HEADER_SIZE + mid * INDEX_ENTRY_SIZE);
+            if (midHash < keyHash) low = mid + 1;
+            else if (midHash > keyHash) high = mid - 1;
+            else {
+                // several keys may share a hash, so compare the keys of all entries with this hash
+                int first = mid;
+                while (first > 0 && buffer.getLong(HEADER_SIZE + (first - 1) * INDEX_ENTRY_SIZE) == keyHash) first--;
+                for (int i = first; i < numberOfStoredInfoSets && buffer.getLong(HEADER_SIZE + i * INDEX_ENTRY_SIZE) == keyHash; i++){
+                    if (isKeyAt(i, keyBytes)) return i;
+                }
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isKeyAt(int indexNo, byte[] keyBytes){
+        int entry = HEADER_SIZE + indexNo * INDEX_ENTRY_SIZE;
+        int keyOffset = buffer.getInt(entry + 8);
+        int keyLength = buffer.getInt(entry + 12);
+        if (keyLength != keyBytes.length) return false;
+        for (int i = 0; i < keyLength; i++){
+            if (buffer.get(keyOffset + i) != keyBytes[i]) return false;
+        }
+        return true;
+    }
+
+    private String readKey(int indexNo){
+        int entry = HEADER_SIZE + indexNo * INDEX_ENTRY_SIZE;
+        byte[] keyBytes = new byte[buffer.getInt(entry + 12)];
+        buffer.get(buffer.getInt(entry + 8), keyBytes);
+        return new String(keyBytes, StandardCharsets.UTF_8);
+    }
+
+    private double[][] readValues(int indexNo){
+        int entry = HEADER_SIZE + indexNo * INDEX_ENTRY_SIZE;
+        int valueOffset = buffer.getInt(entry + 16);
+        int numActions = buffer.getInt(entry + 20);
+        double[][] values = new double[numberOfRows][numActions];
+        ByteBuffer view = buffer.duplicate();
+        view.position(valueOffset);
+        for (double[] row : values){
+            view.asDoubleBuffer().get(row);
+            view.position(view.position() + 8 * numActions);
+        }
+        return values;
+    }
+
+    /*
+    * 64 bit FNV-1a hash of the UTF-8 encoded key.
+    */
+    private static long hash(byte[] keyBytes){
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : keyBytes){
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,70 @@
+package game.AI.AiCFR;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+
+/**
+ * Converts JSON files of information sets into binary info set stores, which are written next to the JSON files
+ * with the extension ".bin" and are preferred by {@link CFRUtil#loadInfoSets}.
+ * <p>
+ * Usage: {@code java game.AI.AiCFR.InfoSetStoreConverter [file.json ...]}. Without arguments, every JSON file in the
+ * directory {@code projecthearts/src/game/AI/AiCFR/Data} is converted. A JSON file is skipped if its binary store is up to
+ * date, see {@link CFRUtil#isBinaryFileUpToDate}, as training only saves the binary store, which is then newer.
+ */
+public class InfoSetStoreConverter {
+
+    private static final String DATA_DIRECTORY = "projecthearts" + File.separator + "src" + File.separator + "game"
+                                                    + File.separator + "AI" + File.separator + "AiCFR" + File.separator + "Data";
+
+    public static void main(String[] args) {
+        String[] fileNames = args;
+        if (fileNames.length == 0){
+            File[] jsonFiles = new File(DATA_DIRECTORY).listFiles((dir, name) -> name.endsWith(".json"));
+            if (jsonFiles == null){
+                System.out.println("Directory " + DATA_DIRECTORY + " not found.");
+                return;
+            }
+            fileNames = new String[jsonFiles.length];
+            for (int i = 0; i < jsonFiles.length; i++){
+                fileNames[i] = jsonFiles[i].getPath();
+            }
+        }
+
+        for (String fileName : fileNames){
+            if (CFRUtil.isBinaryFileUpToDate(fileName)){
+                System.out.println(fileName + ": " + CFRUtil.getBinaryFileName(fileName) + " is up to date.");
+                continue;
+            }
+            try {
+                convert(fileName);
+            } catch (IOException | IllegalArgumentException e){
+                System.out.println("Could not convert " + fileName + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Converts one JSON file of information sets into a binary info set store and checks that every information set can be read back.
+     *
+     * @param fileName The name of the JSON file.
+     * @throws IOException If a file cannot be read or written, or the store does not contain the information sets of the JSON file.
+     */
+    public static void convert(String fileName) throws IOException{
+        long start = System.currentTimeMillis();
+        HashMap<String, double[][]> infoSets = CFRUtil.deserializeInfoSets(fileName);
+        String binaryFileName = CFRUtil.getBinaryFileName(fileName);
+        InfoSetStore.write(infoSets, binaryFileName);
+
+        try (InfoSetStore store = InfoSetStore.open(binaryFileName)){
+            for (String key : infoSets.keySet()){
+                if (store.get(key) == null){
+                    throw new IOException("Info set " + key + " is missing in " + binaryFileName + ".");
+                }
+            }
+        }
+        System.out.println(fileName + " -> " + binaryFileName + ": " + infoSets.size() + " info sets, "
+                            + new File(fileName).length() + " -> " + new File(binaryFileName).length() + " bytes, "
+                            + (System.currentTimeMillis() - start) + " ms");
+    }
+}
@@ -106,7 +106,7 @@ public class KMeansClusterer {
 
         // save cluster and hash map
         SerializationHelper.write(filename, kmeans);
-        CFRUtil.serializeInfoSets(infoSets, filenameHashMap);   
+        CFRUtil.saveInfoSets(infoSets, filenameHashMap);   
     }
 
     /**
@@ -6,8 +6,11 @@ import rules.Rules;
 import game.AI.AiCFR.CFRUtil;
 import game.Difficulty;
 
-import java.util.HashMap;
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * MCCFR algorithm. The strategy for "pass" is determined by outcome sampling, the strategy for "play" is determined by external sampling.
@@ -15,30 +18,49 @@ import java.util.List;
 
 public class AiMCCFR implements AiInterface{
 
-    // Hash Maps containing regret and strategy of the information sets
-    private HashMap<String, double[][]> infoSetsValues; 
-    private HashMap<String, double[][]> infoSetsValuesPass;
-    private final static int REGRET_IDX = 0;
-    private final static int STRAT_IDX = 1;
+    // regret and strategy of the information sets, keyed by InfoSetKey
+    private InfoSetArena infoSetsValues; 
+    private InfoSetArena infoSetsValuesPass;
+    private SplittableRandom random = new SplittableRandom();
     private String fileNamePlay = "projecthearts\\src\\game\\AI\\AiCFR\\Data\\MCCFRInfoSetsPlay.json";
     private String fileNamePass = "projecthearts\\src\\game\\AI\\AiCFR\\Data\\MCCFRInfoSetsPass.json";
 
+    // reads and updates the hash maps directly, used by the sequential training
+    private final InfoSetAccess directAccess = new InfoSetAccess(){
+        @Override
+        public double[] getCurrentStrategy(boolean isPass, long keyHigh, long keyLow, int numActions){
+            InfoSetArena infoSets = isPass ? infoSetsValuesPass : infoSetsValues;
+            return infoSets.calcCurrentStrategy(infoSets.getOrCreate(keyHigh, keyLow, numActions));
+        }
+
+        @Override
+        public void update(boolean isPass, long keyHigh, long keyLow, double[] regretDelta, double[] strategyDelta){
+            InfoSetArena infoSets = isPass ? infoSetsValuesPass : infoSetsValues;
+            infoSets.update(infoSets.find(keyHigh, keyLow), regretDelta, strategyDelta);
+        }
+    };
+
     /**
      * Constructs an AiMCCFR object and loads the hash maps with the information sets for pass and play.
      */
     public AiMCCFR(){
 
-        infoSetsValuesPass = CFRUtil.deserializeInfoSets(fileNamePass);
-        if (infoSetsValuesPass == null){
+        Map<String, double[][]> storedInfoSetsPass = CFRUtil.loadInfoSets(fileNamePass);
+        if (storedInfoSetsPass == null || storedInfoSetsPass.isEmpty()){
             System.out.println("Keine InfoSets zum Modus Pass vorhanden.");
-            infoSetsValuesPass = new HashMap<String, double[][]>();
         }
+        infoSetsValuesPass = new InfoSetArena(storedInfoSetsPass);
 
-        infoSetsValues = CFRUtil.deserializeInfoSets(fileNamePlay);
-        if (infoSetsValues == null){
+        Map<String, double[][]> storedInfoSetsPlay = CFRUtil.loadInfoSets(fileNamePlay);
+        if (storedInfoSetsPlay == null || storedInfoSetsPlay.isEmpty()){
             System.out.println("Keine InfoSets zum Modus Play vorhanden.");
-            infoSetsValues = new HashMap<String, double[][]>();
         }
+        infoSetsValues = new InfoSetArena(storedInfoSetsPlay);
+    }
+
+    @Override
+    public void setRandom(SplittableRandom random){
+        this.random = random;
     }
 
 
@@ -56,17 +78,9 @@ public class AiMCCFR implements AiInterface{
         List<Integer> actions = gameState.determineListOfPlayableCardIds(playerNo);
         Difficulty diff = gameState.getDifficultyOfPlayer(playerNo);
 
-        // generate key of the current information set
-        String key = actions.toString();
-        double[][] infoSetValues;
-        
-        // retrieve average strategy of the information set
-        infoSetValues = infoSetsValuesPass.get(key);
-        if (infoSetValues == null){
-            infoSetValues = CFRUtil.initInfoSetValues(actions.size());
-            infoSetsValuesPass.put(key, infoSetValues);
-        }
-        double[] avStrat = infoSetValues[STRAT_IDX];
+        // retrieve average strategy of the current information set
+        int entry = infoSetsValuesPass.getOrCreate(InfoSetKey.passHigh(actions), 0L, actions.size());
+        double[] avStrat = infoSetsValuesPass.getAverageStrategy(entry);
 
         // with difficulty medium or hard lower the chance for a specified amount of good cards
         double[] strategyDiff;
@@ -81,7 +95,7 @@ public class AiMCCFR implements AiInterface{
         else strategyDiff = avStrat;
 
         // determine cards to pass
-        int[] cardIdsToPass = CFRUtil.getCardsToPassFromStrategy(strategyDiff);
+        int[] cardIdsToPass = CFRUtil.getCardsToPassFromStrategy(strategyDiff, random);
         int[] cardsToPass = new int[3];
         for (int i=0; i<3; i++){
             cardsToPass[i] = actions.get(cardIdsToPass[i]); 
@@ -103,18 +117,9 @@ public class AiMCCFR implements AiInterface{
         Difficulty diff = gameState.getDifficultyOfPlayer(playerNo);
         List<Integer> actions = gameState.determineListOfPlayableCardIds(playerNo);
 
-        // generate key of the current information set
-        String key = generatePlayKey(actions, gameState);
-        double[][] infoSetValues;
-        
-        // retrieve average strategy of the information set
-        infoSetValues = infoSetsValues.get(key);
-        if (infoSetValues == null){
-            infoSetValues = CFRUtil.initInfoSetValues(actions.size());
-            infoSetsValues.put(key, infoSetValues);
-        }
-
-        double[] avStrat = infoSetValues[STRAT_IDX];
+        // retrieve average strategy of the current information set
+        int entry = infoSetsValues.getOrCreate(generatePlayKeyHigh(actions, gameState), InfoSetKey.playLow(gameState.getNewestTrick()), actions.size());
+        double[] avStrat = infoSetsValues.getAverageStrategy(entry);
 
         // with difficulty medium or hard lower the chance for a specified amount of good cards
         double[] strategyDiff;
@@ -129,7 +134,7 @@ public class AiMCCFR implements AiInterface{
         else strategyDiff = avStrat;
         
         // determine card to move
-        int cardIndex = CFRUtil.getCardToMoveFromStrategy(strategyDiff);
+        int cardIndex = CFRUtil.getCardToMoveFromStrategy(strategyDiff, random);
         int cardToMove;
         
         try {
@@ -152,8 +157,9 @@ public class AiMCCFR implements AiInterface{
      * Trains MCCFR with a specified number of iterations for the mode play. External sampling is used.
      *
      * @param numberOfIterations The number of iterations for training MCCFR.
+     * @throws IOException If the trained information sets cannot be saved.
      */
-    public void trainMCCFR(int numberOfIterations){
+    public void trainMCCFR(int numberOfIterations) throws IOException{
 
         try {
             int iterationsPerformed = 0;
@@ -161,13 +167,37 @@ public class AiMCCFR implements AiInterface{
                 iterateMCCFR();      
                 iterationsPerformed++;
             }
-            CFRUtil.calcAverageRegret(infoSetsValues, numberOfIterations);
-            CFRUtil.serializeInfoSets(infoSetsValues, fileNamePlay);
+            infoSetsValues.calcAverageRegret(numberOfIterations);
             
         } catch (Exception e) {
             System.out.println("Exception in trainMCCFR");
             e.printStackTrace();
-        } 
+            return;
+        }
+        CFRUtil.saveInfoSets(infoSetsValues.toMap(), fileNamePlay);
+    }
+
+    /**
+     * Trains MCCFR for the mode play with several threads. External sampling is used.
+     * The result is reproducible for the same seed and number of workers, see {@link ParallelMCCFRTrainer}.
+     *
+     * @param numberOfIterations The number of iterations for training MCCFR.
+     * @param numberOfWorkers The number of threads.
+     * @param seed The seed for the random number generators of the threads.
+     * @throws IOException If the trained information sets cannot be saved.
+     */
+    public void trainMCCFR(int numberOfIterations, int numberOfWorkers, long seed) throws IOException{
+
+        try {
+            new ParallelMCCFRTrainer(this, numberOfWorkers, seed).trainPlay(numberOfIterations);
+            infoSetsValues.calcAverageRegret(numberOfIterations);
+
+        } catch (Exception e) {
+            System.out.println("Exception in trainMCCFR");
+            e.printStackTrace();
+            return;
+        }
+        CFRUtil.saveInfoSets(infoSetsValues.toMap(), fileNamePlay);
     }
 
     /**
@@ -175,21 +205,32 @@ public class AiMCCFR implements AiInterface{
     * This method runs one iteration of the MCCFR algorithm for each player in the game.
     */
     public void iterateMCCFR(){
+        iterateMCCFR(directAccess, random);
+    }
+
+    /**
+    * Runs one iteration of the MCCFR algorithm for each player in the game.
+    *
+    * @param access The access to the information sets.
+    * @param random The random number generator for dealing and sampling.
+    */
+    void iterateMCCFR(InfoSetAccess access, RandomGenerator random){
         
-        GameState gameState = initNewGame(false);
+        GameState gameState = initNewGame(false, random);
 
         for (Player player : gameState.getPlayers()){
         
             // create a new copy of the current game state
             GameState newGameState = gameState.deepCopy();
 
-            initNewRound(newGameState);
+            initNewRound(newGameState, random);
 
             // get root node for the current game state and traverse the game tree
             int starter = initNewTrickAndGetStarter(newGameState);
             List<Integer> actions = newGameState.determineListOfPlayableCardIds(starter);
             CFRNode root = new CFRNode(false, starter, -1, null, actions);   
-            traverseTree(player.getPlayerNo(), root, 1.0, 1.0, newGameState);
+            newGameState.setIsUndoEnabled(true);
+            traverseTree(player.getPlayerNo(), root, 1.0, 1.0, newGameState, access, random);
     
         }   
     }   
@@ -201,10 +242,12 @@ public class AiMCCFR implements AiInterface{
     * @param stateNode        The current state node in the game tree.
     * @param prob             The probability of reaching the current state.
     * @param probOpp          The probability of the opponents reaching the current state.
-    * @param currentGameState The current state of the game.
+    * @param currentGameState The current state of the game. Moves are done and undone on this state, so it is unchanged on return.
+    * @param access           The access to the information sets.
+    * @param random           The random number generator for sampling the moves of the opponents.
     * @return The root value of the utility in the terminal state.
     */
-    private double traverseTree(int playerNo, CFRNode stateNode, double prob, double probOpp, GameState currentGameState){
+    private double traverseTree(int playerNo, CFRNode stateNode, double prob, double probOpp, GameState currentGameState, InfoSetAccess access, RandomGenerator random){
 
         // return utility in terminal state
         if (currentGameState.isRoundOver()) return CFRUtil.getRootValue(currentGameState.getPayoff(playerNo));     
@@ -214,14 +257,8 @@ public class AiMCCFR implements AiInterface{
             List<Integer> actions = stateNode.getActions(); 
 
             // key representing the history using domain specific knowledge
-            String key = stateNode.getHistory() + "-" + currentGameState.getNewestTrick().getListOfCardsIdsPlayed().toString();
-            double[][] infoSetValues = infoSetsValues.get(key);  
-            
-            // create new node if none exists yet
-            if (infoSetValues == null){
-                infoSetValues = CFRUtil.initInfoSetValues(actions.size());
-                infoSetsValues.put(key, infoSetValues);
-            }
+            long keyHigh = InfoSetKey.playHigh(stateNode.getNumPlayedHearts(), stateNode.getQueenOfSpadesPlayedYet(), actions);
+            long keyLow = InfoSetKey.playLow(currentGameState.getNewestTrick());
 
             double value = 0; 
             double[] childValues = new double[actions.size()];
@@ -230,43 +267,43 @@ public class AiMCCFR implements AiInterface{
             if (playerNo == currentPlayer){
 
                 // calculate strategy using regret matching
-                strategy = CFRUtil.calcCurrentStrategy(infoSetValues[REGRET_IDX]); 
+                strategy = access.getCurrentStrategy(false, keyHigh, keyLow, actions.size()); 
 
                 // if player = traverser walk the tree for every legal action
                 for (int i=0; i < actions.size(); i++){
                 
-                    // create new gamestate copy and do move
-                    GameState nextGameState = currentGameState.deepCopy();
-                    nextGameState.doMove(actions.get(i));
+                    // do move on the working state and take it back after the subtree has been traversed
+                    currentGameState.doMove(actions.get(i));
 
-                    CFRNode child = getChild(nextGameState, stateNode, actions.get(i));
+                    CFRNode child = getChild(currentGameState, stateNode, actions.get(i));
                     
-                    childValues[i] = traverseTree(playerNo, child, prob*strategy[i], probOpp, nextGameState);
+                    childValues[i] = traverseTree(playerNo, child, prob*strategy[i], probOpp, currentGameState, access, random);
+                    currentGameState.undoMove();
         
                     value = value + strategy[i] * childValues[i];   //update counterfactual value               
                 } 
 
                 // update regret and average strategy
+                double[] regretDelta = new double[actions.size()];
+                double[] strategyDelta = new double[actions.size()];
                 for (int i = 0; i < actions.size(); i++){
-                    infoSetValues[REGRET_IDX][i] += probOpp*(childValues[i] - value); 
-                    infoSetValues[STRAT_IDX][i] += prob * strategy[i];    
+                    regretDelta[i] = probOpp*(childValues[i] - value); 
+                    strategyDelta[i] = prob * strategy[i];    
                 }
-                infoSetValues[REGRET_IDX] = CFRUtil.onlyPositiveRegret(infoSetValues[0]);
-                infoSetValues[REGRET_IDX] = CFRUtil.limitRegret(infoSetValues[0], CFRUtil.REGRET_LIMIT);
-                infoSetValues[STRAT_IDX] = CFRUtil.normalize(infoSetValues[1]);
+                access.update(false, keyHigh, keyLow, regretDelta, strategyDelta);
 
             }
             
             // Sample enemy move from average strategy
             else {
-                GameState nextGameState = currentGameState.deepCopy();
-                strategy = CFRUtil.calcCurrentStrategy(infoSetValues[0]);
-                int randomIndex = CFRUtil.getCardToMoveFromStrategy(strategy);
+                strategy = access.getCurrentStrategy(false, keyHigh, keyLow, actions.size());
+                int randomIndex = CFRUtil.getCardToMoveFromStrategy(strategy, random);
                 int sampledCardId = actions.get(randomIndex);
-                nextGameState.doMove(sampledCardId);
-                CFRNode child = getChild(nextGameState, stateNode, sampledCardId);
+                currentGameState.doMove(sampledCardId);
+                CFRNode child = getChild(currentGameState, stateNode, sampledCardId);
 
-                childValues[randomIndex] = traverseTree(playerNo, child, prob, probOpp*strategy[randomIndex], nextGameState);
+                childValues[randomIndex] = traverseTree(playerNo, child, prob, probOpp*strategy[randomIndex], currentGameState, access, random);
+                currentGameState.undoMove();
                 value = value + strategy[randomIndex] * childValues[randomIndex];
             }
 
@@ -278,8 +315,9 @@ public class AiMCCFR implements AiInterface{
      * Trains MCCFR with a specified number of iterations for the mode pass. Outcome sampling is used.
      *
      * @param numberOfIterations The number of iterations for training MCCFR.
+     * @throws IOException If the trained information sets cannot be saved.
      */
-    public void trainMCCFRPass(int numberOfIterations){
+    public void trainMCCFRPass(int numberOfIterations) throws IOException{
 
         try {
 
@@ -290,13 +328,37 @@ public class AiMCCFR implements AiInterface{
                 iterationsPerformed++;
             }
 
-            CFRUtil.calcAverageRegret(infoSetsValues, numberOfIterations);
-            CFRUtil.serializeInfoSets(infoSetsValuesPass, fileNamePass);
+            infoSetsValuesPass.calcAverageRegret(numberOfIterations);
             
         } catch (Exception e) {
             System.out.println("Exception in trainMCCFRPass");
             e.printStackTrace();
-        } 
+            return;
+        }
+        CFRUtil.saveInfoSets(infoSetsValuesPass.toMap(), fileNamePass);
+    }
+
+    /**
+     * Trains MCCFR for the mode pass with several threads. Outcome sampling is used.
+     * The result is reproducible for the same seed and number of workers, see {@link ParallelMCCFRTrainer}.
+     *
+     * @param numberOfIterations The number of iterations for training MCCFR.
+     * @param numberOfWorkers The number of threads.
+     * @param seed The seed for the random number generators of the threads.
+     * @throws IOException If the trained information sets cannot be saved.
+     */
+    public void trainMCCFRPass(int numberOfIterations, int numberOfWorkers, long seed) throws IOException{
+
+        try {
+            new ParallelMCCFRTrainer(this, numberOfWorkers, seed).trainPass(numberOfIterations);
+            infoSetsValuesPass.calcAverageRegret(numberOfIterations);
+
+        } catch (Exception e) {
+            System.out.println("Exception in trainMCCFRPass");
+            e.printStackTrace();
+            return;
+        }
+        CFRUtil.saveInfoSets(infoSetsValuesPass.toMap(), fileNamePass);
     }
 
     /**
@@ -304,21 +366,31 @@ public class AiMCCFR implements AiInterface{
     * This method performs one iteration of MCCFR for passing actions for all players in the game.
     */
     private void iterateMCCFRPass(){
+        iterateMCCFRPass(directAccess, random);
+    }
+
+    /**
+    * One MCCFR iteration for passing actions using outcome sampling for all players in the game.
+    *
+    * @param access The access to the information sets.
+    * @param random The random number generator for dealing and sampling.
+    */
+    void iterateMCCFRPass(InfoSetAccess access, RandomGenerator random){
         
-        GameState gameState = initNewGame(true);
+        GameState gameState = initNewGame(true, random);
 
         for (Player player : gameState.getPlayers()){
         
             GameState newGameState = gameState.deepCopy();
             int passStarter = 0;
             
-            initNewRound(newGameState);
+            initNewRound(newGameState, random);
     
             List<Integer> actions = newGameState.determineListOfPlayableCardIds(passStarter);
             CFRNode root = new CFRNode(true, passStarter, -1, null, actions);
               
             try{
-                traverseTreeOSForPassing(player.getPlayerNo(), root, 1.0, 1.0, 1.0, newGameState);
+                traverseTreeOSForPassing(player.getPlayerNo(), root, 1.0, 1.0, 1.0, newGameState, access, random);
             } catch (IllegalStateException e){
                 e.printStackTrace();
             }
@@ -337,9 +409,11 @@ public class AiMCCFR implements AiInterface{
     * @param probOpp        The probability of the opponents reaching the current state.
     * @param sampleReach    The sample reach probability.
     * @param currentGameState The current state of the game.
+    * @param access         The access to the information sets.
+    * @param random         The random number generator for sampling.
     * @return The root value of the utility value.
     */
-    private double traverseTreeOSForPassing(int playerNo, CFRNode stateNode, double prob, double probOpp, double sampleReach, GameState currentGameState){
+    private double traverseTreeOSForPassing(int playerNo, CFRNode stateNode, double prob, double probOpp, double sampleReach, GameState currentGameState, InfoSetAccess access, RandomGenerator random){
 
         if (currentGameState.isRoundOver()) return CFRUtil.getRootValue(currentGameState.getPayoff(playerNo));   //if the gameState is terminal, return utility  
         else {
@@ -348,25 +422,16 @@ public class AiMCCFR implements AiInterface{
             List<Integer> actions = stateNode.getActions(); 
             int numActions = actions.size();
 
-            // get key and information set
-            String key;
-            double[][] infoSetValues;
+            // get key of the information set
+            long keyHigh;
+            long keyLow;
             if (stateNode.isNodeForPassing()){
-                key = stateNode.getHistory();
-                infoSetValues = infoSetsValuesPass.get(key);
+                keyHigh = InfoSetKey.passHigh(actions);
+                keyLow = 0L;
             }
             else {
-                key = stateNode.getHistory() + "-" + currentGameState.getNewestTrick().getListOfCardsIdsPlayed().toString();
-                infoSetValues = infoSetsValues.get(key);  
-            }
-            
-            // create a new node if no information set existing yet
-            if (infoSetValues == null){
-                infoSetValues = CFRUtil.initInfoSetValues(numActions);
-                if (stateNode.isNodeForPassing()){
-                    infoSetsValuesPass.put(key, infoSetValues);
-                }
-                else infoSetsValues.put(key, infoSetValues);
+                keyHigh = InfoSetKey.playHigh(stateNode.getNumPlayedHearts(), stateNode.getQueenOfSpadesPlayedYet(), actions);
+                keyLow = InfoSetKey.playLow(currentGameState.getNewestTrick());
             }
 
             double value = 0; 
@@ -377,13 +442,13 @@ public class AiMCCFR implements AiInterface{
             
             // calculate the current strategy with regret matching and exploration factor according to 
             // Lanctot 2009 Monte Carlo Sampling for Regret Minimization in Extensive Games
-            strategy = CFRUtil.calcCurrentStrategy(infoSetValues[REGRET_IDX]);  
+            strategy = access.getCurrentStrategy(stateNode.isNodeForPassing(), keyHigh, keyLow, numActions);  
             if (stateNode.getPlayerNo() == playerNo){
                 sampleStrategy = CFRUtil.calcSampleStrategy(strategy, numActions);
             }
             else sampleStrategy = strategy;
          
-            int randomIndex = CFRUtil.getCardToMoveFromStrategy(sampleStrategy); 
+            int randomIndex = CFRUtil.getCardToMoveFromStrategy(sampleStrategy, random); 
             CFRNode child;                
                  
             // Pass
@@ -417,10 +482,10 @@ public class AiMCCFR implements AiInterface{
             }
             if (playerNo == currentPlayer){
 
-                childValue = traverseTreeOSForPassing(playerNo, child, prob*strategy[randomIndex], probOpp, sampleReach*sampleStrategy[randomIndex], currentGameState);     
+                childValue = traverseTreeOSForPassing(playerNo, child, prob*strategy[randomIndex], probOpp, sampleReach*sampleStrategy[randomIndex], currentGameState, access, random);     
             }    
             else {
-                childValue = traverseTreeOSForPassing(playerNo, child, prob, probOpp*strategy[randomIndex], sampleReach*sampleStrategy[randomIndex], currentGameState); 
+                childValue = traverseTreeOSForPassing(playerNo, child, prob, probOpp*strategy[randomIndex], sampleReach*sampleStrategy[randomIndex], currentGameState, access, random); 
             }
 
             // baseline corrected child values, here baseline = 0
@@ -436,15 +501,14 @@ public class AiMCCFR implements AiInterface{
             if (stateNode.getPlayerNo() == playerNo && child.isNodeForPassing()){
                 double factor = probOpp/sampleReach;
                 double cv = value*factor;                   // estimated counterfactual value based on child values 
+                double[] regretDelta = new double[numActions];
+                double[] strategyDelta = new double[numActions];
                 for (int i = 0; i < numActions; i++){
                     double cvi = childValues[i] = childValues[i] * factor;
-                    infoSetValues[REGRET_IDX][i] += cvi - cv;
-                    infoSetValues[STRAT_IDX][i] += strategy[i] * (prob/sampleReach);   
+                    regretDelta[i] = cvi - cv;
+                    strategyDelta[i] = strategy[i] * (prob/sampleReach);   
                 }
-
-                infoSetValues[REGRET_IDX] = CFRUtil.onlyPositiveRegret(infoSetValues[0]);
-                infoSetValues[REGRET_IDX] = CFRUtil.limitRegret(infoSetValues[0], CFRUtil.REGRET_LIMIT);
-                infoSetValues[STRAT_IDX] = CFRUtil.normalize(infoSetValues[1]);      
+                access.update(true, keyHigh, keyLow, regretDelta, strategyDelta);
             }    
             return value;
         } 
@@ -453,11 +517,11 @@ public class AiMCCFR implements AiInterface{
    /**
     * Initializes a new game state.
     */
-    private GameState initNewGame(boolean isGameWithPassing){
+    private GameState initNewGame(boolean isGameWithPassing, RandomGenerator random){
         GameState gameState = new GameState();
         gameState.init();
         gameState.setSimulationAI();
-        gameState.createDeck(true);   
+        gameState.createDeck(true, random);   
         gameState.setIsGameWithPassing(isGameWithPassing);
         
         return gameState;
@@ -467,6 +531,13 @@ public class AiMCCFR implements AiInterface{
     * Initializes a new round.
     */
     public static void initNewRound(GameState gameState){
+        initNewRound(gameState, new SplittableRandom());
+    }
+
+    /**
+    * Initializes a new round and shuffles the deck with the given random number generator.
+    */
+    public static void initNewRound(GameState gameState, RandomGenerator random){
         gameState.addRoundTricksToGameRoundTricks(gameState.createAndSetNewRoundTricks()); 
         gameState.setTricksPlayed(0); 
         gameState.resetCardsPlayedInThisRound();
@@ -476,7 +547,7 @@ public class AiMCCFR implements AiInterface{
         gameState.resetCardsPassed(); 
         gameState.resetHandCardsOfPlayers(); 
         gameState.setRoundNo(gameState.getRoundNo()+1); 
-        gameState.shuffleDeck(); 
+        gameState.shuffleDeck(random); 
         gameState.handOutCards();
         if (gameState.getIsGameWithPassing() == true){  
             gameState.setRoundWithPassing(true);
@@ -534,17 +605,38 @@ public class AiMCCFR implements AiInterface{
     }
 
     /**
-    * Generates the key for the information set, which represents the current state of the game.
-    * Considers the memory level when computing the history of the current state.
+     * Gets the information sets of the mode play. Modified by training.
+     */
+    public InfoSetArena getPlayInfoSets(){
+        return infoSetsValues;
+    }
+
+    /**
+     * Gets the information sets of the mode pass. Modified by training.
+     */
+    public InfoSetArena getPassInfoSets(){
+        return infoSetsValuesPass;
+    }
+
+    /**
+     * Replaces the information sets of both modes, e.g. with the result of a parallel training.
+     */
+    void setInfoSets(InfoSetArena playInfoSets, InfoSetArena passInfoSets){
+        infoSetsValues = playInfoSets;
+        infoSetsValuesPass = passInfoSets;
+    }
+
+    /**
+    * Generates the high part of the key for the information set, which represents the current state of the game.
+    * Considers the memory level when computing the history of the current state. The low part is the current trick, see {@link InfoSetKey#playLow}.
     */
-    private String generatePlayKey(List<Integer> actions, GameState gameState){
+    private long generatePlayKeyHigh(List<Integer> actions, GameState gameState){
         
         List<Integer> cardsToConsider = gameState.getCardsPlayedWithMemory(gameState.getPlayerToMove());
         int numHeartsPlayed = CFRUtil.getNumHeartsPlayedWithMemory(cardsToConsider);
         int queenPlayed = CFRUtil.getQueenOfSpadesPlayedWithMemory(cardsToConsider);
         
-        String key = String.valueOf(numHeartsPlayed) + ":" + String.valueOf(queenPlayed) + ":" + actions.toString() + ":" + gameState.getNewestTrick().getListOfCardsIdsPlayed().toString();
-        return key;
+        return InfoSetKey.playHigh(numHeartsPlayed, queenPlayed, actions);
     }
 
 }
@@ -0,0 +1,32 @@
+package game.AI.AiCFR.MCCFR;
+
+/**
+ * Gives an MCCFR traversal access to the regret and average strategy of the information sets.
+ * The sequential training reads and updates the {@link InfoSetArena}s of {@link AiMCCFR} directly, while the
+ * workers of the {@link ParallelMCCFRTrainer} buffer their updates until the end of an epoch.
+ * Information sets are identified by the two parts of an {@link InfoSetKey}.
+ */
+interface InfoSetAccess {
+
+    /**
+     * Calculates the current strategy of an information set using regret matching. Unknown information sets are created.
+     *
+     * @param isPass Whether the information set belongs to the mode pass.
+     * @param keyHigh The high part of the key of the information set.
+     * @param keyLow The low part of the key of the information set.
+     * @param numActions The number of legal actions of the information set.
+     * @return The current strategy.
+     */
+    double[] getCurrentStrategy(boolean isPass, long keyHigh, long keyLow, int numActions);
+
+    /**
+     * Adds the regret and strategy increments of one visit to an information set.
+     *
+     * @param isPass Whether the information set belongs to the mode pass.
+     * @param keyHigh The high part of the key of the information set.
+     * @param keyLow The low part of the key of the information set.
+     * @param regretDelta The increment of the regret of each action.
+     * @param strategyDelta The increment of the average strategy of each action.
+     */
+    void update(boolean isPass, long keyHigh, long keyLow, double[] regretDelta, double[] strategyDelta);
+}
@@ -0,0 +1,325 @@
+package game.AI.AiCFR.MCCFR;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import game.AI.AiCFR.CFRUtil;
+
+/**
+ * Open addressing hash map from information set keys (see {@link InfoSetKey}) to regret and average strategy.
+ * <p>
+ * The values of all information sets are stored one after another in a single double array: the regrets of an information
+ * set with n actions are followed by its n strategy values. Information sets are numbered in the order they were added,
+ * and the hash table only stores these entry numbers, so that lookups do not allocate.
+ * <p>
+ * Optionally, an arena is backed by information sets loaded from a file. They are copied into the arena on first access.
+ */
+public class InfoSetArena {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private long[] keysHigh;
+    private long[] keysLow;
+    private int[] offsets;
+    private int[] numActions;
+    private int size;
+
+    private int[] slots;            // entry number + 1, 0 marks an empty slot; the length is a power of 2
+    private double[] values;
+    private int valuesSize;
+
+    private Map<String, double[][]> storedInfoSets;     // null if there are no stored information sets left to copy
+
+    /**
+     * Creates an empty arena.
+     */
+    public InfoSetArena(){
+        this(null);
+    }
+
+    /**
+     * Creates an arena backed by stored information sets.
+     *
+     * @param storedInfoSets Information sets with keys formatted by {@link InfoSetKey#toString(long, long)}, or null.
+     */
+    public InfoSetArena(Map<String, double[][]> storedInfoSets){
+        keysHigh = new long[INITIAL_CAPACITY];
+        keysLow = new long[INITIAL_CAPACITY];
+        offsets = new int[INITIAL_CAPACITY];
+        numActions = new int[INITIAL_CAPACITY];
+        slots = new int[2 * INITIAL_CAPACITY];
+        values = new double[26 * INITIAL_CAPACITY];
+        size = 0;
+        valuesSize = 0;
+        this.storedInfoSets = storedInfoSets == null || storedInfoSets.isEmpty() ? null : storedInfoSets;
+    }
+
+    /**
+     * Finds an information set.
+     *
+     * @return The entry number of the information set, or -1 if it does not exist.
+     */
+    public int find(long keyHigh, long keyLow){
+        int entry = findInArena(keyHigh, keyLow);
+        if (entry < 0 && storedInfoSets != null){
+            double[][] storedValues = storedInfoSets.get(InfoSetKey.toString(keyHigh, keyLow));
+            if (storedValues != null) entry = add(keyHigh, keyLow, storedValues[0].length, storedValues);
+        }
+        return entry;
+    }
+
+    /**
+     * Finds an information set and creates it with 0 regret and a uniform strategy if it does not exist.
+     *
+     * @return The entry number of the information set.
+     */
+    public int getOrCreate(long keyHigh, long keyLow, int numberOfActions){
+        int entry = find(keyHigh, keyLow);
+        if (entry < 0){
+            entry = add(keyHigh, keyLow, numberOfActions, null);
+            int offset = offsets[entry];
+            Arrays.fill(values, offset + numberOfActions, offset + 2 * numberOfActions, 1.0 / numberOfActions);
+        }
+        return entry;
+    }
+
+    /**
+     * Finds an information set and creates it with all values 0 if it does not exist. Used to sum up increments.
+     */
+    int getOrCreateZeroed(long keyHigh, long keyLow, int numberOfActions){
+        int entry = findInArena(keyHigh, keyLow);
+        if (entry < 0) entry = add(keyHigh, keyLow, numberOfActions, null);
+        return entry;
+    }
+
+    /**
+     * Adds an information set with the values of an entry of another arena unless it exists already.
+     */
+    void putIfAbsent(InfoSetArena other, int otherEntry){
+        if (findInArena(other.keysHigh[otherEntry], other.keysLow[otherEntry]) >= 0) return;
+        int n = other.numActions[otherEntry];
+        int entry = add(other.keysHigh[otherEntry], other.keysLow[otherEntry], n, null);
+        System.arraycopy(other.values, other.offsets[otherEntry], values, offsets[entry], 2 * n);
+    }
+
+    /**
+     * Calculates the current strategy of an information set from its regrets using regret matching.
+     * Same as {@link CFRUtil#calcCurrentStrategy(double[])}.
+     */
+    public double[] calcCurrentStrategy(int entry){
+        int n = numActions[entry];
+        int offset = offsets[entry];
+        double regretSum = 0.0;
+        double[] strategy = new double[n];
+        for (int i = 0; i < n; i++){
+            strategy[i] = values[offset + i] > 0 ? values[offset + i] : 0.0;
+            regretSum += strategy[i];
+        }
+        for (int i = 0; i < n; i++){
+            if (regretSum > 0) strategy[i] /= regretSum;
+            else strategy[i] = 1.0 / n;
+        }
+        return strategy;
+    }
+
+    /**
+     * Gets a copy of the average strategy of an information set.
+     */
+    public double[] getAverageStrategy(int entry){
+        int offset = offsets[entry] + numActions[entry];
+        return Arrays.copyOfRange(values, offset, offset + numActions[entry]);
+    }
+
+    /**
+     * Adds regret and strategy increments to an information set. Negative regrets are set to 0 (CFR+),
+     * regrets are limited and the average strategy is normalized.
+     */
+    public void update(int entry, double[] regretDelta, double[] strategyDelta){
+        addIncrements(entry, regretDelta, 0, strategyDelta, 0);
+        cutRegretAndNormalizeStrategy(entry);
+    }
+
+    /**
+     * Adds the values of an entry of another arena as increments to an information set, see {@link #update}.
+     */
+    void update(int entry, InfoSetArena increments, int incrementsEntry){
+        int offset = increments.offsets[incrementsEntry];
+        addIncrements(entry, increments.values, offset, increments.values, offset + increments.numActions[incrementsEntry]);
+        cutRegretAndNormalizeStrategy(entry);
+    }
+
+    /**
+     * Adds increments to the values of an information set without cutting or normalizing. Used to sum up increments.
+     */
+    void addIncrements(int entry, double[] regretDelta, int regretFrom, double[] strategyDelta, int strategyFrom){
+        int n = numActions[entry];
+        int offset = offsets[entry];
+        for (int i = 0; i < n; i++){
+            values[offset + i] += regretDelta[regretFrom + i];
+            values[offset + n + i] += strategyDelta[strategyFrom + i];
+        }
+    }
+
+    private void cutRegretAndNormalizeStrategy(int entry){
+        int n = numActions[entry];
+        int offset = offsets[entry];
+        for (int i = offset; i < offset + n; i++){
+            if (values[i] < 0) values[i] = 0.0;
+            if (values[i] > CFRUtil.REGRET_LIMIT) values[i] = CFRUtil.REGRET_LIMIT;
+        }
+        try {
+            CFRUtil.normalize(values, offset + n, offset + 2 * n);
+        } catch (NumberFormatException e){
+            Arrays.fill(values, offset + n, offset + 2 * n, 0.0);
+        }
+    }
+
+    /**
+     * Divides the regrets of all information sets by the number of iterations, see {@link CFRUtil#calcAverageRegret}.
+     */
+    public void calcAverageRegret(int numIterations){
+        loadAll();
+        for (int entry = 0; entry < size; entry++){
+            for (int i = offsets[entry]; i < offsets[entry] + numActions[entry]; i++){
+                values[i] /= numIterations;
+            }
+        }
+    }
+
+    /**
+     * Copies all stored information sets that have not been accessed yet into the arena.
+     */
+    public void loadAll(){
+        if (storedInfoSets == null) return;
+        int numSkipped = 0;
+        for (Map.Entry<String, double[][]> stored : storedInfoSets.entrySet()){
+            try {
+                long[] key = InfoSetKey.parse(stored.getKey());
+                if (findInArena(key[0], key[1]) < 0) add(key[0], key[1], stored.getValue()[0].length, stored.getValue());
+            } catch (IllegalArgumentException e){
+                numSkipped++;
+            }
+        }
+        if (numSkipped > 0){
+            System.out.println(numSkipped + " InfoSets mit ungültigem Schlüssel übersprungen.");
+        }
+        storedInfoSets = null;
+    }
+
+    /**
+     * Removes all information sets from the arena, but keeps the allocated memory.
+     */
+    public void clear(){
+        Arrays.fill(slots, 0);
+        size = 0;
+        valuesSize = 0;
+        storedInfoSets = null;
+    }
+
+    /**
+     * Gets the number of information sets in the arena. Stored information sets count once they have been accessed.
+     */
+    public int getNumberOfInfoSets(){
+        return size;
+    }
+
+    public long getKeyHigh(int entry){
+        return keysHigh[entry];
+    }
+
+    public long getKeyLow(int entry){
+        return keysLow[entry];
+    }
+
+    public int getNumActions(int entry){
+        return numActions[entry];
+    }
+
+    /**
+     * Copies all information sets into a map with keys formatted by {@link InfoSetKey#toString(long, long)}, e.g. for saving them.
+     */
+    public Map<String, double[][]> toMap(){
+        loadAll();
+        Map<String, double[][]> map = new HashMap<String, double[][]>();
+        for (int entry = 0; entry < size; entry++){
+            int n = numActions[entry];
+            int offset = offsets[entry];
+            double[][] infoSetValues = new double[][]{Arrays.copyOfRange(values, offset, offset + n), Arrays.copyOfRange(values, offset + n, offset + 2 * n)};
+            map.put(InfoSetKey.toString(keysHigh[entry], keysLow[entry]), infoSetValues);
+        }
+        return map;
+    }
+
+    /**
+     * Mixes both parts of a key into a well distributed hash.
+     */
+    static long hash(long keyHigh, long keyLow){
+        long h = keyHigh * 0x9E3779B97F4A7C15L ^ keyLow;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    private int findInArena(long keyHigh, long keyLow){
+        int mask = slots.length - 1;
+        int slot = (int) hash(keyHigh, keyLow) & mask;
+        while (slots[slot] != 0){
+            int entry = slots[slot] - 1;
+            if (keysHigh[entry] == keyHigh && keysLow[entry] == keyLow) return entry;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /*
+    * Adds a new information set. The values are copied from the given array or left 0 if it is null.
+    */
+    private int add(long keyHigh, long keyLow, int numberOfActions, double[][] initialValues){
+        if (size == keysHigh.length){
+            int capacity = 2 * keysHigh.length;
+            keysHigh = Arrays.copyOf(keysHigh, capacity);
+            keysLow = Arrays.copyOf(keysLow, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            numActions = Arrays.copyOf(numActions, capacity);
+        }
+        if (valuesSize + 2 * numberOfActions > values.length){
+            values = Arrays.copyOf(values, Math.max(2 * values.length, valuesSize + 2 * numberOfActions));
+        }
+
+        int entry = size++;
+        keysHigh[entry] = keyHigh;
+        keysLow[entry] = keyLow;
+        offsets[entry] = valuesSize;
+        numActions[entry] = numberOfActions;
+        if (initialValues != null){
+            System.arraycopy(initialValues[0], 0, values, valuesSize, numberOfActions);
+            System.arraycopy(initialValues[1], 0, values, valuesSize + numberOfActions, numberOfActions);
+        }
+        else Arrays.fill(values, valuesSize, valuesSize + 2 * numberOfActions, 0.0);
+        valuesSize += 2 * numberOfActions;
+
+        // keep the hash table at most half full
+        if (2 * size > slots.length) rehash(2 * slots.length);
+        else insertIntoSlots(entry);
+        return entry;
+    }
+
+    private void rehash(int capacity){
+        slots = new int[capacity];
+        for (int entry = 0; entry < size; entry++){
+            insertIntoSlots(entry);
+        }
+    }
+
+    private void insertIntoSlots(int entry){
+        int mask = slots.length - 1;
+        int slot = (int) hash(keysHigh[entry], keysLow[entry]) & mask;
+        while (slots[slot] != 0){
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = entry + 1;
+    }
+}
@@ -0,0 +1,57 @@
+package game.AI.AiCFR.MCCFR;
+
+/**
+ * Buffers the updates of one worker of the {@link ParallelMCCFRTrainer} to one {@link ShardedInfoSetTable} during an epoch.
+ * Information sets that are unknown to the table are created locally, and the regret and strategy increments
+ * are summed up per information set. Both are kept per shard, so that every shard can be merged separately.
+ */
+class InfoSetBuffer {
+
+    private final ShardedInfoSetTable table;
+    private final InfoSetArena[] created;
+    private final InfoSetArena[] deltas;
+
+    InfoSetBuffer(ShardedInfoSetTable table){
+        this.table = table;
+        int numberOfShards = table.getNumberOfShards();
+        created = new InfoSetArena[numberOfShards];
+        deltas = new InfoSetArena[numberOfShards];
+        for (int i = 0; i < numberOfShards; i++){
+            created[i] = new InfoSetArena();
+            deltas[i] = new InfoSetArena();
+        }
+    }
+
+    /**
+     * Calculates the current strategy of an information set as it was at the start of the epoch. Unknown information sets are created locally.
+     */
+    double[] getCurrentStrategy(long keyHigh, long keyLow, int numActions){
+        int shardNo = table.shardOf(keyHigh, keyLow);
+        InfoSetArena shard = table.getShard(shardNo);
+        int entry = shard.find(keyHigh, keyLow);
+        if (entry >= 0) return shard.calcCurrentStrategy(entry);
+        return created[shardNo].calcCurrentStrategy(created[shardNo].getOrCreate(keyHigh, keyLow, numActions));
+    }
+
+    /**
+     * Adds the regret and strategy increments of one visit to the buffered increments of the information set.
+     */
+    void addDelta(long keyHigh, long keyLow, double[] regretDelta, double[] strategyDelta){
+        InfoSetArena shardDeltas = deltas[table.shardOf(keyHigh, keyLow)];
+        int entry = shardDeltas.getOrCreateZeroed(keyHigh, keyLow, regretDelta.length);
+        shardDeltas.addIncrements(entry, regretDelta, 0, strategyDelta, 0);
+    }
+
+    InfoSetArena getCreated(int shardNo){
+        return created[shardNo];
+    }
+
+    InfoSetArena getDeltas(int shardNo){
+        return deltas[shardNo];
+    }
+
+    void clear(int shardNo){
+        created[shardNo].clear();
+        deltas[shardNo].clear();
+    }
+}
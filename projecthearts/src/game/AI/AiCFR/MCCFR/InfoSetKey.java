@@ -0,0 +1,97 @@
+package game.AI.AiCFR.MCCFR;
+
+import java.util.List;
+
+import game.Trick;
+
+/**
+ * Encodes the key of an MCCFR information set into two longs.
+ * <p>
+ * The high part contains the legal actions as a card bitmask (bit {@code cardId - 1}, bits 0-51), the number of hearts
+ * played (bits 52-55) and whether the queen of spades has been played (bit 56). The low part contains the number of
+ * cards in the current trick (bits 0-1) and the cards in the order they were played (6 bits per card from bit 2).
+ * Pass information sets only use the bitmask of the legal actions, and the low part is 0.
+ * <p>
+ * The legal actions are always listed in ascending order of the card ids, so the bitmask loses no information.
+ */
+public final class InfoSetKey {
+
+    private static final int HEARTS_SHIFT = 52;
+    private static final int QUEEN_SHIFT = 56;
+    private static final int TRICK_CARD_SHIFT = 2;
+    private static final int TRICK_CARD_BITS = 6;
+
+    private InfoSetKey(){
+    }
+
+    /**
+     * Encodes the high part of the key of a play information set.
+     *
+     * @param numHeartsPlayed The number of hearts played, in range [0, 13].
+     * @param queenOfSpadesPlayed 1 if the queen of spades has been played, otherwise 0.
+     * @param actions The legal actions.
+     * @return The high part of the key.
+     */
+    public static long playHigh(int numHeartsPlayed, int queenOfSpadesPlayed, List<Integer> actions){
+        return actionsMask(actions) | (long) numHeartsPlayed << HEARTS_SHIFT | (long) queenOfSpadesPlayed << QUEEN_SHIFT;
+    }
+
+    /**
+     * Encodes the low part of the key of a play information set.
+     *
+     * @param trick The current trick with 0-3 cards played.
+     * @return The low part of the key.
+     */
+    public static long playLow(Trick trick){
+        int numPlayedCards = trick.getNumPlayedCards();
+        long key = numPlayedCards;
+        for (int i = 0; i < numPlayedCards; i++){
+            long cardId = trick.getCardPlayedByPlayer((trick.getStarter() + i) % 4);
+            key |= cardId << (TRICK_CARD_SHIFT + TRICK_CARD_BITS * i);
+        }
+        return key;
+    }
+
+    /**
+     * Encodes the high part of the key of a pass information set. The low part is 0.
+     *
+     * @param actions The cards that can still be chosen for passing.
+     * @return The high part of the key.
+     */
+    public static long passHigh(List<Integer> actions){
+        return actionsMask(actions);
+    }
+
+    private static long actionsMask(List<Integer> actions){
+        long mask = 0L;
+        for (int i = 0; i < actions.size(); i++){
+            mask |= 1L << (actions.get(i) - 1);
+        }
+        return mask;
+    }
+
+    /**
+     * Formats a key for saving it in a file of information sets.
+     */
+    public static String toString(long high, long low){
+        return Long.toHexString(high) + ":" + Long.toHexString(low);
+    }
+
+    /**
+     * Parses a key formatted with {@link #toString(long, long)}.
+     *
+     * @return The high and the low part of the key.
+     * @throws IllegalArgumentException If the string is not a formatted key.
+     */
+    public static long[] parse(String key) throws IllegalArgumentException{
+        int separator = key.indexOf(':');
+        if (separator < 0){
+            throw new IllegalArgumentException("Invalid info set key: " + key);
+        }
+        try {
+            return new long[]{Long.parseUnsignedLong(key.substring(0, separator), 16), Long.parseUnsignedLong(key.substring(separator + 1), 16)};
+        } catch (NumberFormatException e){
+            throw new IllegalArgumentException("Invalid info set key: " + key);
+        }
+    }
+}
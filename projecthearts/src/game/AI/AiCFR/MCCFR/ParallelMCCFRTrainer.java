@@ -0,0 +1,182 @@
+package game.AI.AiCFR.MCCFR;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Trains the information sets of an {@link AiMCCFR} with several threads.
+ * <p>
+ * Training runs in epochs. During an epoch every worker runs its share of the iterations against the information
+ * sets as they were at the start of the epoch and buffers its updates. At the end of the epoch the table is merged
+ * shard by shard in parallel, applying the updates of the workers in the order of the workers. Every worker samples
+ * with its own stream split in worker order from a {@link SplittableRandom} created with the seed, so the result only
+ * depends on the seed, the number of workers and the number of iterations, not on the thread scheduling.
+ * <p>
+ * Increments of the same information set within one epoch are summed up before negative regrets are cut off and the
+ * average strategy is normalized. Apart from that, the only difference to the sequential training is that updates become
+ * visible at the end of an epoch instead of immediately.
+ */
+public class ParallelMCCFRTrainer {
+
+    /** Number of iterations each worker runs per epoch for the mode play. A single external sampling iteration already visits many information sets. */
+    public static final int ITERATIONS_PER_EPOCH_PLAY = 1;
+    /** Number of iterations each worker runs per epoch for the mode pass. Outcome sampling iterations are short, so more of them are merged at once. */
+    public static final int ITERATIONS_PER_EPOCH_PASS = 256;
+    private static final int SHARDS_PER_WORKER = 4;
+
+    private final AiMCCFR ai;
+    private final int numberOfWorkers;
+    private final long seed;
+
+    /**
+     * Creates a trainer for the information sets of the given AI.
+     *
+     * @param ai The AI whose information sets are trained.
+     * @param numberOfWorkers The number of threads traversing the game tree.
+     * @param seed The seed from which the random number generators of the workers are derived.
+     * @throws IllegalArgumentException If the number of workers is smaller than 1.
+     */
+    public ParallelMCCFRTrainer(AiMCCFR ai, int numberOfWorkers, long seed) throws IllegalArgumentException{
+        if (numberOfWorkers < 1){
+            throw new IllegalArgumentException("At least one worker is required.");
+        }
+        this.ai = ai;
+        this.numberOfWorkers = numberOfWorkers;
+        this.seed = seed;
+    }
+
+    /**
+     * Runs the given number of MCCFR iterations for the mode play (external sampling).
+     * Regrets are not averaged and nothing is saved.
+     *
+     * @param numberOfIterations The total number of iterations of all workers.
+     */
+    public void trainPlay(int numberOfIterations){
+        train(numberOfIterations, false, ITERATIONS_PER_EPOCH_PLAY);
+    }
+
+    /**
+     * Runs the given number of MCCFR iterations for the mode pass (outcome sampling).
+     * Regrets are not averaged and nothing is saved.
+     *
+     * @param numberOfIterations The total number of iterations of all workers.
+     */
+    public void trainPass(int numberOfIterations){
+        train(numberOfIterations, true, ITERATIONS_PER_EPOCH_PASS);
+    }
+
+    public int getNumberOfWorkers(){
+        return numberOfWorkers;
+    }
+
+    private void train(int numberOfIterations, boolean isPass, int iterationsPerEpoch) throws IllegalStateException{
+
+        int numberOfShards = numberOfWorkers * SHARDS_PER_WORKER;
+        ShardedInfoSetTable playTable = new ShardedInfoSetTable(numberOfShards, ai.getPlayInfoSets());
+        ShardedInfoSetTable passTable = new ShardedInfoSetTable(numberOfShards, ai.getPassInfoSets());
+
+        List<Worker> workers = new ArrayList<>();
+        List<InfoSetBuffer> playBuffers = new ArrayList<>();
+        List<InfoSetBuffer> passBuffers = new ArrayList<>();
+        SplittableRandom seedRandom = new SplittableRandom(seed);
+        for (int i = 0; i < numberOfWorkers; i++){
+            Worker worker = new Worker(i, seedRandom.split(), numberOfIterations, playTable, passTable);
+            workers.add(worker);
+            playBuffers.add(worker.playBuffer);
+            passBuffers.add(worker.passBuffer);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(numberOfWorkers);
+        try {
+            int iterationsPerformed = 0;
+            while (iterationsPerformed < numberOfIterations){
+
+                // traverse with all workers against the table of the last epoch
+                List<Callable<Integer>> traversals = new ArrayList<>();
+                for (Worker worker : workers){
+                    traversals.add(() -> worker.runIterations(iterationsPerEpoch, isPass));
+                }
+                for (int iterations : invokeAll(pool, traversals)){
+                    iterationsPerformed += iterations;
+                }
+
+                // merge the buffered updates shard by shard
+                List<Callable<Integer>> merges = new ArrayList<>();
+                for (int i = 0; i < numberOfShards; i++){
+                    int shardNo = i;
+                    merges.add(() -> {
+                        playTable.mergeShard(shardNo, playBuffers);
+                        passTable.mergeShard(shardNo, passBuffers);
+                        return shardNo;
+                    });
+                }
+                invokeAll(pool, merges);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        ai.setInfoSets(playTable.toArena(), passTable.toArena());
+    }
+
+    private static <V> List<V> invokeAll(ExecutorService pool, List<Callable<V>> tasks) throws IllegalStateException{
+        List<V> results = new ArrayList<>();
+        try {
+            for (Future<V> future : pool.invokeAll(tasks)){
+                results.add(future.get());
+            }
+        } catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("MCCFR training was interrupted.", e);
+        } catch (ExecutionException e){
+            throw new IllegalStateException("MCCFR worker failed.", e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * One thread of the training with its own random number generator and update buffers.
+     */
+    private class Worker implements InfoSetAccess {
+
+        private final SplittableRandom random;
+        private final InfoSetBuffer playBuffer;
+        private final InfoSetBuffer passBuffer;
+        private int remainingIterations;
+
+        Worker(int workerNo, SplittableRandom random, int numberOfIterations, ShardedInfoSetTable playTable, ShardedInfoSetTable passTable){
+            this.random = random;
+            this.playBuffer = new InfoSetBuffer(playTable);
+            this.passBuffer = new InfoSetBuffer(passTable);
+            // the first workers run one iteration more if the iterations cannot be split evenly
+            this.remainingIterations = numberOfIterations / numberOfWorkers + (workerNo < numberOfIterations % numberOfWorkers ? 1 : 0);
+        }
+
+        int runIterations(int maxIterations, boolean isPass){
+            int iterations = Math.min(maxIterations, remainingIterations);
+            for (int i = 0; i < iterations; i++){
+                if (isPass) ai.iterateMCCFRPass(this, random);
+                else ai.iterateMCCFR(this, random);
+            }
+            remainingIterations -= iterations;
+            return iterations;
+        }
+
+        @Override
+        public double[] getCurrentStrategy(boolean isPass, long keyHigh, long keyLow, int numActions){
+            return isPass ? passBuffer.getCurrentStrategy(keyHigh, keyLow, numActions) : playBuffer.getCurrentStrategy(keyHigh, keyLow, numActions);
+        }
+
+        @Override
+        public void update(boolean isPass, long keyHigh, long keyLow, double[] regretDelta, double[] strategyDelta){
+            if (isPass) passBuffer.addDelta(keyHigh, keyLow, regretDelta, strategyDelta);
+            else playBuffer.addDelta(keyHigh, keyLow, regretDelta, strategyDelta);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package game.AI.AiCFR.MCCFR;
+
+import java.util.List;
+
+/**
+ * Information set table split into shards by the hash of the key.
+ * <p>
+ * While the workers of the {@link ParallelMCCFRTrainer} traverse the game tree, the table is only read, so the shards
+ * need no locking. At the end of an epoch every shard is merged by exactly one thread, which applies the buffered
+ * updates of the workers in the order of the workers. The result therefore does not depend on the thread scheduling.
+ */
+class ShardedInfoSetTable {
+
+    private final InfoSetArena[] shards;
+
+    /**
+     * Creates a sharded table containing the information sets of the given arena.
+     *
+     * @param numberOfShards The number of shards, at least 1.
+     * @param infoSets The information sets to distribute over the shards.
+     * @throws IllegalArgumentException If the number of shards is smaller than 1.
+     */
+    ShardedInfoSetTable(int numberOfShards, InfoSetArena infoSets) throws IllegalArgumentException{
+        if (numberOfShards < 1){
+            throw new IllegalArgumentException("At least one shard is required.");
+        }
+        shards = new InfoSetArena[numberOfShards];
+        for (int i = 0; i < numberOfShards; i++){
+            shards[i] = new InfoSetArena();
+        }
+        infoSets.loadAll();
+        for (int entry = 0; entry < infoSets.getNumberOfInfoSets(); entry++){
+            shards[shardOf(infoSets.getKeyHigh(entry), infoSets.getKeyLow(entry))].putIfAbsent(infoSets, entry);
+        }
+    }
+
+    /**
+     * Gets the number of the shard a key belongs to. Uses the upper bits of the hash, the arenas use the lower ones.
+     */
+    int shardOf(long keyHigh, long keyLow){
+        return (int) Long.remainderUnsigned(InfoSetArena.hash(keyHigh, keyLow) >>> 32, shards.length);
+    }
+
+    int getNumberOfShards(){
+        return shards.length;
+    }
+
+    InfoSetArena getShard(int shardNo){
+        return shards[shardNo];
+    }
+
+    /**
+     * Merges the updates of the workers into one shard. Must not run concurrently with traversals or with another merge of the same shard.
+     *
+     * @param shardNo The number of the shard to merge.
+     * @param buffers The buffers of the workers in the order of the workers. The merged part of every buffer is cleared.
+     */
+    void mergeShard(int shardNo, List<InfoSetBuffer> buffers){
+        InfoSetArena shard = shards[shardNo];
+        for (InfoSetBuffer buffer : buffers){
+            InfoSetArena created = buffer.getCreated(shardNo);
+            for (int entry = 0; entry < created.getNumberOfInfoSets(); entry++){
+                shard.putIfAbsent(created, entry);
+            }
+            InfoSetArena deltas = buffer.getDeltas(shardNo);
+            for (int entry = 0; entry < deltas.getNumberOfInfoSets(); entry++){
+                shard.update(shard.find(deltas.getKeyHigh(entry), deltas.getKeyLow(entry)), deltas, entry);
+            }
+            buffer.clear(shardNo);
+        }
+    }
+
+    /**
+     * Copies all information sets into one arena.
+     */
+    InfoSetArena toArena(){
+        InfoSetArena infoSets = new InfoSetArena();
+        for (InfoSetArena shard : shards){
+            for (int entry = 0; entry < shard.getNumberOfInfoSets(); entry++){
+                infoSets.putIfAbsent(shard, entry);
+            }
+        }
+        return infoSets;
+    }
+}
@@ -0,0 +1,157 @@
+package game.AI.AiCFR;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.encog.neural.flat.FlatNetwork;
+import org.encog.neural.networks.BasicNetwork;
+
+/**
+ * Cache for serialized neural networks, so that the AIs do not deserialize their network on every decision.
+ * <p>
+ * Every network is loaded once and shared by all agents and threads. Before a network is handed out, the
+ * modification time of its file is checked, and the network is loaded again if the file has changed.
+ * Shared networks must only be read. {@link BasicNetwork#compute} is not thread safe, because it writes the
+ * outputs of the layers into the network, so {@link #compute(String, double[])} uses a copy per thread instead.
+ */
+public final class NeuralNetworkRegistry {
+
+    private static final ConcurrentHashMap<String, CachedNetwork> networks = new ConcurrentHashMap<String, CachedNetwork>();
+
+    private static final LongAdder cacheHits = new LongAdder();
+    private static final LongAdder loads = new LongAdder();
+    private static final LongAdder loadTimeNanos = new LongAdder();
+
+    private NeuralNetworkRegistry(){
+    }
+
+    /*
+    * A loaded network together with the modification time of its file and the copies used for computing.
+    */
+    private static final class CachedNetwork {
+        final BasicNetwork network;
+        final long lastModified;
+        final ThreadLocal<FlatNetwork> flatPerThread;
+
+        CachedNetwork(BasicNetwork network, long lastModified){
+            this.network = network;
+            this.lastModified = lastModified;
+            this.flatPerThread = ThreadLocal.withInitial(() -> network.getFlat().clone());
+        }
+    }
+
+    /**
+     * Gets the shared network stored in a file. The network must not be modified or trained.
+     *
+     * @param filePath The file containing the serialized {@link BasicNetwork}.
+     * @return The network, or null if the file does not exist or cannot be read.
+     */
+    public static BasicNetwork getNetwork(String filePath){
+        CachedNetwork cached = getCachedNetwork(filePath);
+        return cached == null ? null : cached.network;
+    }
+
+    /**
+     * Computes the output of the network stored in a file. Can be called by several threads at the same time.
+     *
+     * @param filePath The file containing the serialized {@link BasicNetwork}.
+     * @param input The input of the network.
+     * @return The output of the network, or null if the file does not exist or cannot be read.
+     */
+    public static double[] compute(String filePath, double[] input){
+        CachedNetwork cached = getCachedNetwork(filePath);
+        if (cached == null) return null;
+        FlatNetwork flat = cached.flatPerThread.get();
+        double[] output = new double[flat.getOutputCount()];
+        flat.compute(input, output);
+        return output;
+    }
+
+    /**
+     * Removes a network from the cache, e.g. after it has been saved. The next access loads it again.
+     */
+    public static void invalidate(String filePath){
+        networks.remove(new File(filePath).getAbsolutePath());
+    }
+
+    /**
+     * Gets the number of accesses that were answered from the cache.
+     */
+    public static long getCacheHits(){
+        return cacheHits.sum();
+    }
+
+    /**
+     * Gets the number of times a network has been deserialized, including reloads after the file changed.
+     */
+    public static long getLoads(){
+        return loads.sum();
+    }
+
+    /**
+     * Gets the total time spent deserializing networks in milliseconds.
+     */
+    public static double getTotalLoadTimeMillis(){
+        return loadTimeNanos.sum() / 1e6;
+    }
+
+    /**
+     * Gets the metrics of the cache as a readable text.
+     */
+    public static String getStatistics(){
+        return "Netzwerke geladen: " + getLoads() + ", Ladezeit: " + String.format("%.1f", getTotalLoadTimeMillis()) + " ms, Cache-Treffer: " + getCacheHits();
+    }
+
+    /**
+     * Resets the metrics of the cache. The cached networks are kept.
+     */
+    public static void resetStatistics(){
+        cacheHits.reset();
+        loads.reset();
+        loadTimeNanos.reset();
+    }
+
+    private static CachedNetwork getCachedNetwork(String filePath){
+        File file = new File(filePath);
+        long lastModified = file.lastModified();    // 0 if the file does not exist
+        String key = file.getAbsolutePath();
+
+        CachedNetwork cached = networks.get(key);
+        if (cached != null && cached.lastModified == lastModified){
+            cacheHits.increment();
+            return cached;
+        }
+        if (lastModified == 0){
+            networks.remove(key);
+            return null;
+        }
+
+        // only one thread loads a changed file, the others wait for its result
+        return networks.compute(key, (k, current) -> {
+            if (current != null && current.lastModified == lastModified){
+                cacheHits.increment();
+                return current;
+            }
+            BasicNetwork network = load(file);
+            return network == null ? null : new CachedNetwork(network, lastModified);
+        });
+    }
+
+    private static BasicNetwork load(File file){
+        long start = System.nanoTime();
+        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(file))) {
+            BasicNetwork network = (BasicNetwork) in.readObject();
+            loads.increment();
+            loadTimeNanos.add(System.nanoTime() - start);
+            return network;
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            System.out.println("Fehler beim Laden des neuronalen Netzes " + file.getPath());
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package game.AI;
 
+import java.util.SplittableRandom;
+
 import game.GameState;
 
 /**
@@ -39,4 +41,39 @@ public interface AiInterface {
      * @return The card number (1-52) of the best card to be played.
      */
     int bestMove(GameState g, int playerNo);
+
+    /**
+     * Sets the random number generator from which the AI draws all of its random decisions, e.g. in order to replay a
+     * simulation with the same seed. AIs without random decisions ignore it.
+     *
+     * @param random The random number generator of the AI. It is only used by the thread calling the AI.
+     */
+    default void setRandom(SplittableRandom random) {
+    }
+
+    /**
+     * Sets the budget of every following decision, e.g. a deadline. A search based AI stops its search when the budget is
+     * exhausted and returns the best action found so far. AIs without a search ignore it.
+     *
+     * @param searchBudget The budget, or null for the default budget of the AI, see {@link SearchBudget#defaultFor}.
+     */
+    default void setSearchBudget(SearchBudget searchBudget) {
+    }
+
+    /**
+     * Starts searching in the background for the next decision of a player, while the other players choose their cards.
+     * The search of a player stops at its next decision, at the next call of this method for the player or at
+     * {@link #stopPondering()}. AIs without a search ignore it.
+     *
+     * @param gameState The current state of the Hearts game. The AI searches a copy, so the game may go on.
+     * @param playerNo The player number of the AI.
+     */
+    default void ponder(GameState gameState, int playerNo) {
+    }
+
+    /**
+     * Stops all searches started by {@link #ponder(GameState, int)} and waits for them.
+     */
+    default void stopPondering() {
+    }
 }
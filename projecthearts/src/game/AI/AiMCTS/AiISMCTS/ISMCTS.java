@@ -1,11 +1,21 @@
 package game.AI.AiMCTS.AiISMCTS;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import game.Card;
+import game.DeterminizationPool;
+import game.Difficulty;
 import game.GameState;
 import game.AI.AiInterface;
+import game.AI.SearchBudget;
+import game.AI.AiMCTS.RolloutKernel;
 
 /**
  * This class represents a generic Information Set Monte Carlo Tree Search (ISMCTS).
@@ -18,19 +28,258 @@ import game.AI.AiInterface;
  */
 public abstract class ISMCTS<T, R> implements AiInterface{
     protected static final int MAX_ALLOWED_TIME = 10000;
+    protected static final int MAX_PONDER_NODES = 100000; // bounds the memory of a search that runs until it is stopped
 
-    protected static int iterations;
+    protected int iterations;
     protected GameState currentState;
     protected List<Card> possibleCardsToMove;
     protected List<int[]> possiblePassCombinations;
-    protected Random random;
+    protected SplittableRandom random;
+    protected final RolloutKernel rolloutKernel = new RolloutKernel();
     protected int observer;
-    protected double startInMillis;
+    protected SearchBudget searchBudget;
+    protected SearchBudget.Tracker budgetTracker;
+    protected int completedIterations;
+    protected int createdNodes;
+    protected boolean isSharedTree;
+    private List<ISMCTSNode> nodesWithVirtualLoss = new ArrayList<>();
+    private final DeterminizationPool[] determinizationPools = new DeterminizationPool[4];
+    private final List<R> retainedTrees = new ArrayList<>(Collections.nCopies(4, null));
+    private final List<List<Integer>> cardsPlayedOfRetainedTrees = new ArrayList<>(Collections.nCopies(4, null));
+    private final long[] handsOfRetainedTrees = new long[4];
+    protected int inheritedVisits;
+    protected int ponderedVisits;
+    private final boolean[] isTreePondered = new boolean[4];
+    private final List<ISMCTS<T, R>> ponderWorkers = new ArrayList<>(Collections.nCopies(4, null));
+    private final Thread[] ponderThreads = new Thread[4];
+    private volatile boolean isStopRequested;
 
     public ISMCTS() {
-        random = new Random();
+        random = new SplittableRandom();
     }
 
+    /**
+     * {@inheritDoc}
+     * The workers of a parallel search draw from streams split off this generator.
+     */
+    @Override
+    public void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Without a budget, a search runs the iterations of the difficulty and at most {@value #MAX_ALLOWED_TIME} ms in human mode.
+     */
+    @Override
+    public void setSearchBudget(SearchBudget searchBudget) {
+        this.searchBudget = searchBudget;
+    }
+
+    /**
+     * Starts tracking the budget of a search: sets the number of iterations of the difficulty, which is also the number
+     * of determinizations of a move search, and resets the counters of the search.
+     * @param gameState The game state of the decision.
+     * @param iterationsOfDifficulty The number of iterations of the observer's difficulty.
+     * @param startNanos The start of the decision, shared by all workers of a parallel search.
+     */
+    protected void startSearch(GameState gameState, int iterationsOfDifficulty, long startNanos) {
+        iterations = iterationsOfDifficulty;
+        SearchBudget budget = searchBudget != null ? searchBudget : SearchBudget.defaultFor(gameState, MAX_ALLOWED_TIME);
+        budgetTracker = budget.start(startNanos, iterationsOfDifficulty);
+        completedIterations = 0;
+        createdNodes = 0;
+        ponderedVisits = 0;
+    }
+
+    /**
+     * Checks whether the search has to stop before its next iteration, see {@link SearchBudget.Tracker#isExhausted(int, int)}.
+     * The visits a tree gained by pondering count as iterations of the search, but every search runs at least one iteration.
+     * @return true if the budget of the search is exhausted or a pondering search has been stopped.
+     */
+    protected boolean isBudgetExhausted() {
+        if (completedIterations == 0) return false;
+        return isStopRequested || budgetTracker.isExhausted(completedIterations + ponderedVisits, createdNodes);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The search runs on a worker in a background thread and adds its iterations to the tree(s) the player keeps for the
+     * next decision, see {@link #reuseOrCreateTree(GameState)}. When the player decides, the tree(s) are re-rooted at the
+     * cards played in the meantime and the visits of the new root count towards the iterations of the decision.
+     * A pondering search adds at most {@value #MAX_PONDER_NODES} nodes.
+     */
+    @Override
+    public void ponder(GameState gameState, int playerNo) {
+        stopPondering(playerNo);
+        if (gameState.getTricksPlayed() < 1 || gameState.isRoundOver()) return;
+
+        GameState ponderState = gameState.deepCopy();
+        observer = playerNo;
+        R tree = reuseOrCreateTree(ponderState);
+        isTreePondered[playerNo] = true;
+
+        ISMCTS<T, R> worker = createWorker();
+        worker.observer = playerNo;
+        worker.random = random.split();
+        worker.searchBudget = new SearchBudget(SearchBudget.NO_TIME_LIMIT, SearchBudget.NO_LIMIT, MAX_PONDER_NODES, SearchBudget.NO_MEMORY_LIMIT);
+        worker.startSearch(ponderState, Difficulty.determineNumberOfIterationsVariant1(ponderState, playerNo), System.nanoTime());
+        Thread thread = new Thread(() -> worker.runISMCTS(tree, ponderState), "ISMCTS pondering of player " + playerNo);
+        thread.setDaemon(true);
+        ponderWorkers.set(playerNo, worker);
+        ponderThreads[playerNo] = thread;
+        thread.start();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void stopPondering() {
+        for (int playerNo = 0; playerNo < 4; playerNo++) {
+            stopPondering(playerNo);
+        }
+    }
+
+    /**
+     * Stops the pondering search of a player, if there is one, and waits until its worker has finished the current iteration.
+     * @param playerNo The number of the player.
+     * @throws IllegalStateException If the waiting thread is interrupted.
+     */
+    protected void stopPondering(int playerNo) throws IllegalStateException {
+        Thread thread = ponderThreads[playerNo];
+        if (thread == null) return;
+        ponderWorkers.get(playerNo).isStopRequested = true;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Pondering was interrupted.", e);
+        }
+        ponderThreads[playerNo] = null;
+        ponderWorkers.set(playerNo, null);
+    }
+
+    /**
+     * Checks whether a player has pondered since its last decision.
+     * @param playerNo The number of the player.
+     * @return true if the tree(s) of the player have been searched by a pondering search since its last decision.
+     */
+    protected boolean hasPondered(int playerNo) {
+        return isTreePondered[playerNo];
+    }
+
+    /**
+     * Gets the number of iterations the pondering searches of a player have added to its tree(s) so far, see {@link #ponder(GameState, int)}.
+     * @param playerNo The number of the player.
+     * @return The completed iterations of the running pondering search, 0 if there is none.
+     */
+    public int getPonderingIterations(int playerNo) {
+        ISMCTS<T, R> worker = ponderWorkers.get(playerNo);
+        return worker == null ? 0 : worker.completedIterations;
+    }
+
+    /**
+     * Creates a sequential search instance that searches for this instance, e.g. as a worker of a parallel search or
+     * as the pondering search of a player.
+     * @return A new sequential search of the same kind.
+     */
+    protected abstract ISMCTS<T, R> createWorker();
+
+    /**
+     * Gets the number of iterations completed by the last search, summed up over all workers of a parallel search.
+     * @return The number of completed iterations.
+     */
+    public int getCompletedIterations() {
+        return completedIterations;
+    }
+
+    /**
+     * Gets the determinizations of the observer for a move search, one per iteration of the difficulty.
+     * A search that runs more iterations, e.g. with a deadline as its only limit or while pondering, samples a new
+     * determinization for every further iteration, see {@link DeterminizationPool#applyTo}.
+     * Every seat has its own pool, so the determinizations of the observer's last decision in the same round are reused
+     * as far as they are consistent with the cards played since, see {@link DeterminizationPool}.
+     * @param originalState The game state of the decision.
+     * @return The updated pool of the observer.
+     */
+    protected DeterminizationPool prepareDeterminizations(GameState originalState) {
+        if (determinizationPools[observer] == null) {
+            determinizationPools[observer] = new DeterminizationPool(observer);
+        }
+        DeterminizationPool pool = determinizationPools[observer];
+        pool.update(originalState, iterations, random);
+        return pool;
+    }
+
+    /**
+     * Gets the number of visits the root of the last move search inherited from the search of the previous decision.
+     * @return The inherited visits, 0 if the search started with a new tree.
+     */
+    public int getInheritedVisits() {
+        return inheritedVisits;
+    }
+
+    /**
+     * Gets the tree(s) for a move search of the observer.
+     * The tree(s) of the observer's last decision are kept and re-rooted at the node of the cards played since, if the
+     * decision belongs to the same round and every card played since has a node. Otherwise new tree(s) are created.
+     * Every seat keeps its own tree(s), as one instance may play several seats.
+     * If the player has pondered since the last decision, the inherited visits also count as pondered visits.
+     * @param gameState The game state of the decision.
+     * @return The tree(s) to search.
+     */
+    protected R reuseOrCreateTree(GameState gameState) {
+        List<Integer> cardsPlayed = gameState.getListOfCardIdsPlayedInThisRound();
+        long hand = gameState.getPlayers()[observer].getHandCards().toMask();
+        R tree = retainedTrees.get(observer);
+        List<Integer> cardsPlayedBefore = cardsPlayedOfRetainedTrees.get(observer);
+
+        if (tree != null && cardsPlayed.size() >= cardsPlayedBefore.size()
+                && cardsPlayed.subList(0, cardsPlayedBefore.size()).equals(cardsPlayedBefore)) {
+            List<Integer> cardsPlayedSince = cardsPlayed.subList(cardsPlayedBefore.size(), cardsPlayed.size());
+            long handBefore = handsOfRetainedTrees[observer];
+            for (int cardId : cardsPlayedSince) handBefore &= ~(1L << (cardId - 1));
+            if (hand != handBefore || !rerootTree(tree, cardsPlayedSince)) tree = null;
+        } else {
+            tree = null;
+        }
+
+        if (tree == null) {
+            tree = createTree();
+            inheritedVisits = 0;
+        } else {
+            inheritedVisits = getVisitsOfRoot(tree);
+        }
+        ponderedVisits = isTreePondered[observer] ? inheritedVisits : 0;
+        isTreePondered[observer] = false;
+        retainedTrees.set(observer, tree);
+        cardsPlayedOfRetainedTrees.set(observer, new ArrayList<>(cardsPlayed));
+        handsOfRetainedTrees[observer] = hand;
+        return tree;
+    }
+
+    /**
+     * Creates the tree(s) of a new move search of the observer.
+     * @return The new tree(s).
+     */
+    protected abstract R createTree();
+
+    /**
+     * Re-roots the tree(s) of a search at the node(s) reached by the given cards, see {@link ISMCTSTree#reroot(List)}.
+     * @param tree The tree(s) of the last decision.
+     * @param cardIds The ids of the cards played since the last decision.
+     * @return true if the tree(s) were re-rooted, false if they were not changed.
+     */
+    protected abstract boolean rerootTree(R tree, List<Integer> cardIds);
+
+    /**
+     * Gets the visits of the root of the observer's tree.
+     * @param tree The tree(s) of a search.
+     * @return The number of visits.
+     */
+    protected abstract int getVisitsOfRoot(R tree);
+
     /**
      * Runs the ISMCTS algorithm for a given game state to determine the best move.
      * @param tree The ISMCTS tree to use.
@@ -55,15 +304,11 @@ public abstract class ISMCTS<T, R> implements AiInterface{
 
     /**
      * Performs the simulation phase of the ISMCTS algorithm.
-     * It plays random moves until a terminal state is reached.
+     * It plays random moves until a terminal state is reached, see {@link RolloutKernel}.
      */
     protected void simulationPhase() {
-        possibleCardsToMove = currentState.determineListOfPlayableCards(currentState.getPlayerToMove());
-        
-        while (!isTerminal()) {
-            Card randomPlayableCard = possibleCardsToMove.get(random.nextInt(possibleCardsToMove.size()));
-            playCard(randomPlayableCard);
-        }
+        rolloutKernel.playout(currentState, random);
+        possibleCardsToMove = Collections.emptyList();
     }
     
     /**
@@ -76,6 +321,62 @@ public abstract class ISMCTS<T, R> implements AiInterface{
             expandedNode.update(currentState);
             expandedNode = expandedNode.getParent();
         }
+        removeVirtualLosses();
+    }
+
+    /**
+     * Adds a virtual loss to a node on the path of the current iteration, if {@link #usesVirtualLoss()}.
+     * The virtual losses are removed again at the end of the backpropagation phase.
+     * @param node The node entered in the current iteration.
+     */
+    protected void addVirtualLoss(ISMCTSNode node) {
+        if (usesVirtualLoss()) {
+            node.addVirtualLoss();
+            nodesWithVirtualLoss.add(node);
+        }
+    }
+
+    /**
+     * Whether nodes entered by an iteration get a virtual loss until its result is backpropagated.
+     * This is the case if several iterations select nodes before their results are known, e.g. for the workers of a tree-parallel search.
+     * @return true if this instance is a worker of a tree-parallel search.
+     */
+    protected boolean usesVirtualLoss() {
+        return isSharedTree;
+    }
+
+    // Removes the virtual losses added in the current iteration.
+    private void removeVirtualLosses() {
+        for (ISMCTSNode node : nodesWithVirtualLoss) {
+            node.removeVirtualLoss();
+        }
+        nodesWithVirtualLoss.clear();
+    }
+
+    /**
+     * Runs the given tasks in parallel and waits for all of them.
+     * The tasks run on a pool with one thread per task, which is shut down when they are done, so an AI does not keep
+     * idle threads between its decisions or after its game.
+     * @param tasks The tasks to run, usually one search per worker.
+     * @return The results of the tasks in the order of the tasks.
+     * @throws IllegalStateException If a task fails or the waiting thread is interrupted.
+     */
+    protected <V> List<V> runInParallel(List<Callable<V>> tasks) throws IllegalStateException {
+        ForkJoinPool workerPool = new ForkJoinPool(tasks.size());
+        List<V> results = new ArrayList<>();
+        try {
+            for (Future<V> future : workerPool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("ISMCTS search was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("ISMCTS worker failed.", e.getCause());
+        } finally {
+            workerPool.shutdown();
+        }
+        return results;
     }
 
     /**
@@ -0,0 +1,206 @@
+package game.AI.AiMCTS.AiISMCTS;
+
+import java.util.Arrays;
+
+/**
+ * An ISMCTS tree of a move search that stores its nodes in parallel primitive arrays instead of {@link ISMCTSNode} objects.
+ * <p>
+ * A node is an index into the arrays: its visits, win score and availability, the card played to reach it, the player
+ * who played it, its first child and its next sibling. Every node also has a mask of the cards of its children
+ * (bit {@code cardId - 1}), so finding the untried moves of a node or checking whether a card has been expanded does not
+ * walk the children. A node takes 34 bytes, the root is node 0.
+ * <p>
+ * The arrays grow by doubling and are kept when the arena is {@link #reset(int) reset} for the next decision, so a search
+ * with a warm arena does not allocate. An arena is not thread-safe, it is used by a sequential search only.
+ */
+public class ISMCTSArena {
+
+    /** The index of the root node. */
+    public static final int ROOT = 0;
+
+    /** The index of a missing node, e.g. the first child of a leaf. */
+    public static final int NONE = -1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private int[] visits;
+    private double[] winScore;
+    private int[] availability;
+    private byte[] cardId;
+    private byte[] playerNr;
+    private int[] firstChild;
+    private int[] nextSibling;
+    private long[] childMask;
+    private int size;
+
+    /**
+     * Creates an arena with a root node of player 0.
+     */
+    public ISMCTSArena() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates an arena with a root node of player 0.
+     *
+     * @param initialCapacity The number of nodes the arena holds before it grows.
+     * @throws IllegalArgumentException If the capacity is smaller than 1.
+     */
+    public ISMCTSArena(int initialCapacity) throws IllegalArgumentException {
+        if (initialCapacity < 1) {
+            throw new IllegalArgumentException("Invalid capacity: " + initialCapacity);
+        }
+        visits = new int[initialCapacity];
+        winScore = new double[initialCapacity];
+        availability = new int[initialCapacity];
+        cardId = new byte[initialCapacity];
+        playerNr = new byte[initialCapacity];
+        firstChild = new int[initialCapacity];
+        nextSibling = new int[initialCapacity];
+        childMask = new long[initialCapacity];
+        reset(0);
+    }
+
+    /**
+     * Removes all nodes but a new root. The arrays are kept, so the next search reuses their memory.
+     *
+     * @param rootPlayerNr The player of the root node, i.e. the observer of the search.
+     */
+    public void reset(int rootPlayerNr) {
+        size = 0;
+        createNode(0, rootPlayerNr);
+    }
+
+    /**
+     * Adds a child to a node. The card must not have been expanded at the node yet.
+     * The children are kept in the order of their expansion, like those of an {@link ISMCTSNode}, so the UCT selection
+     * breaks ties in the same way.
+     *
+     * @param parent The node.
+     * @param card The id of the card played to reach the child.
+     * @param player The number of the player who played the card.
+     * @return The new child.
+     */
+    public int addChild(int parent, int card, int player) {
+        int child = createNode(card, player);
+        if (firstChild[parent] == NONE) {
+            firstChild[parent] = child;
+        } else {
+            int lastChild = firstChild[parent];
+            while (nextSibling[lastChild] != NONE) {
+                lastChild = nextSibling[lastChild];
+            }
+            nextSibling[lastChild] = child;
+        }
+        childMask[parent] |= 1L << (card - 1);
+        return child;
+    }
+
+    // Appends a node without children, the arrays are doubled if they are full.
+    private int createNode(int card, int player) {
+        if (size == visits.length) grow();
+        int node = size++;
+        visits[node] = 0;
+        winScore[node] = 0.0;
+        availability[node] = 1;
+        cardId[node] = (byte) card;
+        playerNr[node] = (byte) player;
+        firstChild[node] = NONE;
+        nextSibling[node] = NONE;
+        childMask[node] = 0L;
+        return node;
+    }
+
+    private void grow() {
+        int capacity = visits.length * 2;
+        visits = Arrays.copyOf(visits, capacity);
+        winScore = Arrays.copyOf(winScore, capacity);
+        availability = Arrays.copyOf(availability, capacity);
+        cardId = Arrays.copyOf(cardId, capacity);
+        playerNr = Arrays.copyOf(playerNr, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        nextSibling = Arrays.copyOf(nextSibling, capacity);
+        childMask = Arrays.copyOf(childMask, capacity);
+    }
+
+    /**
+     * Finds the child of a node with the given card.
+     *
+     * @param node The node.
+     * @param card The id of the card.
+     * @return The child, or {@link #NONE} if the card has not been expanded.
+     */
+    public int findChild(int node, int card) {
+        if ((childMask[node] & (1L << (card - 1))) == 0) return NONE;
+        int child = firstChild[node];
+        while (cardId[child] != card) {
+            child = nextSibling[child];
+        }
+        return child;
+    }
+
+    /**
+     * Adds one visit and the result of the round to a node.
+     *
+     * @param node The node.
+     * @param result The result of the round for the player of the node.
+     */
+    public void update(int node, double result) {
+        visits[node]++;
+        winScore[node] += result;
+    }
+
+    public void incrementAvailability(int node) {
+        availability[node]++;
+    }
+
+    /**
+     * Selects the child of the root with the most visits.
+     *
+     * @return The best child, or {@link #NONE} if the root has no children.
+     */
+    public int selectBestNode() {
+        int bestChild = NONE;
+        for (int child = firstChild[ROOT]; child != NONE; child = nextSibling[child]) {
+            if (bestChild == NONE || visits[child] > visits[bestChild]) {
+                bestChild = child;
+            }
+        }
+        return bestChild;
+    }
+
+    // Getters
+    public int getVisits(int node) {return visits[node];}
+    public double getWinScore(int node) {return winScore[node];}
+    public int getAvailability(int node) {return availability[node];}
+    public int getCardId(int node) {return cardId[node];}
+    public int getPlayerNr(int node) {return playerNr[node];}
+    public int getFirstChild(int node) {return firstChild[node];}
+    public int getNextSibling(int node) {return nextSibling[node];}
+    public long getChildMask(int node) {return childMask[node];}
+
+    /**
+     * Gets the number of nodes of the tree, including the root.
+     * @return The number of nodes.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of nodes the arrays hold before the arena grows.
+     * @return The capacity.
+     */
+    public int capacity() {
+        return visits.length;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "ISMCTSArena: [nodes = " + size + ", capacity = " + visits.length + ", root visits = " + visits[ROOT] + "]";
+    }
+}
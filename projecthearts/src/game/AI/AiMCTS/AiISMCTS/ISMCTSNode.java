@@ -1,7 +1,10 @@
 package game.AI.AiMCTS.AiISMCTS;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import game.Card;
 import game.GameState;
 
@@ -9,16 +12,37 @@ import game.GameState;
  * Represents a node in the ISMCTS (Information Set Monte Carlo Tree Search) tree.
  * Each node has the Information, like: the player number, the card played to reach this state, the parent node, 
  * the child nodes, the win score, the number of visits, the availability, and the passed cards.
+ * <p>
+ * The statistics are updated atomically and children are added under the lock of the node, 
+ * so that several workers of a tree-parallel search can share one tree.
  */
 public class ISMCTSNode {
+
+    /** Win score of a virtual loss, roughly the normalized payoff of the worst possible round. */
+    public static final double VIRTUAL_LOSS_SCORE = -3.0;
+
+    private static final VarHandle WIN_SCORE;
+    private static final VarHandle VISITS;
+    private static final VarHandle AVAILABILITY;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            WIN_SCORE = lookup.findVarHandle(ISMCTSNode.class, "winScore", double.class);
+            VISITS = lookup.findVarHandle(ISMCTSNode.class, "visits", int.class);
+            AVAILABILITY = lookup.findVarHandle(ISMCTSNode.class, "availability", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
     
     private int playerNr;
     private Card playedCard;
     private ISMCTSNode parent;
     private List<ISMCTSNode> children;
-    private double winScore;
-    private int visits;
-    private int availability;
+    private volatile double winScore;
+    private volatile int visits;
+    private volatile int availability;
     private int[] passedCards;
     
     // Getters
@@ -54,7 +78,7 @@ public class ISMCTSNode {
         this.winScore = 0.0;
         this.visits = 0;
         this.availability = 1;
-        this.children = new ArrayList<>();
+        this.children = new CopyOnWriteArrayList<>();
     }
     
     /**
@@ -64,8 +88,8 @@ public class ISMCTSNode {
      * @param playerNr The player number to be associated with the child node.
      * @return The newly added child node.
      */
-    public ISMCTSNode addChild(Card playedCard, int playerNr) {
-        ISMCTSNode child = new ISMCTSNode(playerNr, (Card) playedCard.clone(), this);
+    public synchronized ISMCTSNode addChild(Card playedCard, int playerNr) {
+        ISMCTSNode child = new ISMCTSNode(playerNr, playedCard, this);
         children.add(child);
         return child;
     }
@@ -77,7 +101,7 @@ public class ISMCTSNode {
      * @param playerNr The player number to be associated with the child node.
      * @return The newly added child node.
      */
-    public ISMCTSNode addChildForPass(int[] passedCards, int playerNr) {
+    public synchronized ISMCTSNode addChildForPass(int[] passedCards, int playerNr) {
         ISMCTSNode child = new ISMCTSNode(playerNr, null, this);
         child.setPassedCards(passedCards);
         children.add(child);
@@ -94,24 +118,51 @@ public class ISMCTSNode {
         addWinScore(state);
     }
 
-    public void incrementAvailability() {availability++;}
-    private void incrementVisitCount() {visits++;}
-    
     /**
-     * Updates the siblings of this node by incrementing their availability.
+     * Adds the visits, win score and availability of another node to this node.
+     * Used to merge the trees of a root-parallel search.
+     * 
+     * @param other The node whose statistics are added.
+     */
+    public void mergeStatistics(ISMCTSNode other) {
+        VISITS.getAndAdd(this, other.visits);
+        addToWinScore(other.winScore);
+        AVAILABILITY.getAndAdd(this, other.availability);
+    }
+
+    /**
+     * Adds a virtual loss to this node: one visit with the win score of a lost round.
+     * A tree-parallel search adds it on the way down, so that other workers prefer other paths until the 
+     * real result is backpropagated and the virtual loss is removed with {@link #removeVirtualLoss()}.
      */
-    public void updateSiblingsAvailability() {
-        if (parent != null) {
-            for (ISMCTSNode sibling : parent.getChildren()) {
-                sibling.incrementAvailability();
-            }
-        }
+    public void addVirtualLoss() {
+        VISITS.getAndAdd(this, 1);
+        addToWinScore(VIRTUAL_LOSS_SCORE);
+    }
+
+    /**
+     * Removes a virtual loss added with {@link #addVirtualLoss()}.
+     */
+    public void removeVirtualLoss() {
+        VISITS.getAndAdd(this, -1);
+        addToWinScore(-VIRTUAL_LOSS_SCORE);
+    }
+
+    public void incrementAvailability() {AVAILABILITY.getAndAdd(this, 1);}
+    private void incrementVisitCount() {VISITS.getAndAdd(this, 1);}
+
+    // Adds a value to the win score with a compare-and-set loop, as there is no atomic addition for doubles.
+    private void addToWinScore(double value) {
+        double current;
+        do {
+            current = winScore;
+        } while (!WIN_SCORE.compareAndSet(this, current, current + value));
     }
     
     // Adds the result of the game to the win score.
     private void addWinScore(GameState state) {
         double result = state.getResult(playerNr);
-        winScore = winScore + result;
+        addToWinScore(result);
     }
 
     /**
@@ -125,7 +176,7 @@ public class ISMCTSNode {
         
         for (Card card : possibleCardsToMove) {
             if (!containsChild(card)) {
-                untriedMoves.add((Card) card.clone());
+                untriedMoves.add(card);
             }
         }
         return untriedMoves;
@@ -152,15 +203,30 @@ public class ISMCTSNode {
         return getUntriedMoves(possibleCardsToMove).isEmpty();
     }
 
+    /**
+     * Finds the child node of this node with the specified card.
+     * 
+     * @param card The card played in the child node.
+     * @return The child node, or null if the card has not been expanded.
+     */
+    public ISMCTSNode findChild(Card card) {
+        for (ISMCTSNode child : children) {
+            if (card.equals(child.getPlayedCard())) {
+                return child;
+            }
+        }
+        return null;
+    }
+
     /**
      * Finds or creates a child node of this node with the specified card and player number.
-     * Used in the MOISMCTS. 
+     * Used in the MOISMCTS and by tree-parallel workers, as a concurrent call cannot create the same child twice. 
      * 
      * @param card The card to find or create a child node with.
      * @param playerNr The player number to find or create a child node with.
      * @return The found or created child node.
      */
-    public ISMCTSNode findOrCreateChild(Card card, int playerNr) {
+    public synchronized ISMCTSNode findOrCreateChild(Card card, int playerNr) {
         ISMCTSNode childNode = null;
         
         for(ISMCTSNode child : children){
@@ -1,7 +1,13 @@
 package game.AI.AiMCTS.AiISMCTS;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import game.Card;
 
 /**
  * Represents a tree in the ISMCTS (Information Set Monte Carlo Tree Search) algorithm.
@@ -34,6 +40,65 @@ public class ISMCTSTree {
                         Comparator.comparingDouble(ISMCTSNode::getVisits));
     }
     
+    /**
+     * Finds the node reached from the root by the given cards.
+     * 
+     * @param cardIds The ids of the cards played from the root, in the order they were played.
+     * @return The node, or null if a card has not been expanded.
+     */
+    public ISMCTSNode findNode(List<Integer> cardIds) {
+        ISMCTSNode node = root;
+        for (int i = 0; i < cardIds.size() && node != null; i++) {
+            node = node.findChild(Card.of(cardIds.get(i)));
+        }
+        return node;
+    }
+
+    /**
+     * Re-roots this tree at the node reached by the given cards, e.g. at the node of the current decision after the cards
+     * played since the last decision. The subtree keeps its statistics, the rest of the tree is dropped.
+     * 
+     * @param cardIds The ids of the cards played from the root, in the order they were played.
+     * @return true if the tree was re-rooted, false if a card has not been expanded and the tree was not changed.
+     */
+    public boolean reroot(List<Integer> cardIds) {
+        ISMCTSNode node = findNode(cardIds);
+        if (node == null) return false;
+        node.setParent(null);
+        root = node;
+        return true;
+    }
+
+    /**
+     * Merges the trees of a root-parallel search into a new tree that only consists of a root and its children.
+     * Children of different trees that stand for the same card or pass are merged by adding up their statistics.
+     *
+     * @param trees The trees to merge. All roots must belong to the same player.
+     * @return The merged tree.
+     */
+    public static ISMCTSTree mergeRootChildren(List<ISMCTSTree> trees) {
+        ISMCTSNode mergedRoot = new ISMCTSNode(trees.get(0).getRoot().getPlayerNr(), null, null);
+        mergedRoot.setAvailability(0);
+        Map<String, ISMCTSNode> mergedChildren = new LinkedHashMap<>();
+
+        for (ISMCTSTree tree : trees) {
+            mergedRoot.mergeStatistics(tree.getRoot());
+            for (ISMCTSNode child : tree.getRoot().getChildren()) {
+                boolean isPass = child.getPlayedCard() == null;
+                String key = isPass ? Arrays.toString(child.getPassedCards()) : String.valueOf(child.getPlayedCard().getId());
+                ISMCTSNode mergedChild = mergedChildren.get(key);
+                if (mergedChild == null) {
+                    mergedChild = isPass ? mergedRoot.addChildForPass(child.getPassedCards(), child.getPlayerNr())
+                                         : mergedRoot.addChild(child.getPlayedCard(), child.getPlayerNr());
+                    mergedChild.setAvailability(0);
+                    mergedChildren.put(key, mergedChild);
+                }
+                mergedChild.mergeStatistics(child);
+            }
+        }
+        return new ISMCTSTree(mergedRoot);
+    }
+
     /**
      * {@inheritDoc}
      * @see Object#toString()
@@ -4,10 +4,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.concurrent.Callable;
 
 import game.Card;
+import game.DeterminizationPool;
 import game.Difficulty;
-import game.GameMode;
 import game.GameState;
 import game.AI.AiMCTS.UCT;
 
@@ -15,10 +16,28 @@ import game.AI.AiMCTS.UCT;
  * This class represents a Multiple Observer Information Set Monte Carlo Tree Search (MO-ISMCTS).
  * It extends the generic ISMCTS class with specific implementations for the game at hand.
  * The MO-ISMCTS algorithm is a variant of the ISMCTS algorithm that works with multiple trees (Multiple-Observer).
+ * With more than one worker, the search is tree-parallel: all workers search the same trees and use virtual loss.
  */
 public class MO_ISMCTS extends ISMCTS<Map <Integer, ISMCTSNode>, List<ISMCTSTree>> {
 
-    public MO_ISMCTS() {}
+    private final int numberOfWorkers;
+
+    public MO_ISMCTS() {
+        this(1);
+    }
+
+    /**
+     * Constructs a new tree-parallel MO-ISMCTS that searches with the given number of workers.
+     *
+     * @param numberOfWorkers The number of workers that search the trees in parallel. 1 means a sequential search.
+     * @throws IllegalArgumentException If the number of workers is smaller than 1.
+     */
+    public MO_ISMCTS(int numberOfWorkers) throws IllegalArgumentException {
+        if (numberOfWorkers < 1) {
+            throw new IllegalArgumentException("Invalid number of workers: " + numberOfWorkers);
+        }
+        this.numberOfWorkers = numberOfWorkers;
+    }
 
     /**
      * {@inheritDoc}
@@ -26,8 +45,10 @@ public class MO_ISMCTS extends ISMCTS<Map <Integer, ISMCTSNode>, List<ISMCTSTree
      */
     @Override
     public int[] bestPass(GameState gameState, int playerNo, int receiverNo) {
+        stopPondering(playerNo);
         int [] bestPass = new int[3];
         ISMCTS soISMCTS = new SO_ISMCTS();
+        soISMCTS.setSearchBudget(searchBudget);
         bestPass = soISMCTS.bestPass(gameState, playerNo, receiverNo);
 
         return bestPass;
@@ -39,31 +60,107 @@ public class MO_ISMCTS extends ISMCTS<Map <Integer, ISMCTSNode>, List<ISMCTSTree
      */
     @Override
     public int bestMove(GameState gameState, int playertoMove) {
+        stopPondering(playertoMove);
         observer = playertoMove;
-        iterations = Difficulty.determineNumberOfIterationsVariant1(gameState, playertoMove);
-        startInMillis = System.currentTimeMillis();
+        long start = System.nanoTime();
+        startSearch(gameState, Difficulty.determineNumberOfIterationsVariant1(gameState, playertoMove), start);
 
-        List<ISMCTSTree> trees = createISMCTSTrees(4);
+        List<ISMCTSTree> trees = reuseOrCreateTree(gameState);
+        if (numberOfWorkers > 1) {
+            return runSharedTreeWorkers(trees, gameState, start).getPlayedCard().getId();
+        }
         ISMCTSNode bestNode = runISMCTS(trees, gameState);
 
         return bestNode.getPlayedCard().getId();
     }
 
+    /**
+     * {@inheritDoc}
+     * MO-ISMCTS searches one tree per player.
+     */
+    @Override
+    protected List<ISMCTSTree> createTree() {
+        return createISMCTSTrees(4);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected MO_ISMCTS createWorker() {
+        return new MO_ISMCTS();
+    }
+
+    /**
+     * {@inheritDoc}
+     * The trees of all players are re-rooted, or none of them.
+     */
+    @Override
+    protected boolean rerootTree(List<ISMCTSTree> trees, List<Integer> cardIds) {
+        for (ISMCTSTree tree : trees) {
+            if (tree.findNode(cardIds) == null) return false;
+        }
+        for (ISMCTSTree tree : trees) {
+            tree.reroot(cardIds);
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int getVisitsOfRoot(List<ISMCTSTree> trees) {
+        return trees.get(observer).getRoot().getVisits();
+    }
+
+    /**
+     * Runs the ISMCTS algorithm on new workers that all search the given trees, and waits for all of them.
+     * The workers share the deadline of this decision and the visits gained by pondering, and their completed iterations are added up.
+     * @param trees The list of ISMCTS trees shared by all workers.
+     * @param originalState The current Game State.
+     * @param start The start of the decision as given by {@link System#nanoTime()}.
+     * @return The best node of the observer's tree.
+     */
+    private ISMCTSNode runSharedTreeWorkers(List<ISMCTSTree> trees, GameState originalState, long start) {
+        List<MO_ISMCTS> workers = new ArrayList<>();
+        List<Callable<ISMCTSNode>> tasks = new ArrayList<>();
+        for (int i = 0; i < numberOfWorkers; i++) {
+            MO_ISMCTS worker = createWorker();
+            worker.observer = observer;
+            worker.searchBudget = searchBudget;
+            worker.startSearch(originalState, iterations, start);
+            worker.ponderedVisits = ponderedVisits / numberOfWorkers;
+            worker.isSharedTree = true;
+            workers.add(worker);
+            tasks.add(() -> worker.runISMCTS(trees, originalState));
+        }
+        runInParallel(tasks);
+
+        for (MO_ISMCTS worker : workers) {
+            completedIterations += worker.completedIterations;
+        }
+        return trees.get(observer).selectBestNode();
+    }
+
+    public int getNumberOfWorkers() {
+        return numberOfWorkers;
+    }
+
     /**
      * Runs the ISMCTS algorithm for a given list of trees and game state to determine the best move.
+     * The iterations run until the budget of the search is exhausted, see {@link #setSearchBudget(game.AI.SearchBudget)}.
      * @param trees The list of ISMCTS trees to use (Every Player = 1 Tree).
      * @param originalState The current Game State.
      * @return The best node.
      */
     @Override
     protected ISMCTSNode runISMCTS(List<ISMCTSTree> trees, GameState originalState) {
-        for(int i = 0; i < iterations; i++) {
-            if (originalState.getGameMode() == GameMode.HUMAN && System.currentTimeMillis() - startInMillis > MAX_ALLOWED_TIME) {
-                break;
-            }
+        DeterminizationPool determinizations = prepareDeterminizations(originalState);
+        while (!isBudgetExhausted()) {
             // Copy, Determinization & initialize nodes 
             currentState = originalState.deepCopy();
-            currentState.determinization(observer);
+            determinizations.applyTo(currentState, completedIterations, random);
             Map<Integer, ISMCTSNode> nodes = initializeNodes(trees);
         
             // ISMCTS 4 phases: Selection, Expansion, Simulation, Backpropagation
@@ -71,6 +168,7 @@ public class MO_ISMCTS extends ISMCTS<Map <Integer, ISMCTSNode>, List<ISMCTSTree
             Map<Integer, ISMCTSNode> expandedNodes = expansionPhase(selectedNodes);
             simulationPhase();
             backpropagateEveryTree(expandedNodes);
+            completedIterations++;
         }
         return trees.get(observer).selectBestNode();
     }
@@ -111,8 +209,8 @@ public class MO_ISMCTS extends ISMCTS<Map <Integer, ISMCTSNode>, List<ISMCTSTree
         
         if (!untriedMoves.isEmpty()) {
             Card randomPlayableCard = untriedMoves.get(random.nextInt(untriedMoves.size()));
-            selectedNode = selectedNode.addChild(randomPlayableCard, playerToMove);
             
+            // creates the child in the tree of the player to move, too
             nodes = updateNodesWithChild(nodes, randomPlayableCard);
             currentState.doMove(randomPlayableCard.getId());
         }
@@ -131,9 +229,14 @@ public class MO_ISMCTS extends ISMCTS<Map <Integer, ISMCTSNode>, List<ISMCTSTree
     }
 
     // Updates the given nodes by finding or creating a child node for each node using the given card.
+    // Adds a virtual loss to every new node if the trees are shared by several workers, and counts the created nodes.
     private Map<Integer, ISMCTSNode> updateNodesWithChild(Map<Integer, ISMCTSNode> nodes, Card card) {
         for (Map.Entry<Integer, ISMCTSNode> entry : nodes.entrySet()) {
-            ISMCTSNode node = entry.getValue().findOrCreateChild(card, entry.getKey());
+            ISMCTSNode parent = entry.getValue();
+            int numberOfChildren = parent.getChildren().size();
+            ISMCTSNode node = parent.findOrCreateChild(card, entry.getKey());
+            if (parent.getChildren().size() > numberOfChildren) createdNodes++;
+            addVirtualLoss(node);
             nodes.replace(entry.getKey(), node);
         }
         return nodes;
@@ -0,0 +1,11 @@
+package game.AI.AiMCTS.AiISMCTS;
+
+/**
+ * The ways in which an ISMCTS search can use several workers.
+ */
+public enum ParallelizationMode {
+    /** Every worker searches its own tree. The statistics of the root children are merged at the end. */
+    ROOT,
+    /** All workers search one shared tree and use virtual loss to spread over different paths. */
+    TREE;
+}
@@ -1,9 +1,14 @@
 package game.AI.AiMCTS.AiISMCTS;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
 import game.Card;
+import game.DeterminizationPool;
+import game.DeterminizationSampler;
 import game.Difficulty;
-import game.GameMode;
 import game.GameState;
 import game.HandCards;
 import game.AI.AiMCTS.UCT;
@@ -12,10 +17,45 @@ import game.AI.AiMCTS.UCT;
  * This class represents a Single Observer Information Set Monte Carlo Tree Search (SO-ISMCTS).
  * It extends the generic ISMCTS class with specific implementations for the game at hand.
  * The SO-ISMCTS algorithm is a variant of the ISMCTS algorithm that works with a single tree (Observant).
+ * <p>
+ * With more than one worker, the search is either root-parallel, i.e., every worker searches its own tree with its own
+ * determinizations and the statistics of the root children of all trees are merged before the best node is selected,
+ * or tree-parallel, i.e., all workers search one shared tree. Passing always uses root parallelism, 
+ * as the tree of a pass search only has a depth of one.
  */
 public class SO_ISMCTS extends ISMCTS<ISMCTSNode, ISMCTSTree>{
 
-    public SO_ISMCTS() {}
+    private final int numberOfWorkers;
+    private final ParallelizationMode parallelizationMode;
+
+    public SO_ISMCTS() {
+        this(1);
+    }
+
+    /**
+     * Constructs a new root-parallel SO-ISMCTS that searches with the given number of workers.
+     *
+     * @param numberOfWorkers The number of trees that are searched in parallel. 1 means a sequential search.
+     * @throws IllegalArgumentException If the number of workers is smaller than 1.
+     */
+    public SO_ISMCTS(int numberOfWorkers) throws IllegalArgumentException {
+        this(numberOfWorkers, ParallelizationMode.ROOT);
+    }
+
+    /**
+     * Constructs a new SO-ISMCTS that searches with the given number of workers and parallelization mode.
+     *
+     * @param numberOfWorkers The number of workers that search in parallel. 1 means a sequential search.
+     * @param parallelizationMode Whether the workers search their own trees or one shared tree.
+     * @throws IllegalArgumentException If the number of workers is smaller than 1.
+     */
+    public SO_ISMCTS(int numberOfWorkers, ParallelizationMode parallelizationMode) throws IllegalArgumentException {
+        if (numberOfWorkers < 1) {
+            throw new IllegalArgumentException("Invalid number of workers: " + numberOfWorkers);
+        }
+        this.numberOfWorkers = numberOfWorkers;
+        this.parallelizationMode = parallelizationMode;
+    }
 
     /**
      * {@inheritDoc}
@@ -23,9 +63,27 @@ public class SO_ISMCTS extends ISMCTS<ISMCTSNode, ISMCTSTree>{
      */
     @Override
     public int[] bestPass(GameState gameState, int playerNo, int receiverNo) {
+        stopPondering(playerNo);
+        if (numberOfWorkers > 1) {
+            List<ISMCTSTree> trees = runWorkers(worker -> {
+                ISMCTSTree tree = worker.initPassSearch(gameState, playerNo);
+                worker.runISMCTSPass(tree, gameState);
+                return tree;
+            });
+            return ISMCTSTree.mergeRootChildren(trees).selectBestNode().getPassedCards();
+        }
+
+        // Run ISMCTS pass and return the best pass
+        ISMCTSTree tree = initPassSearch(gameState, playerNo);
+        int[] bestPass = runISMCTSPass(tree, gameState);
+        return bestPass;
+    }
+
+    // Sets observer, number of iterations and pass combinations for a pass search and creates the tree.
+    private ISMCTSTree initPassSearch(GameState gameState, int playerNo) {
         // Set observer and determine number of iterations
         observer = playerNo;
-        iterations = Difficulty.determineNumberOfIterationsVariant2(gameState, observer);
+        startSearch(gameState, Difficulty.determineNumberOfIterationsVariant2(gameState, observer), System.nanoTime());
 
         // Create root node and tree
         ISMCTSNode rootNode = new ISMCTSNode(observer, null, null);
@@ -34,33 +92,34 @@ public class SO_ISMCTS extends ISMCTS<ISMCTSNode, ISMCTSTree>{
         // Generate possible pass combinations
         HandCards handcards = gameState.getPlayers()[playerNo].getHandCards();
         possiblePassCombinations = handcards.generatePossiblePassCombinations();
-
-        // Run ISMCTS pass and return the best pass
-        int[] bestPass = runISMCTSPass(tree, gameState);
-        return bestPass;
+        return tree;
     }
     
     /**
      * Runs the ISMCTS algorithm for a given tree and game state to determine the best pass.
+     * The iterations run until the budget of the search is exhausted.
      * @param tree The ISMCTS tree to use.
      * @param originalState A copy of the current game state.
      * @return An array of integers representing the best pass.
      */
     protected int[] runISMCTSPass(ISMCTSTree tree, GameState originalState) {
-        for (int i = 0; i < iterations; i++) {
+        DeterminizationSampler sampler = new DeterminizationSampler(originalState, observer);
+        while (!isBudgetExhausted()) {
             //Copy, Determinization & get possible moves
             currentState = originalState.deepCopy();
-            currentState.determinization(observer);
+            sampler.applyTo(currentState, random);
             ISMCTSNode selectedNode = tree.getRoot();
 
             // ISMCTS 4 phases: Selection or Expansion, Simulation, Backpropagation
             if (!possiblePassCombinations.isEmpty()) {
                 selectedNode = expansionPhaseForPass(selectedNode);
+                createdNodes++;
             } else {
                 selectedNode = selectionPhaseForPass(selectedNode);
             }
             simulationPhase();
             backpropagationPhase(selectedNode);
+            completedIterations++;
         }
         return tree.selectBestNode().getPassedCards();
     }
@@ -71,40 +130,149 @@ public class SO_ISMCTS extends ISMCTS<ISMCTSNode, ISMCTSTree>{
      */
     @Override
     public int bestMove(GameState gameState, int playerNo) {
-        observer = playerNo;
-        iterations = Difficulty.determineNumberOfIterationsVariant1(gameState, observer);
-        startInMillis = System.currentTimeMillis();
-
-        // Create root node and tree
-        ISMCTSNode rootNode = new ISMCTSNode(observer, null, null);
-        ISMCTSTree tree = new ISMCTSTree(rootNode);
+        stopPondering(playerNo);
+        long start = System.nanoTime();
+        if (numberOfWorkers > 1 && parallelizationMode == ParallelizationMode.TREE) {
+            // all workers share the tree and the deadline of this decision, and the visits gained by pondering
+            ISMCTSTree sharedTree = initMoveSearch(gameState, playerNo, start);
+            int ponderedVisitsOfWorker = ponderedVisits / numberOfWorkers;
+            runWorkers(worker -> {
+                worker.initMoveSearch(gameState, playerNo, start);
+                worker.ponderedVisits = ponderedVisitsOfWorker;
+                worker.isSharedTree = true;
+                worker.runISMCTS(sharedTree, gameState);
+                return sharedTree;
+            });
+            return sharedTree.selectBestNode().getPlayedCard().getId();
+        }
+        if (numberOfWorkers > 1) {
+            // all workers share the deadline of this decision, the trees of the workers are not kept,
+            // but the tree of the player's pondering search is merged with them
+            List<ISMCTSTree> ponderedTrees = new ArrayList<>();
+            inheritedVisits = 0;
+            ponderedVisits = 0;
+            if (hasPondered(playerNo)) {
+                ponderedTrees.add(initMoveSearch(gameState, playerNo, start));
+            }
+            int ponderedVisitsOfWorker = ponderedVisits / numberOfWorkers;
+            List<ISMCTSTree> trees = runWorkers(worker -> {
+                ISMCTSTree tree = worker.initMoveSearch(gameState, playerNo, start);
+                worker.ponderedVisits = ponderedVisitsOfWorker;
+                worker.runISMCTS(tree, gameState);
+                return tree;
+            });
+            trees.addAll(ponderedTrees);
+            return ISMCTSTree.mergeRootChildren(trees).selectBestNode().getPlayedCard().getId();
+        }
 
         // Run ISMCTS and get the best node
+        ISMCTSTree tree = initMoveSearch(gameState, playerNo, start);
         ISMCTSNode bestNode = runISMCTS(tree, gameState);
         return bestNode.getPlayedCard().getId();
     }
-    
+
+    // Sets observer and budget for a move search and gets the tree.
+    private ISMCTSTree initMoveSearch(GameState gameState, int playerNo, long start) {
+        observer = playerNo;
+        startSearch(gameState, Difficulty.determineNumberOfIterationsVariant1(gameState, observer), start);
+
+        // Keep the tree of the last decision or create root node and tree
+        return reuseOrCreateTree(gameState);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected ISMCTSTree createTree() {
+        return new ISMCTSTree(new ISMCTSNode(observer, null, null));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean rerootTree(ISMCTSTree tree, List<Integer> cardIds) {
+        return tree.reroot(cardIds);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int getVisitsOfRoot(ISMCTSTree tree) {
+        return tree.getRoot().getVisits();
+    }
+
+    /**
+     * Runs a search on a new worker for every worker slot of this instance and waits for all of them.
+     * Every worker is a separate instance, so that the working state of the search is never shared between threads.
+     * The random number generators of the workers are split off the generator of this instance in the order of the workers,
+     * so a root-parallel search with the same seed and without a deadline is reproducible.
+     * The completed iterations of all workers are added up.
+     *
+     * @param search The search to run on a worker, returning the tree the worker has built.
+     * @return The trees of all workers.
+     * @throws IllegalStateException If a worker fails or the waiting thread is interrupted.
+     */
+    private List<ISMCTSTree> runWorkers(Function<SO_ISMCTS, ISMCTSTree> search) throws IllegalStateException {
+        List<SO_ISMCTS> workers = new ArrayList<>();
+        List<Callable<ISMCTSTree>> tasks = new ArrayList<>();
+        for (int i = 0; i < numberOfWorkers; i++) {
+            SO_ISMCTS worker = createWorker();
+            worker.random = random.split();
+            worker.searchBudget = searchBudget;
+            workers.add(worker);
+            tasks.add(() -> search.apply(worker));
+        }
+        List<ISMCTSTree> trees = runInParallel(tasks);
+
+        completedIterations = 0;
+        for (SO_ISMCTS worker : workers) {
+            completedIterations += worker.completedIterations;
+        }
+        return trees;
+    }
+
+    /**
+     * Creates a sequential search instance that is used as a worker of a parallel search or as a pondering search.
+     *
+     * @return A new sequential SO-ISMCTS.
+     */
+    @Override
+    protected SO_ISMCTS createWorker() {
+        return new SO_ISMCTS();
+    }
+
+    public int getNumberOfWorkers() {
+        return numberOfWorkers;
+    }
+
+    public ParallelizationMode getParallelizationMode() {
+        return parallelizationMode;
+    }
+
     /**
      * Runs the ISMCTS algorithm for a given tree and game state to determine the best move.
+     * The iterations run until the budget of the search is exhausted, see {@link #setSearchBudget(game.AI.SearchBudget)}.
      * @param tree The ISMCTS tree to use.
      * @param originalState The original game state.
      * @return The best node (and therefore the best card/move to play).
      */
     protected ISMCTSNode runISMCTS(ISMCTSTree tree, GameState originalState) {
-        for (int i = 0; i < iterations; i++) {
-            if (originalState.getGameMode() == GameMode.HUMAN && System.currentTimeMillis() - startInMillis > MAX_ALLOWED_TIME) {
-                break;
-            }
+        DeterminizationPool determinizations = prepareDeterminizations(originalState);
+        while (!isBudgetExhausted()) {
             // Copy, Determinization & get possible moves
             currentState = originalState.deepCopy();
-            currentState.determinization(observer);
-            possibleCardsToMove = currentState.determineListOfPlayableCards(observer);
+            determinizations.applyTo(currentState, completedIterations, random);
+            possibleCardsToMove = currentState.determineListOfPlayableCards(currentState.getPlayerToMove());
         
             // ISMCTS 4 phases: Selection, Expansion, Simulation, Backpropagation
             ISMCTSNode selectedNode = selectionPhase(tree.getRoot());
             ISMCTSNode expandedNode = expansionPhase(selectedNode);
             simulationPhase();
             backpropagationPhase(expandedNode);
+            completedIterations++;
         }
         return tree.selectBestNode();
     }
@@ -116,7 +284,7 @@ public class SO_ISMCTS extends ISMCTS<ISMCTSNode, ISMCTSTree>{
      */
     protected ISMCTSNode selectionPhaseForPass(ISMCTSNode selectedNode) {
         ISMCTSNode bestNode = UCT.findBestNodeWithUCTForPass(selectedNode);
-        currentState.doPass(observer, bestNode.getPassedCards());
+        currentState.doPass(observer, bestNode.getPassedCards(), random);
         return bestNode;
     }
 
@@ -128,6 +296,7 @@ public class SO_ISMCTS extends ISMCTS<ISMCTSNode, ISMCTSTree>{
     protected ISMCTSNode selectionPhase(ISMCTSNode currentNode) {
         while (!isTerminal() && currentNode.isFullyExpanded(possibleCardsToMove)) {
             currentNode = UCT.findBestNodeWithUCT(currentNode, possibleCardsToMove);
+            addVirtualLoss(currentNode);
             playCard(currentNode.getPlayedCard());
         }
         return currentNode;
@@ -140,7 +309,7 @@ public class SO_ISMCTS extends ISMCTS<ISMCTSNode, ISMCTSTree>{
      */
     protected ISMCTSNode expansionPhaseForPass(ISMCTSNode selectedNode) {
         int[] passCombination = possiblePassCombinations.remove(0);
-        currentState.doPass(observer, passCombination);
+        currentState.doPass(observer, passCombination, random);
         selectedNode = selectedNode.addChildForPass(passCombination, observer);
         return selectedNode;
     }
@@ -158,7 +327,11 @@ public class SO_ISMCTS extends ISMCTS<ISMCTSNode, ISMCTSTree>{
             int currentPlayer = currentState.getPlayerToMove();
             playCard(randomPlayableCard);
             
-            return selectedNode.addChild(randomPlayableCard, currentPlayer);
+            // another worker of a tree-parallel search may have added the child in the meantime
+            ISMCTSNode child = selectedNode.findOrCreateChild(randomPlayableCard, currentPlayer);
+            addVirtualLoss(child);
+            createdNodes++;
+            return child;
         }
         return selectedNode;
     }
@@ -0,0 +1,134 @@
+package game.AI.AiMCTS.AiISMCTS;
+
+import game.DeterminizationPool;
+import game.Difficulty;
+import game.GameState;
+import game.AI.AiMCTS.UCT;
+
+/**
+ * A sequential SO-ISMCTS whose move search stores its tree in an {@link ISMCTSArena} instead of {@link ISMCTSNode} objects.
+ * <p>
+ * The arena is reset for every decision and its arrays are reused, so a long search hardly allocates and the tree takes
+ * a fraction of the memory of an object tree. The moves of a node are handled as masks of card ids: the untried moves are
+ * the playable cards without the child mask of the node. With the same random generator, the search visits the same
+ * nodes as the move search of {@link SO_ISMCTS}.
+ * <p>
+ * The tree is not kept for the next decision and the player does not ponder. Passing is searched as by {@link SO_ISMCTS}.
+ */
+public class SO_ISMCTSArena extends SO_ISMCTS {
+
+    private static final int MAX_DEPTH = 53; // the root and one node for every card of a round
+
+    private final ISMCTSArena arena = new ISMCTSArena();
+    private final int[] path = new int[MAX_DEPTH];
+    private int depth;
+    private long possibleMoves;
+
+    public SO_ISMCTSArena() {
+        super(1);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see ISMTCS#bestMove(GameState, int)
+     */
+    @Override
+    public int bestMove(GameState gameState, int playerNo) {
+        observer = playerNo;
+        startSearch(gameState, Difficulty.determineNumberOfIterationsVariant1(gameState, observer), System.nanoTime());
+        inheritedVisits = 0;
+        arena.reset(observer);
+        return runISMCTS(gameState);
+    }
+
+    /**
+     * Runs the ISMCTS algorithm on the arena for a given game state to determine the best move.
+     * The iterations run until the budget of the search is exhausted, see {@link #setSearchBudget(game.AI.SearchBudget)}.
+     * @param originalState The original game state.
+     * @return The id of the best card to play.
+     */
+    protected int runISMCTS(GameState originalState) {
+        DeterminizationPool determinizations = prepareDeterminizations(originalState);
+        while (!isBudgetExhausted()) {
+            // Copy & Determinization
+            currentState = originalState.deepCopy();
+            determinizations.applyTo(currentState, completedIterations, random);
+
+            // ISMCTS 4 phases: Selection, Expansion, Simulation, Backpropagation
+            selectionPhase();
+            expansionPhase();
+            simulationPhase();
+            backpropagationPhase();
+            completedIterations++;
+        }
+        return arena.getCardId(arena.selectBestNode());
+    }
+
+    // Descends from the root with UCT while every playable card of the player to move has a child.
+    private void selectionPhase() {
+        int node = ISMCTSArena.ROOT;
+        path[0] = node;
+        depth = 1;
+        possibleMoves = getPlayableCardsOfPlayerToMove();
+        while (!currentState.isRoundOver() && possibleMoves != 0 && (possibleMoves & ~arena.getChildMask(node)) == 0) {
+            node = UCT.findBestNodeWithUCT(arena, node, possibleMoves);
+            currentState.doMove(arena.getCardId(node));
+            path[depth++] = node;
+            possibleMoves = getPlayableCardsOfPlayerToMove();
+        }
+    }
+
+    // Adds a child for a random untried card of the selected node and plays the card.
+    private void expansionPhase() {
+        int selectedNode = path[depth - 1];
+        long untriedMoves = currentState.isRoundOver() ? 0 : possibleMoves & ~arena.getChildMask(selectedNode);
+        if (untriedMoves != 0) {
+            // the untried cards in the order of their ids, as in ISMCTSNode#getUntriedMoves
+            for (int i = random.nextInt(Long.bitCount(untriedMoves)); i > 0; i--) {
+                untriedMoves &= untriedMoves - 1;
+            }
+            int cardId = Long.numberOfTrailingZeros(untriedMoves) + 1;
+            int currentPlayer = currentState.getPlayerToMove();
+            currentState.doMove(cardId);
+            path[depth++] = arena.addChild(selectedNode, cardId, currentPlayer);
+            createdNodes++;
+        }
+    }
+
+    // Adds the result of the round to the nodes of the path, from the expanded node to the root.
+    private void backpropagationPhase() {
+        for (int i = depth - 1; i >= 0; i--) {
+            int node = path[i];
+            arena.update(node, currentState.getResult(arena.getPlayerNr(node)));
+        }
+    }
+
+    // Gets the mask of the cards the player to move can play in the current state.
+    private long getPlayableCardsOfPlayerToMove() {
+        return currentState.getPlayers()[currentState.getPlayerToMove()].getHandCardsPlayable().toMask();
+    }
+
+    /**
+     * {@inheritDoc}
+     * The tree of the arena is not kept for the next decision, so there is nothing to ponder.
+     */
+    @Override
+    public void ponder(GameState gameState, int playerNo) {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected SO_ISMCTSArena createWorker() {
+        return new SO_ISMCTSArena();
+    }
+
+    /**
+     * Gets the tree of the last move search.
+     * @return The arena, valid until the next move search.
+     */
+    public ISMCTSArena getArena() {
+        return arena;
+    }
+}
@@ -1,15 +1,11 @@
 package game.AI.AiMCTS.AiISMCTSANN;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Random;
-import game.Card;
+import game.DeterminizationPool;
+import game.DeterminizationSampler;
 import game.GameState;
 import game.AI.AiMCTS.AiISMCTS.ISMCTSNode;
 import game.AI.AiMCTS.AiISMCTS.ISMCTSTree;
@@ -22,6 +18,11 @@ import game.AI.AiMCTS.AiISMCTS.SO_ISMCTS;
  */
 public class ISMCTSANN extends SO_ISMCTS {
 
+    /**
+     * The number of determinizations whose playouts are simulated together, so that the models score them in one call.
+     */
+    public static final int BATCH_SIZE = 32;
+
     /**
      * Initializes the ISMCTSANN class and prints an initialization message.
      */
@@ -39,104 +40,153 @@ public class ISMCTSANN extends SO_ISMCTS {
      */
     @Override
     protected int[] runISMCTSPass(ISMCTSTree tree, GameState copiedState) {
-        for (int i = 0; i < iterations; i++) {
+        DeterminizationSampler sampler = new DeterminizationSampler(copiedState, observer);
+        while (!isBudgetExhausted()) {
             //Copy, Determinization & get possible moves
             currentState = copiedState.deepCopy();
-            currentState.determinization(observer);
+            sampler.applyTo(currentState, random);
             ISMCTSNode selectedNode = tree.getRoot();
 
             // ISMCTS 4 phases: Selection or Expansion, Simulation, Backpropagation
             if(!possiblePassCombinations.isEmpty()) {
                 selectedNode = expansionPhaseForPass(selectedNode);
+                createdNodes++;
             }else {
                 selectedNode = selectionPhaseForPass(selectedNode);
             }
             super.simulationPhase();
             backpropagationPhase(selectedNode);
+            completedIterations++;
         }
         return tree.selectBestNode().getPassedCards();
     }
 
+    /**
+     * Runs the iterations in batches of {@link #BATCH_SIZE} determinizations. Every determinization of a batch is selected and
+     * expanded first, with virtual losses so that they spread over the tree, then all playouts are simulated in lockstep,
+     * and finally all results are backpropagated. The budget of the search is checked before every batch, and the last
+     * batch is shortened to the maximum number of iterations.
+     * @param tree The ISMCTS tree to use.
+     * @param originalState The original game state.
+     * @return The best node (and therefore the best card/move to play).
+     */
+    @Override
+    protected ISMCTSNode runISMCTS(ISMCTSTree tree, GameState originalState) {
+        DeterminizationPool determinizations = prepareDeterminizations(originalState);
+        while (!isBudgetExhausted()) {
+            int batchSize = Math.min(BATCH_SIZE, budgetTracker.getMaxIterations() - completedIterations);
+            List<GameState> playouts = new ArrayList<>(batchSize);
+            List<ISMCTSNode> expandedNodes = new ArrayList<>(batchSize);
+
+            // Selection & Expansion for every determinization of the batch
+            for (int b = 0; b < batchSize; b++) {
+                currentState = originalState.deepCopy();
+                determinizations.applyTo(currentState, completedIterations + b, random);
+                possibleCardsToMove = currentState.determineListOfPlayableCards(observer);
+
+                ISMCTSNode selectedNode = selectionPhase(tree.getRoot());
+                expandedNodes.add(expansionPhase(selectedNode));
+                playouts.add(currentState);
+            }
+
+            // Simulation in lockstep, Backpropagation
+            simulateInLockstep(playouts);
+            for (int b = 0; b < batchSize; b++) {
+                currentState = playouts.get(b);
+                backpropagationPhase(expandedNodes.get(b));
+                completedIterations++;
+            }
+        }
+        return tree.selectBestNode();
+    }
+
+    /**
+     * Does not ponder: the LSTM models are shared by the searches of all players, so a background search would slow down
+     * the decisions of the other players.
+     */
+    @Override
+    public void ponder(GameState gameState, int playerNo) {
+    }
+
+    /**
+     * The iterations of a batch select nodes before the results of the other iterations are known.
+     */
+    @Override
+    protected boolean usesVirtualLoss() {
+        return true;
+    }
+
     /**
      * Conducts the simulation phase, invoking the LSTM model to predict the best move.
      */
     @Override
     protected void simulationPhase() {
-        int [] featureArray = new int[65];
-        Arrays.fill(featureArray, 0);
-        while (!currentState.isRoundOver()) {
-        iterations = 1;
-        System.out.println("Starting simulationPhase");
-        int playerNo = currentState.getPlayerToMove();
-        System.out.println("Player to move: " + playerNo);
-        System.out.println("TricksPlayed: " + currentState.getTricksPlayed());
-        featureArray = gameStateToFeatureArray(currentState, playerNo);
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < featureArray.length; i++) {
-            sb.append(featureArray[i]);
-            if (i < featureArray.length - 1) {
-                sb.append(",");
-            }
+        simulateInLockstep(Collections.singletonList(currentState));
+    }
+
+    /**
+     * Plays all playouts to the end of the round. In every step, the feature arrays of all unfinished playouts are
+     * collected and scored with one call per player model, then every playout plays its predicted card.
+     * @param playouts The determinized game states to play out.
+     */
+    protected void simulateInLockstep(List<GameState> playouts) {
+        List<List<GameState>> waitingPerPlayer = new ArrayList<>(4);
+        List<List<int[]>> featuresPerPlayer = new ArrayList<>(4);
+        for (int playerNo = 0; playerNo < 4; playerNo++) {
+            waitingPerPlayer.add(new ArrayList<>());
+            featuresPerPlayer.add(new ArrayList<>());
         }
 
-        String gameStateAsString = sb.toString();
-        System.out.println("GameState as String for LSTM: " + gameStateAsString);
-        String scriptPath = getScriptPathForPlayer(playerNo);
-        System.out.println("Using script path: " + scriptPath);
-
-        try {
-            ProcessBuilder pb = new ProcessBuilder("python", scriptPath);
-            Process p = pb.start();
-            System.out.println("Process started for LSTM prediction");
-
-            BufferedWriter out = new BufferedWriter(new OutputStreamWriter(p.getOutputStream()));
-            out.write(gameStateAsString);
-            out.flush();
-            out.close();
-            System.out.println("GameState sent to LSTM model");
-
-            BufferedReader in = new BufferedReader(new InputStreamReader(p.getInputStream()));
-            String predictedCardIdAsString = in.readLine();
-            System.out.println("Predicted card ID as String: " + predictedCardIdAsString);
-
-            BufferedReader errIn = new BufferedReader(new InputStreamReader(p.getErrorStream()));
-            String errorLine;
-            while ((errorLine = errIn.readLine()) != null) {
-            System.out.println("Python Error Output: " + errorLine);
+        boolean roundOver = false;
+        while (!roundOver) {
+            roundOver = true;
+            for (GameState playout : playouts) {
+                if (!playout.isRoundOver()) {
+                    int playerNo = playout.getPlayerToMove();
+                    waitingPerPlayer.get(playerNo).add(playout);
+                    featuresPerPlayer.get(playerNo).add(gameStateToFeatureArray(playout, playerNo));
+                    roundOver = false;
+                }
             }
-        errIn.close();
-            
-        if (predictedCardIdAsString != null) {
-            int predictedCardId = Integer.parseInt(predictedCardIdAsString);
-            System.out.println("predictedCardId: " + predictedCardId);
-        
-            if (predictedCardId != 0) {
-                Card predictedCard = new Card(predictedCardId);
-                System.out.println("Predicted card: " + predictedCard);
-        
-                if (isCardPlayable(playerNo, predictedCard)) {
-                    System.out.println("Predicted card is playable, playing card: " + predictedCardId);
-                    currentState.doMove(predictedCardId);
-                } else {
-                    System.out.println("Predicted card is not playable, playing fallback card");
-                    playFallbackCard();
+
+            for (int playerNo = 0; playerNo < 4; playerNo++) {
+                List<GameState> waiting = waitingPerPlayer.get(playerNo);
+                if (waiting.isEmpty()) continue;
+
+                int[] predictedCardIds;
+                try {
+                    predictedCardIds = predict(playerNo, featuresPerPlayer.get(playerNo));
+                } catch (IOException e) {
+                    System.out.println("IOException occurred during LSTM prediction process");
+                    e.printStackTrace();
+                    predictedCardIds = new int[waiting.size()];
+                }
+
+                for (int b = 0; b < waiting.size(); b++) {
+                    GameState playout = waiting.get(b);
+                    int predictedCardId = predictedCardIds[b];
+                    if (predictedCardId != 0 && isCardPlayable(playout, playerNo, predictedCardId)) {
+                        playout.doMove(predictedCardId);
+                    } else {
+                        playFallbackCard(playout);
+                    }
                 }
-            } else {
-                System.out.println("Predicted card ID is 0, which is invalid. Playing fallback card.");
-                playFallbackCard();
+                waiting.clear();
+                featuresPerPlayer.get(playerNo).clear();
             }
-        } else {
-            System.out.println("No predicted card ID received. Playing fallback card.");
-            playFallbackCard();
-        }
-        
-            in.close();
-        } catch (IOException e) {
-            System.out.println("IOException occurred during LSTM prediction process");
-            e.printStackTrace();
         }
     }
-    
+
+    /**
+     * Predicts the cards to play for a batch of feature arrays with the LSTM model of a player.
+     * The models run in long-lived worker processes, see {@link LSTMInferenceWorker}.
+     * @param playerNo The player number.
+     * @param batch The feature arrays, see {@link #gameStateToFeatureArray(GameState, int)}.
+     * @return The predicted card ids in the order of the feature arrays, 0 if there is no prediction.
+     * @throws IOException If the model cannot be reached.
+     */
+    protected int[] predict(int playerNo, List<int[]> batch) throws IOException {
+        return LSTMInferenceWorker.forScript(getScriptPathForPlayer(playerNo)).predict(batch);
     }
 
     /**
@@ -157,28 +207,27 @@ public class ISMCTSANN extends SO_ISMCTS {
     /**
      * Plays a fallback card if no valid prediction can be made or if the predicted card is not playable.
      */
-    private void playFallbackCard() {
-        List<Card> playableCards = currentState.determineListOfPlayableCards(currentState.getPlayerToMove());
-        Card randomPlayableCard = playableCards.get(new Random().nextInt(playableCards.size()));
-        currentState.doMove(randomPlayableCard.getId());
+    private void playFallbackCard(GameState state) {
+        List<Integer> playableCardIds = state.determineListOfPlayableCardIds(state.getPlayerToMove());
+        state.doMove(playableCardIds.get(random.nextInt(playableCardIds.size())));
     }
 
     /**
      * Retrieves a list of card IDs that have been played until the current point in the game.
+     * @param state The game state.
      * @return A list of integers representing played card IDs.
      */
-    private List<Integer> cardsplayed() {
+    private List<Integer> cardsplayed(GameState state) {
         List<Integer> cardsPlayedUntilNow = new ArrayList<>();
-    for (int i = 0; i < currentState.getTricksPlayed() - 1; i++) {
-        int[] cardsFromTrick = currentState.getRoundTricks()[i].getCardsPlayed();
-        for (int cardId : cardsFromTrick) {
-    
-            cardsPlayedUntilNow.add(cardId);
+        for (int i = 0; i < state.getTricksPlayed() - 1; i++) {
+            int[] cardsFromTrick = state.getRoundTricks()[i].getCardsPlayed();
+            for (int cardId : cardsFromTrick) {
+                cardsPlayedUntilNow.add(cardId);
+            }
         }
+        return cardsPlayedUntilNow;
     }
-    
-    return cardsPlayedUntilNow;
-}
+
     /**
      * Converts the current game state into a feature array suitable for the LSTM model.
      * @param currentState The current state of the game.
@@ -188,13 +237,11 @@ public class ISMCTSANN extends SO_ISMCTS {
     public int[] gameStateToFeatureArray(GameState currentState, int playerNo) {
         List<Integer> allFeatures = new ArrayList<>();
         
-        List<Integer> playedCardIdsList =(cardsplayed());
+        List<Integer> playedCardIdsList = cardsplayed(currentState);
         allFeatures.addAll(playedCardIdsList);
-        System.out.println("playedCardIdsList: " + playedCardIdsList.size());
 
         List<Integer> playableCardIds = currentState.determineListOfPlayableCardIds(playerNo);
         allFeatures.addAll(playableCardIds);
-        System.out.println("playableCardIds: " + playableCardIds.size());
 
         while (allFeatures.size() < 65) {
             allFeatures.add(-100);
@@ -205,15 +252,13 @@ public class ISMCTSANN extends SO_ISMCTS {
     }
 
     /**
-     * Determines if a given card is playable based on the current game state and player number.
+     * Determines if a given card is playable based on the given game state and player number.
+     * @param state The game state.
      * @param playerNo The player number.
-     * @param card The card to check.
+     * @param cardId The card to check.
      * @return True if the card is playable, false otherwise.
      */
-    private boolean isCardPlayable(int playerNo, Card card) {
-        List<Card> playableCards = currentState.determineListOfPlayableCards(currentState.getPlayerToMove());
-        return playableCards.contains(card);
+    private boolean isCardPlayable(GameState state, int playerNo, int cardId) {
+        return state.determineListOfPlayableCardIds(playerNo).contains(cardId);
     }
 }
-
-
@@ -0,0 +1,265 @@
+package game.AI.AiMCTS.AiISMCTSANN;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long-lived inference process for an LSTM player model, so that the model is loaded once instead of once per move.
+ * <p>
+ * The script is started with the argument {@code --serve} and has to answer with the line {@code READY} once the model
+ * is loaded. Afterwards every request is framed by a line containing the number n of feature arrays, followed by n lines
+ * with the comma separated features. The script answers with n lines, each containing the predicted card id or 0 if there
+ * is no prediction. Several feature arrays can therefore be scored in one call.
+ * <p>
+ * If a script does not answer the handshake, it is treated as a legacy script, which reads one feature array from
+ * stdin, prints one card id and exits. A new process is then started for every feature array, as before.
+ */
+public class LSTMInferenceWorker {
+
+    static final String SERVE_ARGUMENT = "--serve";
+    static final String READY = "READY";
+    private static final long HANDSHAKE_TIMEOUT_MS = 30000;
+    private static final long RESPONSE_TIMEOUT_MS = 10000;
+    private static final String END_OF_STREAM = new String("end of stream");     // compared by identity, cannot be sent by the script
+
+    private static final ConcurrentHashMap<String, LSTMInferenceWorker> workers = new ConcurrentHashMap<String, LSTMInferenceWorker>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(LSTMInferenceWorker::closeAll));
+    }
+
+    private final List<String> command;
+    private final File directory;
+    private Process process;
+    private BufferedWriter toWorker;
+    private BlockingQueue<String> fromWorker;
+    private boolean legacy;
+    private long roundTrips;
+
+    /**
+     * Creates a worker for a command. The process is started with the first request.
+     *
+     * @param command The command starting the script without the argument {@code --serve}.
+     */
+    public LSTMInferenceWorker(List<String> command){
+        this(command, null);
+    }
+
+    /**
+     * Creates a worker for a command that is started in the given working directory, e.g. the directory containing the model files.
+     *
+     * @param command The command starting the script without the argument {@code --serve}.
+     * @param directory The working directory of the script, or null for the working directory of this process.
+     */
+    public LSTMInferenceWorker(List<String> command, File directory){
+        this.command = new ArrayList<String>(command);
+        this.directory = directory;
+    }
+
+    /**
+     * Gets the shared worker for a python script, which is started with {@code python <scriptPath>}.
+     */
+    public static LSTMInferenceWorker forScript(String scriptPath){
+        return workers.computeIfAbsent(scriptPath, s -> new LSTMInferenceWorker(Arrays.asList("python", s)));
+    }
+
+    /**
+     * Stops the processes of all shared workers.
+     */
+    public static void closeAll(){
+        for (LSTMInferenceWorker worker : workers.values()){
+            worker.close();
+        }
+    }
+
+    /**
+     * Predicts the card to play for one feature array.
+     *
+     * @return The predicted card id, or 0 if there is no prediction.
+     * @throws IOException If the script cannot be started or does not answer.
+     */
+    public int predict(int[] features) throws IOException{
+        return predict(Collections.singletonList(features))[0];
+    }
+
+    /**
+     * Predicts the cards to play for several feature arrays with one request.
+     *
+     * @return The predicted card ids in the order of the feature arrays, 0 if there is no prediction.
+     * @throws IOException If the script cannot be started or does not answer. The process is stopped and started again with the next request.
+     */
+    public synchronized int[] predict(List<int[]> batch) throws IOException{
+        if (batch.isEmpty()) return new int[0];
+        if (process == null && !legacy) start();
+        if (legacy) return predictWithNewProcesses(batch);
+
+        try {
+            StringBuilder request = new StringBuilder();
+            request.append(batch.size()).append('\n');
+            for (int[] features : batch){
+                appendFeatures(request, features);
+                request.append('\n');
+            }
+            toWorker.write(request.toString());
+            toWorker.flush();
+            roundTrips++;
+
+            int[] cardIds = new int[batch.size()];
+            for (int i = 0; i < cardIds.length; i++){
+                cardIds[i] = parseCardId(readLine(RESPONSE_TIMEOUT_MS));
+            }
+            return cardIds;
+        } catch (IOException e){
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Whether the script did not answer the handshake and a new process is started for every feature array.
+     */
+    public synchronized boolean isLegacy(){
+        return legacy;
+    }
+
+    /**
+     * Gets the number of requests sent to a script so far. A batch sent to a persistent process counts once, while
+     * a legacy script counts once per feature array.
+     */
+    public synchronized long getRoundTrips(){
+        return roundTrips;
+    }
+
+    /**
+     * Stops the process of the worker. The next request starts it again.
+     */
+    public synchronized void close(){
+        if (process == null) return;
+        try {
+            toWorker.close();
+        } catch (IOException e){
+            // the process is destroyed anyway
+        }
+        process.destroy();
+        process = null;
+        toWorker = null;
+        fromWorker = null;
+    }
+
+    private void start() throws IOException{
+        List<String> serveCommand = new ArrayList<String>(command);
+        serveCommand.add(SERVE_ARGUMENT);
+        process = new ProcessBuilder(serveCommand).directory(directory).start();
+        toWorker = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+        fromWorker = new LinkedBlockingQueue<String>();
+        startReader(new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8)), fromWorker);
+        startErrorReader(process);
+
+        String handshake;
+        try {
+            handshake = readLine(HANDSHAKE_TIMEOUT_MS);
+        } catch (IOException e){
+            handshake = null;
+        }
+        if (!READY.equals(handshake)){
+            System.out.println("LSTM-Skript " + command + " unterstützt " + SERVE_ARGUMENT + " nicht, starte einen Prozess pro Anfrage.");
+            close();
+            legacy = true;
+        }
+    }
+
+    private String readLine(long timeoutMs) throws IOException{
+        String line;
+        try {
+            line = fromWorker.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the LSTM worker.");
+        }
+        if (line == null) throw new IOException("The LSTM worker did not answer within " + timeoutMs + " ms.");
+        if (line == END_OF_STREAM) throw new IOException("The LSTM worker has terminated.");
+        return line;
+    }
+
+    /*
+    * Starts the previous protocol: one process per feature array.
+    */
+    private int[] predictWithNewProcesses(List<int[]> batch) throws IOException{
+        int[] cardIds = new int[batch.size()];
+        for (int i = 0; i < cardIds.length; i++){
+            Process p = new ProcessBuilder(command).directory(directory).start();
+            roundTrips++;
+            startErrorReader(p);
+            StringBuilder request = new StringBuilder();
+            appendFeatures(request, batch.get(i));
+            try (BufferedWriter out = new BufferedWriter(new OutputStreamWriter(p.getOutputStream(), StandardCharsets.UTF_8))) {
+                out.write(request.toString());
+            }
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+                cardIds[i] = parseCardId(in.readLine());
+            }
+        }
+        return cardIds;
+    }
+
+    private static void appendFeatures(StringBuilder sb, int[] features){
+        for (int i = 0; i < features.length; i++){
+            if (i > 0) sb.append(',');
+            sb.append(features[i]);
+        }
+    }
+
+    private static int parseCardId(String line){
+        if (line == null) return 0;
+        try {
+            return Integer.parseInt(line.trim());
+        } catch (NumberFormatException e){
+            System.out.println("Ungültige Antwort des LSTM-Modells: " + line);
+            return 0;
+        }
+    }
+
+    private static void startReader(BufferedReader in, BlockingQueue<String> lines){
+        Thread reader = new Thread(() -> {
+            try {
+                String line;
+                while ((line = in.readLine()) != null){
+                    lines.add(line);
+                }
+            } catch (IOException e){
+                // the process has been stopped
+            }
+            lines.add(END_OF_STREAM);
+        }, "lstm-worker-out");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    private static void startErrorReader(Process p){
+        Thread reader = new Thread(() -> {
+            try (BufferedReader errIn = new BufferedReader(new InputStreamReader(p.getErrorStream(), StandardCharsets.UTF_8))) {
+                String errorLine;
+                while ((errorLine = errIn.readLine()) != null){
+                    System.out.println("Python Error Output: " + errorLine);
+                }
+            } catch (IOException e){
+                // the process has been stopped
+            }
+        }, "lstm-worker-err");
+        reader.setDaemon(true);
+        reader.start();
+    }
+}
@@ -4,25 +4,33 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 import game.Card;
 import game.GameController;
-import game.GameMode;
 import game.GameState;
 import game.Player;
 import game.AI.AiInterface;
 import game.AI.Node;
+import game.AI.SearchBudget;
 import game.AI.Tree;
+import game.AI.AiMCTS.RolloutKernel;
 
 /**
  * This class provides basic functionalities for MCTS-based AI.
  */
 public abstract class AiMCTSBasic implements AiInterface{
+    protected static final int MAX_ALLOWED_TIME = 5000; //Time of a decision in human mode without a search budget.
     protected MCTSTree tree; //The game tree.
     protected MCTSNode root;
     protected int numberOfIterations;
     protected int expansionDepth;
     protected int maxNumberOfPossiblePasses;
+    protected SplittableRandom random; //Draws the random choices of the selection and simulation phases.
+    protected RolloutKernel rolloutKernel; //Plays the random tricks of the simulation phases.
+    protected SearchBudget searchBudget; //null for the default budget, see setSearchBudget.
+    protected int completedIterations;
+    protected int createdNodes;
+    protected TranspositionTable transpositionTable; //null for a pure tree, see setTranspositionTable.
 
     public AiMCTSBasic(){
         this.tree = null;
@@ -30,6 +38,63 @@ public abstract class AiMCTSBasic implements AiInterface{
         this.numberOfIterations = 0;
         this.expansionDepth = 0;
         this.maxNumberOfPossiblePasses = 0;
+        this.random = new SplittableRandom();
+        this.rolloutKernel = new RolloutKernel();
+        this.searchBudget = null;
+        this.transpositionTable = null;
+    }
+
+    @Override
+    public void setRandom(SplittableRandom random){
+        this.random = random;
+    }
+
+    /** 
+     * {@inheritDoc}
+     * Without a budget, a search runs the number of iterations of the difficulty and at most 5 seconds in human mode.
+     */
+    @Override
+    public void setSearchBudget(SearchBudget searchBudget){
+        this.searchBudget = searchBudget;
+    }
+
+    /** 
+     * Method that sets the transposition table of the bestMove search. The nodes of the same game state then share their
+     * statistics, see TranspositionTable. The table is cleared at the start of every bestMove search.
+     * @param transpositionTable The table, null for a pure tree.
+     */
+    public void setTranspositionTable(TranspositionTable transpositionTable){
+        this.transpositionTable = transpositionTable;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
+
+    /** 
+     * Method that starts tracking the budget of a search and resets its counters.
+     * @param gameState The game state of the decision.
+     * @return SearchBudget.Tracker The tracker of the budget, see SearchBudget.Tracker.isExhausted.
+     */
+    protected SearchBudget.Tracker startSearch(GameState gameState) {
+        SearchBudget budget = searchBudget != null ? searchBudget : SearchBudget.defaultFor(gameState, MAX_ALLOWED_TIME);
+        this.completedIterations = 0;
+        this.createdNodes = 0;
+        return budget.start(System.nanoTime(), this.numberOfIterations);
+    }
+
+    /** 
+     * Method that counts the children an expansion phase has added to the selected node, which was a leaf before.
+     * @param selectedNode The selected node of the expansion phase.
+     */
+    private void countCreatedNodes(MCTSNode selectedNode) {
+        if (!selectedNode.isLeaf()){
+            this.createdNodes += selectedNode.getChildren().size();
+        }
+    }
+
+    public int getCompletedIterations() {
+        return completedIterations;
     }
     
     /** 
@@ -82,26 +147,16 @@ public abstract class AiMCTSBasic implements AiInterface{
      */
     protected MCTSNode runBestPassMCTS(MCTSTree tree) {
 
-        long start = System.currentTimeMillis();
-        long end = start + 5 * 1000; //End after 5 seconds.
-        GameMode gameMode = tree.getRoot().getGameState().getGameMode();
+        //The search is aborted as soon as its budget is exhausted, e.g. after 5 seconds in human mode.
+        SearchBudget.Tracker budgetTracker = startSearch(tree.getRoot().getGameState());
 
-        for (int i = 0; i < this.numberOfIterations; i++) {                
+        while (!budgetTracker.isExhausted(this.completedIterations, this.createdNodes)) {
             MCTSNode selectedNode = selectionPhase((MCTSNode) tree.getRoot());
             MCTSNode expandedNode = expansionPhaseForBestPass(selectedNode);
+            countCreatedNodes(selectedNode);
             List<Double> gameResultList = simulationPhaseForBestPass(expandedNode, ((MCTSNode) tree.getRoot()).getPlayerNo());
             backpropagationPhase(expandedNode, gameResultList);
-
-            //MCTS algorithm is aborted if 5 seconds are exceeded (only in human mode).
-            //For performance improvement, the time query is only carried out every 100 iterations.
-            if (gameMode == GameMode.HUMAN) {
-                if (i % 100 == 0){
-                    if(System.currentTimeMillis() > end){
-                        break;
-                    }
-                }
-            }
-
+            this.completedIterations++;
         }
 
         return tree.selectBestNode();
@@ -128,6 +183,10 @@ public abstract class AiMCTSBasic implements AiInterface{
         this.root.setActionsPlayableCards(this.root.getGameState().determineListOfPlayableCards(this.root.getPlayerNo()));        
         this.tree = new MCTSTree(root);
         this.maxNumberOfPossiblePasses = 0;
+        //The statistics of the last search were gathered for another root.
+        if (this.transpositionTable != null){
+            this.transpositionTable.clear();
+        }
         //To reduce memory requirements, a fixed limit on the expansion depth can be selected here. 
         //Since expansion only takes place up to the end of the round and no memory problems have yet occurred, it is not explicitly required here.
         this.expansionDepth = Integer.MAX_VALUE;
@@ -148,26 +207,16 @@ public abstract class AiMCTSBasic implements AiInterface{
      */
     protected MCTSNode runBestMoveMCTS(MCTSTree tree) {
 
-        long start = System.currentTimeMillis();
-        long end = start + 5 * 1000; //End after 5 seconds.
-        GameMode gameMode = tree.getRoot().getGameState().getGameMode();
+        //The search is aborted as soon as its budget is exhausted, e.g. after 5 seconds in human mode.
+        SearchBudget.Tracker budgetTracker = startSearch(tree.getRoot().getGameState());
 
-        for (int i = 0; i < this.numberOfIterations; i++) {        
+        while (!budgetTracker.isExhausted(this.completedIterations, this.createdNodes)) {
             MCTSNode selectedNode = selectionPhase((MCTSNode) tree.getRoot());
             MCTSNode expandedNode = expansionPhase(selectedNode);
+            countCreatedNodes(selectedNode);
             List<Double> gameResultList = simulationPhase(expandedNode, ((MCTSNode) tree.getRoot()).getPlayerNo());
             backpropagationPhase(expandedNode, gameResultList);
-
-            //MCTS algorithm is aborted if 5 seconds are exceeded (only in human mode).
-            //For performance improvement, the time query is only carried out every 100 iterations.
-            if (gameMode == GameMode.HUMAN) {
-                if (i % 100 == 0){
-                    if(System.currentTimeMillis() > end){
-                        break;
-                    }
-                }
-            }
-
+            this.completedIterations++;
         }
 
         return tree.selectBestNode();
@@ -224,8 +273,7 @@ public abstract class AiMCTSBasic implements AiInterface{
             }
             if (notVisitedChildren.size() > 0){
                 //1.: Equally distributed choice
-                Random rng = new Random();
-                int index = rng.nextInt(notVisitedChildren.size());
+                int index = random.nextInt(notVisitedChildren.size());
                 cur = (MCTSNode) notVisitedChildren.get(index);
             } else{
                 //2.: Choice according to selection strategy 
@@ -281,7 +329,7 @@ public abstract class AiMCTSBasic implements AiInterface{
             cur.setVisits(cur.getVisits()+1);
             //cur.setWinScore(cur.getWinScore() + gameResultList.get(1).doubleValue());
             cur.setWinScore(cur.getWinScore() + gameResultList.get(2).doubleValue());
-            double newAveragePayout = (((double) cur.getVisits()-1)/((double) cur.getVisits()))*cur.avgPayout
+            double newAveragePayout = (((double) cur.getVisits()-1)/((double) cur.getVisits()))*cur.getAvgPayout()
                                     + (((double) 1)/((double) cur.getVisits()))* gameResultList.get(0).doubleValue() ;            
             cur.setAvgPayout(newAveragePayout);
             cur = (MCTSNode) cur.getParent();
@@ -290,7 +338,7 @@ public abstract class AiMCTSBasic implements AiInterface{
         cur.setVisits(cur.getVisits()+1);
         //cur.setWinScore(cur.getWinScore() + gameResultList.get(1).doubleValue());
         cur.setWinScore(cur.getWinScore() + gameResultList.get(2).doubleValue());
-        double newAveragePayout = (((double) cur.getVisits()-1)/((double) cur.getVisits()))*cur.avgPayout
+        double newAveragePayout = (((double) cur.getVisits()-1)/((double) cur.getVisits()))*cur.getAvgPayout()
                                 + (((double) 1)/((double) cur.getVisits()))* gameResultList.get(0).doubleValue();        
         cur.setAvgPayout(newAveragePayout);
     }   
@@ -384,6 +432,7 @@ public abstract class AiMCTSBasic implements AiInterface{
         private double avgPayout;
         private int depth;
         private Card[] actionPassedCards; //The cards with coding Id 1-52, which were played (passed) in this node/game state by its corresponding player.
+        private TranspositionTable.Entry statistics; //The statistics shared with the other nodes of the same game state, null without transposition table.
 
         public MCTSNode(GameState g, int depth){
             super(g);
@@ -424,11 +473,52 @@ public abstract class AiMCTSBasic implements AiInterface{
         }
 
         public double getAvgPayout() {
-            return avgPayout;
+            return statistics != null ? statistics.getAvgPayout() : avgPayout;
         }
 
         protected void setAvgPayout(double avgPayout) {
-            this.avgPayout = avgPayout;
+            if (statistics != null){
+                statistics.setAvgPayout(avgPayout);
+            } else{
+                this.avgPayout = avgPayout;
+            }
+        }
+
+        @Override
+        public int getVisits() {
+            return statistics != null ? statistics.getVisits() : super.getVisits();
+        }
+
+        @Override
+        public void setVisits(int visits) {
+            if (statistics != null){
+                statistics.setVisits(visits);
+            } else{
+                super.setVisits(visits);
+            }
+        }
+
+        @Override
+        public double getWinScore() {
+            return statistics != null ? statistics.getWinScore() : super.getWinScore();
+        }
+
+        @Override
+        public void setWinScore(double winScore) {
+            if (statistics != null){
+                statistics.setWinScore(winScore);
+            } else{
+                super.setWinScore(winScore);
+            }
+        }
+
+        /** 
+         * Method that lets the node share the statistics of its game state with the other nodes of the state.
+         * The visits, winScore and avgPayout of the node are read from and written to the entry from now on.
+         * @param statistics The entry of the node's game state in the transposition table.
+         */
+        protected void setStatistics(TranspositionTable.Entry statistics) {
+            this.statistics = statistics;
         }
 
         public int getDepth() {
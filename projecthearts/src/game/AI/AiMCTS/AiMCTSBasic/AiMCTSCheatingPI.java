@@ -2,7 +2,6 @@ package game.AI.AiMCTS.AiMCTSBasic;
 
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Random;
 
 import game.Card;
 import game.GameState;
@@ -49,7 +48,7 @@ public abstract class AiMCTSCheatingPI extends AiMCTSBasic{
                 selectedNode.setChildren(new LinkedList<Node>());
                 for (int index=0; index<(selectedNode.getActionsPlayableCards()).size(); index++) {
                     MCTSNode newChild = new MCTSNode(null, selectedNode.getDepth()+1);                    
-                    newChild.setActionPlayedCard(new Card(selectedNode.getActionsPlayableCards().get(index).getId()));
+                    newChild.setActionPlayedCard(selectedNode.getActionsPlayableCards().get(index));
                     newChild.setParent(selectedNode);
                     
                     //1. Create deep copy of the game state of the parent:
@@ -74,12 +73,15 @@ public abstract class AiMCTSCheatingPI extends AiMCTSBasic{
                     if (newChild.getPlayerNo() != -1){ //If there is still a next player! Because of access to array.
                         newChild.setActionsPlayableCards(newChild.getGameState().determineListOfPlayableCards(newChild.getPlayerNo()));     
                     }               
+                    //5. With a transposition table, share the statistics with the nodes of the same game state reached on other paths.
+                    if (transpositionTable != null){
+                        newChild.setStatistics(transpositionTable.getOrCreate(TranspositionTable.hashOf(newChild.getGameState(), newChild.getPlayerNo())));
+                    }
                     
                     selectedNode.getChildren().add(newChild);        
                 }
                 //Equally distributed choice between one of the added child nodes
-                Random rng = new Random();
-                int index = rng.nextInt(selectedNode.getChildren().size());
+                int index = random.nextInt(selectedNode.getChildren().size());
                 MCTSNode expandedNodeSelected = (MCTSNode) selectedNode.getChildren().get(index);
                 resultNode = expandedNodeSelected;
             }                        
@@ -138,11 +140,10 @@ public abstract class AiMCTSCheatingPI extends AiMCTSBasic{
                ){
                 listOf3CardNumberSubsetsAsChildren = listOf3CardNumberSubsets;      
             } else {         
-                Random rngSubsets = new Random();
                 try {
                     if (maxNumberOfPossiblePasses <= listOf3CardNumberSubsets.size()){
                         for (int i = 1; i <= maxNumberOfPossiblePasses; i++){
-                            int index3 = rngSubsets.nextInt(listOf3CardNumberSubsets.size());
+                            int index3 = random.nextInt(listOf3CardNumberSubsets.size());
                             listOf3CardNumberSubsetsAsChildren.add(listOf3CardNumberSubsets.get(index3));
                             listOf3CardNumberSubsets.remove(index3);
                         }
@@ -162,9 +163,9 @@ public abstract class AiMCTSCheatingPI extends AiMCTSBasic{
                     MCTSNode newChild = new MCTSNode(null, selectedNode.getDepth()+1);
                     
                     Card[] passedCards = new Card[3];
-                    passedCards[0] = new Card(listOf3CardNumberSubsetsAsChildren.get(index)[0]);
-                    passedCards[1] = new Card(listOf3CardNumberSubsetsAsChildren.get(index)[1]);
-                    passedCards[2] = new Card(listOf3CardNumberSubsetsAsChildren.get(index)[2]);
+                    passedCards[0] = Card.of(listOf3CardNumberSubsetsAsChildren.get(index)[0]);
+                    passedCards[1] = Card.of(listOf3CardNumberSubsetsAsChildren.get(index)[1]);
+                    passedCards[2] = Card.of(listOf3CardNumberSubsetsAsChildren.get(index)[2]);
                     newChild.setActionPassedCards(passedCards);
                     
                     newChild.setParent(selectedNode);                    
@@ -186,8 +187,7 @@ public abstract class AiMCTSCheatingPI extends AiMCTSBasic{
             //Choose one of the child nodes:
             if (selectedNode.getChildren().size() > 0){
                 //Equally distributed choice between one of the added child nodes
-                Random rng = new Random();
-                int index = rng.nextInt(selectedNode.getChildren().size());
+                int index = random.nextInt(selectedNode.getChildren().size());
                 MCTSNode expandedNodeSelected = (MCTSNode) selectedNode.getChildren().get(index);
                 resultNode = expandedNodeSelected;
             }
@@ -3,7 +3,6 @@ package game.AI.AiMCTS.AiMCTSBasic;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Random;
 import game.Card;
 import game.GameController;
 import game.GameState;
@@ -54,8 +53,7 @@ public abstract class AiMCTSCheatingPIGameSim extends AiMCTSCheatingPI{
             // if without else
             if (gameStateForSimulation.getNewestTrick().getNumPlayedCards() < 4){ //Trick not yet finished.
                 // Randomly/evenly select one of the playable cards of the next player/opponent.
-                Random rngCard = new Random();
-                int index = rngCard.nextInt(expandedNode.getActionsPlayableCards().size());
+                int index = random.nextInt(expandedNode.getActionsPlayableCards().size());
                 Card cardToPlay = expandedNode.getActionsPlayableCards().get(index);
                 int cardNumberIdToMove = cardToPlay.getId();
                 //Play this card now, i.e. remove this card from the player's hand and add it to the trick.
@@ -85,8 +83,7 @@ public abstract class AiMCTSCheatingPIGameSim extends AiMCTSCheatingPI{
                     for (int playerNumber = (nextPlayerNo+1)%4; playerNumber != gameStateForSimulation.getNewestTrick().getStarter(); playerNumber = (playerNumber+1)%4){
                         try {                            
                             List<Card> listOfPlayableCards = gameStateForSimulation.determineListOfPlayableCards(playerNumber);
-                            rngCard = new Random();
-                            int index2 = rngCard.nextInt(listOfPlayableCards.size()); //Zufällige int-zahl zwischen 0 und listOfPlayableCards.size() (exclusive)
+                            int index2 = random.nextInt(listOfPlayableCards.size()); //Zufällige int-zahl zwischen 0 und listOfPlayableCards.size() (exclusive)
                             Card cardToPlay2 = listOfPlayableCards.get(index2);
                             int cardNumberIdToMove2 = cardToPlay2.getId();
                             //Play this card now, i.e. remove this card from the player's hand and add it to the trick.
@@ -169,70 +166,13 @@ public abstract class AiMCTSCheatingPIGameSim extends AiMCTSCheatingPI{
     }
 
     /**
-     * Method that simulates remaining tricks of a round until the round is over.
+     * Method that simulates remaining tricks of a round until the round is over, see {@link game.AI.AiMCTS.RolloutKernel}.
+     * The round points and payoffs are updated, the game points are not.
      * @param gameStateForSimulation The current GameState instance for which the simulation is continued.
      * @param gameControllerHelper The instance of GameController to have access to the class' methods.
      */
     public void simulateRemainingTricksUntilRoundOver(GameState gameStateForSimulation, GameController gameControllerHelper){
-        //Play the remaining tricks.
-        while (!gameStateForSimulation.isRoundOver()){     
-            //Begin with the starter.
-            int numberOfStarter = -1;                                                       
-            if (gameStateForSimulation.isFirstTrick()) {
-                numberOfStarter = gameStateForSimulation.getStarterOfNewestTrick();
-                gameStateForSimulation.setPlayableCardsForEachPlayerInTrick0or1();                
-            }                    
-            else {
-                numberOfStarter = gameStateForSimulation.getStarterOfNewestTrick();
-                gameStateForSimulation.setPlayableCardsForStarterInTrick2orLater(gameStateForSimulation.getPlayers()[numberOfStarter]);
-            }                    
-
-            //Determine the card to be played by the starter at random.             
-            List<Card> listOfPlayableCards = gameStateForSimulation.determineListOfPlayableCards(numberOfStarter);
-            Random rngCard = new Random();
-            int index = rngCard.nextInt(listOfPlayableCards.size());
-            Card cardToPlay = listOfPlayableCards.get(index);
-            int firstCardId = cardToPlay.getId();
-            //Play the card.
-            if (firstCardId < 1 || firstCardId > 52){
-                throw new IllegalArgumentException("Gleichverteilte Wahl fehlerhaft für starting player: " + firstCardId);
-            }                            
-            gameStateForSimulation.playCard(firstCardId, numberOfStarter);                 
-            
-            //Let the remaining 3 players play.
-            for (int playerCount = 1; playerCount < 4; playerCount++){                        
-                int currentPlayerNumber = (numberOfStarter + playerCount) % 4;                        
-                // Set playable cards                                              
-                if (!gameStateForSimulation.isFirstTrick()) {  
-                    gameStateForSimulation.setPlayableCardsForNonStarterInTrick2orLater(gameStateForSimulation.getPlayers()[currentPlayerNumber], gameStateForSimulation.getFirstCardOfNewestTrick());
-                }
-                else {                     
-                }                        
-                //Randomly determine the card to be played by the player.    
-                List<Card> listOfPlayableCards2 = gameStateForSimulation.determineListOfPlayableCards(currentPlayerNumber);
-                Random rngCard2 = new Random();
-                int index2 = rngCard2.nextInt(listOfPlayableCards2.size());
-                Card cardToPlay2 = listOfPlayableCards2.get(index2);
-                int cardIdToMove = cardToPlay2.getId();
-                //Play the card.
-                if (cardIdToMove < 1 || cardIdToMove > 52){     
-                    throw new IllegalArgumentException("Equally distributed selection incorrect for currentPlayer: " + cardIdToMove);
-                }                            
-                gameStateForSimulation.playCard(cardIdToMove, currentPlayerNumber);                
-            }
-                
-            Player trickWinner = gameControllerHelper.completeTrick();
-            int numberOfTrickWinner = trickWinner.getPlayerNo();
-                        
-            gameControllerHelper.updateHeartsBroken();                    
-                        
-            if (!gameStateForSimulation.isRoundOver()){
-                gameStateForSimulation.setTricksPlayed(gameStateForSimulation.getTricksPlayed() + 1);
-                gameStateForSimulation.initTrick(numberOfTrickWinner);
-            }                
-
-        }        
-                    
+        rolloutKernel.playout(gameStateForSimulation, random);
     }
 
     /**
@@ -256,7 +196,7 @@ public abstract class AiMCTSCheatingPIGameSim extends AiMCTSCheatingPI{
             gameStateForSimulation.resetCardsPassed(); 
             gameStateForSimulation.resetHandCardsOfPlayers(); 
             gameStateForSimulation.setRoundNo(gameStateForSimulation.getRoundNo()+1); 
-            gameStateForSimulation.shuffleDeck(); 
+            gameStateForSimulation.shuffleDeck(random); 
             gameStateForSimulation.handOutCards();          
 
             //In a game with passing, passing is omitted in every 4th round.
@@ -297,24 +237,23 @@ public abstract class AiMCTSCheatingPIGameSim extends AiMCTSCheatingPI{
                 player4.setReceiverNo(player4ReceiverNo);
 
                 //For each player, make an equally distributed choice of 3 of their cards and save them
-                Random rngCard = new Random();
                 //Player 1
                 int[] passOfPlayer1 = new int[3];
                 List<Card> listOfPlayableCards = gameStateForSimulation.determineListOfPlayableCards(player1.getPlayerNo());                    
-                int index1 = rngCard.nextInt(listOfPlayableCards.size()); 
+                int index1 = random.nextInt(listOfPlayableCards.size()); 
                 Card cardToPlay1 = listOfPlayableCards.get(index1);
                 int cardNumberIdToMove1 = cardToPlay1.getId();
                 passOfPlayer1[0] = cardNumberIdToMove1;
-                int index2 = rngCard.nextInt(listOfPlayableCards.size());
+                int index2 = random.nextInt(listOfPlayableCards.size());
                 while (index1==index2){
-                    index2 = rngCard.nextInt(listOfPlayableCards.size());
+                    index2 = random.nextInt(listOfPlayableCards.size());
                 }
                 Card cardToPlay2 = listOfPlayableCards.get(index2);
                 int cardNumberIdToMove2 = cardToPlay2.getId();
                 passOfPlayer1[1] = cardNumberIdToMove2;
-                int index3 = rngCard.nextInt(listOfPlayableCards.size());
+                int index3 = random.nextInt(listOfPlayableCards.size());
                 while (index1==index3 || index2==index3){
-                    index3 = rngCard.nextInt(listOfPlayableCards.size());
+                    index3 = random.nextInt(listOfPlayableCards.size());
                 }
                 Card cardToPlay3 = listOfPlayableCards.get(index3);
                 int cardNumberIdToMove3 = cardToPlay3.getId();
@@ -323,20 +262,20 @@ public abstract class AiMCTSCheatingPIGameSim extends AiMCTSCheatingPI{
                 //Player 2
                 int[] passOfPlayer2 = new int[3];
                 listOfPlayableCards = gameStateForSimulation.determineListOfPlayableCards(player2.getPlayerNo());                    
-                index1 = rngCard.nextInt(listOfPlayableCards.size());
+                index1 = random.nextInt(listOfPlayableCards.size());
                 cardToPlay1 = listOfPlayableCards.get(index1);
                 cardNumberIdToMove1 = cardToPlay1.getId();
                 passOfPlayer2[0] = cardNumberIdToMove1;
-                index2 = rngCard.nextInt(listOfPlayableCards.size());
+                index2 = random.nextInt(listOfPlayableCards.size());
                 while (index1==index2){
-                    index2 = rngCard.nextInt(listOfPlayableCards.size());
+                    index2 = random.nextInt(listOfPlayableCards.size());
                 }
                 cardToPlay2 = listOfPlayableCards.get(index2);
                 cardNumberIdToMove2 = cardToPlay2.getId();
                 passOfPlayer2[1] = cardNumberIdToMove2;
-                index3 = rngCard.nextInt(listOfPlayableCards.size());
+                index3 = random.nextInt(listOfPlayableCards.size());
                 while (index1==index3 || index2==index3){
-                    index3 = rngCard.nextInt(listOfPlayableCards.size());
+                    index3 = random.nextInt(listOfPlayableCards.size());
                 }
                 cardToPlay3 = listOfPlayableCards.get(index3);
                 cardNumberIdToMove3 = cardToPlay3.getId();
@@ -345,20 +284,20 @@ public abstract class AiMCTSCheatingPIGameSim extends AiMCTSCheatingPI{
                 //Player 3
                 int[] passOfPlayer3 = new int[3];
                 listOfPlayableCards = gameStateForSimulation.determineListOfPlayableCards(player3.getPlayerNo());                    
-                index1 = rngCard.nextInt(listOfPlayableCards.size());
+                index1 = random.nextInt(listOfPlayableCards.size());
                 cardToPlay1 = listOfPlayableCards.get(index1);
                 cardNumberIdToMove1 = cardToPlay1.getId();
                 passOfPlayer3[0] = cardNumberIdToMove1;
-                index2 = rngCard.nextInt(listOfPlayableCards.size());
+                index2 = random.nextInt(listOfPlayableCards.size());
                 while (index1==index2){
-                    index2 = rngCard.nextInt(listOfPlayableCards.size());
+                    index2 = random.nextInt(listOfPlayableCards.size());
                 }
                 cardToPlay2 = listOfPlayableCards.get(index2);
                 cardNumberIdToMove2 = cardToPlay2.getId();
                 passOfPlayer3[1] = cardNumberIdToMove2;
-                index3 = rngCard.nextInt(listOfPlayableCards.size());
+                index3 = random.nextInt(listOfPlayableCards.size());
                 while (index1==index3 || index2==index3){
-                    index3 = rngCard.nextInt(listOfPlayableCards.size());
+                    index3 = random.nextInt(listOfPlayableCards.size());
                 }
                 cardToPlay3 = listOfPlayableCards.get(index3);
                 cardNumberIdToMove3 = cardToPlay3.getId();
@@ -367,20 +306,20 @@ public abstract class AiMCTSCheatingPIGameSim extends AiMCTSCheatingPI{
                 //Player 4
                 int[] passOfPlayer4 = new int[3];
                 listOfPlayableCards = gameStateForSimulation.determineListOfPlayableCards(player4.getPlayerNo());                    
-                index1 = rngCard.nextInt(listOfPlayableCards.size());
+                index1 = random.nextInt(listOfPlayableCards.size());
                 cardToPlay1 = listOfPlayableCards.get(index1);
                 cardNumberIdToMove1 = cardToPlay1.getId();
                 passOfPlayer4[0] = cardNumberIdToMove1;
-                index2 = rngCard.nextInt(listOfPlayableCards.size());
+                index2 = random.nextInt(listOfPlayableCards.size());
                 while (index1==index2){
-                    index2 = rngCard.nextInt(listOfPlayableCards.size());
+                    index2 = random.nextInt(listOfPlayableCards.size());
                 }
                 cardToPlay2 = listOfPlayableCards.get(index2);
                 cardNumberIdToMove2 = cardToPlay2.getId();
                 passOfPlayer4[1] = cardNumberIdToMove2;
-                index3 = rngCard.nextInt(listOfPlayableCards.size());
+                index3 = random.nextInt(listOfPlayableCards.size());
                 while (index1==index3 || index2==index3){
-                    index3 = rngCard.nextInt(listOfPlayableCards.size());
+                    index3 = random.nextInt(listOfPlayableCards.size());
                 }
                 cardToPlay3 = listOfPlayableCards.get(index3);
                 cardNumberIdToMove3 = cardToPlay3.getId();
@@ -398,66 +337,9 @@ public abstract class AiMCTSCheatingPIGameSim extends AiMCTSCheatingPI{
             
             gameStateForSimulation.setTricksPlayed(gameStateForSimulation.getTricksPlayed() + 1);
                             
-            // Play all the tricks. 
-            // Basically, the following is taken from the SimulationMode. 
-            // But since there are often logger calls in the methods, which should not be made here, this is written down again in detail and shortened by logger.
-            while (!gameStateForSimulation.isRoundOver()){
-                                    
-                int numberOfStarter;
-                
-                if (gameStateForSimulation.isFirstTrick()) {
-                                
-                    numberOfStarter = gameStateForSimulation.getStarterOfRound().getPlayerNo();            
-                    gameStateForSimulation.setPlayableCardsForEachPlayerInTrick0or1();          
-                    gameStateForSimulation.initTrick(numberOfStarter);
-                }
-                
-                else {
-                    numberOfStarter = gameStateForSimulation.getStarterOfNewestTrick(); 
-                    gameStateForSimulation.setPlayableCardsForStarterInTrick2orLater(gameStateForSimulation.getPlayers()[numberOfStarter]);
-                }                                        
-                
-                //Starter plays first.                            
-                List<Card> listOfPlayableCards = gameStateForSimulation.determineListOfPlayableCards(numberOfStarter);
-                Random rngCard = new Random(); 
-                int index = rngCard.nextInt(listOfPlayableCards.size()); 
-                Card cardToPlay = listOfPlayableCards.get(index);
-                int firstCardId = cardToPlay.getId();
-                if (firstCardId < 1 || firstCardId > 52){
-                    throw new IllegalArgumentException("Equally distributed selection incorrect for starting player. Card: " + firstCardId);
-                }                            
-                gameStateForSimulation.playCard(firstCardId, numberOfStarter);                 
-                
-                // The other three players play.
-                for (int playerCount = 1; playerCount < 4; playerCount++){                        
-                    int currentPlayerNumber = (numberOfStarter + playerCount) % 4;                        
-                    // Set playable cards                                              
-                    if (!gameStateForSimulation.isFirstTrick()) {   
-                        gameStateForSimulation.setPlayableCardsForNonStarterInTrick2orLater(gameStateForSimulation.getPlayers()[currentPlayerNumber], gameStateForSimulation.getFirstCardOfNewestTrick());
-                    }                     
-                    List<Card> listOfPlayableCards2 = gameStateForSimulation.determineListOfPlayableCards(currentPlayerNumber);
-                    Random rngCard2 = new Random(); 
-                    int index2 = rngCard2.nextInt(listOfPlayableCards2.size());
-                    Card cardToPlay2 = listOfPlayableCards2.get(index2);
-                    int cardIdToMove = cardToPlay2.getId();
-                    if (cardIdToMove < 1 || cardIdToMove > 52){     
-                        throw new IllegalArgumentException("Equally distributed selection incorrect for currentPlayer. Card: " + cardIdToMove);
-                    }                            
-                    gameStateForSimulation.playCard(cardIdToMove, currentPlayerNumber);                    
-                }
-                                        
-                Player trickWinner = gameControllerHelper.completeTrick();
-                int numberOfTrickWinner = trickWinner.getPlayerNo();
-                            
-                gameControllerHelper.updateHeartsBroken();                    
-                            
-                if (!gameStateForSimulation.isRoundOver()){
-                    gameStateForSimulation.setTricksPlayed(gameStateForSimulation.getTricksPlayed() + 1);
-                    gameStateForSimulation.initTrick(numberOfTrickWinner);
-                }           
-                
-                
-            }
+            // Play all the tricks, beginning with the starter of the round.
+            gameStateForSimulation.initTrick(gameStateForSimulation.getStarterOfRound().getPlayerNo());
+            simulateRemainingTricksUntilRoundOver(gameStateForSimulation, gameControllerHelper);
             gameControllerHelper.completeRound();
         }
 
@@ -581,21 +463,20 @@ public abstract class AiMCTSCheatingPIGameSim extends AiMCTSCheatingPI{
             if (playerNo != playerNoOfCurrentPlayer){
                 int[] tempPass = new int[3];
                 List<Card> listOfPlayableCards = gameStateForSimulation.determineListOfPlayableCards(players[playerNo].getPlayerNo());                                    
-                Random rngCard = new Random();
-                int index1 = rngCard.nextInt(listOfPlayableCards.size()); 
+                int index1 = random.nextInt(listOfPlayableCards.size()); 
                 Card cardToPlay1 = listOfPlayableCards.get(index1);
                 int cardNumberIdToMove1 = cardToPlay1.getId();
                 tempPass[0] = cardNumberIdToMove1;
-                int index2 = rngCard.nextInt(listOfPlayableCards.size());
+                int index2 = random.nextInt(listOfPlayableCards.size());
                 while (index1==index2){
-                    index2 = rngCard.nextInt(listOfPlayableCards.size());
+                    index2 = random.nextInt(listOfPlayableCards.size());
                 }
                 Card cardToPlay2 = listOfPlayableCards.get(index2);
                 int cardNumberIdToMove2 = cardToPlay2.getId();
                 tempPass[1] = cardNumberIdToMove2;
-                int index3 = rngCard.nextInt(listOfPlayableCards.size());
+                int index3 = random.nextInt(listOfPlayableCards.size());
                 while (index1==index3 || index2==index3){
-                    index3 = rngCard.nextInt(listOfPlayableCards.size());
+                    index3 = random.nextInt(listOfPlayableCards.size());
                 }
                 Card cardToPlay3 = listOfPlayableCards.get(index3);
                 int cardNumberIdToMove3 = cardToPlay3.getId();
@@ -3,11 +3,11 @@ package game.AI.AiMCTS.AiMCTSBasic;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Random;
 import game.Card;
 import game.GameController;
 import game.GameState;
 import game.Player;
+import game.AI.AiMCTS.EndgameSolver;
 import rules.Rules;
 
 /**
@@ -16,8 +16,17 @@ import rules.Rules;
  */
 public abstract class AiMCTSCheatingPIRoundSim extends AiMCTSCheatingPI{    
 
+    /** The default number of cards left in the hands of all players from which a simulation solves the rest of the round. */
+    public static final int DEFAULT_ENDGAME_CARDS_LEFT = 12;
+
+    //With this number of cards left or fewer, the simulation plays the rest of the round perfectly instead of randomly, 0: never.
+    private int endgameCardsLeft = DEFAULT_ENDGAME_CARDS_LEFT;
+    private EndgameSolver endgameSolver;
+
     public AiMCTSCheatingPIRoundSim(){
         super();
+        //Different orders of the cards of a player often reach the same state within the round, see TranspositionTable.
+        this.transpositionTable = new TranspositionTable();
     }
     
     /** 
@@ -45,104 +54,12 @@ public abstract class AiMCTSCheatingPIRoundSim extends AiMCTSCheatingPI{
             //   New GameController instance to have access to GameController methods:
             GameController gameControllerHelper = new GameController(gameStateForSimulation);
             
-            //(For better readability) the player number:  
-            int nextPlayerNo = expandedNode.getPlayerNo();
-
-            //3. If the current trick is not yet finished, simulate it until the end of the trick.
-            // A variable to hold a player/the player's number in here.
-            int playerHelper = nextPlayerNo;
-
-            // if without else
-            if (gameStateForSimulation.getNewestTrick().getNumPlayedCards() < 4){ //Trick not yet finished.
-                // Randomly/evenly select one of the playable cards of the next player/opponent.
-                Random rngCard = new Random();
-                int index = rngCard.nextInt(expandedNode.getActionsPlayableCards().size()); //Zufällige int-zahl zwischen 0 und getActionsPlayableCards.size() (exclusive)
-                Card cardToPlay = expandedNode.getActionsPlayableCards().get(index);
-                int cardNumberIdToMove = cardToPlay.getId();
-                //Play this card now, i.e. remove this card from the player's hand and add it to the trick.
-                gameStateForSimulation.playCard(cardNumberIdToMove, nextPlayerNo);
-                //Check whether the trick is finished and needs to be completed and evaluated.
-                if (gameStateForSimulation.getNewestTrick().getNumPlayedCards() < 4){
-                    //Trick is not yet finished. The remaining players must each play their card.          
-                    //Check whether the player who has just played the card was the starter of the trick.
-                    if (nextPlayerNo == gameStateForSimulation.getNewestTrick().getStarter()){
-                        //The player who has just placed the card was the starter of the trick. The playable cards of the other players must then be set first.
-                        // But only from the 2nd trick, i.e. if the current trick is at least the 2nd trick or later.
-                        // Because in the 1st trick, it was already set toegther with the player's/starter's playable cards before the turn of the player/starter.
-                        if (gameStateForSimulation.getTricksPlayed() >= 2){
-                            for (int playerNumber = (nextPlayerNo+1)%4; playerNumber != nextPlayerNo; playerNumber = (playerNumber+1)%4){
-                                gameStateForSimulation.setPlayableCardsForNonStarterInTrick2orLater(gameStateForSimulation.getPlayers()[playerNumber], gameStateForSimulation.getNewestTrick().getStartingCard());
-                            }
-                        }
-                    } else{ //He was not the starter.
-                        if (gameStateForSimulation.getTricksPlayed() >= 2){
-                            for (int playerNumber = (nextPlayerNo+1)%4; playerNumber != gameStateForSimulation.getNewestTrick().getStarter(); playerNumber = (playerNumber+1)%4){
-                                gameStateForSimulation.setPlayableCardsForNonStarterInTrick2orLater(gameStateForSimulation.getPlayers()[playerNumber], gameStateForSimulation.getNewestTrick().getStartingCard());
-                            }
-                        }
-                        ; //The playable cards are now set in any case.
-                    }
-                    //Play the cards of the remaining players.
-                    for (int playerNumber = (nextPlayerNo+1)%4; playerNumber != gameStateForSimulation.getNewestTrick().getStarter(); playerNumber = (playerNumber+1)%4){
-                        try {                            
-                            List<Card> listOfPlayableCards = gameStateForSimulation.determineListOfPlayableCards(playerNumber);
-                            rngCard = new Random();
-                            int index2 = rngCard.nextInt(listOfPlayableCards.size());
-                            Card cardToPlay2 = listOfPlayableCards.get(index2);
-                            int cardNumberIdToMove2 = cardToPlay2.getId();
-                            //Play this card now.                       
-                            gameStateForSimulation.playCard(cardNumberIdToMove2, playerNumber);                            
-                        } catch (Exception e) {
-                            System.out.println(e.getMessage());
-                            System.exit(0);
-                        }
-                    }                                    
-                }
-                //The cards of all players have been played in the current trick.
-                //Evaluate this trick now.
-                // - If hearts has not yet been broken/played in the current round, but has been played in this trick, then set isHeartBroken true.
-                gameControllerHelper.updateHeartsBroken();
-                //   - Then complete the trick: Determine the winner, count the points of the trick, credit them to the winner's round account and return the winner.
-                Player currentTrickWinner = gameControllerHelper.completeTrick(); 
-                //    - Save the player number (PlayerNo) of the trick winner so that he can be found as the starter for the next trick.
-                int currentTrickWinnerPlayerNo = currentTrickWinner.getPlayerNo();
-                //Save the trick winner as the starter of a potential new trick in playerHelper (available outside of if).
-                playerHelper = currentTrickWinnerPlayerNo;
-                //Trick evaluation completed.     
-            }
-            //No more open tricks, i.e. NumPlayedCards must equal 4 here.
+            //2. Play the rest of the current trick and the remaining tricks of the round with random playable cards,
+            //   or with best play of all players if only a few cards are left.
+            playRemainingTricks(gameStateForSimulation, rootPlayerNo);
+            //3. End the round, i.e. credit round points to game accounts and determine the payoffs.
+            gameControllerHelper.completeRound();
 
-            //Check whether there are no more open tricks to verify the correct procedure here!
-            if (gameStateForSimulation.getNewestTrick().getNumPlayedCards() < 4){
-                System.out.println("Still open trick. That shouldn't be the case! Program is terminated!");
-                System.exit(0);
-            }
-                                           
-
-            //4. No open tricks up to this point, so the trick is over. Now, if the round is not yet over, simulate the remaining tricks of this round until the end of the round.
-            // if without else
-            //Check whether the round is not yet over.
-            if ((gameStateForSimulation.getDeckSize() == 52 && gameStateForSimulation.getTricksPlayed() < 13)
-                || (gameStateForSimulation.getDeckSize() == 32 && gameStateForSimulation.getTricksPlayed() < 8)){                
-                //Simulate remaining tricks! Starter can be found in playerHelper.                
-                //Initialize the new trick.
-                gameStateForSimulation.setTricksPlayed(gameStateForSimulation.getTricksPlayed() + 1);
-                gameStateForSimulation.initTrick(playerHelper);
-                // Simulate the remaining tricks.
-                simulateRemainingTricksUntilRoundOver(gameStateForSimulation, gameControllerHelper);
-
-                gameControllerHelper.completeRound();
-                        
-            }
-            //No more open round, i.e. 13 or 8 tricks have been played, or in short: gameStateForSimulation.isRoundOver() == true !
-
-            //Check if no more open round to verify correct procedure here!
-            if (!gameStateForSimulation.isRoundOver()){
-                System.out.println("Still open round. That shouldn't be the case! Program is terminated!");
-                System.exit(0);
-            }
-            
-            
             //Now this round is also finished.
             // So now save the game state of the end of the round ("gameStateForSimulation") in gameStateResultOfSimulation.
             gameStateResultOfSimulation = gameStateForSimulation;
@@ -158,68 +75,53 @@ public abstract class AiMCTSCheatingPIRoundSim extends AiMCTSCheatingPI{
     }
 
     /**
-     * Method that simulates remaining tricks of a round until the round is over.
+     * Method that simulates remaining tricks of a round until the round is over, see {@link game.AI.AiMCTS.RolloutKernel}.
+     * The round points and payoffs are updated, the game points are not.
      * @param gameStateForSimulation The current GameState instance for which the simulation is continued.
      * @param gameControllerHelper The instance of GameController to have access to the class' methods.
      */
     public void simulateRemainingTricksUntilRoundOver(GameState gameStateForSimulation, GameController gameControllerHelper){
-        while (!gameStateForSimulation.isRoundOver()){    
-            //Begin with the starter.
-            int numberOfStarter = -1;                                                       
-            if (gameStateForSimulation.isFirstTrick()) { 
-                numberOfStarter = gameStateForSimulation.getStarterOfNewestTrick();
-                gameStateForSimulation.setPlayableCardsForEachPlayerInTrick0or1();                
-            }                    
-            else {
-                numberOfStarter = gameStateForSimulation.getStarterOfNewestTrick(); 
-                gameStateForSimulation.setPlayableCardsForStarterInTrick2orLater(gameStateForSimulation.getPlayers()[numberOfStarter]);                
-            }                    
+        rolloutKernel.playout(gameStateForSimulation, random);
+    }
 
-            //Determine randomly/equally distributed the card to be played by the starter.                   
-            List<Card> listOfPlayableCards = gameStateForSimulation.determineListOfPlayableCards(numberOfStarter);
-            Random rngCard = new Random(); 
-            int index = rngCard.nextInt(listOfPlayableCards.size()); 
-            Card cardToPlay = listOfPlayableCards.get(index);
-            int firstCardId = cardToPlay.getId();
-            //Play this card now.
-            if (firstCardId < 1 || firstCardId > 52){
-                throw new IllegalArgumentException("Equally distributed selection incorrect for starting player. Card: " + firstCardId);
-            }                            
-            gameStateForSimulation.playCard(firstCardId, numberOfStarter);                 
-            
-            // Let the remaining three players play.
-            for (int playerCount = 1; playerCount < 4; playerCount++){                        
-                int currentPlayerNumber = (numberOfStarter + playerCount) % 4;                        
-                // Set playable cards                                              
-                if (!gameStateForSimulation.isFirstTrick()) { 
-                    gameStateForSimulation.setPlayableCardsForNonStarterInTrick2orLater(gameStateForSimulation.getPlayers()[currentPlayerNumber], gameStateForSimulation.getFirstCardOfNewestTrick());
-                }
-                else {                    
-                }                        
-                //Determine randomly/equally distributed the card to be played by the player.   
-                List<Card> listOfPlayableCards2 = gameStateForSimulation.determineListOfPlayableCards(currentPlayerNumber);
-                Random rngCard2 = new Random(); 
-                int index2 = rngCard2.nextInt(listOfPlayableCards2.size());
-                Card cardToPlay2 = listOfPlayableCards2.get(index2);
-                int cardIdToMove = cardToPlay2.getId();
-                //Play this card now.
-                if (cardIdToMove < 1 || cardIdToMove > 52){     
-                    throw new IllegalArgumentException("Equally distributed selection incorrect for currentPlayer. Card: " + cardIdToMove);
-                }                            
-                gameStateForSimulation.playCard(cardIdToMove, currentPlayerNumber);                
+    /**
+     * Method that plays the remaining tricks of a round in the simulation phase of bestMove until the round is over. If the
+     * players hold at most {@link #getEndgameCardsLeft()} cards together, the rest of the round is solved with perfect
+     * information, see {@link EndgameSolver}, otherwise it is played with random playable cards.
+     * The round points and payoffs are updated, the game points are not.
+     * @param gameStateForSimulation The current GameState instance for which the simulation is continued.
+     * @param rootPlayerNo The root's player number, whose payoff is maximized by the endgame solver.
+     */
+    protected void playRemainingTricks(GameState gameStateForSimulation, int rootPlayerNo){
+        int cardsLeft = 0;
+        for (Player player : gameStateForSimulation.getPlayers()){
+            cardsLeft += Long.bitCount(player.getHandCards().toMask());
+        }
+        if (cardsLeft <= endgameCardsLeft){
+            if (endgameSolver == null){
+                endgameSolver = new EndgameSolver();
             }
-                
-            Player trickWinner = gameControllerHelper.completeTrick();
-            int numberOfTrickWinner = trickWinner.getPlayerNo();
-                        
-            gameControllerHelper.updateHeartsBroken();                    
-                        
-            if (!gameStateForSimulation.isRoundOver()){
-                gameStateForSimulation.setTricksPlayed(gameStateForSimulation.getTricksPlayed() + 1);
-                gameStateForSimulation.initTrick(numberOfTrickWinner);
-            }                
+            endgameSolver.playout(gameStateForSimulation, rootPlayerNo);
+        } else{
+            rolloutKernel.playout(gameStateForSimulation, random);
+        }
+    }
 
+    /**
+     * Sets the number of cards left in the hands of all players from which the simulation phase of bestMove solves the rest
+     * of the round instead of playing random cards, see {@link #playRemainingTricks(GameState, int)}.
+     * @param endgameCardsLeft The number of cards, 0 to always play random cards.
+     * @throws IllegalArgumentException If the number is negative or greater than 52.
+     */
+    public void setEndgameCardsLeft(int endgameCardsLeft) throws IllegalArgumentException{
+        if (endgameCardsLeft < 0 || endgameCardsLeft > 52){
+            throw new IllegalArgumentException("Invalid number of cards: " + endgameCardsLeft);
         }
+        this.endgameCardsLeft = endgameCardsLeft;
+    }
+
+    public int getEndgameCardsLeft(){
+        return endgameCardsLeft;
     }
 
     /** 
@@ -351,21 +253,20 @@ public abstract class AiMCTSCheatingPIRoundSim extends AiMCTSCheatingPI{
             if (playerNo != playerNoOfCurrentPlayer){
                 int[] tempPass = new int[3];
                 List<Card> listOfPlayableCards = gameStateForSimulation.determineListOfPlayableCards(players[playerNo].getPlayerNo());                                    
-                Random rngCard = new Random();
-                int index1 = rngCard.nextInt(listOfPlayableCards.size());
+                int index1 = random.nextInt(listOfPlayableCards.size());
                 Card cardToPlay1 = listOfPlayableCards.get(index1);
                 int cardNumberIdToMove1 = cardToPlay1.getId();
                 tempPass[0] = cardNumberIdToMove1;
-                int index2 = rngCard.nextInt(listOfPlayableCards.size());
+                int index2 = random.nextInt(listOfPlayableCards.size());
                 while (index1==index2){
-                    index2 = rngCard.nextInt(listOfPlayableCards.size());
+                    index2 = random.nextInt(listOfPlayableCards.size());
                 }
                 Card cardToPlay2 = listOfPlayableCards.get(index2);
                 int cardNumberIdToMove2 = cardToPlay2.getId();
                 tempPass[1] = cardNumberIdToMove2;
-                int index3 = rngCard.nextInt(listOfPlayableCards.size());
+                int index3 = random.nextInt(listOfPlayableCards.size());
                 while (index1==index3 || index2==index3){
-                    index3 = rngCard.nextInt(listOfPlayableCards.size());
+                    index3 = random.nextInt(listOfPlayableCards.size());
                 }
                 Card cardToPlay3 = listOfPlayableCards.get(index3);
                 int cardNumberIdToMove3 = cardToPlay3.getId();
@@ -54,7 +54,7 @@ public class AiPIMCRoundSimUct extends AiMCTSCheatingPIRoundSimUct {
         //  Genauergesagt, es werden die gegnerischen Handkarten (in Abhängigkeit der Memory, wobei hier bei bestPass letztlich doch unabhängig) geschätzt.
         //  Die eigenen Handkarten (und die eigenen PlayableHandCards) bleiben durch determinization unverändert!!!
         GameState determinizedGameState = gameState.deepCopy();
-        determinizedGameState.determinization(playerNo);
+        determinizedGameState.determinization(playerNo, random);
         //  Die gegnerischen! PlayableHandCards sind noch nicht gesetzt worden. Dies muss im Folgenden noch gemacht werden.
         //System.out.println("AiPIMCRoundSimUct bestPass... for...");
         for (Player player : determinizedGameState.getPlayers()){
@@ -104,7 +104,7 @@ public class AiPIMCRoundSimUct extends AiMCTSCheatingPIRoundSimUct {
         //System.out.println("AiPIMCRoundSimUct bestMove... deepCopy...");
         GameState determinizedGameState = g.deepCopy();
         //System.out.println("AiPIMCRoundSimUct bestMove... determinization...");
-        determinizedGameState.determinization(playerNo);
+        determinizedGameState.determinization(playerNo, random);
         //TODO: In der determinization wird nicht berücksichtigt, 
         //      *****ob Pik Dame schon gespielt wurde und wie viele Herzkarten bereits gespielt wurden und wer der Starter der Runde war.
         //           Diese Sachen müssten bei der Determinization berücksichtigt werden. Wegen fehlendem Starter of Round habe ich vorerst eine
@@ -0,0 +1,179 @@
+package game.AI.AiMCTS.AiMCTSBasic;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import game.GameState;
+import game.Player;
+
+/**
+ * A transposition table of the perfect information MCTS: the nodes of a search that reach the same game state on
+ * different paths, e.g. when two cards of a player are played in the other order in two tricks with the same winners,
+ * share one {@link Entry} with the statistics of the state. The search tree is kept, so the selection of every path
+ * uses the visits and results of all paths through the state (MCTS as a directed acyclic graph).
+ * <p>
+ * A state is identified by its Zobrist hash over the hands of the players, the cards of the current trick, the round
+ * points of the players, whether hearts are broken and the player to move, see {@link #hashOf(GameState, int)}.
+ * <p>
+ * The table has a fixed number of slots that are grouped into buckets of two. A new state takes a free slot of its
+ * bucket or replaces the entry with fewer visits. A replaced entry is no longer found, but the nodes that already
+ * share it keep it, so the replacement only ends the sharing of their statistics with later nodes.
+ */
+public class TranspositionTable {
+
+    /** The default number of slots. */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static final long[][] HAND_KEYS = new long[4][53];
+    private static final long[][] TRICK_KEYS = new long[4][53];
+    private static final long[][] ROUND_POINTS_KEYS = new long[4][27];
+    private static final long[] PLAYER_TO_MOVE_KEYS = new long[5]; // index 4: nobody moves, the round is over
+    private static final long HEARTS_BROKEN_KEY;
+
+    static {
+        // a fixed seed, so the hashes and thus the replacements of a seeded search are reproducible
+        SplittableRandom random = new SplittableRandom(0x7A3B1E5DL);
+        for (int playerNo = 0; playerNo < 4; playerNo++) {
+            for (int cardId = 1; cardId <= 52; cardId++) {
+                HAND_KEYS[playerNo][cardId] = random.nextLong();
+                TRICK_KEYS[playerNo][cardId] = random.nextLong();
+            }
+            for (int points = 0; points <= 26; points++) {
+                ROUND_POINTS_KEYS[playerNo][points] = random.nextLong();
+            }
+        }
+        for (int i = 0; i < PLAYER_TO_MOVE_KEYS.length; i++) {
+            PLAYER_TO_MOVE_KEYS[i] = random.nextLong();
+        }
+        HEARTS_BROKEN_KEY = random.nextLong();
+    }
+
+    private final Entry[] slots;
+    private int hits;
+    private int replacements;
+
+    /**
+     * Creates a table with {@value #DEFAULT_CAPACITY} slots.
+     */
+    public TranspositionTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a table.
+     *
+     * @param capacity The number of slots, a power of two of at least 2.
+     * @throws IllegalArgumentException If the capacity is not a power of two of at least 2.
+     */
+    public TranspositionTable(int capacity) throws IllegalArgumentException {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        this.slots = new Entry[capacity];
+    }
+
+    /**
+     * Computes the Zobrist hash of a game state of the search.
+     *
+     * @param gameState The game state.
+     * @param playerToMove The number of the player to move, -1 if the round is over.
+     * @return The hash.
+     */
+    public static long hashOf(GameState gameState, int playerToMove) {
+        long hash = PLAYER_TO_MOVE_KEYS[playerToMove == -1 ? 4 : playerToMove];
+        for (Player player : gameState.getPlayers()) {
+            int playerNo = player.getPlayerNo();
+            for (long hand = player.getHandCards().toMask(); hand != 0; hand &= hand - 1) {
+                hash ^= HAND_KEYS[playerNo][Long.numberOfTrailingZeros(hand) + 1];
+            }
+            hash ^= ROUND_POINTS_KEYS[playerNo][Math.min(player.getRoundPts(), 26)];
+        }
+        if (gameState.getTricksPlayed() > 0) {
+            int[] cardsOfTrick = gameState.getNewestTrick().getCardsPlayed();
+            for (int playerNo = 0; playerNo < 4; playerNo++) {
+                if (cardsOfTrick[playerNo] != 0) hash ^= TRICK_KEYS[playerNo][cardsOfTrick[playerNo]];
+            }
+        }
+        if (gameState.getIsHeartBroken()) hash ^= HEARTS_BROKEN_KEY;
+        return hash;
+    }
+
+    /**
+     * Gets the entry of a state. If the state has no entry, a new one is stored in a free slot of its bucket or in place
+     * of the entry of the bucket with fewer visits.
+     *
+     * @param hash The hash of the state, see {@link #hashOf(GameState, int)}.
+     * @return The entry of the state.
+     */
+    public Entry getOrCreate(long hash) {
+        int first = (int) hash & (slots.length - 2);
+        for (int slot = first; slot <= first + 1; slot++) {
+            if (slots[slot] != null && slots[slot].hash == hash) {
+                hits++;
+                return slots[slot];
+            }
+        }
+        int slot;
+        if (slots[first] == null) {
+            slot = first;
+        } else if (slots[first + 1] == null) {
+            slot = first + 1;
+        } else {
+            slot = slots[first].visits <= slots[first + 1].visits ? first : first + 1;
+            replacements++;
+        }
+        slots[slot] = new Entry(hash);
+        return slots[slot];
+    }
+
+    /**
+     * Removes all entries, e.g. before the search of a new decision.
+     */
+    public void clear() {
+        Arrays.fill(slots, null);
+        hits = 0;
+        replacements = 0;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Gets the number of lookups since the last {@link #clear()} that found the entry of a state reached before.
+     * @return The number of hits.
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of entries replaced since the last {@link #clear()}.
+     * @return The number of replacements.
+     */
+    public int getReplacements() {
+        return replacements;
+    }
+
+    /**
+     * The statistics of a game state, shared by all nodes of the state.
+     */
+    public static final class Entry {
+        private final long hash;
+        private int visits;
+        private double winScore;
+        private double avgPayout;
+
+        private Entry(long hash) {
+            this.hash = hash;
+        }
+
+        public long getHash() {return hash;}
+        public int getVisits() {return visits;}
+        public double getWinScore() {return winScore;}
+        public double getAvgPayout() {return avgPayout;}
+        public void setVisits(int visits) {this.visits = visits;}
+        public void setWinScore(double winScore) {this.winScore = winScore;}
+        public void setAvgPayout(double avgPayout) {this.avgPayout = avgPayout;}
+    }
+}
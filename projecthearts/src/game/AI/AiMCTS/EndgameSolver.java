@@ -0,0 +1,311 @@
+package game.AI.AiMCTS;
+
+import java.util.Arrays;
+
+import game.BitboardGameState;
+import game.GameState;
+
+/**
+ * Exact solver of the last tricks of a round with perfect information, used instead of random playouts when only a few
+ * cards are left, see {@link RolloutKernel}.
+ * <p>
+ * The solver runs a paranoid alpha-beta search on {@link BitboardGameState}s: the root player maximizes its normalized
+ * payoff at the end of the round, see {@link BitboardGameState#getResult(int)}, and the opponents minimize it together.
+ * The search is kept small by
+ * <ul>
+ * <li>equivalent-card pruning: of two cards of a suit with the same points, between which every card has been played in
+ * an earlier trick, only the lower one is searched, as both lead to the same results,</li>
+ * <li>move ordering: the best move stored for the state is tried first, then cards that do not take the trick, highest
+ * first, then cards that take the trick, lowest first,</li>
+ * <li>a transposition table with the value, the bound and the best move of searched states. The table is kept across
+ * searches, so the playouts of one MCTS search share it. It is replaced slot by slot, a state always takes its slot.</li>
+ * </ul>
+ * <p>
+ * A solver is not thread-safe. Every search uses its own solver.
+ */
+public class EndgameSolver {
+
+    /** The default number of slots of the transposition table. */
+    public static final int DEFAULT_TABLE_SIZE = 1 << 16;
+
+    private static final byte EXACT = 1;
+    private static final byte LOWER_BOUND = 2;
+    private static final byte UPPER_BOUND = 3;
+
+    private final long[] keys;
+    private final double[] values;
+    private final byte[] bounds;
+    private final byte[] bestMoves;
+    private final BitboardGameState[] states = new BitboardGameState[53]; // the working state of every ply
+    private BitboardGameState workingState;
+    private int rootPlayerNo;
+    private long searchedNodes;
+
+    /**
+     * Creates a solver with a transposition table of {@value #DEFAULT_TABLE_SIZE} slots.
+     */
+    public EndgameSolver() {
+        this(DEFAULT_TABLE_SIZE);
+    }
+
+    /**
+     * Creates a solver.
+     *
+     * @param tableSize The number of slots of the transposition table, a power of two.
+     * @throws IllegalArgumentException If the size is not a power of two.
+     */
+    public EndgameSolver(int tableSize) throws IllegalArgumentException {
+        if (tableSize < 1 || Integer.bitCount(tableSize) != 1) {
+            throw new IllegalArgumentException("Invalid table size: " + tableSize);
+        }
+        keys = new long[tableSize];
+        values = new double[tableSize];
+        bounds = new byte[tableSize];
+        bestMoves = new byte[tableSize];
+    }
+
+    /**
+     * Computes the value of a state with best play of all players.
+     *
+     * @param state The state in the playing phase of a round, it is not changed.
+     * @param rootPlayerNo The number of the player whose normalized payoff is maximized.
+     * @return The normalized payoff of the root player at the end of the round, including a shot moon.
+     */
+    public double solve(BitboardGameState state, int rootPlayerNo) {
+        prepare(state, rootPlayerNo);
+        return search(0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Finds the best move of the player to move, see {@link #solve(BitboardGameState, int)}.
+     *
+     * @param state The state, its round must not be over. It is not changed.
+     * @param rootPlayerNo The number of the player whose normalized payoff is maximized.
+     * @return The id of the best card, the lowest of equivalent cards.
+     */
+    public int findBestMove(BitboardGameState state, int rootPlayerNo) {
+        solve(state, rootPlayerNo);
+        // the value of the root is exact, so its best move is stored unless another state took its slot since
+        long key = hashOf(states[0]);
+        int slot = slotOf(key);
+        if (keys[slot] == key && bestMoves[slot] != 0) return bestMoves[slot];
+        return searchBestMoveWithoutTable();
+    }
+
+    /**
+     * Plays the remaining round of a state with best play of all players.
+     *
+     * @param state The state, it is changed until its round is over.
+     * @param rootPlayerNo The number of the player whose normalized payoff is maximized.
+     */
+    public void playout(BitboardGameState state, int rootPlayerNo) {
+        while (!state.isRoundOver()) {
+            state.doMove(findBestMove(state, rootPlayerNo));
+        }
+    }
+
+    /**
+     * Plays the remaining round of a game state with best play of all players, like {@link RolloutKernel#playout(GameState, java.util.random.RandomGenerator)}
+     * with random cards. Game points are not updated. A game state whose round is already over is left unchanged.
+     *
+     * @param gameState The game state in the playing phase of a round, it is changed by the playout.
+     * @param rootPlayerNo The number of the player whose normalized payoff is maximized.
+     */
+    public void playout(GameState gameState, int rootPlayerNo) {
+        if (gameState.isRoundOver()) return;
+        if (workingState == null) {
+            workingState = BitboardGameState.fromGameState(gameState);
+        } else {
+            workingState.readFrom(gameState);
+        }
+        playout(workingState, rootPlayerNo);
+        workingState.writeTo(gameState);
+    }
+
+    /**
+     * Gets the number of states searched since the solver was created or last cleared, without the final states.
+     * @return The number of searched states.
+     */
+    public long getSearchedNodes() {
+        return searchedNodes;
+    }
+
+    /**
+     * Empties the transposition table and resets the number of searched states.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(bounds, (byte) 0);
+        searchedNodes = 0;
+    }
+
+    // Copies the state into the working state of the first ply.
+    private void prepare(BitboardGameState state, int rootPlayerNo) {
+        this.rootPlayerNo = rootPlayerNo;
+        if (states[0] == null) {
+            for (int ply = 0; ply < states.length; ply++) {
+                states[ply] = state.deepCopy();
+            }
+        }
+        states[0].copyFrom(state);
+    }
+
+    /*
+     * Alpha-beta search of the state of a ply, fail-soft. The root player maximizes, the opponents minimize.
+     */
+    private double search(int ply, double alpha, double beta) {
+        BitboardGameState state = states[ply];
+        if (state.isRoundOver()) {
+            state.completeRound();
+            return state.getResult(rootPlayerNo);
+        }
+        searchedNodes++;
+
+        long key = hashOf(state);
+        int slot = slotOf(key);
+        int tableMove = 0;
+        if (keys[slot] == key && bounds[slot] != 0) {
+            double value = values[slot];
+            if (bounds[slot] == EXACT
+                || (bounds[slot] == LOWER_BOUND && value >= beta)
+                || (bounds[slot] == UPPER_BOUND && value <= alpha)) {
+                return value;
+            }
+            tableMove = bestMoves[slot];
+        }
+
+        boolean isMaximizing = state.getPlayerToMove() == rootPlayerNo;
+        long moves = removeEquivalentCards(state.getPlayableCardsOfPlayerToMove(), state.getCardsPlayedInThisRound() & ~state.getCardsOfNewestTrick());
+        long losingCards = getCardsNotTakingTheTrick(state, moves);
+        double alphaBefore = alpha;
+        double betaBefore = beta;
+        double bestValue = isMaximizing ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        int bestMove = 0;
+
+        // the move of the table, the cards that do not take the trick from the highest, the others from the lowest
+        long tableMoveMask = tableMove != 0 ? moves & BitboardGameState.toMask(tableMove) : 0L;
+        long remainingLosingCards = losingCards & ~tableMoveMask;
+        long remainingWinningCards = moves & ~losingCards & ~tableMoveMask;
+        while (tableMoveMask != 0 || remainingLosingCards != 0 || remainingWinningCards != 0) {
+            int cardId;
+            if (tableMoveMask != 0) {
+                cardId = tableMove;
+                tableMoveMask = 0L;
+            } else if (remainingLosingCards != 0) {
+                cardId = 64 - Long.numberOfLeadingZeros(remainingLosingCards);
+                remainingLosingCards &= ~BitboardGameState.toMask(cardId);
+            } else {
+                cardId = Long.numberOfTrailingZeros(remainingWinningCards) + 1;
+                remainingWinningCards &= remainingWinningCards - 1;
+            }
+
+            BitboardGameState child = states[ply + 1];
+            child.copyFrom(state);
+            child.doMove(cardId);
+            double value = search(ply + 1, alpha, beta);
+
+            if (isMaximizing ? value > bestValue : value < bestValue) {
+                bestValue = value;
+                bestMove = cardId;
+            }
+            if (isMaximizing) alpha = Math.max(alpha, value);
+            else beta = Math.min(beta, value);
+            if (alpha >= beta) break;
+        }
+
+        keys[slot] = key;
+        values[slot] = bestValue;
+        bounds[slot] = bestValue <= alphaBefore ? UPPER_BOUND : bestValue >= betaBefore ? LOWER_BOUND : EXACT;
+        bestMoves[slot] = (byte) bestMove;
+        return bestValue;
+    }
+
+    // Searches every move of the first ply with a full window, if the table no longer holds the best move of the root.
+    private int searchBestMoveWithoutTable() {
+        BitboardGameState state = states[0];
+        boolean isMaximizing = state.getPlayerToMove() == rootPlayerNo;
+        long moves = removeEquivalentCards(state.getPlayableCardsOfPlayerToMove(), state.getCardsPlayedInThisRound() & ~state.getCardsOfNewestTrick());
+        double bestValue = isMaximizing ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        int bestMove = 0;
+        for (; moves != 0; moves &= moves - 1) {
+            int cardId = Long.numberOfTrailingZeros(moves) + 1;
+            states[1].copyFrom(state);
+            states[1].doMove(cardId);
+            double value = search(1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+            if (isMaximizing ? value > bestValue : value < bestValue) {
+                bestValue = value;
+                bestMove = cardId;
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Removes the cards that are equivalent to a lower card of the same suit: both have the same points and every card
+     * of the suit between them has been played in an earlier trick, so they rank the same against all cards still in play.
+     *
+     * @param cards The playable cards.
+     * @param cardsOfEarlierTricks The cards played in the round before the current trick.
+     * @return The cards without the equivalent ones, the lowest card of every group of equivalent cards is kept.
+     */
+    public static long removeEquivalentCards(long cards, long cardsOfEarlierTricks) {
+        long result = 0L;
+        int previousBit = -1;
+        for (long remaining = cards; remaining != 0; remaining &= remaining - 1) {
+            int bit = Long.numberOfTrailingZeros(remaining);
+            long card = 1L << bit;
+            if (previousBit >= 0 && bit / 13 == previousBit / 13) {
+                long cardsBetween = (card - 1) & ~((2L << previousBit) - 1);
+                if ((cardsBetween & ~cardsOfEarlierTricks) == 0
+                    && BitboardGameState.countPoints(card) == BitboardGameState.countPoints(1L << previousBit)) {
+                    previousBit = bit;
+                    continue;
+                }
+            }
+            result |= card;
+            previousBit = bit;
+        }
+        return result;
+    }
+
+    // Gets the cards that do not take the trick if they are played now: all cards of the leader, otherwise the cards
+    // that are of another suit than the first card or lower than the highest card of its suit in the trick.
+    private static long getCardsNotTakingTheTrick(BitboardGameState state, long cards) {
+        if (state.getNumCardsOfNewestTrick() == 0) return 0L;
+        long suit = BitboardGameState.suitMaskOf(state.getFirstCardOfNewestTrick());
+        long highestCardOfSuit = Long.highestOneBit(state.getCardsOfNewestTrick() & suit);
+        return cards & ~(suit & ~(2 * highestCardOfSuit - 1));
+    }
+
+    /*
+     * Hashes everything the value of a state depends on: the hands, the cards of the current trick with their players,
+     * the round points, whether hearts are broken, the deck size and the root player.
+     */
+    private long hashOf(BitboardGameState state) {
+        long hash = mix(state.getHandCards(0));
+        hash = mix(hash ^ state.getHandCards(1));
+        hash = mix(hash ^ state.getHandCards(2));
+        hash = mix(hash ^ state.getHandCards(3));
+        long trick = 0L;
+        long points = 0L;
+        for (int playerNo = 0; playerNo < 4; playerNo++) {
+            trick |= (long) state.getCardPlayedInNewestTrickByPlayer(playerNo) << (6 * playerNo);
+            points |= (long) state.getRoundPts(playerNo) << (5 * playerNo);
+        }
+        hash = mix(hash ^ trick);
+        long flags = (state.getIsHeartBroken() ? 1L : 0L) | (state.getDeckSize() == 52 ? 2L : 0L) | ((long) rootPlayerNo << 2)
+                    | ((long) state.getStarterOfNewestTrick() << 4);
+        return mix(hash ^ (points << 8) ^ flags);
+    }
+
+    private int slotOf(long key) {
+        return (int) (key ^ (key >>> 32)) & (keys.length - 1);
+    }
+
+    // The finalizer of SplitMix64, so that similar masks get unrelated hashes.
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
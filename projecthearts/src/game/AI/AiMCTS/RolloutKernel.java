@@ -0,0 +1,67 @@
+package game.AI.AiMCTS;
+
+import java.util.random.RandomGenerator;
+
+import game.BitboardGameState;
+import game.GameState;
+
+/**
+ * Random playout kernel for the simulation phase of the MCTS-based AIs.
+ * <p>
+ * A playout plays uniformly random playable cards until the round is over. It runs on a {@link BitboardGameState}:
+ * the playable cards are a mask, a card is drawn by clearing a random number of the lowest set bits and the points of a
+ * trick are counted with {@link Long#bitCount(long)}. Apart from reading and writing the {@link GameState}, a playout
+ * does not allocate, because every kernel keeps one working state that is overwritten by each playout.
+ * <p>
+ * A kernel is not thread-safe. Every search, or every worker of a parallel search, uses its own kernel.
+ */
+public class RolloutKernel {
+
+    private BitboardGameState workingState;
+
+    /**
+     * Plays the remaining round of a game state with random cards.
+     * Afterwards the round of the game state is over: hands, tricks, round points and payoffs are those at the end of
+     * the playout, exactly as if the cards had been played with {@link GameState#doMove(int)}.
+     * Game points are not updated. A game state whose round is already over is left unchanged.
+     *
+     * @param gameState The game state in the playing phase of a round, it is changed by the playout.
+     * @param random The random generator to draw the cards.
+     */
+    public void playout(GameState gameState, RandomGenerator random){
+        if (gameState.isRoundOver()) return;
+        if (workingState == null){
+            workingState = BitboardGameState.fromGameState(gameState);
+        } else {
+            workingState.readFrom(gameState);
+        }
+        playout(workingState, random);
+        workingState.writeTo(gameState);
+    }
+
+    /**
+     * Plays the remaining round of a bitboard state with random cards. This method does not allocate.
+     *
+     * @param state The state, it is changed by the playout.
+     * @param random The random generator to draw the cards.
+     */
+    public static void playout(BitboardGameState state, RandomGenerator random){
+        while (!state.isRoundOver()){
+            state.doMove(selectRandomCard(state.getPlayableCardsOfPlayerToMove(), random));
+        }
+    }
+
+    /**
+     * Selects one of the cards of a mask with equal probability.
+     *
+     * @param cards The mask of cards, at least one bit must be set.
+     * @param random The random generator.
+     * @return The id of the selected card.
+     */
+    public static int selectRandomCard(long cards, RandomGenerator random){
+        for (int i = random.nextInt(Long.bitCount(cards)); i > 0; i--){
+            cards &= cards - 1;
+        }
+        return Long.numberOfTrailingZeros(cards) + 1;
+    }
+}
@@ -6,6 +6,7 @@ import java.util.List;
 
 import game.Card;
 import game.AI.Node;
+import game.AI.AiMCTS.AiISMCTS.ISMCTSArena;
 import game.AI.AiMCTS.AiISMCTS.ISMCTSNode;
 
 /**
@@ -59,7 +60,36 @@ public class UCT {
         for (ISMCTSNode child : node.getChildren()) {
             if (possibleMoves.contains(child.getPlayedCard())) {
                 child.incrementAvailability();
-                double uctValue = calculateUCTValue(child.getAvailability(), child.getWinScore(), child.getVisits());
+                // a child added by another worker of a tree-parallel search may not have a result yet
+                int visits = child.getVisits();
+                double uctValue = visits == 0 ? Double.POSITIVE_INFINITY : calculateUCTValue(child.getAvailability(), child.getWinScore(), visits);
+                if (uctValue > maxUCTValue) {
+                    maxUCTValue = uctValue;
+                    bestChild = child;
+                }
+            }
+        }
+        return bestChild;
+    }
+
+    /**
+     * Finds the best node of an {@link ISMCTSArena} to explore next using the UCT algorithm, like
+     * {@link #findBestNodeWithUCT(ISMCTSNode, List)}: the availability of every child with a card in the possible moves
+     * is incremented and the one with the highest UCT value is selected.
+     *
+     * @param arena The tree.
+     * @param node The node whose children are considered for exploration.
+     * @param possibleMoves The mask of the cards that are possible moves.
+     * @return The best child node based on UCT value, or {@link ISMCTSArena#NONE} if no child has a card in the possible moves.
+     */
+    public static int findBestNodeWithUCT(ISMCTSArena arena, int node, long possibleMoves) {
+        int bestChild = ISMCTSArena.NONE;
+        double maxUCTValue = Double.NEGATIVE_INFINITY;
+
+        for (int child = arena.getFirstChild(node); child != ISMCTSArena.NONE; child = arena.getNextSibling(child)) {
+            if ((possibleMoves & (1L << (arena.getCardId(child) - 1))) != 0) {
+                arena.incrementAvailability(child);
+                double uctValue = calculateUCTValue(arena.getAvailability(child), arena.getWinScore(child), arena.getVisits(child));
                 if (uctValue > maxUCTValue) {
                     maxUCTValue = uctValue;
                     bestChild = child;
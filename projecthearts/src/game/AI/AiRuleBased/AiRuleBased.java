@@ -3,7 +3,7 @@ package game.AI.AiRuleBased;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 import game.*;
 import game.AI.AiInterface;
@@ -23,6 +23,7 @@ public class AiRuleBased implements AiInterface{
     private Memory memory;
     private Player aiPlayer;
     private HandCards starterHandCards;
+    private SplittableRandom random = new SplittableRandom();
     
     public boolean isPassedForStM() {return passedForStM;}
     public boolean isHeartbroken() {return heartbroken;}
@@ -37,6 +38,11 @@ public class AiRuleBased implements AiInterface{
         trickWhenHeartBroken = -1;
     }
 
+    @Override
+    public void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
     /**
      * {@inheritDoc}
      * @see AiRuleBased#bestPass(GameState, int, int)
@@ -186,7 +192,6 @@ public class AiRuleBased implements AiInterface{
         int maxIndex = Math.max((int) Math.ceil(maxPercentage * playbleCards.size()), 1) - 1;
         maxIndex = Math.max(minIndex, maxIndex); 
     
-        Random random = new Random();
         return minIndex + random.nextInt(maxIndex - minIndex + 1);
     }
 
@@ -214,7 +219,7 @@ public class AiRuleBased implements AiInterface{
                 if(min == -1){
                     min = a.getId();
                 }
-                if(new Card(min).isHigherAs(a)){
+                if(Card.of(min).isHigherAs(a)){
                     min  = a.getId();
                 }
             }
@@ -226,9 +231,9 @@ public class AiRuleBased implements AiInterface{
                 if(max == -1){
                     max = a.getId();
                 }
-                if(a.isHigherAs(new Card(max))){
+                if(a.isHigherAs(Card.of(max))){
                     max = a.getId();
-                }else if(!a.isHigherAs(new Card(max)) & !new Card(max).isHigherAs(a) & (new Card(max).getSuit() == Suits.HEARTS)){   //If multiple max Cards dont play Heart
+                }else if(!a.isHigherAs(Card.of(max)) & !Card.of(max).isHigherAs(a) & (Card.of(max).getSuit() == Suits.HEARTS)){   //If multiple max Cards dont play Heart
                     max = a.getId();
                 }
             }
@@ -238,14 +243,14 @@ public class AiRuleBased implements AiInterface{
                 if(min == -1){
                     min = a.getId();
                 }
-                if(new Card(min).isHigherAs(a) & !a.isHeart()){
+                if(Card.of(min).isHigherAs(a) & !a.isHeart()){
                     min  = a.getId();
-                }else if(!new Card(min).isHigherAs(a)  & !new Card(min).isHigherAs(a) ){
+                }else if(!Card.of(min).isHigherAs(a)  & !Card.of(min).isHigherAs(a) ){
                     cardScore[a.getId()-1] = cardScore[a.getId()-1]+1;
                 }
             }
-            cardScore[new Card(min).getId()-1] = cardScore[new Card(min).getId()-1] + 1;
-            if((new Card(min).getId() % 13 > 5) & (new Card(min).getId() % 13 != 0 )){        
+            cardScore[Card.of(min).getId()-1] = cardScore[Card.of(min).getId()-1] + 1;
+            if((Card.of(min).getId() % 13 > 5) & (Card.of(min).getId() % 13 != 0 )){        
                 int[] tempp = new int[4];
                 tempp[0] = suitCount.cntKaro;
                 tempp[1] = suitCount.cntHearts;
@@ -312,7 +317,6 @@ public class AiRuleBased implements AiInterface{
         int playableCardIndex = 0;
         int cardCnt = aiPlayer.countPlayableCards();
         boolean[] isCardPlayable = aiPlayer.getHandCardsPlayable().getIsInHand();   
-        Random random = new Random();                         
         int idxRnd = random.nextInt(cardCnt);
         idxRnd++;
         
@@ -335,7 +339,6 @@ public class AiRuleBased implements AiInterface{
      */
     public int[] rndPass(){
         int[] rndpass = new int[3];
-        Random random = new Random(); 
         int cardCnt = aiPlayer.countCards();                   
         int idxRnd1 = random.nextInt(cardCnt);
         int idxRnd2 = random.nextInt(cardCnt);
@@ -613,7 +616,7 @@ public class AiRuleBased implements AiInterface{
 
     //Rule 1: Play the highest Card which doesnt win the Trick
     public int[] ruleHighCardNoWin(int[] cardScore ,int playpos , ArrayList<Card> playableCards,GameState gameState , int cardIdWinningTrick , boolean[][] suitVoidsByPlayer  ){  
-        Card cardWinningTrick = new Card(cardIdWinningTrick);
+        Card cardWinningTrick = Card.of(cardIdWinningTrick);
         boolean iHaveVoid = false;    
         for(int i = 0; i < 4;i++){
             if(suitVoidsByPlayer[aiPlayer.getPlayerNo()][i] == true ){
@@ -10,6 +10,7 @@ public enum AiTypes {
     Cheating_MCTS, //BASIC_MCTS_CHEATING_PI_ROUND_SIM_UCT
     PIMC, //PIMC_ROUND_SIM_UCT
     SO_ISMCTS,
+    SO_ISMCTS_ARENA, //SO_ISMCTS on an arena-allocated tree
     MO_ISMCTS,
     DeepCFR,
     ISMCTSANN;
@@ -0,0 +1,179 @@
+package game.AI;
+
+import game.GameMode;
+import game.GameState;
+
+/**
+ * The budget of one decision of a search based AI: a deadline, a maximum number of iterations, a maximum number of
+ * nodes added to the search tree(s) and a maximum heap usage. The search stops as soon as one of them is exhausted
+ * and returns the best action found so far. Every search runs at least one iteration, so an action is always found.
+ * <p>
+ * The deadline and the heap usage apply to the whole search, the maximum numbers of iterations and nodes apply to every
+ * worker of a parallel search. A budget is immutable and can be shared, the state of a running search is kept by a
+ * {@link Tracker}.
+ */
+public final class SearchBudget {
+
+    /** No deadline. */
+    public static final long NO_TIME_LIMIT = Long.MAX_VALUE;
+
+    /** No maximum number of iterations or nodes. */
+    public static final int NO_LIMIT = Integer.MAX_VALUE;
+
+    /** No maximum heap usage. */
+    public static final long NO_MEMORY_LIMIT = Long.MAX_VALUE;
+
+    /** The maximum number of iterations is taken from the difficulty of the player, see {@link game.Difficulty}. */
+    public static final int ITERATIONS_OF_DIFFICULTY = 0;
+
+    /** The budget of the difficulty of the player: its number of iterations and no other limit. */
+    public static final SearchBudget OF_DIFFICULTY = new SearchBudget(NO_TIME_LIMIT, ITERATIONS_OF_DIFFICULTY, NO_LIMIT, NO_MEMORY_LIMIT);
+
+    // the clock is read every CLOCK_CHECK_INTERVAL iterations, the heap usage every MEMORY_CHECK_INTERVAL iterations
+    private static final int CLOCK_CHECK_INTERVAL = 8;
+    private static final int MEMORY_CHECK_INTERVAL = 256;
+
+    private final long timeLimitMillis;
+    private final int maxIterations;
+    private final int maxNodes;
+    private final long maxMemoryBytes;
+
+    /**
+     * Creates a budget.
+     *
+     * @param timeLimitMillis The time of a decision in milliseconds, {@link #NO_TIME_LIMIT} for none.
+     * @param maxIterations The maximum number of iterations, {@link #NO_LIMIT} for none or
+     *                      {@link #ITERATIONS_OF_DIFFICULTY} for the number of the player's difficulty.
+     * @param maxNodes The maximum number of nodes a search adds to its tree(s), {@link #NO_LIMIT} for none.
+     * @param maxMemoryBytes The heap usage of the JVM in bytes above which the search stops, {@link #NO_MEMORY_LIMIT} for none.
+     * @throws IllegalArgumentException If a limit is negative or the time limit, the maximum number of nodes or the
+     *                                  maximum heap usage is 0.
+     */
+    public SearchBudget(long timeLimitMillis, int maxIterations, int maxNodes, long maxMemoryBytes) throws IllegalArgumentException {
+        if (timeLimitMillis <= 0) {
+            throw new IllegalArgumentException("Invalid time limit: " + timeLimitMillis);
+        }
+        if (maxIterations < 0) {
+            throw new IllegalArgumentException("Invalid maximum number of iterations: " + maxIterations);
+        }
+        if (maxNodes <= 0) {
+            throw new IllegalArgumentException("Invalid maximum number of nodes: " + maxNodes);
+        }
+        if (maxMemoryBytes <= 0) {
+            throw new IllegalArgumentException("Invalid maximum heap usage: " + maxMemoryBytes);
+        }
+        this.timeLimitMillis = timeLimitMillis;
+        this.maxIterations = maxIterations;
+        this.maxNodes = maxNodes;
+        this.maxMemoryBytes = maxMemoryBytes;
+    }
+
+    /**
+     * Creates a budget that only has a deadline, so the search runs as many iterations as fit into the given time.
+     *
+     * @param timeLimitMillis The time of a decision in milliseconds.
+     * @return The budget.
+     * @throws IllegalArgumentException If the time is not positive.
+     */
+    public static SearchBudget ofMillis(long timeLimitMillis) throws IllegalArgumentException {
+        return new SearchBudget(timeLimitMillis, NO_LIMIT, NO_LIMIT, NO_MEMORY_LIMIT);
+    }
+
+    /**
+     * Gets the budget of an AI for which no budget has been set: the number of iterations of the player's difficulty and,
+     * in human mode, a deadline, so that the human player does not wait too long.
+     *
+     * @param gameState The game state of the decision.
+     * @param timeLimitMillisInHumanMode The time of a decision in human mode in milliseconds.
+     * @return The budget.
+     */
+    public static SearchBudget defaultFor(GameState gameState, long timeLimitMillisInHumanMode) {
+        if (gameState.getGameMode() == GameMode.HUMAN) {
+            return new SearchBudget(timeLimitMillisInHumanMode, ITERATIONS_OF_DIFFICULTY, NO_LIMIT, NO_MEMORY_LIMIT);
+        }
+        return OF_DIFFICULTY;
+    }
+
+    /**
+     * Starts tracking a search.
+     *
+     * @param startNanos The start of the decision as given by {@link System#nanoTime()}. The workers of a parallel
+     *                   search pass the same start, so they share the deadline.
+     * @param iterationsOfDifficulty The number of iterations of the player's difficulty.
+     * @return A new tracker, to be used by one thread only.
+     */
+    public Tracker start(long startNanos, int iterationsOfDifficulty) {
+        return new Tracker(startNanos, maxIterations == ITERATIONS_OF_DIFFICULTY ? iterationsOfDifficulty : maxIterations);
+    }
+
+    public long getTimeLimitMillis() {
+        return timeLimitMillis;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public int getMaxNodes() {
+        return maxNodes;
+    }
+
+    public long getMaxMemoryBytes() {
+        return maxMemoryBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchBudget[timeLimitMillis=" + timeLimitMillis + ", maxIterations=" + maxIterations
+                + ", maxNodes=" + maxNodes + ", maxMemoryBytes=" + maxMemoryBytes + "]";
+    }
+
+    /**
+     * Checks the budget of a running search. The caps on iterations and nodes are checked on every call, the clock and
+     * the heap usage only every few iterations, so the check is cheap compared to an iteration.
+     */
+    public final class Tracker {
+        private final long startNanos;
+        private final long timeLimitNanos;
+        private final int maxIterationsOfSearch;
+        private int nextClockCheck = CLOCK_CHECK_INTERVAL;
+        private int nextMemoryCheck = MEMORY_CHECK_INTERVAL;
+        private boolean isExpired;
+
+        private Tracker(long startNanos, int maxIterationsOfSearch) {
+            this.startNanos = startNanos;
+            this.timeLimitNanos = timeLimitMillis >= NO_TIME_LIMIT / 1_000_000 ? NO_TIME_LIMIT : timeLimitMillis * 1_000_000;
+            this.maxIterationsOfSearch = Math.max(1, maxIterationsOfSearch);
+        }
+
+        /**
+         * Checks whether the search has to stop before its next iteration.
+         *
+         * @param completedIterations The number of iterations the search has completed.
+         * @param createdNodes The number of nodes the search has added to its tree(s).
+         * @return true if the budget is exhausted, always false before the first iteration.
+         */
+        public boolean isExhausted(int completedIterations, int createdNodes) {
+            if (completedIterations == 0) return false;
+            if (isExpired || completedIterations >= maxIterationsOfSearch || createdNodes >= maxNodes) return true;
+            if (timeLimitNanos != NO_TIME_LIMIT && completedIterations >= nextClockCheck) {
+                nextClockCheck = completedIterations + CLOCK_CHECK_INTERVAL;
+                isExpired = System.nanoTime() - startNanos >= timeLimitNanos;
+            }
+            if (maxMemoryBytes != NO_MEMORY_LIMIT && completedIterations >= nextMemoryCheck) {
+                nextMemoryCheck = completedIterations + MEMORY_CHECK_INTERVAL;
+                Runtime runtime = Runtime.getRuntime();
+                isExpired |= runtime.totalMemory() - runtime.freeMemory() > maxMemoryBytes;
+            }
+            return isExpired;
+        }
+
+        /**
+         * Gets the maximum number of iterations of the search, e.g. to size the last batch of a batched search.
+         * @return The number of iterations of the budget or of the difficulty, at least 1.
+         */
+        public int getMaxIterations() {
+            return maxIterationsOfSearch;
+        }
+    }
+}
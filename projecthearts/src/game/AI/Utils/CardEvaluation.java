@@ -90,7 +90,7 @@ public class CardEvaluation {
 
         for (int i = 1; i < 53; i++) {
             if (currentHandCards.containsCard(i)) {
-                playableCards.add(new Card(i));
+                playableCards.add(Card.of(i));
             }
         }
         return playableCards;
@@ -0,0 +1,579 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import rules.Rules;
+
+/**
+ * Represents the state of a single round in a compact form that is intended for search-based AIs.
+ * <p>
+ * Every set of cards (the hand cards and playable cards of each player, the cards played in this round and the cards
+ * of the current trick) is stored as a {@code long} bitmask. Bit {@code cardId - 1} stands for the card with that id,
+ * so that the suits occupy the bit ranges 0-12 (diamonds), 13-25 (hearts), 26-38 (spades) and 39-51 (clubs).
+ * <p>
+ * The class mirrors the contract of {@link GameState#doMove(int)}, {@link GameState#determineListOfPlayableCardIds(int)},
+ * {@link GameState#isRoundOver()} and {@link GameState#getPayoff(int)}, so that a search can run on an instance of this class
+ * and convert the result back to a {@link GameState} with {@link #toGameState(GameState)} if needed.
+ * Copying an instance only copies a handful of primitive arrays instead of players, hand cards and tricks.
+ */
+public class BitboardGameState implements Cloneable{
+
+    public static final long DIAMONDS_MASK = 0x1FFFL;
+    public static final long HEARTS_MASK = DIAMONDS_MASK << 13;
+    public static final long SPADES_MASK = DIAMONDS_MASK << 26;
+    public static final long CLUBS_MASK = DIAMONDS_MASK << 39;
+    public static final long QUEEN_OF_SPADES_MASK = 1L << (CardCoding.SPADES_QUEEN.getId() - 1);
+    public static final long CLUBS_2_MASK = 1L << (CardCoding.CLUBS_2.getId() - 1);
+    public static final long CLUBS_7_MASK = 1L << (CardCoding.CLUBS_7.getId() - 1);
+
+    private long[] handCards; // one mask per player
+    private long[] handCardsPlayable; // one mask per player
+    private long cardsPlayedInThisRound;
+    private long cardsOfNewestTrick;
+    private int[] cardsPlayedInNewestTrick; // indexed by player number, 0 = no card
+    private byte[] playedCardsInOrder; // card ids in the order they were played in this round
+    private int numPlayedCards;
+    private int starterOfRound;
+    private int starterOfNewestTrick;
+    private int winnerOfNewestTrick;
+    private int tricksPlayed;
+    private int deckSize;
+    private boolean isHeartBroken;
+    private boolean isMoonShot;
+    private int[] roundPts;
+    private double[] payoff;
+    private int[] ranking; // scratch array of updatePayoff()
+
+    private BitboardGameState(){
+    }
+
+    /**
+     * Creates a compact copy of a game state that is currently in the playing phase of a round.
+     *
+     * @param gameState The game state to convert.
+     * @return A new bitboard state with the same hands, playable cards, tricks, points and payoffs.
+     * @throws IllegalArgumentException If no trick has been started yet, e.g. during passing.
+     */
+    public static BitboardGameState fromGameState(GameState gameState) throws IllegalArgumentException{
+        BitboardGameState state = new BitboardGameState();
+        state.handCards = new long[4];
+        state.handCardsPlayable = new long[4];
+        state.cardsPlayedInNewestTrick = new int[4];
+        state.playedCardsInOrder = new byte[52];
+        state.roundPts = new int[4];
+        state.payoff = new double[4];
+        state.ranking = new int[4];
+        state.readFrom(gameState);
+        return state;
+    }
+
+    /**
+     * Overwrites this state with the round of a game state that is currently in the playing phase, without allocating.
+     * This allows a search to convert every determinization into the same working state.
+     *
+     * @param gameState The game state to convert.
+     * @throws IllegalArgumentException If no trick has been started yet, e.g. during passing.
+     */
+    public void readFrom(GameState gameState) throws IllegalArgumentException{
+        if (gameState.getTricksPlayed() < 1){
+            throw new IllegalArgumentException("Game state is not in the playing phase. Tricks played: " + gameState.getTricksPlayed());
+        }
+        Player[] players = gameState.getPlayers();
+        for (int i = 0; i < 4; i++){
+            handCards[i] = toMask(players[i].getHandCards().getIsInHand());
+            handCardsPlayable[i] = toMask(players[i].getHandCardsPlayable().getIsInHand());
+            roundPts[i] = players[i].getRoundPts();
+            payoff[i] = players[i].getPayoff();
+        }
+        cardsPlayedInThisRound = toMask(gameState.getCardsPlayedInThisRound());
+        tricksPlayed = gameState.getTricksPlayed();
+        deckSize = gameState.getDeckSize();
+        isHeartBroken = gameState.getIsHeartBroken();
+        isMoonShot = gameState.getIsMoonShot();
+        starterOfRound = gameState.getRoundTricks()[0].getStarter();
+
+        numPlayedCards = 0;
+        for (int i = 0; i < tricksPlayed; i++){
+            Trick trick = gameState.getRoundTricks()[i];
+            int[] cardsPlayed = trick.getCardsPlayed();
+            for (int j = 0; j < trick.getNumPlayedCards(); j++){
+                playedCardsInOrder[numPlayedCards++] = (byte) cardsPlayed[(trick.getStarter() + j) % 4];
+            }
+        }
+
+        Trick newestTrick = gameState.getNewestTrick();
+        starterOfNewestTrick = newestTrick.getStarter();
+        winnerOfNewestTrick = newestTrick.getNumPlayedCards() == 0 ? newestTrick.getStarter() : newestTrick.getWinner();
+        cardsOfNewestTrick = 0L;
+        for (int i = 0; i < 4; i++){
+            int cardId = newestTrick.getCardsPlayed()[i];
+            cardsPlayedInNewestTrick[i] = cardId;
+            if (cardId != 0) cardsOfNewestTrick |= toMask(cardId);
+        }
+    }
+
+    /**
+     * Writes this state into a copy of the given game state.
+     * The template supplies everything that is not part of the round, e.g. game points, difficulty and memory.
+     *
+     * @param template The game state this bitboard state was created from or a copy of it.
+     * @return A deep copy of the template whose round is replaced by the content of this state.
+     */
+    public GameState toGameState(GameState template){
+        GameState gameState = template.deepCopy();
+        writeTo(gameState);
+        return gameState;
+    }
+
+    /**
+     * Replaces the round of the given game state by the content of this state: hand cards, playable cards, tricks,
+     * round points and payoffs. Everything else of the game state, e.g. the game points, is kept.
+     *
+     * @param gameState The game state to overwrite, usually the one this state was read from.
+     */
+    public void writeTo(GameState gameState){
+        Player[] players = gameState.getPlayers();
+        for (int i = 0; i < 4; i++){
+            players[i].getHandCards().setIsInHand(toBooleanArray(handCards[i]));
+            players[i].getHandCardsPlayable().setIsInHand(toBooleanArray(handCardsPlayable[i]));
+            players[i].setRoundPoints(roundPts[i]);
+            players[i].updatePayoffValue(payoff[i]);
+        }
+
+        Trick[] roundTricks = gameState.getRoundTricks();
+        for (int i = 0; i < roundTricks.length; i++){
+            roundTricks[i] = null;
+        }
+        int starter = starterOfRound;
+        for (int i = 0; i < tricksPlayed; i++){
+            Trick trick = new Trick(starter);
+            for (int j = 4 * i; j < Math.min(4 * i + 4, numPlayedCards); j++){
+                trick.addCard(playedCardsInOrder[j], (starter + j - 4 * i) % 4);
+            }
+            roundTricks[i] = trick;
+            if (trick.getNumPlayedCards() == 4) starter = trick.getWinner();
+        }
+
+        boolean[] cardsPlayed = gameState.getCardsPlayedInThisRound();
+        List<Integer> listOfCardIdsPlayed = gameState.getListOfCardIdsPlayedInThisRound();
+        for (int i = 0; i < numPlayedCards; i++){
+            if (!cardsPlayed[playedCardsInOrder[i] - 1]) listOfCardIdsPlayed.add((int) playedCardsInOrder[i]);
+        }
+        boolean[] cardsPlayedOfThisState = toBooleanArray(cardsPlayedInThisRound);
+        System.arraycopy(cardsPlayedOfThisState, 0, cardsPlayed, 0, cardsPlayed.length);
+
+        gameState.setTricksPlayed(tricksPlayed);
+        gameState.setIsHeartBroken(isHeartBroken);
+    }
+
+    /**
+     * Performs a move by playing a card for the player who is to move.
+     * Behaves like {@link GameState#doMove(int)}: when the trick is complete, hearts may be broken, the round points and payoffs
+     * are updated and, if the round is not over, a new trick is started by the trick winner.
+     *
+     * @param cardId The id of the card to be played.
+     * @throws IllegalArgumentException If the player to move does not hold the card.
+     */
+    public void doMove(int cardId) throws IllegalArgumentException{
+        int playerNo = getPlayerToMove();
+        long card = toMask(cardId);
+        if ((handCards[playerNo] & card) == 0){
+            throw new IllegalArgumentException("Card with ID " + cardId + " is not in hand of player " + playerNo + ".");
+        }
+        handCards[playerNo] &= ~card;
+        handCardsPlayable[playerNo] &= ~card;
+        cardsPlayedInThisRound |= card;
+        playedCardsInOrder[numPlayedCards++] = (byte) cardId;
+
+        int numCardsInTrick = Long.bitCount(cardsOfNewestTrick);
+        if (numCardsInTrick == 0){
+            winnerOfNewestTrick = playerNo;
+        } else {
+            int winningCard = cardsPlayedInNewestTrick[winnerOfNewestTrick];
+            if (suitMaskOf(cardId) == suitMaskOf(winningCard) && cardId > winningCard) winnerOfNewestTrick = playerNo;
+        }
+        cardsOfNewestTrick |= card;
+        cardsPlayedInNewestTrick[playerNo] = cardId;
+        numCardsInTrick++;
+
+        if (numCardsInTrick == 4){
+            if ((cardsOfNewestTrick & HEARTS_MASK) != 0) isHeartBroken = true;
+            roundPts[winnerOfNewestTrick] += countPoints(cardsOfNewestTrick);
+            updatePayoff();
+
+            if (!isRoundOver()){
+                tricksPlayed++;
+                starterOfNewestTrick = winnerOfNewestTrick;
+                cardsOfNewestTrick = 0L;
+                cardsPlayedInNewestTrick[0] = 0;
+                cardsPlayedInNewestTrick[1] = 0;
+                cardsPlayedInNewestTrick[2] = 0;
+                cardsPlayedInNewestTrick[3] = 0;
+                handCardsPlayable[starterOfNewestTrick] = getPlayableCardsOfStarterInTrick2orLater(handCards[starterOfNewestTrick], isHeartBroken);
+            }
+        } else {
+            int nextPlayer = (starterOfNewestTrick + numCardsInTrick) % 4;
+            int firstCard = cardsPlayedInNewestTrick[starterOfNewestTrick];
+            if (tricksPlayed == 1){
+                handCardsPlayable[nextPlayer] = getPlayableCardsOfNonStarterInTrick1(handCards[nextPlayer]);
+            } else {
+                handCardsPlayable[nextPlayer] = getPlayableCardsOfNonStarterInTrick2orLater(handCards[nextPlayer], firstCard);
+            }
+        }
+    }
+
+    /**
+     * Determines the list of playable card IDs for the specified player.
+     *
+     * @param playerNo The number representing the player.
+     * @return A list of playable card IDs for the specified player in ascending order.
+     */
+    public List<Integer> determineListOfPlayableCardIds(int playerNo){
+        return toListOfCardIds(handCardsPlayable[playerNo]);
+    }
+
+    /**
+     * Checks if the current round is over.
+     *
+     * @return {@code true} if the round is over; otherwise, {@code false}.
+     */
+    public boolean isRoundOver(){
+        int requiredTricks = (deckSize == 52) ? 13 : 8;
+        return tricksPlayed == requiredTricks && Long.bitCount(cardsOfNewestTrick) == 4;
+    }
+
+    /**
+     * Determines the playable cards of the player to move from the rules, independent of the stored playable cards.
+     * In the 1st trick the starter has to open with clubs 2 (deck size 52) or clubs 7 (deck size 32).
+     *
+     * @return The mask of playable cards of the player to move.
+     */
+    public long getPlayableCardsOfPlayerToMove(){
+        long hand = handCards[getPlayerToMove()];
+        if (Long.bitCount(cardsOfNewestTrick) == 0){
+            if (tricksPlayed == 1){
+                long openingCard = hand & ((deckSize == 52) ? CLUBS_2_MASK : CLUBS_7_MASK);
+                return openingCard != 0 ? openingCard : hand;
+            }
+            return getPlayableCardsOfStarterInTrick2orLater(hand, isHeartBroken);
+        }
+        if (tricksPlayed == 1) return getPlayableCardsOfNonStarterInTrick1(hand);
+        return getPlayableCardsOfNonStarterInTrick2orLater(hand, getFirstCardOfNewestTrick());
+    }
+
+    /**
+     * Determines the player who is to make the next move, see {@link GameState#getPlayerToMove()}.
+     *
+     * @return The number of the player who is to make the next move.
+     */
+    public int getPlayerToMove(){
+        int numCardsInTrick = Long.bitCount(cardsOfNewestTrick);
+        if (numCardsInTrick == 4) return winnerOfNewestTrick;
+        return (starterOfNewestTrick + numCardsInTrick) % 4;
+    }
+
+    public double getPayoff(int playerNo){
+        return payoff[playerNo];
+    }
+
+    /**
+     * Calculates the normalized payoff for a specified player, see {@link GameState#getResult(int)}.
+     *
+     * @param playerNo The number of the player.
+     * @return The cubic root of the payoff of the player.
+     */
+    public double getResult(int playerNo){
+        return Math.cbrt(payoff[playerNo]);
+    }
+
+    /**
+     * Ends the round like {@link GameController#completeRound()}, but without game points: if a player has taken all
+     * points, the moon is shot and the payoffs are those of Old Moon.
+     */
+    public void completeRound(){
+        int shootTheMoonPoints = (deckSize == 52) ? 26 : 21;
+        isMoonShot = roundPts[0] == shootTheMoonPoints || roundPts[1] == shootTheMoonPoints
+                    || roundPts[2] == shootTheMoonPoints || roundPts[3] == shootTheMoonPoints;
+        updatePayoff();
+    }
+
+    /*
+     * Updates the payoff of each player exactly like GameState.updatePayoff(), including the integer division for
+     * several winners and the stable ordering of players with equal points.
+     */
+    private void updatePayoff(){
+        ranking[0] = 0;
+        ranking[1] = 1;
+        ranking[2] = 2;
+        ranking[3] = 3;
+        for (int i = 1; i < 4; i++){
+            int playerNo = ranking[i];
+            int j = i - 1;
+            while (j >= 0 && (isMoonShot ? roundPts[ranking[j]] < roundPts[playerNo] : roundPts[ranking[j]] > roundPts[playerNo])){
+                ranking[j + 1] = ranking[j];
+                j--;
+            }
+            ranking[j + 1] = playerNo;
+        }
+
+        int numberOfWinners = 1;
+        int ptsFirst;
+        int ptsScnd;
+        int ptsThird;
+        int ptsFourth;
+        if (isMoonShot){
+            int shootTheMoonPoints = (deckSize == 52) ? 26 : 21;
+            ptsFirst = 0;
+            ptsScnd = shootTheMoonPoints;
+            ptsThird = shootTheMoonPoints;
+            ptsFourth = shootTheMoonPoints;
+        } else {
+            for (int i = 0; i < 2; i++){
+                if (roundPts[ranking[i]] == roundPts[ranking[i + 1]]) numberOfWinners++;
+                else break;
+            }
+            ptsFirst = roundPts[ranking[0]];
+            ptsScnd = roundPts[ranking[1]];
+            ptsThird = roundPts[ranking[2]];
+            ptsFourth = roundPts[ranking[3]];
+        }
+
+        if (numberOfWinners > 1){
+            double payoffWinners = (ptsScnd + ptsThird + ptsFourth - 3 * ptsFirst) / numberOfWinners;
+            payoff[ranking[0]] = payoffWinners;
+            payoff[ranking[1]] = payoffWinners;
+            if (numberOfWinners == 3) payoff[ranking[2]] = payoffWinners;
+            else payoff[ranking[2]] = ptsFirst - ptsThird;
+        } else {
+            payoff[ranking[0]] = ptsScnd + ptsThird + ptsFourth - 3 * ptsFirst;
+            payoff[ranking[1]] = ptsFirst - ptsScnd;
+            payoff[ranking[2]] = ptsFirst - ptsThird;
+        }
+        payoff[ranking[3]] = ptsFirst - ptsFourth;
+    }
+
+    /**
+     * Determines the playable cards of the starter from the 2nd trick on, see
+     * {@link Rules#getPlayableCardsOfStarterInTrick2orLater(long, boolean)}.
+     *
+     * @param hand The hand cards of the starter.
+     * @param isHeartBroken Whether hearts have been broken in this round.
+     * @return The mask of playable cards.
+     */
+    public static long getPlayableCardsOfStarterInTrick2orLater(long hand, boolean isHeartBroken){
+        return Rules.getPlayableCardsOfStarterInTrick2orLater(hand, isHeartBroken);
+    }
+
+    /**
+     * Determines the playable cards of a player who does not start the 1st trick, see
+     * {@link Rules#getPlayableCardsInTrick0or1(long, int, boolean, int)}.
+     *
+     * @param hand The hand cards of the player.
+     * @return The mask of playable cards.
+     */
+    public static long getPlayableCardsOfNonStarterInTrick1(long hand){
+        return Rules.getPlayableCardsInTrick0or1(hand, 1, false, 52);
+    }
+
+    /**
+     * Determines the playable cards of a player who does not start a trick from the 2nd trick on, see
+     * {@link Rules#getPlayableCardsOfNonStarterInTrick2orLater(long, int)}.
+     *
+     * @param hand The hand cards of the player.
+     * @param firstCardId The id of the card played by the starter of the trick.
+     * @return The mask of playable cards.
+     */
+    public static long getPlayableCardsOfNonStarterInTrick2orLater(long hand, int firstCardId){
+        return Rules.getPlayableCardsOfNonStarterInTrick2orLater(hand, firstCardId);
+    }
+
+    /**
+     * Counts the points of the given cards: one per heart and 13 for the queen of spades.
+     *
+     * @param cards The mask of cards.
+     * @return The points of the cards.
+     */
+    public static int countPoints(long cards){
+        return Long.bitCount(cards & HEARTS_MASK) + ((cards & QUEEN_OF_SPADES_MASK) != 0 ? 13 : 0);
+    }
+
+    /**
+     * Gets the mask of all cards of the suit of a card.
+     *
+     * @param cardId The id of the card.
+     * @return The mask of the suit.
+     */
+    public static long suitMaskOf(int cardId){
+        return DIAMONDS_MASK << (13 * ((cardId - 1) / 13));
+    }
+
+    public static long toMask(int cardId){
+        return 1L << (cardId - 1);
+    }
+
+    /**
+     * Converts a boolean array of size 52 (as used by {@link HandCards}) to a mask.
+     *
+     * @param isInHand The boolean array.
+     * @return The mask with a bit set for every {@code true} entry.
+     */
+    public static long toMask(boolean[] isInHand){
+        long mask = 0L;
+        for (int i = 0; i < isInHand.length; i++){
+            if (isInHand[i]) mask |= 1L << i;
+        }
+        return mask;
+    }
+
+    /**
+     * Converts a mask to a boolean array of size 52 (as used by {@link HandCards}).
+     *
+     * @param mask The mask.
+     * @return The boolean array with a {@code true} entry for every set bit.
+     */
+    public static boolean[] toBooleanArray(long mask){
+        boolean[] result = new boolean[52];
+        while (mask != 0){
+            result[Long.numberOfTrailingZeros(mask)] = true;
+            mask &= mask - 1;
+        }
+        return result;
+    }
+
+    /**
+     * Converts a mask to a list of card ids in ascending order.
+     *
+     * @param mask The mask.
+     * @return The list of card ids.
+     */
+    public static List<Integer> toListOfCardIds(long mask){
+        List<Integer> result = new ArrayList<>(Long.bitCount(mask));
+        while (mask != 0){
+            result.add(Long.numberOfTrailingZeros(mask) + 1);
+            mask &= mask - 1;
+        }
+        return result;
+    }
+
+    /**
+     * Copies the content of another state into this state without allocating, so that a search can reuse one working state.
+     *
+     * @param other The state to copy from.
+     */
+    public void copyFrom(BitboardGameState other){
+        System.arraycopy(other.handCards, 0, handCards, 0, 4);
+        System.arraycopy(other.handCardsPlayable, 0, handCardsPlayable, 0, 4);
+        System.arraycopy(other.cardsPlayedInNewestTrick, 0, cardsPlayedInNewestTrick, 0, 4);
+        System.arraycopy(other.playedCardsInOrder, 0, playedCardsInOrder, 0, other.numPlayedCards);
+        System.arraycopy(other.roundPts, 0, roundPts, 0, 4);
+        System.arraycopy(other.payoff, 0, payoff, 0, 4);
+        cardsPlayedInThisRound = other.cardsPlayedInThisRound;
+        cardsOfNewestTrick = other.cardsOfNewestTrick;
+        numPlayedCards = other.numPlayedCards;
+        starterOfRound = other.starterOfRound;
+        starterOfNewestTrick = other.starterOfNewestTrick;
+        winnerOfNewestTrick = other.winnerOfNewestTrick;
+        tricksPlayed = other.tricksPlayed;
+        deckSize = other.deckSize;
+        isHeartBroken = other.isHeartBroken;
+        isMoonShot = other.isMoonShot;
+    }
+
+    /**
+     * Copies this state.
+     *
+     * @return An independent copy of this state.
+     */
+    public BitboardGameState deepCopy(){
+        return (BitboardGameState) this.clone();
+    }
+
+    /**
+     * Method that clones this BitboardGameState object and returns the clone.
+     * The primitive arrays are copied, so that the clone is independent of this object.
+     */
+    @Override
+    public Object clone(){
+        BitboardGameState copy = null;
+        try {
+            copy = (BitboardGameState) super.clone();
+            copy.handCards = this.handCards.clone();
+            copy.handCardsPlayable = this.handCardsPlayable.clone();
+            copy.cardsPlayedInNewestTrick = this.cardsPlayedInNewestTrick.clone();
+            copy.playedCardsInOrder = this.playedCardsInOrder.clone();
+            copy.roundPts = this.roundPts.clone();
+            copy.payoff = this.payoff.clone();
+            copy.ranking = new int[4];
+        } catch (CloneNotSupportedException e) {
+            System.out.println("clone not supported for class: " + this.getClass().getName());
+        }
+        return copy;
+    }
+
+    public long getHandCards(int playerNo){
+        return handCards[playerNo];
+    }
+
+    /**
+     * Replaces the hand cards of a player, e.g. after a determinization.
+     *
+     * @param playerNo The number of the player.
+     * @param hand The new hand cards.
+     */
+    public void setHandCards(int playerNo, long hand){
+        handCards[playerNo] = hand;
+    }
+
+    public long getHandCardsPlayable(int playerNo){
+        return handCardsPlayable[playerNo];
+    }
+
+    public void setHandCardsPlayable(int playerNo, long playable){
+        handCardsPlayable[playerNo] = playable;
+    }
+
+    public long getCardsPlayedInThisRound(){
+        return cardsPlayedInThisRound;
+    }
+
+    public long getCardsOfNewestTrick(){
+        return cardsOfNewestTrick;
+    }
+
+    public int getNumCardsOfNewestTrick(){
+        return Long.bitCount(cardsOfNewestTrick);
+    }
+
+    public int getCardPlayedInNewestTrickByPlayer(int playerNo){
+        return cardsPlayedInNewestTrick[playerNo];
+    }
+
+    public int getFirstCardOfNewestTrick(){
+        return cardsPlayedInNewestTrick[starterOfNewestTrick];
+    }
+
+    public int getStarterOfNewestTrick(){
+        return starterOfNewestTrick;
+    }
+
+    public int getStarterOfRound(){
+        return starterOfRound;
+    }
+
+    public int getTricksPlayed(){
+        return tricksPlayed;
+    }
+
+    public int getDeckSize(){
+        return deckSize;
+    }
+
+    public boolean getIsHeartBroken(){
+        return isHeartBroken;
+    }
+
+    public int getRoundPts(int playerNo){
+        return roundPts[playerNo];
+    }
+}
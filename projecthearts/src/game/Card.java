@@ -2,41 +2,50 @@ package game;
 
 /**
  * Represents a playing card.
- * Each card has a identifier, suit, and image path.
+ * Each card has a identifier, suit, rank and image path.
+ * <p>
+ * Cards are immutable and there is exactly one instance per id, which is obtained with {@link #of(int)}.
+ * The image path is only needed by the GUI and is therefore determined on the first call of {@link #getImagePath()}.
  */
 
-public class Card implements Cloneable{
+public final class Card implements Cloneable{
     
-    private int id; // Card id, 0 < x < 53 
-    private String imagePath;
-    private Suits suit; 
+    private static final String[] SUITS = { "diamonds", "hearts", "spades", "clubs" };
+    private static final String[] RANKS = { "02", "03", "04", "05", "06", "07", "08", "09", "10", "jack", "queen", "king", "ace" };
+    private static final Card[] CARDS = new Card[52];
 
-    private String[] suits = { "diamonds", "hearts", "spades", "clubs" };
-    private String[] ranks = { "02", "03", "04", "05", "06", "07", "08", "09", "10", "jack", "queen", "king", "ace" };
+    static {
+        for (int id = 1; id <= 52; id++){
+            CARDS[id - 1] = new Card(id);
+        }
+    }
+
+    private final int id; // Card id, 0 < x < 53 
+    private final Suits suit; 
+    private final int rank; // 0 = 2, ..., 12 = ace
+    private String imagePath; // determined on first use
+
+    /* Constructs the card with the specified identifier, which has already been checked by of(int). */
+    private Card (int id){
+        this.id = id;
+        this.suit = calculateSuit();
+        this.rank = (id - 1) % 13;
+    }
 
     /**
-    * Constructs a new Card instance with the specified identifier.
+    * Gets the card with the specified identifier.
     *
     * @param id The identifier of the card.
+    * @return The only instance of the card.
     * @throws IllegalArgumentException If the provided identifier is outside the valid range [1, 52].
     */
-    public Card (int id) throws IllegalArgumentException{
-        
-        setId(id);
-        imagePath = calculateImagePath();
-        suit = calculateSuit();
-    }
-
-    /* Sets the id of the card if the input parameter is within the valid value range. */
-    private void setId(int id) throws IllegalArgumentException{
+    public static Card of(int id) throws IllegalArgumentException{
         if (id > 0 && id < 53) {
-            this.id = id;
-        } else {
-            throw new IllegalArgumentException("Invalid Card Id:" + id);
-        } 
+            return CARDS[id - 1];
+        }
+        throw new IllegalArgumentException("Invalid Card Id:" + id);
     }
 
-    
     /* Calculates the color of a card based on its id. */
     private Suits calculateSuit() throws IllegalArgumentException{
 
@@ -63,7 +72,7 @@ public class Card implements Cloneable{
         int suitIndex = (id - 1) / 13;
         int rankIndex = ((id - 1) % 13) + 1;
 
-        return "../GUI/assets/" + suits[suitIndex] + String.format("%02d", rankIndex) + ".png";  
+        return "../GUI/assets/" + SUITS[suitIndex] + String.format("%02d", rankIndex) + ".png";  
     }
 
     /**
@@ -134,7 +143,7 @@ public class Card implements Cloneable{
         int suitIndex = (id - 1) / 13;
         int rankIndex = (id - 1) % 13;
 
-        return suits[suitIndex] + " " + ranks[rankIndex];
+        return SUITS[suitIndex] + " " + RANKS[rankIndex];
     }
 
     /**
@@ -143,6 +152,8 @@ public class Card implements Cloneable{
     * @return The file path to the image of the card.
     */
     public String getImagePath(){
+        // Several threads may calculate the path at the same time, which is harmless, since the result is the same string.
+        if (imagePath == null) imagePath = calculateImagePath();
         return imagePath;
     }
 
@@ -165,6 +176,15 @@ public class Card implements Cloneable{
         return id;
     }
 
+    /**
+    * Gets the rank of the card within its suit.
+    *
+    * @return The rank of the card, 0 for the two up to 12 for the ace.
+    */
+    public int getRank(){
+        return rank;
+    }
+
     /**
      Gets the file path to the image of the backside of a card.
     *
@@ -190,18 +210,12 @@ public class Card implements Cloneable{
         }
     }
 
+    /**
+     * Returns this card, since there is only one instance per card and cards are immutable.
+     */
     @Override
     public Object clone() {
-        Card cardCopy = null;
-        try {
-            cardCopy = (Card) super.clone();
-            // Für alle Attribute von Card gilt: Sie können nicht geändert werden (sind also immutable, keine (public) setter verfügbar), d. h., es reichen shallow copys aus.
-        } catch (CloneNotSupportedException e) {
-            //return new Address(this.street, this.getCity(), this.getCountry()); //Aus Beispiel //TODO: Am Ende entfernen
-            System.out.println("clone not supported for class: " + this.getClass().getName());
-            cardCopy = new Card(this.id); //TODO: hier evtl. noch einen Fehler werfen oder so. catch sollte aber nie pasieren, da Card Cloneable ist/implementiert.
-        }
-        return cardCopy;
+        return this;
     }
 
     @Override
@@ -211,4 +225,9 @@ public class Card implements Cloneable{
         Card card = (Card) o;
         return id == card.id;
     }
+
+    @Override
+    public int hashCode() {
+        return id;
+    }
 }
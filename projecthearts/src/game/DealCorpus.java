@@ -0,0 +1,145 @@
+package game;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+/**
+ * A file of pre-shuffled deals, so that agents can be compared on identical cards.
+ * <p>
+ * The corpus contains the deals of a fixed number of games with a fixed number of rounds each. Every deal consists of the
+ * hand cards of the four seats as bitmasks (bit {@code cardId-1}). The binary format is big endian:
+ * <pre>
+ * int magic "HDC1", int deck size (52 or 32), int number of games, int rounds per game,
+ * then for every game, round and seat one long with the hand mask.
+ * </pre>
+ * The file is memory-mapped read-only, so it is loaded once and can be read by several threads at the same time.
+ * A game lasting longer than the rounds per game starts over with the first deal of the game.
+ * <p>
+ * For a duplicate evaluation every deal is played with the hands rotated over the seats: with rotation r, the hand dealt to
+ * seat s is played at seat (s + r) % 4. After the four rotations of a game each agent has played every hand of it.
+ */
+public class DealCorpus {
+
+    static final int MAGIC = 0x48444331; // "HDC1"
+    private static final int HEADER_BYTES = 16;
+    public static final int NUMBER_OF_ROTATIONS = 4;
+
+    private final ByteBuffer deals;
+    private final int deckSize;
+    private final int numberOfGames;
+    private final int roundsPerGame;
+
+    private DealCorpus(ByteBuffer deals, int deckSize, int numberOfGames, int roundsPerGame) {
+        this.deals = deals;
+        this.deckSize = deckSize;
+        this.numberOfGames = numberOfGames;
+        this.roundsPerGame = roundsPerGame;
+    }
+
+    /**
+     * Shuffles the deals of a corpus and writes them to a file. The deals are shuffled and handed out like in a game.
+     *
+     * @param path The file to write.
+     * @param isStandardDeck If {@code true}, the deals use 52 cards, otherwise 32 cards.
+     * @param numberOfGames The number of games in the corpus.
+     * @param roundsPerGame The number of deals per game.
+     * @param seed The seed of the shuffles; the same seed gives the same corpus.
+     * @throws IllegalArgumentException If the number of games or rounds is smaller than 1.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void generate(Path path, boolean isStandardDeck, int numberOfGames, int roundsPerGame, long seed)
+            throws IllegalArgumentException, IOException {
+        if (numberOfGames < 1 || roundsPerGame < 1) {
+            throw new IllegalArgumentException("A corpus needs at least one game and one round.");
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(isStandardDeck ? 52 : 32);
+            out.writeInt(numberOfGames);
+            out.writeInt(roundsPerGame);
+            for (int i = 0; i < numberOfGames * roundsPerGame; i++) {
+                for (long handMask : deal(new Deck(isStandardDeck, random))) {
+                    out.writeLong(handMask);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the hand masks of a shuffled deck, handed out card by card as in {@link GameState#handOutCards()}.
+     */
+    static long[] deal(Deck deck) {
+        long[] handMasks = new long[4];
+        Card[] cards = deck.getCards();
+        for (int i = 0; i < deck.getSize(); i++) {
+            handMasks[i % 4] |= 1L << (cards[i].getId() - 1);
+        }
+        return handMasks;
+    }
+
+    /**
+     * Maps a corpus file into memory.
+     *
+     * @param path The corpus file.
+     * @return The corpus.
+     * @throws IOException If the file cannot be read or is not a valid corpus.
+     */
+    public static DealCorpus open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                throw new IOException(path + " is not a deal corpus.");
+            }
+            int deckSize = buffer.getInt(4);
+            int numberOfGames = buffer.getInt(8);
+            int roundsPerGame = buffer.getInt(12);
+            long expectedBytes = HEADER_BYTES + 32L * numberOfGames * roundsPerGame;
+            if ((deckSize != 52 && deckSize != 32) || numberOfGames < 1 || roundsPerGame < 1 || buffer.capacity() != expectedBytes) {
+                throw new IOException("The deal corpus " + path + " is damaged.");
+            }
+            return new DealCorpus(buffer, deckSize, numberOfGames, roundsPerGame);
+        }
+    }
+
+    /**
+     * Gets the hand cards of the four seats for a round of a game.
+     *
+     * @param gameNo The number of the game, starting with 0.
+     * @param roundNo The number of the round, starting with 1.
+     * @param rotation The number of seats the hands are rotated by, 0 to 3.
+     * @return The hand masks of the seats 0 to 3.
+     * @throws IllegalArgumentException If the game, round or rotation is out of range.
+     */
+    public long[] getHandMasks(int gameNo, int roundNo, int rotation) throws IllegalArgumentException {
+        if (gameNo < 0 || gameNo >= numberOfGames || roundNo < 1 || rotation < 0 || rotation >= NUMBER_OF_ROTATIONS) {
+            throw new IllegalArgumentException("No deal for game " + gameNo + ", round " + roundNo + ", rotation " + rotation + ".");
+        }
+        int dealNo = gameNo * roundsPerGame + (roundNo - 1) % roundsPerGame;
+        int offset = HEADER_BYTES + dealNo * 32;
+        long[] handMasks = new long[4];
+        for (int seat = 0; seat < 4; seat++) {
+            handMasks[(seat + rotation) % 4] = deals.getLong(offset + seat * 8);
+        }
+        return handMasks;
+    }
+
+    public int getDeckSize() {
+        return deckSize;
+    }
+
+    public int getNumberOfGames() {
+        return numberOfGames;
+    }
+
+    public int getRoundsPerGame() {
+        return roundsPerGame;
+    }
+}
@@ -2,6 +2,7 @@ package game;
 
 import java.util.Random;
 import java.util.Arrays;
+import java.util.random.RandomGenerator;
 
 /**
  * Represents a deck of playing cards.
@@ -29,6 +30,23 @@ public class Deck {
         shuffle();
     }
 
+    /**
+    * Constructs a new deck of cards with a specified size, shuffled with the given random number generator.
+    * Two decks created with generators of the same seed contain the cards in the same order.
+    *
+    * @param isStandardDeck If {@code true}, creates a standard deck of 52 cards; if {@code false}, creates a deck of 32 cards.
+    * @param random The random number generator used for shuffling.
+    */
+    public Deck(boolean isStandardDeck, RandomGenerator random){
+
+        this.isStandardDeck = isStandardDeck;
+        if (isStandardDeck) size = 52;
+        else size = 32;
+
+        initDeck();
+        shuffle(random);
+    }
+
     /*
     * Initializes the deck by creating the cards.
     * The ID of a card remains the same regardless of the deck size.
@@ -47,7 +65,7 @@ public class Deck {
             // Special case 32 cards --> after Ace comes 7
             if (!isStandardDeck && isFirstCardOfSuit) cardValue += 5;
             
-            cards[i] = new Card(cardValue);
+            cards[i] = Card.of(cardValue);
             cardValue++;
         }
     }
@@ -57,7 +75,15 @@ public class Deck {
      */
     public void shuffle() {
         
-        Random random = new Random();
+        shuffle(new Random());
+    }
+
+    /**
+    * Shuffles the deck using the Fisher-Yates Shuffle algorithm and the given random number generator.
+    *
+    * @param random The random number generator used for shuffling.
+    */
+    public void shuffle(RandomGenerator random) {
         
         for (int i = size - 1; i > 0; i--) {
             int j = random.nextInt(i + 1);
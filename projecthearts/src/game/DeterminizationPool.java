@@ -0,0 +1,164 @@
+package game;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * A pool of determinizations of one observer that is kept across the consecutive decisions of a round.
+ * <p>
+ * A determinization is stored as the hand masks of the opponents. When the pool is updated for a later game state of
+ * the same round, every determinization is checked against the cards that were played in the meantime: a determinization
+ * is kept if every opponent held the cards the opponent played and the remaining hands are still consistent with what
+ * the observer knows, see {@link DeterminizationSampler}. Only the discarded determinizations are sampled again.
+ * If the game state belongs to another round, e.g. because cards have been passed or a new round started, the pool is
+ * sampled from scratch.
+ * <p>
+ * A search that runs more iterations than the pool holds, e.g. with a deadline as its only limit or while pondering,
+ * gets a new determinization for every further iteration instead of the pool's again, see {@link #applyTo}.
+ * <p>
+ * A pool is not thread-safe. Every search uses the pools of its own observers.
+ */
+public class DeterminizationPool {
+
+    private final int observer;
+    private long[] worlds = new long[0]; // hand masks of the players 0 to 3 of determinization i at 4*i to 4*i+3
+    private int size;
+    private final long[] cardsPlayedByPlayers = new long[4]; // cards played in the round when the pool was last updated
+    private long observerHand;
+    private int reusedWorlds;
+    private DeterminizationSampler sampler; // the sampler of the game state of the last update
+
+    /**
+     * Creates an empty pool.
+     *
+     * @param observer The number of the player for whom the determinizations are made.
+     */
+    public DeterminizationPool(int observer){
+        this.observer = observer;
+    }
+
+    /**
+     * Brings the pool up to date with a game state: determinizations that are inconsistent with the cards played since
+     * the last update are discarded and new determinizations are sampled until the pool contains the given number.
+     *
+     * @param gameState The game state of the observer's decision.
+     * @param numberOfWorlds The number of determinizations the pool contains afterwards.
+     * @param random The random generator for the new determinizations.
+     */
+    public void update(GameState gameState, int numberOfWorlds, RandomGenerator random){
+        sampler = new DeterminizationSampler(gameState, observer);
+        long[] cardsPlayedNow = getCardsPlayedByPlayers(gameState);
+        long observerHandNow = gameState.getPlayers()[observer].getHandCards().toMask();
+
+        int kept = 0;
+        if (isSameRound(cardsPlayedNow, observerHandNow)){
+            for (int i = 0; i < size && kept < numberOfWorlds; i++){
+                if (updateWorld(i, cardsPlayedNow, sampler)){
+                    System.arraycopy(worlds, 4 * i, worlds, 4 * kept, 4);
+                    kept++;
+                }
+            }
+        }
+        reusedWorlds = kept;
+
+        if (worlds.length < 4 * numberOfWorlds) worlds = Arrays.copyOf(worlds, 4 * numberOfWorlds);
+        for (size = kept; size < numberOfWorlds; size++){
+            System.arraycopy(sampler.sample(random), 0, worlds, 4 * size, 4);
+        }
+        System.arraycopy(cardsPlayedNow, 0, cardsPlayedByPlayers, 0, 4);
+        observerHand = observerHandNow;
+    }
+
+    /*
+     * Checks whether the game state continues the round of the last update: no card played before has been taken back
+     * and the observer's hand only lost the cards the observer played since.
+     */
+    private boolean isSameRound(long[] cardsPlayedNow, long observerHandNow){
+        if (size == 0) return false;
+        for (int playerNo = 0; playerNo < 4; playerNo++){
+            if ((cardsPlayedByPlayers[playerNo] & ~cardsPlayedNow[playerNo]) != 0) return false;
+        }
+        long playedByObserver = cardsPlayedNow[observer] & ~cardsPlayedByPlayers[observer];
+        return observerHandNow == (observerHand & ~playedByObserver);
+    }
+
+    /* Removes the cards played since the last update from the hands of a determinization, if it is still consistent. */
+    private boolean updateWorld(int index, long[] cardsPlayedNow, DeterminizationSampler sampler){
+        for (int playerNo = 0; playerNo < 4; playerNo++){
+            if (playerNo == observer) continue;
+            long playedSince = cardsPlayedNow[playerNo] & ~cardsPlayedByPlayers[playerNo];
+            long hand = worlds[4 * index + playerNo];
+            if ((hand & playedSince) != playedSince || !sampler.isPossibleHand(playerNo, hand & ~playedSince)) return false;
+        }
+        for (int playerNo = 0; playerNo < 4; playerNo++){
+            worlds[4 * index + playerNo] &= ~(cardsPlayedNow[playerNo] & ~cardsPlayedByPlayers[playerNo]);
+        }
+        return true;
+    }
+
+    /* Gets the cards played by each player in the round of a game state. */
+    private static long[] getCardsPlayedByPlayers(GameState gameState){
+        long[] cardsPlayed = new long[4];
+        for (int i = 0; i < gameState.getTricksPlayed(); i++){
+            int[] cardsOfTrick = gameState.getRoundTricks()[i].getCardsPlayed();
+            for (int playerNo = 0; playerNo < 4; playerNo++){
+                if (cardsOfTrick[playerNo] != 0) cardsPlayed[playerNo] |= BitboardGameState.toMask(cardsOfTrick[playerNo]);
+            }
+        }
+        return cardsPlayed;
+    }
+
+    /**
+     * Replaces the hands of the opponents of the observer in a game state by a determinization of the pool, or by a new
+     * determinization of the game state of the last update if the index lies beyond the pool.
+     * The playable cards of the opponents are reset, those of an opponent to move are set according to the rules.
+     *
+     * @param gameState The game state, usually a copy of the game state of the last update.
+     * @param index The index of the determinization, usually the number of the iteration of the search.
+     * @param random The random generator for a new determinization.
+     * @throws IllegalStateException If the pool has not been updated.
+     */
+    public void applyTo(GameState gameState, int index, RandomGenerator random) throws IllegalStateException{
+        if (sampler == null) throw new IllegalStateException("The pool has not been updated.");
+        if (index >= size){
+            sampler.applyTo(gameState, random);
+            return;
+        }
+        int offset = 4 * index;
+        for (Player player : gameState.getPlayers()){
+            if (player.getPlayerNo() != observer){
+                player.resetHandCards();
+                player.getHandCards().setFromMask(worlds[offset + player.getPlayerNo()]);
+            }
+        }
+        DeterminizationSampler.setPlayableCardsOfOpponentToMove(gameState, observer);
+    }
+
+    /**
+     * Gets the hands of a determinization of the pool.
+     *
+     * @param index The index of the determinization, smaller than {@link #size()}.
+     * @param playerNo The number of the player.
+     * @return The mask of the hand, 0 for the observer.
+     */
+    public long getHand(int index, int playerNo){
+        return worlds[4 * index + playerNo];
+    }
+
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Gets the number of determinizations kept by the last update.
+     *
+     * @return The number of determinizations that were not sampled again.
+     */
+    public int getReusedWorlds(){
+        return reusedWorlds;
+    }
+
+    public int getObserver(){
+        return observer;
+    }
+}
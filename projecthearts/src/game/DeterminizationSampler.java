@@ -0,0 +1,338 @@
+package game;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Samples the hands of the opponents of an observer, i.e. a determinization of a game state.
+ * <p>
+ * Only deals that are consistent with what the observer remembers of the round are sampled:
+ * <ul>
+ * <li>A player who did not follow suit has no card of the suit of the first card of the trick.</li>
+ * <li>A player who played hearts or the queen of spades in the 1st trick had no clubs and no diamonds or spades
+ *     other than the queen of spades.</li>
+ * <li>A player who started a trick with hearts before hearts were broken had only hearts.</li>
+ * <li>The cards the observer passed are held by the receiver until they are played.</li>
+ * <li>The starter of the round holds the opening card until it is played.</li>
+ * </ul>
+ * Only the tricks the observer remembers (see {@link Memory}) are taken into account. Cards played in forgotten tricks are
+ * unknown again, so there can be more unknown cards than the opponents hold. The surplus is dealt to the observer's seat
+ * and then dropped.
+ * <p>
+ * The unknown cards that some players cannot hold are dealt first, one by one in random order, every card to one of the
+ * players that may hold it with a probability proportional to the number of cards the player still needs. A card is never
+ * dealt to a player if the remaining cards could not be dealt anymore afterwards, which is checked with Hall's condition
+ * on the 16 sets of seats. The other unknown cards are shuffled into the remaining places of the hands.
+ * Hence every sample is consistent and no sample is rejected. Without constraints the deal is uniform.
+ * If the constraints cannot be satisfied at all, e.g. because the observer forgot that a passed card has been played,
+ * the sampler falls back to a deal that only keeps the number of cards of each player.
+ */
+public class DeterminizationSampler {
+
+    private static final long FULL_DECK_MASK = (1L << 52) - 1;
+    private static final long SHORT_DECK_MASK = 0x1FE0L | (0x1FE0L << 13) | (0x1FE0L << 26) | (0x1FE0L << 39);
+    private static final long NO_POINTS_MASK = (BitboardGameState.DIAMONDS_MASK | BitboardGameState.SPADES_MASK) & ~BitboardGameState.QUEEN_OF_SPADES_MASK;
+
+    private final int observer;
+    private final long unknownCards; // cards that are dealt, without the known cards
+    private long constrainedCards; // unknown cards that some players cannot hold
+    private final long[] excludedCards = new long[4]; // cards a player cannot hold
+    private final long[] knownCards = new long[4]; // cards a player is known to hold
+    private final int[] handSizes = new int[4];
+    private final int[] seatsOfCards = new int[52]; // seats an unknown card may be dealt to, as a bit set of player numbers
+    private final int[] initialCardsNeeded = new int[4];
+    private final int[] initialSlack = new int[16];
+    private final boolean isConsistent;
+
+    // Scratch arrays of a sample, so that sampling does not allocate.
+    private final int[] cardOrder = new int[52];
+    private final int[] cardsNeeded = new int[4];
+    private final int[] slack = new int[16];
+    private final long[] hands = new long[4];
+
+    /**
+     * Determines what the observer knows about the hands of the opponents in a game state.
+     *
+     * @param gameState The game state in the playing phase of a round.
+     * @param observer The number of the player for whom the determinization is made.
+     */
+    public DeterminizationSampler(GameState gameState, int observer){
+        this.observer = observer;
+        Player[] players = gameState.getPlayers();
+        long deck = gameState.getDeckSize() == 52 ? FULL_DECK_MASK : SHORT_DECK_MASK;
+        long unknown = deck & ~players[observer].getHandCards().toMask();
+
+        int firstTrickToRemember = gameState.getMemoryOfPlayer(observer).getTricksToConsider(gameState.getTricksPlayed(), gameState.getDeckSize());
+        boolean isHeartBroken = false;
+        for (int i = 0; i < gameState.getTricksPlayed(); i++){
+            Trick trick = gameState.getRoundTricks()[i];
+            if (i >= firstTrickToRemember - 1){
+                inferExcludedCards(trick, i + 1, isHeartBroken);
+            }
+            for (int cardId : trick.getCardsPlayed()){
+                if (cardId == 0) continue;
+                if (i >= firstTrickToRemember - 1) unknown &= ~BitboardGameState.toMask(cardId);
+                if (BitboardGameState.suitMaskOf(cardId) == BitboardGameState.HEARTS_MASK) isHeartBroken = true;
+            }
+        }
+
+        if (gameState.getCardsHaveBeenPassed()){
+            int receiverNo = players[observer].getReceiverNo();
+            if (receiverNo >= 0 && receiverNo != observer){
+                long passed = 0L;
+                for (int cardId : players[observer].getCardsToPassOriginalReference()){
+                    passed |= BitboardGameState.toMask(cardId);
+                }
+                knownCards[receiverNo] = passed & unknown & ~excludedCards[receiverNo];
+            }
+        }
+
+        // the starter of the round holds the opening card until it has been played
+        int starterNo = gameState.getStarterOfNewestTrick();
+        if (gameState.getTricksPlayed() == 1 && gameState.getNewestTrick().getNumPlayedCards() == 0 && starterNo != observer){
+            int openingCardId = gameState.getDeckSize() == 52 ? CardCoding.CLUBS_2.getId() : CardCoding.CLUBS_7.getId();
+            knownCards[starterNo] |= BitboardGameState.toMask(openingCardId) & unknown;
+        }
+
+        for (int playerNo = 0; playerNo < 4; playerNo++){
+            if (playerNo == observer) continue;
+            handSizes[playerNo] = players[playerNo].countCards();
+            if (Long.bitCount(knownCards[playerNo]) > handSizes[playerNo]) knownCards[playerNo] = 0L;
+            unknown &= ~knownCards[playerNo];
+        }
+        this.unknownCards = unknown;
+        this.isConsistent = initSample();
+    }
+
+    /* Infers the cards the players of a remembered trick cannot hold anymore from the cards they played. */
+    private void inferExcludedCards(Trick trick, int trickNo, boolean isHeartBrokenBefore){
+        int starter = trick.getStarter();
+        int[] cardsPlayed = trick.getCardsPlayed();
+        int firstCardId = cardsPlayed[starter];
+        if (firstCardId == 0) return;
+        long firstSuit = BitboardGameState.suitMaskOf(firstCardId);
+        if (trickNo >= 2 && !isHeartBrokenBefore && firstSuit == BitboardGameState.HEARTS_MASK){
+            excludedCards[starter] |= ~BitboardGameState.HEARTS_MASK;
+        }
+        for (int j = 1; j < 4; j++){
+            int playerNo = (starter + j) % 4;
+            int cardId = cardsPlayed[playerNo];
+            if (cardId == 0) break;
+            long card = BitboardGameState.toMask(cardId);
+            if ((card & firstSuit) == 0) excludedCards[playerNo] |= firstSuit;
+            if (trickNo == 1 && BitboardGameState.countPoints(card) > 0) excludedCards[playerNo] |= NO_POINTS_MASK;
+        }
+    }
+
+    /*
+     * Initializes the seats of every unknown card, the number of cards needed per seat and the slack of Hall's condition
+     * for every set of seats, i.e. the number of cards the seats need minus the number of cards that can only be dealt
+     * to them. The observer's seat takes the surplus of unknown cards.
+     * Returns whether a consistent deal exists.
+     */
+    private boolean initSample(){
+        int surplus = Long.bitCount(unknownCards);
+        for (int playerNo = 0; playerNo < 4; playerNo++){
+            if (playerNo == observer) continue;
+            initialCardsNeeded[playerNo] = handSizes[playerNo] - Long.bitCount(knownCards[playerNo]);
+            surplus -= initialCardsNeeded[playerNo];
+        }
+        if (surplus < 0) return false;
+        initialCardsNeeded[observer] = surplus;
+
+        for (int seats = 0; seats < 16; seats++){
+            int needed = 0;
+            for (int playerNo = 0; playerNo < 4; playerNo++){
+                if ((seats & (1 << playerNo)) != 0) needed += initialCardsNeeded[playerNo];
+            }
+            initialSlack[seats] = needed;
+        }
+        for (long cards = unknownCards; cards != 0; cards &= cards - 1){
+            int index = Long.numberOfTrailingZeros(cards);
+            int seatsOfCard = 1 << observer;
+            for (int playerNo = 0; playerNo < 4; playerNo++){
+                if (playerNo != observer && (excludedCards[playerNo] & (1L << index)) == 0) seatsOfCard |= 1 << playerNo;
+            }
+            seatsOfCards[index] = seatsOfCard;
+            if (seatsOfCard != 0xF) constrainedCards |= 1L << index;
+            for (int seats = 0; seats < 16; seats++){
+                if ((seatsOfCard & ~seats) == 0) initialSlack[seats]--;
+            }
+        }
+        for (int seats = 0; seats < 16; seats++){
+            if (initialSlack[seats] < 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Samples the hands of the opponents. The result is only valid until the next call.
+     *
+     * @param random The random generator.
+     * @return The hand masks indexed by player number. The entry of the observer is 0.
+     */
+    public long[] sample(RandomGenerator random){
+        if (!isConsistent) return sampleIgnoringConstraints(random);
+        System.arraycopy(initialCardsNeeded, 0, cardsNeeded, 0, 4);
+        System.arraycopy(initialSlack, 0, slack, 0, 16);
+        System.arraycopy(knownCards, 0, hands, 0, 4);
+
+        int numberOfCards = fillCardOrder(constrainedCards, random);
+        for (int i = 0; i < numberOfCards; i++){
+            int seatsOfCard = seatsOfCards[cardOrder[i]];
+            int candidates = 0;
+            int weightOfCandidates = 0;
+            for (int playerNo = 0; playerNo < 4; playerNo++){
+                if ((seatsOfCard & (1 << playerNo)) != 0 && cardsNeeded[playerNo] > 0 && canBeDealtTo(playerNo, seatsOfCard)){
+                    candidates |= 1 << playerNo;
+                    weightOfCandidates += cardsNeeded[playerNo];
+                }
+            }
+            int drawn = random.nextInt(weightOfCandidates);
+            int playerNo = 0;
+            while ((candidates & (1 << playerNo)) == 0 || drawn >= cardsNeeded[playerNo]){
+                if ((candidates & (1 << playerNo)) != 0) drawn -= cardsNeeded[playerNo];
+                playerNo++;
+            }
+            hands[playerNo] |= 1L << cardOrder[i];
+            cardsNeeded[playerNo]--;
+            for (int seats = 0; seats < 16; seats++){
+                if ((seatsOfCard & ~seats) == 0) slack[seats]++;
+                if ((seats & (1 << playerNo)) != 0) slack[seats]--;
+            }
+        }
+
+        numberOfCards = fillCardOrder(unknownCards & ~constrainedCards, random);
+        int next = 0;
+        for (int playerNo = 0; playerNo < 4; playerNo++){
+            for (int i = 0; i < cardsNeeded[playerNo]; i++){
+                hands[playerNo] |= 1L << cardOrder[next++];
+            }
+        }
+        hands[observer] = 0L;
+        return hands;
+    }
+
+    /*
+     * Checks Hall's condition after dealing a card that may go to the given seats to a player: every set of seats that
+     * contains the player, but not all seats of the card, loses one needed card without losing a card it has to take.
+     */
+    private boolean canBeDealtTo(int playerNo, int seatsOfCard){
+        for (int seats = 0; seats < 16; seats++){
+            if ((seats & (1 << playerNo)) != 0 && (seatsOfCard & ~seats) != 0 && slack[seats] < 1) return false;
+        }
+        return true;
+    }
+
+    /* Deals the unknown and known cards uniformly, only keeping the number of cards of each player. */
+    private long[] sampleIgnoringConstraints(RandomGenerator random){
+        long cards = unknownCards;
+        for (int playerNo = 0; playerNo < 4; playerNo++){
+            cards |= knownCards[playerNo];
+        }
+        int numberOfCards = fillCardOrder(cards, random);
+        int next = 0;
+        for (int playerNo = 0; playerNo < 4; playerNo++){
+            hands[playerNo] = 0L;
+            if (playerNo == observer) continue;
+            for (int i = 0; i < handSizes[playerNo] && next < numberOfCards; i++){
+                hands[playerNo] |= 1L << cardOrder[next++];
+            }
+        }
+        return hands;
+    }
+
+    /* Writes the bit indices of the cards into cardOrder in random order and returns their number. */
+    private int fillCardOrder(long cards, RandomGenerator random){
+        int numberOfCards = 0;
+        while (cards != 0){
+            cardOrder[numberOfCards++] = Long.numberOfTrailingZeros(cards);
+            cards &= cards - 1;
+        }
+        for (int i = numberOfCards - 1; i > 0; i--){
+            int j = random.nextInt(i + 1);
+            int swap = cardOrder[i];
+            cardOrder[i] = cardOrder[j];
+            cardOrder[j] = swap;
+        }
+        return numberOfCards;
+    }
+
+    /**
+     * Replaces the hands of the opponents of the observer in a game state by a sample.
+     * The playable cards of the opponents are reset, those of an opponent to move are set according to the rules.
+     *
+     * @param gameState The game state, usually a copy of the game state the sampler was created for.
+     * @param random The random generator.
+     */
+    public void applyTo(GameState gameState, RandomGenerator random){
+        long[] sampledHands = sample(random);
+        for (Player player : gameState.getPlayers()){
+            if (player.getPlayerNo() != observer){
+                player.resetHandCards();
+                player.getHandCards().setFromMask(sampledHands[player.getPlayerNo()]);
+            }
+        }
+        setPlayableCardsOfOpponentToMove(gameState, observer);
+    }
+
+    /*
+     * Sets the playable cards of the player to move, if it is an opponent of the observer, e.g. for a search that starts
+     * while an opponent is to move.
+     */
+    static void setPlayableCardsOfOpponentToMove(GameState gameState, int observer){
+        if (gameState.getTricksPlayed() >= 1 && !gameState.isRoundOver() && gameState.getPlayerToMove() != observer){
+            gameState.setPlayableCardsOfPlayerToMove();
+        }
+    }
+
+    /**
+     * Checks whether a player may hold a hand in a sample of this sampler, e.g. to check whether a hand sampled for an
+     * earlier game state is still consistent with this one.
+     *
+     * @param playerNo The number of an opponent of the observer.
+     * @param hand The mask of the hand.
+     * @return {@code true} if the hand has the right number of cards, only unknown cards and respects the constraints
+     *         of the player, as far as they can be satisfied.
+     */
+    public boolean isPossibleHand(int playerNo, long hand){
+        if (Long.bitCount(hand) != handSizes[playerNo]) return false;
+        if (!isConsistent){
+            long cards = unknownCards;
+            for (long known : knownCards) cards |= known;
+            return (hand & ~cards) == 0;
+        }
+        return (hand & ~(unknownCards | knownCards[playerNo])) == 0
+               && (hand & knownCards[playerNo]) == knownCards[playerNo]
+               && (hand & excludedCards[playerNo]) == 0;
+    }
+
+    /**
+     * Gets the cards a player cannot hold according to the remembered tricks.
+     *
+     * @param playerNo The number of the player.
+     * @return The mask of the excluded cards.
+     */
+    public long getExcludedCards(int playerNo){
+        return excludedCards[playerNo];
+    }
+
+    /**
+     * Gets the cards a player is known to hold, i.e. the cards the observer passed to the player and that were not played yet.
+     *
+     * @param playerNo The number of the player.
+     * @return The mask of the known cards.
+     */
+    public long getKnownCards(int playerNo){
+        return knownCards[playerNo];
+    }
+
+    /**
+     * Checks whether a deal consistent with all constraints exists. If not, {@link #sample(RandomGenerator)} falls back
+     * to a deal without constraints.
+     *
+     * @return {@code true} if the constraints can be satisfied.
+     */
+    public boolean isConsistent(){
+        return isConsistent;
+    }
+}
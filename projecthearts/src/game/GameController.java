@@ -8,6 +8,8 @@ import java.awt.event.ActionEvent;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
 
@@ -22,6 +24,7 @@ import GUI.HeartsGameGUI;
 import game.AI.AiInterface;
 import game.AI.AiMCTS.AiISMCTS.MO_ISMCTS;
 import game.AI.AiMCTS.AiISMCTS.SO_ISMCTS;
+import game.AI.AiMCTS.AiISMCTS.SO_ISMCTSArena;
 import game.AI.AiMCTS.AiISMCTSANN.ISMCTSANN;
 import game.AI.AiMCTS.AiMCTSBasic.AiMCTSCheatingPIGameSimUcb1;
 import game.AI.AiMCTS.AiMCTSBasic.AiMCTSCheatingPIGameSimUct;
@@ -29,6 +32,7 @@ import game.AI.AiMCTS.AiMCTSBasic.AiMCTSCheatingPIRoundSimUcb1;
 import game.AI.AiMCTS.AiMCTSBasic.AiMCTSCheatingPIRoundSimUct;
 import game.AI.AiMCTS.AiMCTSBasic.AiPIMCRoundSimUct;
 import game.AI.AiRuleBased.AiRuleBased;
+import game.AI.SearchBudget;
 import game.AI.Utils.CardEvaluation;
 import rules.Rules;
 import game.AI.AiTypes;
@@ -69,6 +73,11 @@ public class GameController {
     private Logger logger;
     private AiInterface ai1;
     private AiInterface ai2;    
+    private boolean isPondering; //Whether the computer players search in the background while the human player chooses a card.
+    private RandomGenerator dealRandom; // shuffles the deck if set, e.g. for reproducible simulations
+    private DealCorpus dealCorpus; // replaces the shuffled deals if set
+    private int corpusGameNo;
+    private int corpusRotation;
 
     /**
      * Main constructor that is called from HeartsMain.java.
@@ -90,17 +99,17 @@ public class GameController {
      */
     public GameController(GameState gameState, AiTypes firstAi, AiTypes scndAi){
         this.gameState = gameState;
-        this.ai1 = getAiClass(firstAi);
-        this.ai2 = getAiClass(scndAi);
+        this.ai1 = getAiClass(firstAi, 1);
+        this.ai2 = getAiClass(scndAi, 1);
         
     }
 
     public void setAI1to3(AiTypes aiType) {
-        this.ai1 = getAiClass(aiType);
+        this.ai1 = getAiClass(aiType, Runtime.getRuntime().availableProcessors());
     }
 
     public void setAI4(AiTypes aiType) {
-        this.ai2 = getAiClass(aiType);
+        this.ai2 = getAiClass(aiType, Runtime.getRuntime().availableProcessors());
     }
 
     /**
@@ -110,7 +119,14 @@ public class GameController {
         this.gameState = gameState;
     }
 
-    private AiInterface getAiClass(AiTypes type){
+    /**
+     * Creates the AI of the given type.
+     *
+     * @param type The type of the AI.
+     * @param numberOfSearchWorkers The number of parallel search workers for AIs that support a parallel search.
+     * @return The AI.
+     */
+    public static AiInterface getAiClass(AiTypes type, int numberOfSearchWorkers){
         switch (type){
             
             case RULE_BASED:
@@ -138,7 +154,10 @@ public class GameController {
                 return new AiPIMCRoundSimUct();
 
             case SO_ISMCTS:
-                return new SO_ISMCTS();
+                return new SO_ISMCTS(numberOfSearchWorkers);
+
+            case SO_ISMCTS_ARENA:
+                return new SO_ISMCTSArena();
 
             case MO_ISMCTS:
                 return new MO_ISMCTS();
@@ -452,6 +471,7 @@ public class GameController {
                 }
                 //The human player's turn to play a card (move, not pass)                
                 this.gameState.setHumanPlayersTurnToMoveCard(true); //Statt Klicken auf Move-Button erfolgt die Event-Auslösung jetzt über Klicken auf eine Karte.
+                this.ponderWhileHumanPlayerMovesCard();
                 // Any computers playing first have played their cards, 
                 // these lie in the middle of the GUI, 
                 // next it is the turn of the human player,
@@ -461,6 +481,7 @@ public class GameController {
             } else if (this.gameState.getGameMode() == GameMode.HUMAN && starterOfRound.getPlayerNo() == 3){
                 //The human player's turn to play a card (move, not pass)
                 this.gameState.setHumanPlayersTurnToMoveCard(true); 
+                this.ponderWhileHumanPlayerMovesCard();
             } else {} 
         //The program is ready ("waits") for the player's next action.
         }
@@ -497,6 +518,8 @@ public class GameController {
                     }
                 }
             } else {}                   
+            //The computer players stop pondering, they now decide one after the other.
+            ai1.stopPondering();
             //Remove this card from the player's hand and add it to the trick
             this.gameState.playCard(cardNumberIdToMove, 3);
             //Hide this card in its upper slot
@@ -582,12 +605,14 @@ public class GameController {
                     }
                     //The human player's turn:
                     this.gameState.setHumanPlayersTurnToMoveCard(true);
+                    this.ponderWhileHumanPlayerMovesCard();
                     //Now it is the human player's turn. From here, you "wait" for a card to be clicked/pressed.
                 } else{ //The starter is the human player
                     //The playable cards have already been determined and set for the starter. See above if.
                     //The GUI still needs to be updated to the playable cards of the human player (enablen/disablen/mark):
                     this.prepareGUIWithHumanPlayableCards(this.gameState.getPlayers()[3].getHandCardsPlayable().getIsInHand());
                     this.gameState.setHumanPlayersTurnToMoveCard(true);
+                    this.ponderWhileHumanPlayerMovesCard();
                 }
             //Another trick is played until it is the human player's turn to click/press his card, 
             //  either after one or more computer players or as a starter.          
@@ -661,9 +686,13 @@ public class GameController {
             this.gameState.setGameMode(GameMode.HUMAN);//WICHTIG
             //Set the human player name
             this.gameState.setHumanPlayer(settingsBuffer.get("humanPlayerName"));
+            //The computer players search for their next decisions while the human player chooses a card.
+            setPondering(true);
         } else if (settingsBuffer.get("gameMode").equals("simulation")) {
             //GameMode
             this.gameState.setGameMode(GameMode.SIMULATION);
+            //The searches of the seats would only compete for the CPU.
+            setPondering(false);
             if (!gameState.getIsSimulationModeRunning()){ // only set numberOfSimulationGames if not already in the middle of simulation
                 //Set number of games to be simulated: numberOfSimulationGames
                 try {           
@@ -758,36 +787,7 @@ public class GameController {
         while (numberOfSimulatedGames < numberOfGamesToSimulate 
                 && !gameState.getIsSimulationModeAbortButtonPressed()){             
             
-            if (gamePlayGUI != null) initNewGame();
-            else initNewSimulationGameWithoutGUI(numberOfGamesToSimulate);
-        
-            logger.initNewGame();
-            // one round
-            while (!gameState.atLeastOnePlayerHas100PointsOrMore() && !gameState.getIsSimulationModeAbortButtonPressed()) {
-
-                initSimulationRoundUntilFirstCard();
-                // one trick
-                while (!gameState.isRoundOver() && !gameState.getIsSimulationModeAbortButtonPressed()){
-                    
-                    logger.logHandCards(gameState.getPlayers());
-                    if (viewPlayerNo != -1){
-                        logger.logAvailableCards(CardEvaluation.calculateAvailableCards(gameState.getCardsPlayedInThisRound(), gameState.getPlayers()[viewPlayerNo].getHandCards()));
-                    }
-                    logger.logCardsPlayedInThisRound(gameState.getCardsPlayedInThisRound());
-                    
-                    starterPlaysCardInSimulationMode();
-                    logger.logNumberOfTricksPlayed(gameState.getTricksPlayed());
-                    
-                    for (int playerCount = 1; playerCount < 4; playerCount++){ 
-                        nonStarterPlaysCardInSimulationMode(gameState.getStarterOfNewestTrick(), playerCount);
-                    }
-                      
-                    completeTrickInSimulation();                      
-                }
-                completeRoundInSimulation();
-            }
-            
-            logger.logGameStatistic(gameState.getPlayers());
+            playSimulationGame(numberOfGamesToSimulate, viewPlayerNo);
 
             numberOfSimulatedGames++; 
 
@@ -802,6 +802,45 @@ public class GameController {
         }
     }
 
+    /**
+     * Method that plays one game in simulation mode and logs it with the logger of this controller.
+     * @param numberOfGamesToSimulate The number of games of the whole simulation.
+     * @param viewPlayerNo The number of the players, whos view shall be logged, -1 to logg the whole trick.
+     */
+    void playSimulationGame(int numberOfGamesToSimulate, int viewPlayerNo){
+
+        if (gamePlayGUI != null) initNewGame();
+        else initNewSimulationGameWithoutGUI(numberOfGamesToSimulate);
+    
+        logger.initNewGame();
+        // one round
+        while (!gameState.atLeastOnePlayerHas100PointsOrMore() && !gameState.getIsSimulationModeAbortButtonPressed()) {
+
+            initSimulationRoundUntilFirstCard();
+            // one trick
+            while (!gameState.isRoundOver() && !gameState.getIsSimulationModeAbortButtonPressed()){
+                
+                logger.logHandCards(gameState.getPlayers());
+                if (viewPlayerNo != -1){
+                    logger.logAvailableCards(CardEvaluation.calculateAvailableCards(gameState.getCardsPlayedInThisRound(), gameState.getPlayers()[viewPlayerNo].getHandCards()));
+                }
+                logger.logCardsPlayedInThisRound(gameState.getCardsPlayedInThisRound());
+                
+                starterPlaysCardInSimulationMode();
+                logger.logNumberOfTricksPlayed(gameState.getTricksPlayed());
+                
+                for (int playerCount = 1; playerCount < 4; playerCount++){ 
+                    nonStarterPlaysCardInSimulationMode(gameState.getStarterOfNewestTrick(), playerCount);
+                }
+                  
+                completeTrickInSimulation();                      
+            }
+            completeRoundInSimulation();
+        }
+        
+        logger.logGameStatistic(gameState.getPlayers());
+    }
+
     /**
      * Method to initialize the simulation mode. 
      */
@@ -826,7 +865,8 @@ public class GameController {
 
         this.gameState.init();
 
-        gameState.createDeck(isStandardDeck);
+        if (dealRandom != null) gameState.createDeck(isStandardDeck, dealRandom);
+        else gameState.createDeck(isStandardDeck);
         gameState.setDifficulty(diff);
         gameState.setMemory(mem);
         gameState.setDifficulty4thAi(diff4);
@@ -966,6 +1006,14 @@ public class GameController {
      * Prints how often which player reached which position and what was the average and median placing. 
      */
     private void printGameStatisticAfterSimulation(){
+        printGameStatistic(logger);
+    }
+
+    /**
+     * Prints how often which player reached which position and what was the average and median placing.
+     * @param logger The logger containing the game statistics.
+     */
+    static void printGameStatistic(Logger logger){
 
         System.out.println("");
         System.out.println("Simulation abgeschlossen. Die Spieler haben wie folgt abgeschnitten: ");
@@ -1040,8 +1088,12 @@ public class GameController {
         this.gameState.resetCardsPassed(); 
         this.gameState.resetHandCardsOfPlayers(); 
         this.gameState.setRoundNo(this.gameState.getRoundNo()+1);
-        this.gameState.shuffleDeck();
-        this.gameState.handOutCards();
+        if (dealCorpus != null) this.gameState.handOutCards(dealCorpus.getHandMasks(corpusGameNo, gameState.getRoundNo(), corpusRotation));
+        else {
+            if (dealRandom != null) this.gameState.shuffleDeck(dealRandom);
+            else this.gameState.shuffleDeck();
+            this.gameState.handOutCards();
+        }
 
         //Further inits for human mode
         if (gameState.getGameMode() == GameMode.HUMAN){
@@ -1169,7 +1221,7 @@ public class GameController {
         } else if (playerNo == 3){
             centerSlotLabel = (JLabel) this.gamePlayGUI.getBottomCenterCardPanel().getComponent(0);
         } else {} 
-        String pathToFile = (new Card(cardNumber)).getImagePath();
+        String pathToFile = Card.of(cardNumber).getImagePath();
         ImageIcon cardImage = new ImageIcon(getClass().getResource(pathToFile));
         cardImage.setImage(cardImage.getImage().getScaledInstance(80, 120, Image.SCALE_SMOOTH));
         centerSlotLabel.setIcon(cardImage);
@@ -1277,7 +1329,7 @@ public class GameController {
         for (int cardNumber = 1; cardNumber<=isInHand.length; cardNumber++){
             if (isInHand[cardNumber-1]==true){
                 cardSlotNo++;
-                pathToFile = (new Card(cardNumber)).getImagePath();
+                pathToFile = Card.of(cardNumber).getImagePath();
                 ImageIcon cardImage = new ImageIcon(getClass().getResource(pathToFile));
                 cardImage.setImage(cardImage.getImage().getScaledInstance(80, 120, Image.SCALE_SMOOTH));
                 currentPlayerHandPanel = (JPanel) this.gamePlayGUI.getPlayerHandPanel().getComponent(cardSlotNo-1); 
@@ -1437,7 +1489,7 @@ public class GameController {
         System.out.println();
         System.out.println("Player 0 getHandCards: ");
         for (int i = 1; i<=52; i++) {
-            Card card = new Card(i);
+            Card card = Card.of(i);
             if (this.gameState.getPlayers()[0].getHandCards().getIsInHand()[i-1]==true){
                 System.out.print(card.getCardName() + ", ");
             }
@@ -1445,7 +1497,7 @@ public class GameController {
         System.out.println();
         System.out.println("Player 0 getHandCards: ");
         for (int i = 1; i<=52; i++) {
-            Card card = new Card(i);
+            Card card = Card.of(i);
             if (this.gameState.getPlayers()[0].getHandCards().getIsInHand()[i-1]==true){
                 System.out.print(card.getId() + ", ");
             }
@@ -1454,7 +1506,7 @@ public class GameController {
         System.out.println();
         System.out.println("Player 1 getHandCards: "); 
         for (int i = 1; i<=52; i++) {
-            Card card = new Card(i);
+            Card card = Card.of(i);
             if (this.gameState.getPlayers()[1].getHandCards().getIsInHand()[i-1]==true){
                 System.out.print(card.getCardName() + ", ");
             }
@@ -1462,7 +1514,7 @@ public class GameController {
         System.out.println();
         System.out.println("Player 1 getHandCards: ");
         for (int i = 1; i<=52; i++) {
-            Card card = new Card(i);
+            Card card = Card.of(i);
             if (this.gameState.getPlayers()[1].getHandCards().getIsInHand()[i-1]==true){
                 System.out.print(card.getId() + ", ");
             }
@@ -1471,7 +1523,7 @@ public class GameController {
         System.out.println();
         System.out.println("Player 2 getHandCards: ");
         for (int i = 1; i<=52; i++) {
-            Card card = new Card(i);
+            Card card = Card.of(i);
             if (this.gameState.getPlayers()[2].getHandCards().getIsInHand()[i-1]==true){
                 System.out.print(card.getCardName() + ", ");
             }
@@ -1479,7 +1531,7 @@ public class GameController {
         System.out.println();
         System.out.println("Player 2 getHandCards: ");
         for (int i = 1; i<=52; i++) {
-            Card card = new Card(i);
+            Card card = Card.of(i);
             if (this.gameState.getPlayers()[2].getHandCards().getIsInHand()[i-1]==true){
                 System.out.print(card.getId() + ", ");
             }
@@ -1488,7 +1540,7 @@ public class GameController {
         System.out.println();
         System.out.println("Player 3 getHandCards: ");
         for (int i = 1; i<=52; i++) {
-            Card card = new Card(i);
+            Card card = Card.of(i);
             if (this.gameState.getPlayers()[3].getHandCards().getIsInHand()[i-1]==true){
                 System.out.print(card.getCardName() + ", ");
             }
@@ -1496,7 +1548,7 @@ public class GameController {
         System.out.println();
         System.out.println("Player 3 getHandCards: ");
         for (int i = 1; i<=52; i++) {
-            Card card = new Card(i);
+            Card card = Card.of(i);
             if (this.gameState.getPlayers()[3].getHandCards().getIsInHand()[i-1]==true){
                 System.out.print(card.getId() + ", ");
             }
@@ -1512,7 +1564,7 @@ public class GameController {
         System.out.println();
         System.out.println("Player (playerNo " + player.getPlayerNo() + ") getHandCards: ");
         for (int i = 1; i<=52; i++) {
-            Card card = new Card(i);
+            Card card = Card.of(i);
             if (this.gameState.getPlayers()[player.getPlayerNo()].getHandCards().getIsInHand()[i-1]==true){
                 System.out.print(card.getCardName() + ", ");
             }
@@ -1520,7 +1572,7 @@ public class GameController {
         System.out.println();
         System.out.println("Player (playerNo " + player.getPlayerNo() + ") getHandCards: ");
         for (int i = 1; i<=52; i++) {
-            Card card = new Card(i);
+            Card card = Card.of(i);
             if (this.gameState.getPlayers()[player.getPlayerNo()].getHandCards().getIsInHand()[i-1]==true){
                 System.out.print(card.getId() + ", ");
             }
@@ -1536,7 +1588,7 @@ public class GameController {
         System.out.println();
         System.out.println("Player (playerNo " + player.getPlayerNo() + ") getHandCardsPlayable: ");
         for (int i = 1; i<=52; i++) {
-            Card card = new Card(i);
+            Card card = Card.of(i);
             if (this.gameState.getPlayers()[player.getPlayerNo()].getHandCardsPlayable().getIsInHand()[i-1]==true){
                 System.out.print(card.getCardName() + ", ");
             }
@@ -1544,7 +1596,7 @@ public class GameController {
         System.out.println();
         System.out.println("Player (playerNo " + player.getPlayerNo() + ") getHandCardsPlayable: ");
         for (int i = 1; i<=52; i++) {
-            Card card = new Card(i);
+            Card card = Card.of(i);
             if (this.gameState.getPlayers()[player.getPlayerNo()].getHandCardsPlayable().getIsInHand()[i-1]==true){
                 System.out.print(card.getId() + ", ");
             }
@@ -1655,6 +1707,72 @@ public class GameController {
         return this.logger;
     }
 
+    void setLogger(Logger logger){
+        this.logger = logger;
+    }
+
+    void setDealRandom(RandomGenerator dealRandom){
+        this.dealRandom = dealRandom;
+    }
+
+    /**
+     * Deals the rounds of the following games from a game of a deal corpus instead of shuffling the deck.
+     *
+     * @param dealCorpus The deal corpus, or null to shuffle again.
+     * @param gameNo The number of the game in the corpus.
+     * @param rotation The number of seats the hands are rotated by.
+     */
+    void setDealCorpus(DealCorpus dealCorpus, int gameNo, int rotation){
+        this.dealCorpus = dealCorpus;
+        this.corpusGameNo = gameNo;
+        this.corpusRotation = rotation;
+    }
+
+    /**
+     * Makes the following games reproducible: the deals and both AIs draw from streams split off the given generator.
+     * The streams are split in a fixed order, so the same seed yields the same games.
+     *
+     * @param random The random number generator of the game.
+     */
+    void setRandom(SplittableRandom random){
+        this.dealRandom = random.split();
+        ai1.setRandom(random.split());
+        ai2.setRandom(random.split());
+    }
+
+    /**
+     * Sets the search budget of every following decision of both AIs, e.g. a deadline per decision.
+     *
+     * @param searchBudget The budget, or null for the default budgets of the AIs.
+     */
+    public void setSearchBudget(SearchBudget searchBudget){
+        ai1.setSearchBudget(searchBudget);
+        ai2.setSearchBudget(searchBudget);
+    }
+
+    /**
+     * Switches pondering on or off: in human mode, the computer players search for their next decisions
+     * while the human player chooses a card, see AiInterface.ponder. Pondering is switched on when a game in human mode
+     * is started from the settings and off for simulations.
+     *
+     * @param isPondering Whether the computer players ponder.
+     */
+    public void setPondering(boolean isPondering){
+        this.isPondering = isPondering;
+        if (!isPondering) ai1.stopPondering();
+    }
+
+    /**
+     * Method that lets the computer players ponder on the human player's turn, if pondering is switched on.
+     */
+    private void ponderWhileHumanPlayerMovesCard(){
+        if (this.isPondering){
+            for (int playerNumber = 0; playerNumber < 3; playerNumber++){
+                ai1.ponder(this.gameState, playerNumber);
+            }
+        }
+    }
+
     /**
      * Method that checks whether the human player is allowed to select/click on/press a card in a lower slot 
      * in the GUI and then move it upwards.
@@ -1910,7 +2028,7 @@ public class GameController {
                         if (previousTrick[i] == -1){ 
                             pathToFile = Card.getImagePathOfBacksideCard();
                         } else{
-                            pathToFile = (new Card(previousTrick[i])).getImagePath();
+                            pathToFile = Card.of(previousTrick[i]).getImagePath();
                         }
                         ImageIcon cardImage = new ImageIcon(getClass().getResource(pathToFile));
                         cardImage.setImage(cardImage.getImage().getScaledInstance(80, 120, Image.SCALE_SMOOTH));
@@ -1,8 +1,12 @@
 package game;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
+import java.util.random.RandomGenerator;
 
 import game.AI.AiTypes;
 import rules.Rules;
@@ -43,6 +47,7 @@ public class GameState implements Cloneable{
     private int playerToMove;
     private AiTypes ai1Type;
     private AiTypes ai2Type;
+    private Deque<Object> undoStack; // null if undo is disabled
 
 
     /**
@@ -137,12 +142,26 @@ public class GameState implements Cloneable{
         deck = new Deck(isStandardDeck);
     }
 
+    /**
+    * Creates the deck and shuffles it with the given random number generator.
+    */
+    public void createDeck(boolean isStandardDeck, RandomGenerator random){
+        deck = new Deck(isStandardDeck, random);
+    }
+
     /**
     * Shuffles the deck.
     */
     public void shuffleDeck(){
         deck.shuffle();
     }
+
+    /**
+    * Shuffles the deck with the given random number generator.
+    */
+    public void shuffleDeck(RandomGenerator random){
+        deck.shuffle(random);
+    }
     
     /**
     * Deals cards to players, with each player receiving 13 (for a deck size of 52) or 8 (for a deck size of 32) cards.
@@ -157,6 +176,19 @@ public class GameState implements Cloneable{
         }
     }
 
+    /**
+    * Hands out the cards of the deck as given by the hand masks instead of in the order of the deck, e.g. for a deal of a {@link DealCorpus}.
+    *
+    * @param handMasks The hand cards of the players 0 to 3 as bitmasks, bit {@code cardId-1} is set for every card in hand.
+    */
+    public void handOutCards(long[] handMasks){
+        for (Card card : deck.getCards()){
+            for (Player player : players){
+                if ((handMasks[player.getPlayerNo()] & (1L << (card.getId() - 1))) != 0) player.addHandCard(card);
+            }
+        }
+    }
+
     /**
     * Resets the hand cards of all players, removing all cards from their hands.
     */ 
@@ -575,11 +607,11 @@ public class GameState implements Cloneable{
     * @return A list of playable cards for the specified player.
     */
     public List<Card> determineListOfPlayableCards(int playerNo){
-        List<Card> result = new LinkedList<Card>();
-        for (int cardNumber = 1; cardNumber <= this.getPlayers()[playerNo].getHandCardsPlayable().getIsInHand().length; cardNumber++){
-            if (this.getPlayers()[playerNo].getHandCardsPlayable().getIsInHand()[cardNumber-1] == true){
-                result.add(new Card(cardNumber)); 
-                                                    
+        boolean[] isPlayable = this.getPlayers()[playerNo].getHandCardsPlayable().getIsInHand();
+        List<Card> result = new ArrayList<Card>(13);
+        for (int cardNumber = 1; cardNumber <= isPlayable.length; cardNumber++){
+            if (isPlayable[cardNumber-1]){
+                result.add(Card.of(cardNumber)); 
             }
         }
         return result;
@@ -653,26 +685,19 @@ public class GameState implements Cloneable{
      *                 For all other players, their hand cards are reset and then set to a random subset of the unknown cards.
      */
     public void determinization(int observer) {
-        List<Integer> unknownCards = new ArrayList<Integer>();
-    
-        for (Card i : deck.getCards()){
-            if (!players[observer].hasHandCard(i)) {
-                unknownCards.add(i.getId());
-            }
-        }
-
-        unknownCards.removeAll(getCardsPlayedWithMemory(observer));
-        Collections.shuffle(unknownCards);
+        determinization(observer, new Random());
+    }
 
-        for (Player player : players){
-            if (player.getPlayerNo() != observer) {
-                int numCards = player.countCards();
-                List<Integer> dealtCards = unknownCards.subList(0, numCards);
-                player.resetHandCards();
-                player.setHandCards(convertToHandCards(dealtCards));
-                unknownCards = unknownCards.subList(numCards, unknownCards.size());
-            }
-        }
+    /**
+     * Performs a determinization step for a specified observer player, drawing the unknown cards with the given random number generator.
+     * The hand cards are consistent with the voids and passed cards the observer remembers, see {@link DeterminizationSampler}.
+     * Two game states determinized with generators of the same seed receive the same hand cards.
+     *
+     * @param observer The number of the player who is observing the game state. This player's hand cards are not changed.
+     * @param random The random number generator used for shuffling the unknown cards.
+     */
+    public void determinization(int observer, RandomGenerator random) {
+        new DeterminizationSampler(this, observer).applyTo(this, random);
     }
 
     /** 
@@ -695,19 +720,9 @@ public class GameState implements Cloneable{
         return playedCards;
     }
 
-    /**
-     *  Converts a list of card ids in a handCard-object. 
-     */
-    private HandCards convertToHandCards(List<Integer> cardIds) {
-        HandCards handCards = new HandCards();
-        for (int cardId : cardIds) {
-            handCards.addCard(cardId);
-        }
-        return handCards;
-    }
-    
     /**
      * Performs a move in the game by playing a card for the player who is to move.
+     * If undo is enabled, the changes are recorded, so that the move can be taken back with {@link #undoMove()}.
      *
      * @param cardNr The number of the card to be played.
      *               If the newest trick has all 4 cards played, the trick is won, hearts may be broken, round points are updated, and the payoff is updated.
@@ -716,23 +731,63 @@ public class GameState implements Cloneable{
      */
     public void doMove(int cardNr) {
         playerToMove = getPlayerToMove();
+        MoveUndoRecord record = null;
+        if (undoStack != null) record = new MoveUndoRecord(cardNr, playerToMove, isHeartBroken);
         playCard(cardNr, playerToMove);
 
         if (getNewestTrick().getNumPlayedCards() == 4) {
             Player currentTrickWinner = determineTrickWinner();
             playerToMove = currentTrickWinner.getPlayerNo();
+            if (record != null) record.saveTrickResult(playerToMove, getNewestTrick().countPoints(), players);
             updateHeartsBroken();
             updateRoundPoints(currentTrickWinner);
             updatePayoff();
             
             if (!isRoundOver()) {
+                if (record != null) record.saveNewTrick(roundTricks[tricksPlayed], currentTrickWinner);
                 tricksPlayed++;
                 initTrick(currentTrickWinner.getPlayerNo());
                 setPlayableCardsForStarterInTrick2orLater(currentTrickWinner);
             }
         } else if (getNewestTrick().getNumPlayedCards() > 0) {
+            if (record != null) record.savePlayable(players[getPlayerToMove()]);
             setPlayableCardForNextPlayer(determineTrickWinner());
         } 
+        if (record != null) undoStack.push(record);
+    }
+
+    /**
+     * Takes back the last move performed with {@link #doMove(int)} while undo was enabled.
+     *
+     * @throws IllegalStateException If undo is not enabled or the last recorded action is not a move.
+     */
+    public void undoMove() throws IllegalStateException{
+        if (undoStack == null || undoStack.isEmpty() || !(undoStack.peek() instanceof MoveUndoRecord)) {
+            throw new IllegalStateException("There is no move to undo.");
+        }
+        MoveUndoRecord record = (MoveUndoRecord) undoStack.pop();
+
+        if (record.playerNoWithReplacedPlayable >= 0) {
+            players[record.playerNoWithReplacedPlayable].getHandCardsPlayable().setIsInHand(record.replacedPlayable);
+        }
+        if (record.isNewTrickStarted) {
+            roundTricks[tricksPlayed - 1] = record.replacedTrick;
+            tricksPlayed--;
+        }
+        if (record.trickWinnerNo >= 0) {
+            players[record.trickWinnerNo].addTrickPoints(-record.trickPoints);
+            for (int i = 0; i < players.length; i++) {
+                players[i].updatePayoffValue(record.payoffsBefore[i]);
+            }
+        }
+        isHeartBroken = record.wasHeartBroken;
+
+        getNewestTrick().removeCard(record.playerNo);
+        players[record.playerNo].addHandCard(record.cardId);
+        players[record.playerNo].getHandCardsPlayable().addCard(record.cardId);
+        cardsPlayedInThisRound[record.cardId - 1] = false;
+        listOfCardIdsPlayedInThisRound.remove(listOfCardIdsPlayedInThisRound.size() - 1);
+        playerToMove = record.playerNo;
     }
 
     /* Sets the playable cards for the next player. */
@@ -763,18 +818,56 @@ public class GameState implements Cloneable{
 
     /**
      * Performs a pass action in the game for a specified player.
+     * If undo is enabled, the changes are recorded, so that the pass can be taken back with {@link #undoPass()}.
      *
      * @param playerNo        The number of the player who is performing the pass action.
      * @param passCombination An array of integers representing the cards that the player is passing.
      */
     public void doPass(int playerNo, int[] passCombination) {
+        doPass(playerNo, passCombination, new Random());
+    }
+
+    /**
+     * Performs a pass action in the game for a specified player. The passes of the other players are drawn at random with the
+     * given random number generator.
+     *
+     * @param playerNo        The number of the player who is performing the pass action.
+     * @param passCombination An array of integers representing the cards that the player is passing.
+     * @param random          The random number generator used for the passes of the other players.
+     */
+    public void doPass(int playerNo, int[] passCombination, RandomGenerator random) {
+        if (undoStack != null) undoStack.push(new PassUndoRecord(this));
         clearPassedCards();
         setPlayableCardsForEachPlayerInTrick0or1();
-        savePassedCards(playerNo, passCombination);
+        savePassedCards(playerNo, passCombination, random);
         passCardsToReceivers();
         initializeNewTrick();
     }
 
+    /**
+     * Takes back the last pass performed with {@link #doPass(int, int[])} while undo was enabled.
+     * The hand cards, playable cards, cards to pass and receivers of all players are restored.
+     *
+     * @throws IllegalStateException If undo is not enabled or the last recorded action is not a pass.
+     */
+    public void undoPass() throws IllegalStateException{
+        if (undoStack == null || undoStack.isEmpty() || !(undoStack.peek() instanceof PassUndoRecord)) {
+            throw new IllegalStateException("There is no pass to undo.");
+        }
+        PassUndoRecord record = (PassUndoRecord) undoStack.pop();
+
+        for (int i = 0; i < players.length; i++) {
+            players[i].getHandCards().setIsInHand(record.handCardsBefore[i]);
+            players[i].getHandCardsPlayable().setIsInHand(record.playableBefore[i]);
+            players[i].getCardsToPassOriginalReference().clear();
+            players[i].getCardsToPassOriginalReference().addAll(record.cardsToPassBefore.get(i));
+            players[i].setReceiverNo(record.receiverNoBefore[i]);
+        }
+        roundTricks[tricksPlayed - 1] = record.replacedTrick;
+        tricksPlayed = record.tricksPlayedBefore;
+        cardsHaveBeenPassed = record.cardsHaveBeenPassedBefore;
+    }
+
     /* Clears the passed cards. */
     private void clearPassedCards() {
         Player player1 = players[0]; //AI-Player 1
@@ -799,10 +892,10 @@ public class GameState implements Cloneable{
     }
 
     /* Saves the passed cards. */
-    private void savePassedCards(int observer, int[] passCombination) {
+    private void savePassedCards(int observer, int[] passCombination, RandomGenerator random) {
         for (Player player : players) {
             if (player.getPlayerNo() != observer) {
-                int[] randomPass = player.getHandCards().generateRandomPass();
+                int[] randomPass = player.getHandCards().generateRandomPass(random);
                 player.savePassedCards(randomPass);
             } else {
                 player.savePassedCards(passCombination);
@@ -850,6 +943,18 @@ public class GameState implements Cloneable{
     public void setPlayableCardsForNonStarterInTrick2orLater(Player nonStartingPlayer, int firstCardNumberPlayed){
         nonStartingPlayer.setHandCardsPlayableFromRulesAndIsInHandForNonStarterInTrick2orLater(this, firstCardNumberPlayed);
     } 
+
+    /**
+     * Sets the playable cards of the player to move in trick 1 or later according to the rules, 
+     * e.g. after the hand of the player has been replaced by a determinization.
+     */
+    public void setPlayableCardsOfPlayerToMove(){
+        Player player = players[getPlayerToMove()];
+        boolean isStarter = getNewestTrick().getNumPlayedCards() == 0;
+        long playable = Rules.getPlayableCards(player.getHandCards().toMask(), tricksPlayed, isStarter,
+                                               isStarter ? 0 : getFirstCardOfNewestTrick(), isHeartBroken, getDeckSize());
+        player.getHandCardsPlayable().setFromMask(playable);
+    }
     
     /**
      * Gets the starter of the current trick.
@@ -1071,7 +1176,8 @@ public class GameState implements Cloneable{
      * note that the super.clone() call returns a shallow copy of an object, 
      * but we set deep copies of mutable fields manually, so the result is correct.
      * See this class' method deepCopy for further explanantion. Mutable fields are:
-     * players, roundTricks, cardsPlayedInThisRound.
+     * players, roundTricks, cardsPlayedInThisRound, listOfCardIdsPlayedInThisRound. The undo stack is not copied, i.e., the copy can only
+     * undo its own moves.
      */
     @Override
     public Object clone() {
@@ -1090,6 +1196,10 @@ public class GameState implements Cloneable{
                     gameStateCopy.roundTricks[i] = (Trick) this.roundTricks[i].clone();
                 }
             }
+            if (this.listOfCardIdsPlayedInThisRound != null){
+                gameStateCopy.listOfCardIdsPlayedInThisRound = new ArrayList<Integer>(this.listOfCardIdsPlayedInThisRound);
+            }
+            if (this.undoStack != null) gameStateCopy.undoStack = new ArrayDeque<>();
             gameStateCopy.cardsPlayedInThisRound = new boolean[this.cardsPlayedInThisRound.length];
             for (int i = 0; i < this.cardsPlayedInThisRound.length; i++){
                 gameStateCopy.cardsPlayedInThisRound[i] = this.cardsPlayedInThisRound[i];
@@ -1145,5 +1255,92 @@ public class GameState implements Cloneable{
         return this.ai2Type;
     }
 
+    public boolean getIsUndoEnabled(){
+        return this.undoStack != null;
+    }
+
+    /**
+     * Enables or disables the recording of moves and passes for {@link #undoMove()} and {@link #undoPass()}.
+     * Recorded actions are discarded in both cases.
+     *
+     * @param isUndoEnabled {@code true} to record actions; otherwise, {@code false}.
+     */
+    public void setIsUndoEnabled(boolean isUndoEnabled){
+        this.undoStack = isUndoEnabled ? new ArrayDeque<>() : null;
+    }
+
+    /**
+     * Stores the changes of a single call of doMove that are needed to take the move back.
+     */
+    private static class MoveUndoRecord {
+        private final int cardId;
+        private final int playerNo;
+        private final boolean wasHeartBroken;
+        private int trickWinnerNo = -1;
+        private int trickPoints;
+        private double[] payoffsBefore;
+        private boolean isNewTrickStarted;
+        private Trick replacedTrick;
+        private int playerNoWithReplacedPlayable = -1;
+        private boolean[] replacedPlayable;
+
+        private MoveUndoRecord(int cardId, int playerNo, boolean wasHeartBroken){
+            this.cardId = cardId;
+            this.playerNo = playerNo;
+            this.wasHeartBroken = wasHeartBroken;
+        }
+
+        private void saveTrickResult(int trickWinnerNo, int trickPoints, Player[] players){
+            this.trickWinnerNo = trickWinnerNo;
+            this.trickPoints = trickPoints;
+            this.payoffsBefore = new double[players.length];
+            for (int i = 0; i < players.length; i++){
+                this.payoffsBefore[i] = players[i].getPayoff();
+            }
+        }
+
+        private void saveNewTrick(Trick replacedTrick, Player starter){
+            this.isNewTrickStarted = true;
+            this.replacedTrick = replacedTrick;
+            savePlayable(starter);
+        }
+
+        // the playable cards are overwritten in place by the rules, so they have to be copied
+        private void savePlayable(Player player){
+            this.playerNoWithReplacedPlayable = player.getPlayerNo();
+            this.replacedPlayable = player.getHandCardsPlayable().getIsInHandCopy();
+        }
+    }
+
+    /**
+     * Stores the state of all players before a call of doPass that is needed to take the pass back.
+     */
+    private static class PassUndoRecord {
+        private final boolean[][] handCardsBefore;
+        private final boolean[][] playableBefore;
+        private final List<List<Integer>> cardsToPassBefore;
+        private final int[] receiverNoBefore;
+        private final int tricksPlayedBefore;
+        private final Trick replacedTrick;
+        private final boolean cardsHaveBeenPassedBefore;
+
+        private PassUndoRecord(GameState gameState){
+            Player[] players = gameState.players;
+            this.handCardsBefore = new boolean[players.length][];
+            this.playableBefore = new boolean[players.length][];
+            this.cardsToPassBefore = new ArrayList<>(players.length);
+            this.receiverNoBefore = new int[players.length];
+            for (int i = 0; i < players.length; i++){
+                this.handCardsBefore[i] = players[i].getHandCards().getIsInHandCopy();
+                this.playableBefore[i] = players[i].getHandCardsPlayable().getIsInHandCopy();
+                this.cardsToPassBefore.add(new ArrayList<>(players[i].getCardsToPassOriginalReference()));
+                this.receiverNoBefore[i] = players[i].getReceiverNo();
+            }
+            this.tricksPlayedBefore = gameState.tricksPlayed;
+            this.replacedTrick = gameState.roundTricks[gameState.tricksPlayed];
+            this.cardsHaveBeenPassedBefore = gameState.cardsHaveBeenPassed;
+        }
+    }
+
     
 }
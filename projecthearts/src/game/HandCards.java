@@ -6,6 +6,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
+import java.util.random.RandomGenerator;
 
 /**
  * Represents the hand cards of a player.
@@ -180,6 +181,30 @@ public class HandCards implements Cloneable{
         this.isInHand = isInHand;
     }
 
+    /**
+     * Gets the cards as a mask, in which bit {@code cardId - 1} is set for every card in hand.
+     *
+     * @return The mask of the cards.
+     */
+    public long toMask() {
+        long mask = 0L;
+        for (int i = 0; i < isInHand.length; i++) {
+            if (isInHand[i]) mask |= 1L << i;
+        }
+        return mask;
+    }
+
+    /**
+     * Overwrites the cards with the cards of a mask. The isInHand array is kept, i.e. no new array is allocated.
+     *
+     * @param mask The mask, in which bit {@code cardId - 1} is set for every card in hand.
+     */
+    public void setFromMask(long mask) {
+        for (int i = 0; i < isInHand.length; i++) {
+            isInHand[i] = (mask & (1L << i)) != 0;
+        }
+    }
+
     /**
     * Clones the HandCards object to create a deep copy.
     *
@@ -256,8 +281,17 @@ public class HandCards implements Cloneable{
     * @return An array representing a random pass combination.
     */
     public int[] generateRandomPass() {
+        return generateRandomPass(new Random());
+    }
+
+    /**
+    * Generates a random combination of cards to pass with the given random number generator.
+    *
+    * @param random The random number generator used for selecting the cards.
+    * @return An array representing a random pass combination.
+    */
+    public int[] generateRandomPass(RandomGenerator random) {
         int[] passCombination = new int[3];
-        Random random = new Random();
         Set<Integer> selectedCards = new HashSet<Integer>();
         
         int counter = 0;
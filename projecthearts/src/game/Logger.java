@@ -1034,6 +1034,37 @@ public class Logger {
 
     }
 
+    /**
+     * Adds the game statistics of another logger to the statistics of this logger, e.g. the statistics of the
+     * workers of a {@link TournamentRunner}. The average game points are weighted by the number of games of both loggers.
+     * The logged game data (tricks, hand cards, ...) is not merged.
+     *
+     * @param other The logger whose statistics are added.
+     * @throws IllegalArgumentException if the deck sizes of the loggers differ.
+     */
+    public void mergeStatistics(Logger other) throws IllegalArgumentException {
+
+        if (other.deckSize != deckSize) {
+            throw new IllegalArgumentException("Statistics of different deck sizes cannot be merged.");
+        }
+
+        int games = gameNumber + other.gameNumber;
+        for (int i = 0; i < 4; i++) {
+            numberOfWins[i] += other.numberOfWins[i];
+            numberOf2ndPlaces[i] += other.numberOf2ndPlaces[i];
+            numberOf3rdPlaces[i] += other.numberOf3rdPlaces[i];
+            numberOf4thPlaces[i] += other.numberOf4thPlaces[i];
+            numberOfShootTheMoons[i] += other.numberOfShootTheMoons[i];
+            totalGamePts[i] += other.totalGamePts[i];
+            totalGamePtsPayoff[i] += other.totalGamePtsPayoff[i];
+            if (games > 0) {
+                avgGamePts[i] = (avgGamePts[i] * gameNumber + other.avgGamePts[i] * other.gameNumber) / games;
+                avgGamePtsPayoff[i] = (avgGamePtsPayoff[i] * gameNumber + other.avgGamePtsPayoff[i] * other.gameNumber) / games;
+            }
+        }
+        gameNumber = games;
+    }
+
     /**
     * Logs the hand cards of each player before passing.
     * This method constructs a string representation of hand cards for each player and adds it to the list of hand cards before passing.
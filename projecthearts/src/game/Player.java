@@ -302,7 +302,9 @@ public class Player implements Comparable<Player>, Cloneable{
      * @param gameState The current game state.
      */
     public void setHandCardsPlayableFromRulesAndIsInHandInTrick0or1(GameState gameState){
-        this.handCardsPlayable.setIsInHand(Rules.getPlayableCardsInTrick0or1(gameState, this));
+        boolean isStarterOfRound = gameState.getTricksPlayed() == 1 && gameState.getStarterOfRound().getPlayerNo() == playerNo;
+        this.handCardsPlayable.setFromMask(Rules.getPlayableCardsInTrick0or1(handCards.toMask(), gameState.getTricksPlayed(),
+                                                                            isStarterOfRound, gameState.getDeckSize()));
     }
 
     /**
@@ -310,7 +312,7 @@ public class Player implements Comparable<Player>, Cloneable{
      * @param gameState The current game state.
      */
     public void setHandCardsPlayableFromRulesAndIsInHandForStarterInTrick2orLater(GameState gameState){
-        this.handCardsPlayable.setIsInHand(Rules.getPlayableCardsOfStarterInTrick2orLater(gameState, this));
+        this.handCardsPlayable.setFromMask(Rules.getPlayableCardsOfStarterInTrick2orLater(handCards.toMask(), gameState.getIsHeartBroken()));
     }
 
     /**
@@ -319,7 +321,7 @@ public class Player implements Comparable<Player>, Cloneable{
      * @param firstCardNumberPlayed The number of the card played by the starter of the trick.
      */
     public void setHandCardsPlayableFromRulesAndIsInHandForNonStarterInTrick2orLater(GameState gameState, int firstCardNumberPlayed){
-        this.handCardsPlayable.setIsInHand(Rules.getPlayableCardsOfNonStarterInTrick2orLater(gameState, this, firstCardNumberPlayed));
+        this.handCardsPlayable.setFromMask(Rules.getPlayableCardsOfNonStarterInTrick2orLater(handCards.toMask(), firstCardNumberPlayed));
     }
 
     /**
@@ -329,7 +331,8 @@ public class Player implements Comparable<Player>, Cloneable{
      * @param starterOfRound The starter of the round.
      */
     public void setHandCardsPlayableFromRulesAndIsInHandInTrick0or1ForAiDeterminization(GameState gameState, Player starterOfRound){
-        this.handCardsPlayable.setIsInHand(Rules.getPlayableCardsInTrick0or1ForAiDeterminization(gameState, this, starterOfRound));
+        this.handCardsPlayable.setFromMask(Rules.getPlayableCardsInTrick0or1(handCards.toMask(), gameState.getTricksPlayed(),
+                                                                            starterOfRound.getPlayerNo() == playerNo, gameState.getDeckSize()));
     }
 
 
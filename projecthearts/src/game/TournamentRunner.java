@@ -0,0 +1,229 @@
+package game;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import game.AI.AiTypes;
+
+/**
+ * Headless simulation of many games on several threads.
+ * <p>
+ * The games are distributed round robin over the workers. Every worker has its own {@link GameState}, its own
+ * {@link GameController} with its own AI instances and its own {@link Logger}. At the end, the game statistics of all
+ * loggers are merged in the order of the workers. The deals and the AIs of game number g draw from a random number
+ * generator seeded with {@link #gameSeed(long, int)}, so the results only depend on the seed and not on the number of
+ * workers.
+ * <p>
+ * Usage: {@code java game.TournamentRunner numberOfGames [numberOfWorkers] [seed] [firstAi] [scndAi] [corpusFile]}. The first
+ * AI plays the players 0 to 2, the second AI the 4th player, as in the simulation mode. If a corpus file is given, the first
+ * numberOfGames games of the corpus are played in duplicate mode (see {@link #runDuplicate}); a missing corpus file is
+ * generated with the seed first.
+ */
+public class TournamentRunner {
+
+    // more rounds than almost every game lasts, longer games start over with the first deal
+    static final int DEFAULT_ROUNDS_PER_GAME = 32;
+
+    private final AiTypes firstAi;
+    private final AiTypes scndAi;
+    private final int numberOfWorkers;
+    private double gamesPerMinute;
+
+    /**
+     * Creates a tournament runner.
+     *
+     * @param firstAi The AI of the players 0 to 2.
+     * @param scndAi The AI of the 4th player.
+     * @param numberOfWorkers The number of threads.
+     * @throws IllegalArgumentException If the number of workers is smaller than 1.
+     */
+    public TournamentRunner(AiTypes firstAi, AiTypes scndAi, int numberOfWorkers) throws IllegalArgumentException {
+        if (numberOfWorkers < 1) {
+            throw new IllegalArgumentException("At least one worker is required.");
+        }
+        this.firstAi = firstAi;
+        this.scndAi = scndAi;
+        this.numberOfWorkers = numberOfWorkers;
+    }
+
+    /**
+     * Simulates games and merges their statistics.
+     *
+     * @param settings A game state with the settings of the games: deck, difficulty and memory of both AIs and passing.
+     * @param numberOfGames The number of games to simulate.
+     * @param seed The seed for the deals and the AIs.
+     * @return A logger containing the merged game statistics of all games.
+     * @throws IllegalStateException If a worker fails or the simulation is interrupted.
+     */
+    public Logger run(GameState settings, int numberOfGames, long seed) throws IllegalStateException {
+        return run(settings, numberOfGames, seed, null);
+    }
+
+    /**
+     * Simulates the games of a deal corpus in duplicate mode and merges their statistics.
+     * <p>
+     * Every game of the corpus is played {@value DealCorpus#NUMBER_OF_ROTATIONS} times with the hands rotated over the seats,
+     * so both AIs play the same cards and the luck of the deal cancels out in their statistics.
+     *
+     * @param settings A game state with the settings of the games: deck, difficulty and memory of both AIs and passing.
+     * @param corpus The deal corpus.
+     * @param numberOfDeals The number of corpus games to play, each of them in every rotation.
+     * @param seed The seed for the AIs.
+     * @return A logger containing the merged game statistics of all games.
+     * @throws IllegalArgumentException If the corpus has fewer games or another deck size than the settings.
+     * @throws IllegalStateException If a worker fails or the simulation is interrupted.
+     */
+    public Logger runDuplicate(GameState settings, DealCorpus corpus, int numberOfDeals, long seed)
+            throws IllegalArgumentException, IllegalStateException {
+        if (numberOfDeals > corpus.getNumberOfGames()) {
+            throw new IllegalArgumentException("The corpus contains only " + corpus.getNumberOfGames() + " games.");
+        }
+        if (corpus.getDeckSize() != settings.getDeckSize()) {
+            throw new IllegalArgumentException("The corpus was dealt with " + corpus.getDeckSize() + " cards.");
+        }
+        return run(settings, numberOfDeals * DealCorpus.NUMBER_OF_ROTATIONS, seed, corpus);
+    }
+
+    private Logger run(GameState settings, int numberOfGames, long seed, DealCorpus corpus) throws IllegalStateException {
+        long start = System.nanoTime();
+
+        List<Callable<Logger>> workers = new ArrayList<>();
+        for (int i = 0; i < numberOfWorkers; i++) {
+            int workerNo = i;
+            workers.add(() -> runWorker(settings, workerNo, numberOfGames, seed, corpus));
+        }
+
+        Logger merged = new Logger(numberOfGames, settings.getDeckSize(), "data", -1);
+        ExecutorService pool = Executors.newFixedThreadPool(numberOfWorkers);
+        try {
+            for (Future<Logger> future : pool.invokeAll(workers)) {
+                merged.mergeStatistics(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tournament was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tournament worker failed.", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        double minutes = (System.nanoTime() - start) / 60e9;
+        gamesPerMinute = numberOfGames / minutes;
+        return merged;
+    }
+
+    /*
+    * Plays the games workerNo, workerNo + numberOfWorkers, ... and returns the logger of the worker.
+    * With a corpus, game number g is rotation g % 4 of the corpus game g / 4.
+    */
+    private Logger runWorker(GameState settings, int workerNo, int numberOfGames, long seed, DealCorpus corpus) {
+        int gamesOfWorker = (numberOfGames - workerNo + numberOfWorkers - 1) / numberOfWorkers;
+        GameState gameState = createGameState(settings);
+        GameController gameController = new GameController(gameState, firstAi, scndAi);
+        Logger logger = new Logger(gamesOfWorker, gameState.getDeckSize(), "data", -1);
+        gameController.setLogger(logger);
+        gameState.setNumberOfSimulationGames(gamesOfWorker);
+        gameState.setIsSimulationModeRunning(true);
+
+        for (int gameNo = workerNo; gameNo < numberOfGames; gameNo += numberOfWorkers) {
+            gameController.setRandom(new SplittableRandom(gameSeed(seed, gameNo)));
+            if (corpus != null) {
+                gameController.setDealCorpus(corpus, gameNo / DealCorpus.NUMBER_OF_ROTATIONS, gameNo % DealCorpus.NUMBER_OF_ROTATIONS);
+            }
+            gameController.playSimulationGame(gamesOfWorker, -1);
+        }
+        gameState.setIsSimulationModeRunning(false);
+        return logger;
+    }
+
+    /**
+     * Derives the seed of the deals of one game from the seed of the tournament.
+     *
+     * @param seed The seed of the tournament.
+     * @param gameNo The number of the game, starting with 0.
+     * @return The seed of the game.
+     */
+    public static long gameSeed(long seed, int gameNo) {
+        long z = seed + 0x9E3779B97F4A7C15L * (gameNo + 1);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Creates the game state of a worker with the settings of the tournament.
+    private static GameState createGameState(GameState settings) {
+        GameState gameState = new GameState();
+        gameState.init();
+        gameState.createDeck(settings.getDeckSize() == 52);
+        gameState.setDifficulty(settings.getDifficulty());
+        gameState.setMemory(settings.getMemory());
+        gameState.setDifficulty4thAi(settings.getDifficulty4thAi());
+        gameState.setMemory4thAi(settings.getMemory4thAi());
+        gameState.setIsGameWithPassing(settings.getIsGameWithPassing());
+        return gameState;
+    }
+
+    /**
+     * Gets the number of games per minute of the last tournament.
+     */
+    public double getGamesPerMinute() {
+        return gamesPerMinute;
+    }
+
+    public int getNumberOfWorkers() {
+        return numberOfWorkers;
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: java game.TournamentRunner numberOfGames [numberOfWorkers] [seed] [firstAi] [scndAi] [corpusFile]");
+            return;
+        }
+        int numberOfGames = Integer.parseInt(args[0]);
+        int numberOfWorkers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        AiTypes firstAi = args.length > 3 ? AiTypes.valueOf(args[3]) : AiTypes.RULE_BASED;
+        AiTypes scndAi = args.length > 4 ? AiTypes.valueOf(args[4]) : AiTypes.RULE_BASED;
+
+        GameState settings = new GameState();
+        settings.init();
+        settings.createDeck(true);
+        settings.setDifficulty(Difficulty.EASY);
+        settings.setMemory(Memory.NORMAL);
+        settings.setDifficulty4thAi(Difficulty.EASY);
+        settings.setMemory4thAi(Memory.NORMAL);
+        settings.setIsGameWithPassing(true);
+
+        TournamentRunner runner = new TournamentRunner(firstAi, scndAi, numberOfWorkers);
+        Logger logger;
+        if (args.length > 5) {
+            Path corpusFile = Paths.get(args[5]);
+            try {
+                if (!Files.exists(corpusFile)) {
+                    DealCorpus.generate(corpusFile, true, numberOfGames, DEFAULT_ROUNDS_PER_GAME, seed);
+                }
+                logger = runner.runDuplicate(settings, DealCorpus.open(corpusFile), numberOfGames, seed);
+            } catch (IOException e) {
+                System.out.println("Fehler beim Lesen des Deal-Korpus: " + e.getMessage());
+                return;
+            }
+            numberOfGames *= DealCorpus.NUMBER_OF_ROTATIONS;
+        }
+        else logger = runner.run(settings, numberOfGames, seed);
+
+        GameController.printGameStatistic(logger);
+        System.out.println(numberOfGames + " Spiele mit " + numberOfWorkers + " Threads (Seed " + seed + "): "
+                            + String.format("%.1f", runner.getGamesPerMinute()) + " Spiele pro Minute.");
+    }
+}
@@ -50,6 +50,25 @@ public class Trick implements Cloneable{
         numPlayedCards++;
     }
 
+    /**
+     * Removes the card played by a specific player from the trick. Used to take back a move.
+     *
+     * @param playerNo The player whose card is removed. Should be in the range {0, 1, 2, 3}.
+     * @throws IllegalArgumentException If the player number is invalid or the player has not played a card in this trick.
+     */
+    public void removeCard(int playerNo) throws IllegalArgumentException{
+
+        if (playerNo < 0 || playerNo > 3){
+            throw new IllegalArgumentException("PlayerNo is not invalid.");
+        }
+        if (cardsPlayed[playerNo] == 0){
+            throw new IllegalArgumentException("Player " + playerNo + " has not played a card in this trick.");
+        }
+
+        cardsPlayed[playerNo] = 0;
+        numPlayedCards--;
+    }
+
     /**
      * Gets the identifier of the starting card in the trick.
      * 
@@ -1,5 +1,6 @@
 package rules;
 import java.util.Arrays;
+import game.BitboardGameState;
 import game.CardCoding;
 import game.GameState;
 import game.Player;
@@ -14,6 +15,11 @@ import game.Player;
 * https://de.wikipedia.org/wiki/Hearts and
 * <p>
 * the introductory event of the course.
+* <p>
+* The playable cards are available in two forms: as a boolean array of size 52 for a player of a game state and as a
+* {@code long} mask for a mask of hand cards, in which bit {@code cardId - 1} stands for the card with that id
+* (see {@link BitboardGameState}). The mask variants do not allocate and are used by the game state whenever the
+* playable cards are updated during a round.
 */
 public final class Rules {
    
@@ -296,4 +302,79 @@ public final class Rules {
         return playableCards;
     }
 
+    /**
+     * This method determines the playable cards at the start of the round for passing and for the 1st trick like
+     * {@link #getPlayableCardsInTrick0or1(GameState, Player)}, but for a mask of hand cards.
+     * <p>
+     * @param hand The mask of the hand cards of the player.
+     * @param tricksPlayed The number of the current trick, 0 before passing.
+     * @param isStarterOfRound Whether the player is the starter of the round, who opens the 1st trick.
+     * @param deckSize The deck size, 52 or 32.
+     * @return The mask of playable cards.
+     */
+    public final static long getPlayableCardsInTrick0or1(long hand, int tricksPlayed, boolean isStarterOfRound, int deckSize){
+        if (tricksPlayed == 0) return hand;
+        if (tricksPlayed != 1) return 0L;
+        if (isStarterOfRound){
+            if (deckSize == 52) return BitboardGameState.CLUBS_2_MASK;
+            if (deckSize == 32) return BitboardGameState.CLUBS_7_MASK;
+            return 0L;
+        }
+        long clubs = hand & BitboardGameState.CLUBS_MASK;
+        if (clubs != 0) return clubs;
+        long noPoints = hand & (BitboardGameState.DIAMONDS_MASK | BitboardGameState.SPADES_MASK) & ~BitboardGameState.QUEEN_OF_SPADES_MASK;
+        if (noPoints != 0) return noPoints;
+        return hand & (BitboardGameState.HEARTS_MASK | BitboardGameState.QUEEN_OF_SPADES_MASK);
+    }
+
+    /**
+     * This method determines the starter's playable cards from the 2nd trick like
+     * {@link #getPlayableCardsOfStarterInTrick2orLater(GameState, Player)}, but for a mask of hand cards.
+     * <p>
+     * @param hand The mask of the hand cards of the starter.
+     * @param isHeartBroken Whether hearts have been broken in this round.
+     * @return The mask of playable cards.
+     */
+    public final static long getPlayableCardsOfStarterInTrick2orLater(long hand, boolean isHeartBroken){
+        if (isHeartBroken) return hand;
+        long notHearts = hand & ~BitboardGameState.HEARTS_MASK;
+        return notHearts != 0 ? notHearts : hand;
+    }
+
+    /**
+     * This method determines the playable cards of a player from the 2nd trick if he is not the starter of the trick like
+     * {@link #getPlayableCardsOfNonStarterInTrick2orLater(GameState, Player, int)}, but for a mask of hand cards.
+     * <p>
+     * @param hand The mask of the hand cards of the player.
+     * @param firstCardNumberPlayed The number of the card played by the starter of the trick.
+     * @return The mask of playable cards.
+     * @throws IllegalArgumentException If the number of the first card is not in the range [1, 52].
+     */
+    public final static long getPlayableCardsOfNonStarterInTrick2orLater(long hand, int firstCardNumberPlayed) throws IllegalArgumentException{
+        if (firstCardNumberPlayed < 1 || firstCardNumberPlayed > 52){
+            throw new IllegalArgumentException("Invalid Card Id:" + firstCardNumberPlayed);
+        }
+        long sameSuit = hand & BitboardGameState.suitMaskOf(firstCardNumberPlayed);
+        return sameSuit != 0 ? sameSuit : hand;
+    }
+
+    /**
+     * This method determines the playable cards of a player in any trick of a round for a mask of hand cards,
+     * using the mask variants above.
+     * <p>
+     * @param hand The mask of the hand cards of the player.
+     * @param tricksPlayed The number of the current trick, 0 before passing.
+     * @param isStarterOfRound Whether the player is the starter of the round, only relevant in the 1st trick.
+     * @param firstCardNumberPlayed The number of the card played by the starter of the trick, 0 if the player starts the trick.
+     * @param isHeartBroken Whether hearts have been broken in this round.
+     * @param deckSize The deck size, 52 or 32.
+     * @return The mask of playable cards.
+     */
+    public final static long getPlayableCards(long hand, int tricksPlayed, boolean isStarterOfRound, int firstCardNumberPlayed,
+                                              boolean isHeartBroken, int deckSize){
+        if (tricksPlayed <= 1) return getPlayableCardsInTrick0or1(hand, tricksPlayed, isStarterOfRound, deckSize);
+        if (firstCardNumberPlayed == 0) return getPlayableCardsOfStarterInTrick2orLater(hand, isHeartBroken);
+        return getPlayableCardsOfNonStarterInTrick2orLater(hand, firstCardNumberPlayed);
+    }
+
 }
@@ -0,0 +1,102 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import game.BitboardGameState;
+import game.GameState;
+import game.Player;
+
+public class BitboardGameStateTest {
+
+    /* Creates a game state at the start of the 1st trick without passing. */
+    static GameState createGameStateInFirstTrick(boolean isStandardDeck){
+        GameState gs = new GameState();
+        gs.init();
+        gs.setSimulationAI();
+        gs.createDeck(isStandardDeck);
+        gs.handOutCards();
+        gs.setTricksPlayed(1);
+        gs.initTrick(gs.getStarterOfRound().getPlayerNo());
+        gs.setPlayableCardsForEachPlayerInTrick0or1();
+        return gs;
+    }
+
+    private void assertSameState(GameState gs, BitboardGameState bs){
+        assertEquals(gs.getPlayerToMove(), bs.getPlayerToMove());
+        assertEquals(gs.isRoundOver(), bs.isRoundOver());
+        assertEquals(gs.getIsHeartBroken(), bs.getIsHeartBroken());
+        for (Player player : gs.getPlayers()){
+            int playerNo = player.getPlayerNo();
+            assertEquals(gs.getPayoff(playerNo), bs.getPayoff(playerNo), 0.0);
+            assertEquals(player.getRoundPts(), bs.getRoundPts(playerNo));
+            assertEquals(BitboardGameState.toMask(player.getHandCards().getIsInHand()), bs.getHandCards(playerNo));
+        }
+    }
+
+    private void playRandomRoundInBoth(boolean isStandardDeck, long seed){
+        Random random = new Random(seed);
+        GameState gs = createGameStateInFirstTrick(isStandardDeck);
+        BitboardGameState bs = BitboardGameState.fromGameState(gs);
+
+        while (!gs.isRoundOver()){
+            int playerNo = gs.getPlayerToMove();
+            List<Integer> playable = gs.determineListOfPlayableCardIds(playerNo);
+            assertEquals(playable, bs.determineListOfPlayableCardIds(playerNo));
+            int cardId = playable.get(random.nextInt(playable.size()));
+            gs.doMove(cardId);
+            bs.doMove(cardId);
+            assertSameState(gs, bs);
+        }
+        assertTrue(bs.isRoundOver());
+    }
+
+    @Test
+    public void randomRoundsMatchGameState52(){
+        for (long seed = 0; seed < 200; seed++){
+            playRandomRoundInBoth(true, seed);
+        }
+    }
+
+    @Test
+    public void randomRoundsMatchGameState32(){
+        for (long seed = 0; seed < 200; seed++){
+            playRandomRoundInBoth(false, seed);
+        }
+    }
+
+    @Test
+    public void convertsBackToGameStateInTheMiddleOfATrick(){
+        Random random = new Random(7);
+        GameState gs = createGameStateInFirstTrick(true);
+        BitboardGameState bs = BitboardGameState.fromGameState(gs);
+        for (int i = 0; i < 22; i++){
+            List<Integer> playable = bs.determineListOfPlayableCardIds(bs.getPlayerToMove());
+            bs.doMove(playable.get(random.nextInt(playable.size())));
+        }
+
+        GameState converted = bs.toGameState(gs);
+        assertEquals(6, converted.getTricksPlayed());
+        assertEquals(2, converted.getNewestTrick().getNumPlayedCards());
+        assertSameState(converted, bs);
+        BitboardGameState reconverted = BitboardGameState.fromGameState(converted);
+        assertEquals(bs.getCardsOfNewestTrick(), reconverted.getCardsOfNewestTrick());
+        assertEquals(bs.getCardsPlayedInThisRound(), reconverted.getCardsPlayedInThisRound());
+    }
+
+    @Test
+    public void copyIsIndependent(){
+        GameState gs = createGameStateInFirstTrick(true);
+        BitboardGameState bs = BitboardGameState.fromGameState(gs);
+        BitboardGameState copy = bs.deepCopy();
+        int starter = bs.getPlayerToMove();
+        copy.doMove(copy.determineListOfPlayableCardIds(starter).get(0));
+
+        assertEquals(starter, bs.getPlayerToMove());
+        assertEquals(13, Long.bitCount(bs.getHandCards(starter)));
+        assertEquals(12, Long.bitCount(copy.getHandCards(starter)));
+    }
+}
@@ -9,12 +9,12 @@ import game.CardCoding;
 public class CardTest {
 
     //Vergleichskarte Herz König
-    private Card otherCard = new Card(CardCoding.HEARTS_KING.getId());
+    private Card otherCard = Card.of(CardCoding.HEARTS_KING.getId());
 
     @Test
     public void testDiamondsTen() {
         
-        Card card = new Card(CardCoding.DIAMONDS_10.getId());
+        Card card = Card.of(CardCoding.DIAMONDS_10.getId());
         
         assertFalse(card.isHeart()); 
         assertFalse(card.isQueenOfSpades()); 
@@ -27,7 +27,7 @@ public class CardTest {
     @Test
     public void testHeartsAce() {
         
-        Card card = new Card(CardCoding.HEARTS_ACE.getId());
+        Card card = Card.of(CardCoding.HEARTS_ACE.getId());
         
         assertTrue(card.isHeart());
         assertFalse(card.isQueenOfSpades());
@@ -40,7 +40,7 @@ public class CardTest {
     @Test
     public void testQueenOfSpades() {
         
-        Card card = new Card(CardCoding.SPADES_QUEEN.getId());
+        Card card = Card.of(CardCoding.SPADES_QUEEN.getId());
         
         assertFalse(card.isHeart());
         assertTrue(card.isQueenOfSpades());
@@ -49,4 +49,19 @@ public class CardTest {
         assertEquals(card.getHigherCard(otherCard), otherCard);
         assertEquals(card.getImagePath(), "../GUI/assets/spades11.png");
     }
+
+    @Test
+    public void ofReturnsTheSameInstance() {
+        Card card = Card.of(CardCoding.CLUBS_2.getId());
+
+        assertSame(card, Card.of(CardCoding.CLUBS_2.getId()));
+        assertSame(card, card.clone());
+        assertEquals(0, card.getRank());
+        assertEquals(12, Card.of(CardCoding.HEARTS_ACE.getId()).getRank());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void ofRejectsInvalidId() {
+        Card.of(53);
+    }
 }
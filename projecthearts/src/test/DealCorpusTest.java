@@ -0,0 +1,99 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import game.DealCorpus;
+import game.GameState;
+
+public class DealCorpusTest {
+
+    private Path file;
+
+    @Before
+    public void createFile() throws IOException{
+        file = Files.createTempFile("deals", ".bin");
+        file.toFile().deleteOnExit();
+    }
+
+    @Test
+    public void dealsCoverTheDeckOnce() throws IOException{
+        DealCorpus.generate(file, true, 3, 5, 1);
+        DealCorpus corpus = DealCorpus.open(file);
+
+        assertEquals(52, corpus.getDeckSize());
+        assertEquals(3, corpus.getNumberOfGames());
+        assertEquals(5, corpus.getRoundsPerGame());
+        long[] handMasks = corpus.getHandMasks(2, 5, 0);
+        long allCards = 0;
+        for (long handMask : handMasks){
+            assertEquals(13, Long.bitCount(handMask));
+            assertEquals(0, allCards & handMask);
+            allCards |= handMask;
+        }
+        assertEquals((1L << 52) - 1, allCards);
+    }
+
+    @Test
+    public void sameSeedGivesSameCorpus() throws IOException{
+        Path other = Files.createTempFile("deals", ".bin");
+        other.toFile().deleteOnExit();
+        DealCorpus.generate(file, false, 2, 2, 9);
+        DealCorpus.generate(other, false, 2, 2, 9);
+
+        assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(other));
+    }
+
+    @Test
+    public void rotationMovesHandsToNextSeats() throws IOException{
+        DealCorpus.generate(file, true, 1, 2, 4);
+        DealCorpus corpus = DealCorpus.open(file);
+
+        long[] dealt = corpus.getHandMasks(0, 1, 0);
+        long[] rotated = corpus.getHandMasks(0, 1, 1);
+        for (int seat = 0; seat < 4; seat++){
+            assertEquals(dealt[seat], rotated[(seat + 1) % 4]);
+        }
+        // longer games start over with the first deal
+        assertArrayEquals(dealt, corpus.getHandMasks(0, 3, 0));
+        assertNotEquals(dealt[0], corpus.getHandMasks(0, 2, 0)[0]);
+    }
+
+    @Test
+    public void handOutCardsUsesHandMasks() throws IOException{
+        DealCorpus.generate(file, false, 1, 1, 2);
+        long[] handMasks = DealCorpus.open(file).getHandMasks(0, 1, 3);
+        GameState gameState = new GameState();
+        gameState.init();
+        gameState.setSimulationAI();
+        gameState.createDeck(false);
+
+        gameState.handOutCards(handMasks);
+
+        for (int playerNo = 0; playerNo < 4; playerNo++){
+            boolean[] isInHand = gameState.getPlayers()[playerNo].getHandCards().getIsInHand();
+            for (int cardId = 1; cardId <= 52; cardId++){
+                assertEquals((handMasks[playerNo] & (1L << (cardId - 1))) != 0, isInHand[cardId - 1]);
+            }
+            assertEquals(8, gameState.getPlayers()[playerNo].countCards());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void otherFilesAreRejected() throws IOException{
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+        DealCorpus.open(file);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingGameIsRejected() throws IOException{
+        DealCorpus.generate(file, true, 1, 1, 3);
+        DealCorpus.open(file).getHandMasks(1, 1, 0);
+    }
+}
@@ -16,7 +16,7 @@ public class DeckTest {
         // Assert: alle Karten wurden korrekt erstellt
         assertEquals(deck.getSize(), 52);
         for (int i = 0; i < deck.getSize(); i++){
-            Card card = new Card(i+1);
+            Card card = Card.of(i+1);
             assertTrue(deck.containsCard(card));
         }
     }
@@ -30,7 +30,7 @@ public class DeckTest {
         assertEquals(deck.getSize(), 32);
         for (int i = 6; i <= deck.getSize(); i++){
             if (i % 13 == 1) i+= 5;
-            Card card = new Card(i);
+            Card card = Card.of(i);
             assertTrue(deck.containsCard(card));
         }
     }
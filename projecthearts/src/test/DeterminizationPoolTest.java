@@ -0,0 +1,136 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import game.DeterminizationPool;
+import game.DeterminizationSampler;
+import game.GameState;
+import game.Memory;
+
+public class DeterminizationPoolTest {
+
+    private GameState createGameStateInFirstTrick(){
+        GameState gs = BitboardGameStateTest.createGameStateInFirstTrick(true);
+        gs.setMemory(Memory.SUPER);
+        gs.setMemory4thAi(Memory.SUPER);
+        return gs;
+    }
+
+    private void playRandomCard(GameState gs, SplittableRandom random){
+        List<Integer> playable = gs.determineListOfPlayableCardIds(gs.getPlayerToMove());
+        gs.doMove(playable.get(random.nextInt(playable.size())));
+    }
+
+    private void assertWorldsAreConsistent(DeterminizationPool pool, GameState gs){
+        DeterminizationSampler sampler = new DeterminizationSampler(gs, pool.getObserver());
+        long observerHand = gs.getPlayers()[pool.getObserver()].getHandCards().toMask();
+        for (int i = 0; i < pool.size(); i++){
+            long dealt = observerHand;
+            for (int playerNo = 0; playerNo < 4; playerNo++){
+                if (playerNo == pool.getObserver()) continue;
+                long hand = pool.getHand(i, playerNo);
+                assertTrue(sampler.isPossibleHand(playerNo, hand));
+                assertEquals(0L, dealt & hand);
+                dealt |= hand;
+            }
+        }
+    }
+
+    @Test
+    public void worldsConsistentWithTheNewCardsAreKept(){
+        SplittableRandom random = new SplittableRandom(4);
+        GameState gs = createGameStateInFirstTrick();
+        int observer = (gs.getPlayerToMove() + 1) % 4;
+        playRandomCard(gs, random);
+        DeterminizationPool pool = new DeterminizationPool(observer);
+        pool.update(gs, 600, random);
+        assertEquals(0, pool.getReusedWorlds());
+
+        for (int move = 0; move < 8; move++){
+            playRandomCard(gs, random);
+            pool.update(gs, 600, random);
+
+            assertEquals(600, pool.size());
+            assertWorldsAreConsistent(pool, gs);
+            assertTrue(pool.getReusedWorlds() > 0);
+        }
+    }
+
+    @Test
+    public void moveOfTheObserverKeepsAllWorlds(){
+        SplittableRandom random = new SplittableRandom(5);
+        GameState gs = createGameStateInFirstTrick();
+        int observer = gs.getPlayerToMove();
+        DeterminizationPool pool = new DeterminizationPool(observer);
+        pool.update(gs, 100, random);
+
+        playRandomCard(gs, random);
+        pool.update(gs, 100, random);
+
+        assertEquals(100, pool.getReusedWorlds());
+    }
+
+    @Test
+    public void newRoundDiscardsAllWorlds(){
+        SplittableRandom random = new SplittableRandom(6);
+        GameState gs = createGameStateInFirstTrick();
+        DeterminizationPool pool = new DeterminizationPool(gs.getPlayerToMove());
+        pool.update(gs, 100, random);
+
+        pool.update(createGameStateInFirstTrick(), 100, random);
+
+        assertEquals(0, pool.getReusedWorlds());
+        assertEquals(100, pool.size());
+    }
+
+    @Test
+    public void appliedWorldHasTheHandsOfThePool(){
+        SplittableRandom random = new SplittableRandom(7);
+        GameState gs = createGameStateInFirstTrick();
+        DeterminizationPool pool = new DeterminizationPool(0);
+        pool.update(gs, 10, random);
+
+        GameState determinized = gs.deepCopy();
+        pool.applyTo(determinized, 3, random);
+
+        for (int playerNo = 1; playerNo < 4; playerNo++){
+            assertEquals(pool.getHand(3, playerNo), determinized.getPlayers()[playerNo].getHandCards().toMask());
+        }
+        assertEquals(gs.getPlayers()[0].getHandCards().toMask(), determinized.getPlayers()[0].getHandCards().toMask());
+    }
+
+    @Test
+    public void indicesBeyondThePoolGetNewWorlds(){
+        SplittableRandom random = new SplittableRandom(8);
+        GameState gs = createGameStateInFirstTrick();
+        DeterminizationPool pool = new DeterminizationPool(0);
+        pool.update(gs, 2, random);
+
+        // a search with more iterations than the pool holds does not repeat the worlds of the pool
+        int newWorlds = 0;
+        for (int index = 2; index < 20; index++){
+            GameState determinized = gs.deepCopy();
+            pool.applyTo(determinized, index, random);
+            boolean isWorldOfPool = false;
+            for (int i = 0; i < pool.size(); i++){
+                isWorldOfPool |= pool.getHand(i, 1) == determinized.getPlayers()[1].getHandCards().toMask();
+            }
+            if (!isWorldOfPool) newWorlds++;
+            for (int playerNo = 1; playerNo < 4; playerNo++){
+                assertEquals(13, determinized.getPlayers()[playerNo].getHandCards().countCards());
+            }
+        }
+        assertEquals(18, newWorlds);
+        assertEquals(2, pool.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void poolMustBeUpdatedBeforeItIsApplied(){
+        new DeterminizationPool(0).applyTo(createGameStateInFirstTrick(), 0, new SplittableRandom(1));
+    }
+}
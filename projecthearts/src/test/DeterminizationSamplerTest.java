@@ -0,0 +1,162 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import game.BitboardGameState;
+import game.CardCoding;
+import game.DeterminizationSampler;
+import game.GameState;
+import game.Memory;
+import game.Player;
+
+public class DeterminizationSamplerTest {
+
+    /* Creates a game state of the 1st round after every player passed random cards. */
+    private GameState createGameStateAfterPassing(long seed){
+        GameState gs = new GameState();
+        gs.init();
+        gs.setSimulationAI();
+        gs.setMemory(Memory.SUPER);
+        gs.setMemory4thAi(Memory.SUPER);
+        gs.createDeck(true, new SplittableRandom(seed));
+        gs.handOutCards();
+        gs.setRoundNo(1);
+        gs.doPass(0, gs.getPlayers()[0].getHandCards().generateRandomPass(new SplittableRandom(seed)), new SplittableRandom(seed));
+        gs.setPlayableCardsForEachPlayerInTrick0or1();
+        return gs;
+    }
+
+    /* Plays random cards until the given trick is reached. */
+    private void playRandomCardsUntilTrick(GameState gs, int trickNo, SplittableRandom random){
+        while (gs.getTricksPlayed() < trickNo && !gs.isRoundOver()){
+            List<Integer> playable = gs.determineListOfPlayableCardIds(gs.getPlayerToMove());
+            gs.doMove(playable.get(random.nextInt(playable.size())));
+        }
+    }
+
+    @Test
+    public void samplesRespectVoidsAndPassedCards(){
+        SplittableRandom random = new SplittableRandom(3);
+        int checkedConstraints = 0;
+        for (int i = 0; i < 100; i++){
+            GameState gs = createGameStateAfterPassing(i);
+            playRandomCardsUntilTrick(gs, 2 + random.nextInt(9), random);
+            int observer = gs.getPlayerToMove();
+            DeterminizationSampler sampler = new DeterminizationSampler(gs, observer);
+            assertTrue(sampler.isConsistent());
+
+            for (int j = 0; j < 20; j++){
+                GameState determinized = gs.deepCopy();
+                sampler.applyTo(determinized, random);
+                long dealt = 0L;
+                for (Player player : determinized.getPlayers()){
+                    int playerNo = player.getPlayerNo();
+                    long hand = player.getHandCards().toMask();
+                    assertEquals(gs.getPlayers()[playerNo].countCards(), player.countCards());
+                    assertEquals(0L, dealt & hand);
+                    dealt |= hand;
+                    if (playerNo == observer){
+                        assertEquals(gs.getPlayers()[playerNo].getHandCards().toMask(), hand);
+                    } else {
+                        assertEquals(0L, hand & sampler.getExcludedCards(playerNo));
+                        assertEquals(sampler.getKnownCards(playerNo), hand & sampler.getKnownCards(playerNo));
+                        checkedConstraints += Long.bitCount(sampler.getExcludedCards(playerNo)) + Long.bitCount(sampler.getKnownCards(playerNo));
+                    }
+                }
+            }
+        }
+        assertTrue(checkedConstraints > 0);
+    }
+
+    @Test
+    public void passedCardsArePinnedToTheReceiver(){
+        GameState gs = createGameStateAfterPassing(7);
+        Player observer = gs.getPlayers()[0];
+        long passed = 0L;
+        for (int cardId : observer.getCardsToPass()){
+            passed |= BitboardGameState.toMask(cardId);
+        }
+
+        DeterminizationSampler sampler = new DeterminizationSampler(gs, 0);
+
+        // the receiver may also be the starter of the round, who is known to hold the Two of Clubs
+        long openingCard = gs.getStarterOfNewestTrick() == observer.getReceiverNo() ? BitboardGameState.toMask(CardCoding.CLUBS_2.getId()) : 0L;
+        assertEquals(passed | openingCard, sampler.getKnownCards(observer.getReceiverNo()));
+        long[] hands = sampler.sample(new SplittableRandom(1));
+        assertEquals(passed, hands[observer.getReceiverNo()] & passed);
+    }
+
+    @Test
+    public void playerWhoDidNotFollowSuitIsVoid(){
+        GameState gs = createGameStateAfterPassing(5);
+        playRandomCardsUntilTrick(gs, 2, new SplittableRandom(5));
+        int[] firstTrick = gs.getRoundTricks()[0].getCardsPlayed();
+        DeterminizationSampler sampler = new DeterminizationSampler(gs, gs.getPlayerToMove());
+
+        for (int playerNo = 0; playerNo < 4; playerNo++){
+            boolean hasFollowedSuit = BitboardGameState.suitMaskOf(firstTrick[playerNo]) == BitboardGameState.CLUBS_MASK;
+            long expectedVoid = hasFollowedSuit ? 0L : BitboardGameState.CLUBS_MASK;
+            if (playerNo != gs.getPlayerToMove()){
+                assertEquals(expectedVoid, sampler.getExcludedCards(playerNo) & BitboardGameState.CLUBS_MASK);
+            }
+        }
+    }
+
+    @Test
+    public void unconstrainedCardsAreDealtUniformly(){
+        GameState gs = BitboardGameStateTest.createGameStateInFirstTrick(true);
+        gs.setMemory(Memory.NORMAL);
+        gs.setMemory4thAi(Memory.NORMAL);
+        DeterminizationSampler sampler = new DeterminizationSampler(gs, 0);
+        long unknownCard = Long.lowestOneBit(~gs.getPlayers()[0].getHandCards().toMask());
+        SplittableRandom random = new SplittableRandom(9);
+        int[] counts = new int[4];
+        for (int i = 0; i < 3000; i++){
+            long[] hands = sampler.sample(random);
+            for (int playerNo = 1; playerNo < 4; playerNo++){
+                if ((hands[playerNo] & unknownCard) != 0) counts[playerNo]++;
+            }
+        }
+        assertEquals(3000, counts[1] + counts[2] + counts[3]);
+        for (int playerNo = 1; playerNo < 4; playerNo++){
+            assertTrue("Count of player " + playerNo + ": " + counts[playerNo], counts[playerNo] > 900 && counts[playerNo] < 1100);
+        }
+    }
+
+    @Test
+    public void sameSeedGivesSameSample(){
+        GameState gs = createGameStateAfterPassing(2);
+        playRandomCardsUntilTrick(gs, 4, new SplittableRandom(2));
+        DeterminizationSampler sampler = new DeterminizationSampler(gs, gs.getPlayerToMove());
+
+        long[] first = sampler.sample(new SplittableRandom(13)).clone();
+        long[] second = sampler.sample(new SplittableRandom(13)).clone();
+
+        assertArrayEquals(first, second);
+    }
+
+    @Test
+    public void heartsLedBeforeHeartsAreBrokenMeansOnlyHearts(){
+        for (long seed = 0; seed < 100; seed++){
+            GameState gs = createGameStateAfterPassing(seed);
+            playRandomCardsUntilTrick(gs, 2, new SplittableRandom(seed));
+            Player leader = gs.getPlayers()[gs.getPlayerToMove()];
+            long hearts = leader.getHandCards().toMask() & BitboardGameState.HEARTS_MASK;
+            if (gs.getIsHeartBroken() || hearts == 0) continue;
+            leader.getHandCards().setFromMask(hearts);
+            leader.setHandCardsPlayableFromRulesAndIsInHandForStarterInTrick2orLater(gs);
+
+            gs.doMove(Long.numberOfTrailingZeros(hearts) + 1);
+
+            int observer = (leader.getPlayerNo() + 1) % 4;
+            assertEquals(~BitboardGameState.HEARTS_MASK, new DeterminizationSampler(gs, observer).getExcludedCards(leader.getPlayerNo()));
+            return;
+        }
+        fail("No deal in which the leader of the 2nd trick holds hearts before hearts are broken.");
+    }
+}
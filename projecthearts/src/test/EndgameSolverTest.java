@@ -0,0 +1,133 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import game.*;
+import game.AI.AiMCTS.EndgameSolver;
+import game.AI.AiMCTS.AiMCTSBasic.AiMCTSCheatingPIRoundSimUct;
+
+public class EndgameSolverTest {
+
+    private static GameState createGameStateWithCardsLeft(int cardsLeft, long seed){
+        GameState gs = new GameState();
+        gs.init();
+        gs.setSimulationAI();
+        gs.createDeck(true, new SplittableRandom(seed));
+        gs.handOutCards();
+        gs.setTricksPlayed(1);
+        gs.initTrick(gs.getStarterOfRound().getPlayerNo());
+        gs.setPlayableCardsForEachPlayerInTrick0or1();
+        gs.setDifficulty(Difficulty.MEDIUM);
+        Random random = new Random(seed);
+        for (int move = 0; move < 52 - cardsLeft; move++){
+            List<Integer> playable = gs.determineListOfPlayableCardIds(gs.getPlayerToMove());
+            gs.doMove(playable.get(random.nextInt(playable.size())));
+        }
+        return gs;
+    }
+
+    // plain minimax without pruning and table
+    private static double minimax(BitboardGameState state, int rootPlayerNo){
+        if (state.isRoundOver()){
+            state.completeRound();
+            return state.getResult(rootPlayerNo);
+        }
+        boolean isMaximizing = state.getPlayerToMove() == rootPlayerNo;
+        double best = isMaximizing ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        for (long moves = state.getPlayableCardsOfPlayerToMove(); moves != 0; moves &= moves - 1){
+            BitboardGameState child = state.deepCopy();
+            child.doMove(Long.numberOfTrailingZeros(moves) + 1);
+            double value = minimax(child, rootPlayerNo);
+            best = isMaximizing ? Math.max(best, value) : Math.min(best, value);
+        }
+        return best;
+    }
+
+    @Test
+    public void solverFindsTheMinimaxValue(){
+        EndgameSolver solver = new EndgameSolver(1 << 10);
+        for (int seed = 0; seed < 30; seed++){
+            BitboardGameState state = BitboardGameState.fromGameState(createGameStateWithCardsLeft(10, seed));
+            int rootPlayerNo = seed % 4;
+
+            // the solver keeps its table, so the later states also check values found by earlier searches
+            assertEquals("seed " + seed, minimax(state.deepCopy(), rootPlayerNo), solver.solve(state, rootPlayerNo), 1e-9);
+            assertTrue(solver.getSearchedNodes() > 0);
+        }
+    }
+
+    @Test
+    public void bestMoveReachesTheValueOfTheState(){
+        EndgameSolver solver = new EndgameSolver();
+        BitboardGameState state = BitboardGameState.fromGameState(createGameStateWithCardsLeft(12, 7));
+        int rootPlayerNo = state.getPlayerToMove();
+        double value = solver.solve(state, rootPlayerNo);
+
+        int cardId = solver.findBestMove(state, rootPlayerNo);
+        assertTrue((state.getPlayableCardsOfPlayerToMove() & BitboardGameState.toMask(cardId)) != 0);
+        BitboardGameState child = state.deepCopy();
+        child.doMove(cardId);
+        assertEquals(value, solver.solve(child, rootPlayerNo), 1e-9);
+
+        solver.playout(state, rootPlayerNo);
+        assertTrue(state.isRoundOver());
+        assertEquals(value, state.getResult(rootPlayerNo), 1e-9);
+    }
+
+    @Test
+    public void equivalentCardsAreRemoved(){
+        long diamonds2to4 = 0b111L;
+        // the 3 has been played: 2 and 4 are equivalent
+        assertEquals(0b001L, EndgameSolver.removeEquivalentCards(0b101L, 0b010L));
+        // the 3 is still in play
+        assertEquals(0b101L, EndgameSolver.removeEquivalentCards(0b101L, 0L));
+        assertEquals(0b001L, EndgameSolver.removeEquivalentCards(diamonds2to4, 0L));
+        // Jack and Queen of Spades have different points
+        long jackOfSpades = BitboardGameState.toMask(36);
+        assertEquals(jackOfSpades | BitboardGameState.QUEEN_OF_SPADES_MASK,
+                EndgameSolver.removeEquivalentCards(jackOfSpades | BitboardGameState.QUEEN_OF_SPADES_MASK, 0L));
+        // Ace of Diamonds and Two of Hearts are of different suits
+        long aceOfDiamondsAndTwoOfHearts = BitboardGameState.toMask(13) | BitboardGameState.toMask(14);
+        assertEquals(aceOfDiamondsAndTwoOfHearts, EndgameSolver.removeEquivalentCards(aceOfDiamondsAndTwoOfHearts, 0L));
+    }
+
+    @Test
+    public void completeRoundGivesThePayoffsOfTheGameController(){
+        for (int seed = 0; seed < 20; seed++){
+            GameState gs = createGameStateWithCardsLeft(0, seed);
+            BitboardGameState state = BitboardGameState.fromGameState(gs);
+            state.completeRound();
+            new GameController(gs).completeRound();
+            for (int playerNo = 0; playerNo < 4; playerNo++){
+                assertEquals(gs.getPayoff(playerNo), state.getPayoff(playerNo), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void agentSolvesTheEndOfTheRound(){
+        GameState gs = createGameStateWithCardsLeft(12, 3);
+        int playerNo = gs.getPlayerToMove();
+        List<Integer> playable = gs.determineListOfPlayableCardIds(playerNo);
+
+        AiMCTSCheatingPIRoundSimUct ai = new AiMCTSCheatingPIRoundSimUct();
+        ai.setRandom(new SplittableRandom(1));
+        assertEquals(AiMCTSCheatingPIRoundSimUct.DEFAULT_ENDGAME_CARDS_LEFT, ai.getEndgameCardsLeft());
+        assertTrue(playable.contains(ai.bestMove(gs, playerNo)));
+        assertEquals(52 - 12, Long.bitCount(BitboardGameState.fromGameState(gs).getCardsPlayedInThisRound()));
+
+        ai.setEndgameCardsLeft(0);
+        assertTrue(playable.contains(ai.bestMove(gs, playerNo)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void endgameCardsLeftMustBeAtMost52(){
+        new AiMCTSCheatingPIRoundSimUct().setEndgameCardsLeft(53);
+    }
+}
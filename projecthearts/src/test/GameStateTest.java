@@ -2,8 +2,15 @@ package test;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
 import org.junit.Before;
 import org.junit.Test;
+import game.Memory;
 import game.Player;
 import game.GameState;
 
@@ -72,6 +79,84 @@ public class GameStateTest {
     }
 
 
+    /* Summarizes everything doMove and doPass change, so that states before and after an undo can be compared. */
+    private String describeRound(GameState state){
+        StringBuilder sb = new StringBuilder();
+        for (Player player : state.getPlayers()){
+            sb.append(Arrays.toString(player.getHandCards().getIsInHand()));
+            sb.append(Arrays.toString(player.getHandCardsPlayable().getIsInHand()));
+            sb.append(player.getRoundPts()).append(':').append(player.getPayoff()).append(':');
+            sb.append(player.getCardsToPass()).append(':').append(player.getReceiverNo()).append(';');
+        }
+        sb.append(state.getTricksPlayed()).append(state.getIsHeartBroken());
+        for (int i = 0; i < state.getTricksPlayed(); i++){
+            sb.append(Arrays.toString(state.getRoundTricks()[i].getCardsPlayed()));
+        }
+        sb.append(Arrays.toString(state.getCardsPlayedInThisRound()));
+        return sb.toString();
+    }
+
+    @Test
+    public void undoMoveRestoresEveryState(){
+        Random random = new Random(3);
+        GameState state = BitboardGameStateTest.createGameStateInFirstTrick(true);
+        state.setIsUndoEnabled(true);
+
+        List<String> history = new ArrayList<>();
+        while (!state.isRoundOver()){
+            history.add(describeRound(state));
+            List<Integer> playable = state.determineListOfPlayableCardIds(state.getPlayerToMove());
+            state.doMove(playable.get(random.nextInt(playable.size())));
+        }
+        for (int i = history.size() - 1; i >= 0; i--){
+            state.undoMove();
+            assertEquals(history.get(i), describeRound(state));
+        }
+    }
+
+    @Test
+    public void undoPassRestoresHandsAndReceivers(){
+        gs.setSimulationAI();
+        gs.createDeck(true);
+        gs.handOutCards();
+        gs.setRoundNo(1);
+        gs.setIsUndoEnabled(true);
+        String before = describeRound(gs);
+
+        gs.doPass(0, gs.getPlayers()[0].getHandCards().generateRandomPass());
+        assertEquals(1, gs.getTricksPlayed());
+        assertTrue(gs.getCardsHaveBeenPassed());
+
+        gs.undoPass();
+        assertEquals(before, describeRound(gs));
+        assertFalse(gs.getCardsHaveBeenPassed());
+    }
+
+    @Test
+    public void determinizationWithSameSeedDealsSameCards(){
+        GameState state = BitboardGameStateTest.createGameStateInFirstTrick(true);
+        state.setMemory(Memory.NORMAL);
+        state.setMemory4thAi(Memory.NORMAL);
+        GameState first = state.deepCopy();
+        GameState second = state.deepCopy();
+
+        first.determinization(0, new SplittableRandom(11));
+        second.determinization(0, new SplittableRandom(11));
+
+        assertEquals(describeRound(first), describeRound(second));
+        for (int playerNo = 0; playerNo < 4; playerNo++){
+            assertEquals(state.getPlayers()[playerNo].countCards(), first.getPlayers()[playerNo].countCards());
+        }
+        assertArrayEquals(state.getPlayers()[0].getHandCards().getIsInHand(), first.getPlayers()[0].getHandCards().getIsInHand());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void undoMoveWithoutRecordedMoveFails(){
+        GameState state = BitboardGameStateTest.createGameStateInFirstTrick(true);
+        state.setIsUndoEnabled(true);
+        state.undoMove();
+    }
+
 //TODO Tests fürs Punkte zählen / Stiche auswerten einfügen
 
 
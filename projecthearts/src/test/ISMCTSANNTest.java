@@ -0,0 +1,58 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import game.*;
+import game.AI.AiMCTS.AiISMCTSANN.ISMCTSANN;
+
+public class ISMCTSANNTest {
+    GameState gameState;
+
+    /**
+     * Replaces the LSTM models: predicts no card, so every playout plays a random fallback card, and counts the calls.
+     */
+    static class CountingISMCTSANN extends ISMCTSANN {
+        int predictCalls;
+        int featureArrays;
+
+        @Override
+        protected int[] predict(int playerNo, List<int[]> batch) {
+            predictCalls++;
+            featureArrays += batch.size();
+            for (int[] features : batch) {
+                assertEquals(65, features.length);
+            }
+            return new int[batch.size()];
+        }
+    }
+
+    @Before
+    public void init(){
+        gameState = BitboardGameStateTest.createGameStateInFirstTrick(true);
+        gameState.setGameMode(GameMode.SIMULATION);
+        gameState.setDifficulty(Difficulty.MEDIUM);
+        gameState.setDifficulty4thAi(Difficulty.MEDIUM);
+        gameState.setMemory(Memory.NORMAL);
+        gameState.setMemory4thAi(Memory.NORMAL);
+    }
+
+    @Test
+    public void playoutsAreScoredInBatches(){
+        int playerNo = gameState.getPlayerToMove();
+        List<Integer> playable = gameState.determineListOfPlayableCardIds(playerNo);
+        CountingISMCTSANN ai = new CountingISMCTSANN();
+
+        int cardId = ai.bestMove(gameState, playerNo);
+
+        assertTrue(playable.contains(cardId));
+        assertTrue(ai.getCompletedIterations() > ISMCTSANN.BATCH_SIZE);
+        assertTrue(ai.featureArrays >= ai.getCompletedIterations());
+        // one call per player model and step instead of one call per move
+        assertTrue(ai.featureArrays > 4 * ai.predictCalls);
+    }
+}
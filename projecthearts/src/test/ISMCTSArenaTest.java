@@ -0,0 +1,108 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import game.*;
+import game.AI.AiTypes;
+import game.AI.AiMCTS.AiISMCTS.ISMCTSArena;
+import game.AI.AiMCTS.AiISMCTS.SO_ISMCTS;
+import game.AI.AiMCTS.AiISMCTS.SO_ISMCTSArena;
+
+public class ISMCTSArenaTest {
+    GameState gameState;
+
+    @Before
+    public void init(){
+        gameState = BitboardGameStateTest.createGameStateInFirstTrick(true);
+        gameState.setGameMode(GameMode.SIMULATION);
+        gameState.setDifficulty(Difficulty.MEDIUM);
+        gameState.setDifficulty4thAi(Difficulty.MEDIUM);
+        gameState.setMemory(Memory.NORMAL);
+        gameState.setMemory4thAi(Memory.NORMAL);
+    }
+
+    @Test
+    public void childrenAreFoundByTheirCard(){
+        ISMCTSArena arena = new ISMCTSArena(2);
+        int queenOfSpades = arena.addChild(ISMCTSArena.ROOT, 37, 1);
+        int clubs2 = arena.addChild(ISMCTSArena.ROOT, 40, 1);
+        int grandChild = arena.addChild(clubs2, 1, 2);
+
+        assertEquals(queenOfSpades, arena.findChild(ISMCTSArena.ROOT, 37));
+        assertEquals(clubs2, arena.findChild(ISMCTSArena.ROOT, 40));
+        assertEquals(ISMCTSArena.NONE, arena.findChild(ISMCTSArena.ROOT, 1));
+        assertEquals(grandChild, arena.findChild(clubs2, 1));
+        assertEquals((1L << 36) | (1L << 39), arena.getChildMask(ISMCTSArena.ROOT));
+        // children in the order of their expansion
+        assertEquals(queenOfSpades, arena.getFirstChild(ISMCTSArena.ROOT));
+        assertEquals(clubs2, arena.getNextSibling(queenOfSpades));
+        assertEquals(4, arena.size());
+        assertEquals(4, arena.capacity());
+    }
+
+    @Test
+    public void resetKeepsTheMemoryOfTheArena(){
+        ISMCTSArena arena = new ISMCTSArena(2);
+        int child = arena.addChild(ISMCTSArena.ROOT, 5, 0);
+        arena.addChild(child, 6, 1);
+        arena.update(child, 0.5);
+        int capacity = arena.capacity();
+
+        arena.reset(3);
+
+        assertEquals(1, arena.size());
+        assertEquals(capacity, arena.capacity());
+        assertEquals(3, arena.getPlayerNr(ISMCTSArena.ROOT));
+        assertEquals(0L, arena.getChildMask(ISMCTSArena.ROOT));
+        assertEquals(ISMCTSArena.NONE, arena.selectBestNode());
+    }
+
+    @Test
+    public void arenaSearchDecidesLikeTheObjectTree(){
+        SplittableRandom random = new SplittableRandom(3);
+        for (int move = 0; move < 12; move++){
+            int playerNo = gameState.getPlayerToMove();
+            long seed = random.nextLong();
+
+            SO_ISMCTS objectAi = new SO_ISMCTS();
+            objectAi.setRandom(new SplittableRandom(seed));
+            SO_ISMCTSArena arenaAi = new SO_ISMCTSArena();
+            arenaAi.setRandom(new SplittableRandom(seed));
+            int cardId = objectAi.bestMove(gameState, playerNo);
+
+            assertEquals(cardId, arenaAi.bestMove(gameState, playerNo));
+            assertEquals(objectAi.getCompletedIterations(), arenaAi.getCompletedIterations());
+            gameState.doMove(cardId);
+        }
+    }
+
+    @Test
+    public void arenaIsReusedByTheNextDecision(){
+        SO_ISMCTSArena ai = new SO_ISMCTSArena();
+        ai.setRandom(new SplittableRandom(4));
+        int playerNo = gameState.getPlayerToMove();
+        List<Integer> playable = gameState.determineListOfPlayableCardIds(playerNo);
+        assertTrue(playable.contains(ai.bestMove(gameState, playerNo)));
+        ISMCTSArena arena = ai.getArena();
+        int capacity = arena.capacity();
+        assertEquals(ai.getCompletedIterations(), arena.getVisits(ISMCTSArena.ROOT));
+
+        ai.setRandom(new SplittableRandom(4));
+        ai.bestMove(gameState, playerNo);
+
+        assertSame(arena, ai.getArena());
+        assertEquals(capacity, arena.capacity());
+        assertEquals(ai.getCompletedIterations(), arena.getVisits(ISMCTSArena.ROOT));
+    }
+
+    @Test
+    public void arenaSearchCanBeSelectedAsAiType(){
+        assertTrue(GameController.getAiClass(AiTypes.SO_ISMCTS_ARENA, 1) instanceof SO_ISMCTSArena);
+    }
+}
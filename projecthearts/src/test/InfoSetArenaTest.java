@@ -0,0 +1,115 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import game.Trick;
+import game.AI.AiCFR.MCCFR.InfoSetArena;
+import game.AI.AiCFR.MCCFR.InfoSetKey;
+
+public class InfoSetArenaTest {
+
+    @Test
+    public void createdInfoSetHasUniformStrategy(){
+        InfoSetArena arena = new InfoSetArena();
+        int entry = arena.getOrCreate(7L, 3L, 4);
+
+        assertEquals(entry, arena.find(7L, 3L));
+        assertEquals(-1, arena.find(7L, 4L));
+        assertArrayEquals(new double[]{0.25, 0.25, 0.25, 0.25}, arena.getAverageStrategy(entry), 1e-12);
+        assertArrayEquals(new double[]{0.25, 0.25, 0.25, 0.25}, arena.calcCurrentStrategy(entry), 1e-12);
+    }
+
+    @Test
+    public void updateCutsRegretAndNormalizesStrategy(){
+        InfoSetArena arena = new InfoSetArena();
+        int entry = arena.getOrCreate(1L, 0L, 3);
+        arena.update(entry, new double[]{3.0, -1.0, 1.0}, new double[]{0.0, 0.0, 1.0});
+
+        assertArrayEquals(new double[]{0.75, 0.0, 0.25}, arena.calcCurrentStrategy(entry), 1e-12);
+        double[] avStrat = arena.getAverageStrategy(entry);
+        assertEquals(1.0, avStrat[0] + avStrat[1] + avStrat[2], 1e-2);   // normalize rounds to 3 decimals
+        assertTrue(avStrat[2] > avStrat[0]);
+    }
+
+    @Test
+    public void manyInfoSetsSurviveGrowing(){
+        InfoSetArena arena = new InfoSetArena();
+        for (int i = 0; i < 5000; i++){
+            int entry = arena.getOrCreate(i, i * 31L, 1 + i % 13);
+            arena.update(entry, regretOf(i), new double[1 + i % 13]);
+        }
+
+        assertEquals(5000, arena.getNumberOfInfoSets());
+        for (int i = 0; i < 5000; i++){
+            int entry = arena.find(i, i * 31L);
+            assertEquals(1 + i % 13, arena.getNumActions(entry));
+            assertEquals(1.0, arena.calcCurrentStrategy(entry)[0], 1e-12);
+        }
+    }
+
+    @Test
+    public void mapRoundTripKeepsValues(){
+        InfoSetArena arena = new InfoSetArena();
+        for (int i = 0; i < 100; i++){
+            int entry = arena.getOrCreate(-1L - i, i, 2);
+            arena.update(entry, new double[]{i, 0.0}, new double[]{1.0, 0.0});
+        }
+        Map<String, double[][]> map = arena.toMap();
+        InfoSetArena loaded = new InfoSetArena(map);
+
+        assertEquals(0, loaded.getNumberOfInfoSets());
+        for (int i = 0; i < 100; i++){
+            int expected = arena.find(-1L - i, i);
+            int actual = loaded.find(-1L - i, i);
+            assertArrayEquals(arena.calcCurrentStrategy(expected), loaded.calcCurrentStrategy(actual), 0.0);
+            assertArrayEquals(arena.getAverageStrategy(expected), loaded.getAverageStrategy(actual), 0.0);
+        }
+    }
+
+    @Test
+    public void invalidStoredKeysAreSkipped(){
+        Map<String, double[][]> stored = new HashMap<String, double[][]>();
+        stored.put("[1, 2, 3]", new double[][]{{0.0, 0.0, 0.0}, {0.2, 0.3, 0.5}});
+        stored.put(InfoSetKey.toString(5L, 0L), new double[][]{{1.0}, {1.0}});
+        InfoSetArena arena = new InfoSetArena(stored);
+        arena.loadAll();
+
+        assertEquals(1, arena.getNumberOfInfoSets());
+        assertTrue(arena.find(5L, 0L) >= 0);
+    }
+
+    @Test
+    public void playKeysDistinguishHistoryAndTrick(){
+        List<Integer> actions = Arrays.asList(1, 14, 52);
+        long high = InfoSetKey.playHigh(3, 1, actions);
+
+        assertNotEquals(high, InfoSetKey.playHigh(3, 0, actions));
+        assertNotEquals(high, InfoSetKey.playHigh(4, 1, actions));
+        assertNotEquals(high, InfoSetKey.playHigh(3, 1, Arrays.asList(1, 14, 51)));
+        assertEquals(InfoSetKey.passHigh(actions), (1L << 0) | (1L << 13) | (1L << 51));
+
+        Trick trick = new Trick(2);
+        long emptyTrick = InfoSetKey.playLow(trick);
+        trick.addCard(40, 2);
+        long oneCard = InfoSetKey.playLow(trick);
+        trick.addCard(52, 3);
+        long twoCards = InfoSetKey.playLow(trick);
+
+        assertEquals(0L, emptyTrick);
+        assertNotEquals(oneCard, twoCards);
+        assertArrayEquals(new long[]{high, twoCards}, InfoSetKey.parse(InfoSetKey.toString(high, twoCards)));
+    }
+
+    private static double[] regretOf(int i){
+        double[] regret = new double[1 + i % 13];
+        regret[0] = 1.0;
+        return regret;
+    }
+}
@@ -0,0 +1,140 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import game.AI.AiCFR.CFRUtil;
+import game.AI.AiCFR.InfoSetStore;
+import game.AI.AiCFR.InfoSetStoreConverter;
+
+public class InfoSetStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    HashMap<String, double[][]> infoSets;
+    String fileName;
+
+    @Before
+    public void init() throws IOException{
+        infoSets = new HashMap<String, double[][]>();
+        for (int i = 0; i < 500; i++){
+            int numActions = 1 + i % 13;
+            double[][] values = CFRUtil.initInfoSetValues(numActions);
+            values[0][0] = i;
+            infoSets.put(i % 4 + "-0-[" + i + ", " + (i + 1) + "]-[]", values);
+        }
+        infoSets.put("Kreuz-Dame-♣", new double[][]{{1.5, -2.5}, {0.25, 0.75}});
+        fileName = folder.newFile("infoSets.bin").getPath();
+    }
+
+    @Test
+    public void storedInfoSetsCanBeReadBack() throws IOException{
+        InfoSetStore.write(infoSets, fileName);
+        InfoSetStore store = InfoSetStore.open(fileName);
+
+        assertEquals(infoSets.size(), store.size());
+        for (Map.Entry<String, double[][]> entry : infoSets.entrySet()){
+            double[][] values = store.get(entry.getKey());
+            assertArrayEquals(entry.getValue()[0], values[0], 0.0);
+            assertArrayEquals(entry.getValue()[1], values[1], 0.0);
+        }
+        assertNull(store.get("unknown"));
+    }
+
+    @Test
+    public void updatesAreKeptInMemory() throws IOException{
+        InfoSetStore.write(infoSets, fileName);
+        InfoSetStore store = InfoSetStore.open(fileName);
+
+        store.get("Kreuz-Dame-♣")[0][0] = 42.0;
+        store.put("new", CFRUtil.initInfoSetValues(3));
+
+        assertEquals(42.0, store.get("Kreuz-Dame-♣")[0][0], 0.0);
+        assertEquals(infoSets.size() + 1, store.size());
+        assertEquals(infoSets.size() + 1, store.entrySet().size());
+        assertEquals(42.0, store.get("Kreuz-Dame-♣")[0][0], 0.0);
+    }
+
+    @Test
+    public void convertedJsonFileIsPreferredWhenLoading() throws IOException{
+        infoSets.remove("Kreuz-Dame-♣");    // the JSON files are written with the platform encoding
+        String jsonFileName = folder.newFile("infoSets.json").getPath();
+        CFRUtil.serializeInfoSets(infoSets, jsonFileName);
+        InfoSetStoreConverter.convert(jsonFileName);
+
+        Map<String, double[][]> loaded = CFRUtil.loadInfoSets(jsonFileName);
+
+        assertTrue(loaded instanceof InfoSetStore);
+        assertEquals(infoSets.keySet(), loaded.keySet());
+    }
+
+    @Test
+    public void writeClosesOpenStoresOfTheFile() throws IOException{
+        InfoSetStore.write(infoSets, fileName);
+        InfoSetStore store = InfoSetStore.open(fileName);
+        store.get("Kreuz-Dame-♣")[0][0] = 42.0;
+        assertTrue(store.isFileMapped());
+
+        HashMap<String, double[][]> newInfoSets = new HashMap<String, double[][]>();
+        newInfoSets.put("Kreuz-Dame-♣", new double[][]{{7.0, 8.0}, {0.5, 0.5}});
+        InfoSetStore.write(newInfoSets, fileName);
+
+        // the old store keeps its information sets in memory, the file has the new ones
+        assertFalse(store.isFileMapped());
+        assertEquals(infoSets.size(), store.size());
+        assertEquals(42.0, store.get("Kreuz-Dame-♣")[0][0], 0.0);
+        InfoSetStore newStore = InfoSetStore.open(fileName);
+        assertEquals(1, newStore.size());
+        assertEquals(7.0, newStore.get("Kreuz-Dame-♣")[0][0], 0.0);
+    }
+
+    @Test
+    public void savedStoreIsNotOverwrittenByTheOlderJsonFile() throws IOException{
+        infoSets.remove("Kreuz-Dame-♣");
+        String jsonFileName = folder.newFile("infoSets.json").getPath();
+        CFRUtil.serializeInfoSets(infoSets, jsonFileName);
+        new File(jsonFileName).setLastModified(System.currentTimeMillis() - 60000);
+        HashMap<String, double[][]> trainedInfoSets = new HashMap<String, double[][]>();
+        trainedInfoSets.put("trained", CFRUtil.initInfoSetValues(2));
+        CFRUtil.saveInfoSets(trainedInfoSets, jsonFileName);
+
+        InfoSetStoreConverter.main(new String[]{jsonFileName});
+
+        assertEquals(trainedInfoSets.keySet(), CFRUtil.loadInfoSets(jsonFileName).keySet());
+    }
+
+    @Test
+    public void newerJsonFileIsConvertedAndLoadedAgain() throws IOException{
+        infoSets.remove("Kreuz-Dame-♣");
+        String jsonFileName = folder.newFile("infoSets.json").getPath();
+        HashMap<String, double[][]> oldInfoSets = new HashMap<String, double[][]>();
+        oldInfoSets.put("old", CFRUtil.initInfoSetValues(2));
+        CFRUtil.saveInfoSets(oldInfoSets, jsonFileName);
+        new File(CFRUtil.getBinaryFileName(jsonFileName)).setLastModified(System.currentTimeMillis() - 60000);
+        CFRUtil.serializeInfoSets(infoSets, jsonFileName);
+
+        assertFalse(CFRUtil.isBinaryFileUpToDate(jsonFileName));
+        assertEquals(infoSets.keySet(), CFRUtil.loadInfoSets(jsonFileName).keySet());
+
+        InfoSetStoreConverter.main(new String[]{jsonFileName});
+
+        assertTrue(CFRUtil.isBinaryFileUpToDate(jsonFileName));
+        assertEquals(infoSets.keySet(), CFRUtil.loadInfoSets(jsonFileName).keySet());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void valuesWithDifferentNumberOfRowsAreRejected() throws IOException{
+        infoSets.put("three rows", new double[3][2]);
+        InfoSetStore.write(infoSets, fileName);
+    }
+}
@@ -0,0 +1,160 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+
+import game.AI.AiMCTS.AiISMCTSANN.LSTMInferenceWorker;
+
+public class LSTMInferenceWorkerTest {
+
+    private LSTMInferenceWorker worker;
+
+    /**
+     * Stands in for an LSTM script: predicts the largest feature of every feature array.
+     */
+    public static class MaxFeatureScript {
+        public static void main(String[] args) throws IOException{
+            BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+            if (args.length > 0 && args[0].equals("--serve")){
+                System.out.println("READY");
+                String count;
+                while ((count = in.readLine()) != null){
+                    int n = Integer.parseInt(count);
+                    StringBuilder answer = new StringBuilder();
+                    for (int i = 0; i < n; i++){
+                        answer.append(maxFeature(in.readLine())).append('\n');
+                    }
+                    System.out.print(answer);
+                    System.out.flush();
+                }
+            }
+            else System.out.println(maxFeature(in.readLine()));
+        }
+
+        private static int maxFeature(String line){
+            return Arrays.stream(line.split(",")).mapToInt(Integer::parseInt).max().getAsInt();
+        }
+    }
+
+    private static List<String> javaCommand(String mainClass){
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        return Arrays.asList(java, "-cp", System.getProperty("java.class.path"), mainClass);
+    }
+
+    /**
+     * Gets a python command that can import the libraries of the LSTM scripts, or null if there is none.
+     */
+    private static String findPythonWithModelLibraries(){
+        for (String python : new String[]{"python", "python3"}){
+            try {
+                Process p = new ProcessBuilder(python, "-c", "import torch, numpy, pandas, joblib, sklearn").redirectErrorStream(true).start();
+                p.getInputStream().readAllBytes();
+                if (p.waitFor() == 0) return python;
+            } catch (IOException e){
+                // try the next command
+            } catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        return null;
+    }
+
+    // the LSTM scripts and their models are in the repository root
+    private static File findScriptDirectory(){
+        for (String directory : new String[]{".", ".."}){
+            if (new File(directory, "LSTM_player_zero.py").isFile()) return new File(directory).getAbsoluteFile();
+        }
+        return null;
+    }
+
+    @After
+    public void closeWorker(){
+        if (worker != null) worker.close();
+    }
+
+    @Test
+    public void predictsWithPersistentProcess() throws IOException{
+        worker = new LSTMInferenceWorker(javaCommand(MaxFeatureScript.class.getName()));
+
+        assertEquals(14, worker.predict(new int[]{3, 14, -100}));
+        assertEquals(52, worker.predict(new int[]{52, 1, -100}));
+        assertFalse(worker.isLegacy());
+    }
+
+    @Test
+    public void predictsBatchInOrder() throws IOException{
+        worker = new LSTMInferenceWorker(javaCommand(MaxFeatureScript.class.getName()));
+        List<int[]> batch = new ArrayList<int[]>();
+        for (int i = 1; i <= 20; i++){
+            batch.add(new int[]{i, -100, i - 1});
+        }
+
+        int[] cardIds = worker.predict(batch);
+
+        assertEquals(20, cardIds.length);
+        for (int i = 0; i < 20; i++){
+            assertEquals(i + 1, cardIds[i]);
+        }
+        assertEquals(1, worker.getRoundTrips());
+    }
+
+    @Test
+    public void lstmScriptScoresBatchInOneRoundTrip() throws IOException{
+        File scriptDirectory = findScriptDirectory();
+        Assume.assumeNotNull(scriptDirectory);
+        String python = findPythonWithModelLibraries();
+        Assume.assumeNotNull(python);
+        worker = new LSTMInferenceWorker(Arrays.asList(python, "LSTM_player_zero.py"), scriptDirectory);
+
+        // played cards followed by the playable cards, padded with -100 like ISMCTSANN.gameStateToFeatureArray
+        List<int[]> batch = new ArrayList<int[]>();
+        for (int i = 0; i < 32; i++){
+            int[] features = new int[65];
+            Arrays.fill(features, -100);
+            for (int j = 0; j < i; j++){
+                features[j] = j;
+            }
+            for (int j = 0; j < 13 && i + j < 52; j++){
+                features[i + j] = 51 - j;
+            }
+            batch.add(features);
+        }
+
+        int[] cardIds = worker.predict(batch);
+
+        assertFalse(worker.isLegacy());
+        assertEquals(1, worker.getRoundTrips());
+        assertEquals(32, cardIds.length);
+        for (int i = 0; i < 32; i++){
+            assertTrue(cardIds[i] >= 0 && cardIds[i] < 52);
+            assertEquals(cardIds[i], worker.predict(batch.get(i)));
+        }
+    }
+
+    @Test
+    public void restartsAfterClose() throws IOException{
+        worker = new LSTMInferenceWorker(javaCommand(MaxFeatureScript.class.getName()));
+        assertEquals(7, worker.predict(new int[]{7}));
+        worker.close();
+
+        assertEquals(9, worker.predict(new int[]{9}));
+    }
+
+    @Test(expected = IOException.class)
+    public void terminatedScriptIsReported() throws IOException{
+        worker = new LSTMInferenceWorker(Arrays.asList("java-command-that-does-not-exist"));
+        worker.predict(new int[]{1});
+    }
+}
@@ -19,10 +19,10 @@ public class LoggerTest {
     Player[] players;
 
     Trick trick = new Trick(0);
-    private Card diamonds2 = new Card(CardCoding.DIAMONDS_2.getId());
-    private Card diamonds9 = new Card (CardCoding.DIAMONDS_9.getId());
-    private Card hearts10 = new Card (CardCoding.HEARTS_10.getId());
-    private Card queenOfSpades = new Card (CardCoding.SPADES_QUEEN.getId());
+    private Card diamonds2 = Card.of(CardCoding.DIAMONDS_2.getId());
+    private Card diamonds9 = Card.of(CardCoding.DIAMONDS_9.getId());
+    private Card hearts10 = Card.of(CardCoding.HEARTS_10.getId());
+    private Card queenOfSpades = Card.of(CardCoding.SPADES_QUEEN.getId());
     
 
     Logger logger = new Logger(10, 52, "data", -1);
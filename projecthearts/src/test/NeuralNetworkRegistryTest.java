@@ -0,0 +1,125 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.encog.engine.network.activation.ActivationSigmoid;
+import org.encog.ml.data.basic.BasicMLData;
+import org.encog.neural.networks.BasicNetwork;
+import org.encog.neural.networks.layers.BasicLayer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import game.AI.AiCFR.NeuralNetworkRegistry;
+
+public class NeuralNetworkRegistryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    BasicNetwork network;
+    File file;
+    double[] input = {0.1, 0.5, 0.9};
+
+    @Before
+    public void init() throws IOException{
+        network = createNetwork();
+        file = folder.newFile("network.ser");
+        save(network, file);
+        NeuralNetworkRegistry.invalidate(file.getPath());
+        NeuralNetworkRegistry.resetStatistics();
+    }
+
+    private static BasicNetwork createNetwork(){
+        BasicNetwork network = new BasicNetwork();
+        network.addLayer(new BasicLayer(null, true, 3));
+        network.addLayer(new BasicLayer(new ActivationSigmoid(), true, 4));
+        network.addLayer(new BasicLayer(new ActivationSigmoid(), false, 2));
+        network.getStructure().finalizeStructure();
+        network.reset();
+        return network;
+    }
+
+    private static void save(BasicNetwork network, File file) throws IOException{
+        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file))) {
+            out.writeObject(network);
+        }
+    }
+
+    @Test
+    public void networkIsLoadedOnce(){
+        BasicNetwork first = NeuralNetworkRegistry.getNetwork(file.getPath());
+        BasicNetwork second = NeuralNetworkRegistry.getNetwork(file.getPath());
+
+        assertSame(first, second);
+        assertEquals(1, NeuralNetworkRegistry.getLoads());
+        assertEquals(1, NeuralNetworkRegistry.getCacheHits());
+    }
+
+    @Test
+    public void computeMatchesNetwork(){
+        double[] expected = network.compute(new BasicMLData(input)).getData();
+
+        assertArrayEquals(expected, NeuralNetworkRegistry.compute(file.getPath(), input), 1e-12);
+        assertArrayEquals(expected, NeuralNetworkRegistry.compute(file.getPath(), input), 1e-12);
+        assertEquals(1, NeuralNetworkRegistry.getLoads());
+    }
+
+    @Test
+    public void changedFileIsReloaded() throws IOException{
+        BasicNetwork first = NeuralNetworkRegistry.getNetwork(file.getPath());
+        BasicNetwork changed = createNetwork();
+        save(changed, file);
+        assertTrue(file.setLastModified(file.lastModified() + 2000));
+
+        BasicNetwork second = NeuralNetworkRegistry.getNetwork(file.getPath());
+
+        assertNotSame(first, second);
+        assertEquals(2, NeuralNetworkRegistry.getLoads());
+        assertArrayEquals(changed.compute(new BasicMLData(input)).getData(), NeuralNetworkRegistry.compute(file.getPath(), input), 1e-12);
+    }
+
+    @Test
+    public void missingFileGivesNull(){
+        assertTrue(file.delete());
+
+        assertNull(NeuralNetworkRegistry.getNetwork(file.getPath()));
+        assertNull(NeuralNetworkRegistry.compute(file.getPath(), input));
+    }
+
+    @Test
+    public void computeIsThreadSafe() throws InterruptedException{
+        double[] expected = network.compute(new BasicMLData(input)).getData();
+        List<Thread> threads = new ArrayList<Thread>();
+        List<Throwable> errors = new ArrayList<Throwable>();
+        for (int t = 0; t < 4; t++){
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 2000; i++){
+                        assertArrayEquals(expected, NeuralNetworkRegistry.compute(file.getPath(), input), 1e-12);
+                    }
+                } catch (Throwable e){
+                    synchronized (errors){
+                        errors.add(e);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads){
+            thread.join();
+        }
+
+        assertTrue(errors.isEmpty());
+        assertEquals(1, NeuralNetworkRegistry.getLoads());
+    }
+}
@@ -0,0 +1,52 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import game.AI.AiCFR.MCCFR.AiMCCFR;
+import game.AI.AiCFR.MCCFR.ParallelMCCFRTrainer;
+
+public class ParallelMCCFRTrainerTest {
+
+    private Map<String, double[][]> trainPass(int numberOfWorkers, long seed){
+        AiMCCFR ai = new AiMCCFR();
+        ai.getPlayInfoSets().clear();
+        ai.getPassInfoSets().clear();
+        new ParallelMCCFRTrainer(ai, numberOfWorkers, seed).trainPass(200);
+        return ai.getPassInfoSets().toMap();
+    }
+
+    private void assertSameInfoSets(Map<String, double[][]> expected, Map<String, double[][]> actual){
+        assertEquals(expected.keySet(), actual.keySet());
+        for (Map.Entry<String, double[][]> entry : expected.entrySet()){
+            double[][] values = actual.get(entry.getKey());
+            assertArrayEquals(entry.getValue()[0], values[0], 0.0);
+            assertArrayEquals(entry.getValue()[1], values[1], 0.0);
+        }
+    }
+
+    @Test
+    public void passTrainingIsReproducibleWithTheSameSeed(){
+        Map<String, double[][]> first = trainPass(3, 42);
+        Map<String, double[][]> second = trainPass(3, 42);
+
+        assertFalse(first.isEmpty());
+        assertSameInfoSets(first, second);
+    }
+
+    @Test
+    public void passTrainingDependsOnTheSeed(){
+        Map<String, double[][]> first = trainPass(2, 1);
+        Map<String, double[][]> second = trainPass(2, 2);
+
+        assertNotEquals(first.keySet(), second.keySet());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroWorkersAreRejected(){
+        new ParallelMCCFRTrainer(new AiMCCFR(), 0, 0);
+    }
+}
@@ -11,9 +11,9 @@ import game.CardCoding;
 
 public class PlayerTest {
     
-    Card clubs2 = new Card(CardCoding.CLUBS_2.getId());
-    Card clubs7 = new Card(CardCoding.CLUBS_7.getId());
-    Card diamonds3 = new Card(CardCoding.DIAMONDS_3.getId());
+    Card clubs2 = Card.of(CardCoding.CLUBS_2.getId());
+    Card clubs7 = Card.of(CardCoding.CLUBS_7.getId());
+    Card diamonds3 = Card.of(CardCoding.DIAMONDS_3.getId());
     Trick trick = new Trick(3);
     Player human = new Player("tester", true, 3);
     Player ai = new Player("ai", false, 0);
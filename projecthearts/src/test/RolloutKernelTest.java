@@ -0,0 +1,117 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import game.BitboardGameState;
+import game.GameState;
+import game.Player;
+import game.Trick;
+import game.AI.AiMCTS.RolloutKernel;
+
+public class RolloutKernelTest {
+
+    /* Creates a game state in the given trick of the 1st round, with random cards played before. */
+    private GameState createGameStateInTrick(boolean isStandardDeck, int trickNo, int cardsInTrick, SplittableRandom random){
+        GameState gs = BitboardGameStateTest.createGameStateInFirstTrick(isStandardDeck);
+        while (gs.getTricksPlayed() < trickNo || gs.getNewestTrick().getNumPlayedCards() < cardsInTrick){
+            List<Integer> playable = gs.determineListOfPlayableCardIds(gs.getPlayerToMove());
+            gs.doMove(playable.get(random.nextInt(playable.size())));
+        }
+        return gs;
+    }
+
+    /* Replays the cards of the played out round on the start state with doMove and compares the results. */
+    private void assertPlayoutIsLegalRound(GameState start, GameState playedOut){
+        GameState replay = start.deepCopy();
+        for (int i = start.getTricksPlayed() - 1; i < playedOut.getTricksPlayed(); i++){
+            Trick trick = playedOut.getRoundTricks()[i];
+            for (int j = 0; j < 4; j++){
+                int playerNo = (trick.getStarter() + j) % 4;
+                int cardId = trick.getCardsPlayed()[playerNo];
+                if (i == start.getTricksPlayed() - 1 && start.getNewestTrick().getCardsPlayed()[playerNo] != 0) continue;
+                assertEquals(replay.getPlayerToMove(), playerNo);
+                assertTrue("Card " + cardId + " is not playable.", replay.determineListOfPlayableCardIds(playerNo).contains(cardId));
+                replay.doMove(cardId);
+            }
+        }
+        assertTrue(replay.isRoundOver());
+        assertTrue(playedOut.isRoundOver());
+        for (Player player : replay.getPlayers()){
+            int playerNo = player.getPlayerNo();
+            assertEquals(player.getRoundPts(), playedOut.getPlayers()[playerNo].getRoundPts());
+            assertEquals(replay.getPayoff(playerNo), playedOut.getPayoff(playerNo), 0.0);
+            assertEquals(0, playedOut.getPlayers()[playerNo].countCards());
+        }
+        assertEquals(replay.getIsHeartBroken(), playedOut.getIsHeartBroken());
+    }
+
+    @Test
+    public void playoutsPlayLegalRounds(){
+        SplittableRandom random = new SplittableRandom(5);
+        RolloutKernel kernel = new RolloutKernel();
+        for (int i = 0; i < 200; i++){
+            boolean isStandardDeck = i % 2 == 0;
+            int trickNo = 1 + random.nextInt(isStandardDeck ? 13 : 8);
+            GameState start = createGameStateInTrick(isStandardDeck, trickNo, random.nextInt(4), random);
+            GameState playedOut = start.deepCopy();
+
+            kernel.playout(playedOut, random);
+
+            assertPlayoutIsLegalRound(start, playedOut);
+        }
+    }
+
+    @Test
+    public void sameSeedGivesSamePlayout(){
+        GameState start = createGameStateInTrick(true, 3, 2, new SplittableRandom(1));
+        GameState first = start.deepCopy();
+        GameState second = start.deepCopy();
+
+        new RolloutKernel().playout(first, new SplittableRandom(7));
+        new RolloutKernel().playout(second, new SplittableRandom(7));
+
+        for (int i = 0; i < 13; i++){
+            assertArrayEquals(first.getRoundTricks()[i].getCardsPlayed(), second.getRoundTricks()[i].getCardsPlayed());
+        }
+    }
+
+    @Test
+    public void selectRandomCardSelectsEveryCardOfTheMask(){
+        SplittableRandom random = new SplittableRandom(3);
+        long cards = BitboardGameState.toMask(2) | BitboardGameState.toMask(17) | BitboardGameState.toMask(52);
+        int[] counts = new int[53];
+        for (int i = 0; i < 3000; i++){
+            counts[RolloutKernel.selectRandomCard(cards, random)]++;
+        }
+        assertEquals(3000, counts[2] + counts[17] + counts[52]);
+        assertTrue(counts[2] > 800 && counts[17] > 800 && counts[52] > 800);
+    }
+
+    @Test
+    public void playoutOnBitboardDoesNotAllocate(){
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) return;
+        BitboardGameState start = BitboardGameState.fromGameState(createGameStateInTrick(true, 2, 1, new SplittableRandom(2)));
+        BitboardGameState state = start.deepCopy();
+        SplittableRandom random = new SplittableRandom(4);
+        for (int i = 0; i < 20000; i++){
+            state.copyFrom(start);
+            RolloutKernel.playout(state, random);
+        }
+
+        long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        for (int i = 0; i < 10000; i++){
+            state.copyFrom(start);
+            RolloutKernel.playout(state, random);
+        }
+        long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+
+        assertTrue("Allocated bytes: " + allocated, allocated < 10000);
+    }
+}
@@ -0,0 +1,153 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import game.BitboardGameState;
+import game.CardCoding;
+import game.GameState;
+import game.Player;
+import rules.Rules;
+
+/**
+ * Compares the mask variants of the rules with the boolean array variants.
+ * The hands are all subsets of cards that cover every case of the rules (the lowest and highest card of every suit,
+ * the queen of spades and the opening cards of both decks) and random hands.
+ */
+public class RulesTest {
+
+    private static final int[] CASE_CARDS = {
+        CardCoding.DIAMONDS_2.getId(), CardCoding.DIAMONDS_ACE.getId(),
+        CardCoding.HEARTS_2.getId(), CardCoding.HEARTS_ACE.getId(),
+        CardCoding.SPADES_2.getId(), CardCoding.SPADES_QUEEN.getId(),
+        CardCoding.CLUBS_2.getId(), CardCoding.CLUBS_7.getId(), CardCoding.CLUBS_ACE.getId()
+    };
+
+    private static List<Long> createHands(){
+        List<Long> hands = new ArrayList<>();
+        for (int subset = 0; subset < (1 << CASE_CARDS.length); subset++){
+            long hand = 0L;
+            for (int i = 0; i < CASE_CARDS.length; i++){
+                if ((subset & (1 << i)) != 0) hand |= BitboardGameState.toMask(CASE_CARDS[i]);
+            }
+            hands.add(hand);
+        }
+        SplittableRandom random = new SplittableRandom(17);
+        for (int i = 0; i < 2000; i++){
+            long hand = 0L;
+            int size = 1 + random.nextInt(13);
+            while (Long.bitCount(hand) < size){
+                hand |= 1L << random.nextInt(52);
+            }
+            hands.add(hand);
+        }
+        return hands;
+    }
+
+    private static GameState createGameState(boolean isStandardDeck){
+        GameState gs = new GameState();
+        gs.init();
+        gs.setSimulationAI();
+        gs.createDeck(isStandardDeck);
+        return gs;
+    }
+
+    private static void setHand(Player player, long hand){
+        player.getHandCards().setIsInHand(BitboardGameState.toBooleanArray(hand));
+    }
+
+    @Test
+    public void starterInTrick2orLaterMatchesRules(){
+        GameState gs = createGameState(true);
+        Player player = gs.getPlayers()[0];
+        for (long hand : createHands()){
+            setHand(player, hand);
+            for (boolean isHeartBroken : new boolean[]{false, true}){
+                gs.setIsHeartBroken(isHeartBroken);
+                assertEquals(BitboardGameState.toMask(Rules.getPlayableCardsOfStarterInTrick2orLater(gs, player)),
+                             Rules.getPlayableCardsOfStarterInTrick2orLater(hand, isHeartBroken));
+            }
+        }
+    }
+
+    @Test
+    public void nonStarterInTrick2orLaterMatchesRules(){
+        GameState gs = createGameState(true);
+        Player player = gs.getPlayers()[0];
+        for (long hand : createHands()){
+            setHand(player, hand);
+            for (int firstCardId = 1; firstCardId <= 52; firstCardId++){
+                assertEquals(BitboardGameState.toMask(Rules.getPlayableCardsOfNonStarterInTrick2orLater(gs, player, firstCardId)),
+                             Rules.getPlayableCardsOfNonStarterInTrick2orLater(hand, firstCardId));
+            }
+        }
+    }
+
+    @Test
+    public void trick0or1MatchesRulesForBothDecks(){
+        for (boolean isStandardDeck : new boolean[]{true, false}){
+            GameState gs = createGameState(isStandardDeck);
+            Player player = gs.getPlayers()[0];
+            Player otherPlayer = gs.getPlayers()[1];
+            for (long hand : createHands()){
+                setHand(player, hand);
+                for (int tricksPlayed = 0; tricksPlayed <= 2; tricksPlayed++){
+                    gs.setTricksPlayed(tricksPlayed);
+                    for (Player starter : new Player[]{player, otherPlayer}){
+                        boolean isStarter = starter == player;
+                        assertEquals(BitboardGameState.toMask(Rules.getPlayableCardsInTrick0or1ForAiDeterminization(gs, player, starter)),
+                                     Rules.getPlayableCardsInTrick0or1(hand, tricksPlayed, isStarter, gs.getDeckSize()));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void playersSetTheSamePlayableCardsAsTheRules(){
+        for (boolean isStandardDeck : new boolean[]{true, false}){
+            GameState gs = createGameState(isStandardDeck);
+            Player player = gs.getPlayers()[0];
+            long openingCard = BitboardGameState.toMask(isStandardDeck ? CardCoding.CLUBS_2.getId() : CardCoding.CLUBS_7.getId());
+            for (long hand : createHands()){
+                setHand(player, hand);
+                setHand(gs.getPlayers()[1], openingCard & ~hand);
+                gs.setTricksPlayed(1);
+                boolean[] expected = Rules.getPlayableCardsInTrick0or1(gs, player);
+                player.setHandCardsPlayableFromRulesAndIsInHandInTrick0or1(gs);
+                assertArrayEquals(expected, player.getHandCardsPlayable().getIsInHand());
+
+                gs.setTricksPlayed(5);
+                expected = Rules.getPlayableCardsOfStarterInTrick2orLater(gs, player);
+                player.setHandCardsPlayableFromRulesAndIsInHandForStarterInTrick2orLater(gs);
+                assertArrayEquals(expected, player.getHandCardsPlayable().getIsInHand());
+
+                int firstCardId = CardCoding.SPADES_2.getId();
+                expected = Rules.getPlayableCardsOfNonStarterInTrick2orLater(gs, player, firstCardId);
+                player.setHandCardsPlayableFromRulesAndIsInHandForNonStarterInTrick2orLater(gs, firstCardId);
+                assertArrayEquals(expected, player.getHandCardsPlayable().getIsInHand());
+            }
+        }
+    }
+
+    @Test
+    public void getPlayableCardsChoosesTheRuleOfTheTrick(){
+        long hand = BitboardGameState.toMask(CardCoding.HEARTS_2.getId()) | BitboardGameState.toMask(CardCoding.SPADES_2.getId());
+
+        assertEquals(hand, Rules.getPlayableCards(hand, 0, false, 0, false, 52));
+        assertEquals(BitboardGameState.CLUBS_2_MASK, Rules.getPlayableCards(hand, 1, true, 0, false, 52));
+        assertEquals(BitboardGameState.toMask(CardCoding.SPADES_2.getId()), Rules.getPlayableCards(hand, 3, false, 0, false, 52));
+        assertEquals(hand, Rules.getPlayableCards(hand, 3, false, 0, true, 52));
+        assertEquals(hand, Rules.getPlayableCards(hand, 3, false, CardCoding.CLUBS_ACE.getId(), false, 52));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidFirstCardIsRejected(){
+        Rules.getPlayableCardsOfNonStarterInTrick2orLater(0L, 0);
+    }
+}
@@ -0,0 +1,213 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import game.*;
+import game.AI.AiMCTS.AiISMCTS.ISMCTS;
+import game.AI.AiMCTS.AiISMCTS.ISMCTSNode;
+import game.AI.AiMCTS.AiISMCTS.ISMCTSTree;
+import game.AI.AiMCTS.AiISMCTS.MO_ISMCTS;
+import game.AI.AiMCTS.AiISMCTS.ParallelizationMode;
+import game.AI.AiMCTS.AiISMCTS.SO_ISMCTS;
+
+public class SO_ISMCTSTest {
+    GameState gameState;
+
+    @Before
+    public void init(){
+        gameState = BitboardGameStateTest.createGameStateInFirstTrick(true);
+        gameState.setGameMode(GameMode.SIMULATION);
+        gameState.setDifficulty(Difficulty.EASY);
+        gameState.setDifficulty4thAi(Difficulty.EASY);
+        gameState.setMemory(Memory.NORMAL);
+        gameState.setMemory4thAi(Memory.NORMAL);
+    }
+
+    @Test
+    public void rootParallelSearchReturnsPlayableCard(){
+        int playerNo = gameState.getPlayerToMove();
+        gameState.doMove(gameState.determineListOfPlayableCardIds(playerNo).get(0));
+        playerNo = gameState.getPlayerToMove();
+        List<Integer> playable = gameState.determineListOfPlayableCardIds(playerNo);
+
+        SO_ISMCTS ai = new SO_ISMCTS(4);
+        int cardId = ai.bestMove(gameState, playerNo);
+
+        assertTrue(playable.contains(cardId));
+    }
+
+    @Test
+    public void treeParallelSearchReturnsPlayableCard(){
+        int playerNo = gameState.getPlayerToMove();
+        gameState.doMove(gameState.determineListOfPlayableCardIds(playerNo).get(0));
+        playerNo = gameState.getPlayerToMove();
+        List<Integer> playable = gameState.determineListOfPlayableCardIds(playerNo);
+
+        SO_ISMCTS soAi = new SO_ISMCTS(4, ParallelizationMode.TREE);
+        assertTrue(playable.contains(soAi.bestMove(gameState, playerNo)));
+        assertTrue(soAi.getCompletedIterations() > 0);
+
+        MO_ISMCTS moAi = new MO_ISMCTS(4);
+        assertTrue(playable.contains(moAi.bestMove(gameState, playerNo)));
+    }
+
+    @Test
+    public void parallelSearchesDoNotKeepTheirWorkerThreads() throws InterruptedException{
+        int playerNo = gameState.getPlayerToMove();
+        for (int search = 0; search < 5; search++){
+            new SO_ISMCTS(4).bestMove(gameState, playerNo);
+            new SO_ISMCTS(4, ParallelizationMode.TREE).bestMove(gameState, playerNo);
+        }
+
+        // the workers of a shut down pool end shortly after their tasks
+        long deadline = System.currentTimeMillis() + 5000;
+        while (countWorkerThreads() > 0 && System.currentTimeMillis() < deadline){
+            Thread.sleep(10);
+        }
+        assertEquals(0, countWorkerThreads());
+    }
+
+    private static long countWorkerThreads(){
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("ForkJoinPool-") && thread.isAlive())
+                .count();
+    }
+
+    @Test
+    public void mergeRootChildrenAddsUpVisits(){
+        ISMCTSTree first = new ISMCTSTree(new ISMCTSNode(2, null, null));
+        ISMCTSTree second = new ISMCTSTree(new ISMCTSNode(2, null, null));
+        first.getRoot().addChild(Card.of(5), 2).setVisits(3);
+        first.getRoot().addChild(Card.of(7), 2).setVisits(4);
+        second.getRoot().addChild(Card.of(5), 2).setVisits(2);
+        second.getRoot().addChild(Card.of(9), 2).setVisits(1);
+
+        ISMCTSTree merged = ISMCTSTree.mergeRootChildren(Arrays.asList(first, second));
+
+        assertEquals(3, merged.getRoot().getChildren().size());
+        assertEquals(5, merged.selectBestNode().getPlayedCard().getId());
+        assertEquals(5, merged.selectBestNode().getVisits());
+    }
+
+    @Test
+    public void rerootKeepsTheSubtreeOfThePlayedCards(){
+        ISMCTSTree tree = new ISMCTSTree(new ISMCTSNode(0, null, null));
+        ISMCTSNode child = tree.getRoot().addChild(Card.of(40), 0);
+        ISMCTSNode grandChild = child.addChild(Card.of(41), 1);
+        grandChild.setVisits(7);
+
+        assertFalse(tree.reroot(Arrays.asList(40, 42)));
+        assertNull(tree.getRoot().getParent());
+        assertTrue(tree.reroot(Arrays.asList(40, 41)));
+
+        assertSame(grandChild, tree.getRoot());
+        assertNull(grandChild.getParent());
+        assertEquals(7, tree.getRoot().getVisits());
+    }
+
+    // Plays a round in which the given AI decides for player 0 and the other players play their first playable card.
+    // Returns the number of decisions of player 0 whose search inherited visits.
+    private int countDecisionsWithInheritedVisits(ISMCTS<?, ?> ai){
+        gameState.setDifficulty(Difficulty.MEDIUM);
+        int decisionsWithInheritedVisits = 0;
+        boolean isFirstDecision = true;
+        while (!gameState.isRoundOver()){
+            int playerNo = gameState.getPlayerToMove();
+            if (playerNo == 0){
+                int cardId = ai.bestMove(gameState, playerNo);
+                if (isFirstDecision) assertEquals(0, ai.getInheritedVisits());
+                if (ai.getInheritedVisits() > 0) decisionsWithInheritedVisits++;
+                isFirstDecision = false;
+                gameState.doMove(cardId);
+            } else {
+                gameState.doMove(gameState.determineListOfPlayableCardIds(playerNo).get(0));
+            }
+        }
+        return decisionsWithInheritedVisits;
+    }
+
+    @Test
+    public void consecutiveDecisionsInheritVisits(){
+        SO_ISMCTS ai = new SO_ISMCTS();
+        ai.setRandom(new SplittableRandom(1));
+        assertTrue(countDecisionsWithInheritedVisits(ai) > 0);
+
+        // the next round starts with a new tree
+        init();
+        gameState.setDifficulty(Difficulty.MEDIUM);
+        int playerNo = gameState.getPlayerToMove();
+        while (playerNo != 0){
+            gameState.doMove(gameState.determineListOfPlayableCardIds(playerNo).get(0));
+            playerNo = gameState.getPlayerToMove();
+        }
+        ai.bestMove(gameState, 0);
+        assertEquals(0, ai.getInheritedVisits());
+    }
+
+    @Test
+    public void consecutiveDecisionsOfMO_ISMCTSInheritVisits(){
+        MO_ISMCTS ai = new MO_ISMCTS();
+        ai.setRandom(new SplittableRandom(2));
+        assertTrue(countDecisionsWithInheritedVisits(ai) > 0);
+    }
+
+    /* Ponders for the next player, waits for the given number of pondering iterations and plays the card of the player to move. */
+    private int ponderUntilNextPlayersTurn(ISMCTS<?, ?> ai, int iterations) throws InterruptedException{
+        int playerNo = (gameState.getPlayerToMove() + 1) % 4;
+        ai.ponder(gameState, playerNo);
+        long end = System.currentTimeMillis() + 10000;
+        while (ai.getPonderingIterations(playerNo) < iterations && System.currentTimeMillis() < end){
+            Thread.sleep(10);
+        }
+        assertTrue(ai.getPonderingIterations(playerNo) >= iterations);
+        gameState.doMove(gameState.determineListOfPlayableCardIds(gameState.getPlayerToMove()).get(0));
+        return playerNo;
+    }
+
+    @Test
+    public void ponderedVisitsCountTowardsTheIterationsOfTheDecision() throws InterruptedException{
+        SO_ISMCTS ai = new SO_ISMCTS();
+        int playerNo = ponderUntilNextPlayersTurn(ai, 500);
+        List<Integer> playable = gameState.determineListOfPlayableCardIds(playerNo);
+
+        assertTrue(playable.contains(ai.bestMove(gameState, playerNo)));
+
+        // EASY has 30 iterations, every search runs at least one
+        assertTrue(ai.getInheritedVisits() > 0);
+        assertEquals(Math.max(1, 30 - ai.getInheritedVisits()), ai.getCompletedIterations());
+        assertEquals(0, ai.getPonderingIterations(playerNo));
+    }
+
+    @Test
+    public void ponderingOfMO_ISMCTSIsKeptForTheDecision() throws InterruptedException{
+        MO_ISMCTS ai = new MO_ISMCTS();
+        int playerNo = ponderUntilNextPlayersTurn(ai, 500);
+
+        assertTrue(gameState.determineListOfPlayableCardIds(playerNo).contains(ai.bestMove(gameState, playerNo)));
+        assertTrue(ai.getInheritedVisits() > 0);
+    }
+
+    @Test
+    public void stopPonderingEndsTheBackgroundSearch(){
+        SO_ISMCTS ai = new SO_ISMCTS(2);
+        ai.ponder(gameState, 1);
+        ai.ponder(gameState, 2);
+
+        ai.stopPondering();
+
+        assertEquals(0, ai.getPonderingIterations(1));
+        assertEquals(0, ai.getPonderingIterations(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroWorkersAreRejected(){
+        new SO_ISMCTS(0);
+    }
+}
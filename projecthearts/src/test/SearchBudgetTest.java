@@ -0,0 +1,104 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import game.*;
+import game.AI.SearchBudget;
+import game.AI.AiMCTS.AiISMCTS.MO_ISMCTS;
+import game.AI.AiMCTS.AiISMCTS.SO_ISMCTS;
+import game.AI.AiMCTS.AiMCTSBasic.AiMCTSCheatingPIRoundSimUct;
+
+public class SearchBudgetTest {
+    GameState gameState;
+
+    @Before
+    public void init(){
+        gameState = BitboardGameStateTest.createGameStateInFirstTrick(true);
+        gameState.setGameMode(GameMode.SIMULATION);
+        gameState.setDifficulty(Difficulty.EXPERT);
+        gameState.setDifficulty4thAi(Difficulty.EXPERT);
+        gameState.setMemory(Memory.NORMAL);
+        gameState.setMemory4thAi(Memory.NORMAL);
+        int playerNo = gameState.getPlayerToMove();
+        gameState.doMove(gameState.determineListOfPlayableCardIds(playerNo).get(0));
+    }
+
+    @Test
+    public void iterationsOfTheDifficultyAreTheDefaultCap(){
+        SearchBudget.Tracker tracker = SearchBudget.OF_DIFFICULTY.start(System.nanoTime(), 30);
+
+        assertFalse(tracker.isExhausted(29, 0));
+        assertTrue(tracker.isExhausted(30, 0));
+        assertEquals(7, new SearchBudget(SearchBudget.NO_TIME_LIMIT, 7, SearchBudget.NO_LIMIT, SearchBudget.NO_MEMORY_LIMIT)
+                .start(System.nanoTime(), 30).getMaxIterations());
+    }
+
+    @Test
+    public void nodeCapStopsTheSearch(){
+        SearchBudget budget = new SearchBudget(SearchBudget.NO_TIME_LIMIT, SearchBudget.NO_LIMIT, 100, SearchBudget.NO_MEMORY_LIMIT);
+        SearchBudget.Tracker tracker = budget.start(System.nanoTime(), 30);
+
+        assertFalse(tracker.isExhausted(50, 99));
+        assertTrue(tracker.isExhausted(50, 100));
+    }
+
+    @Test
+    public void expiredDeadlineIsNoticedAtTheNextClockCheck(){
+        SearchBudget.Tracker tracker = SearchBudget.ofMillis(1).start(System.nanoTime() - 5_000_000, 30);
+
+        // at least one iteration, and the clock is only read every few iterations
+        assertFalse(tracker.isExhausted(0, 0));
+        assertFalse(tracker.isExhausted(1, 0));
+        assertTrue(tracker.isExhausted(8, 0));
+        assertTrue(tracker.isExhausted(9, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidLimitIsRejected(){
+        new SearchBudget(0, SearchBudget.NO_LIMIT, SearchBudget.NO_LIMIT, SearchBudget.NO_MEMORY_LIMIT);
+    }
+
+    @Test
+    public void humanModeHasADeadlineByDefault(){
+        assertSame(SearchBudget.OF_DIFFICULTY, SearchBudget.defaultFor(gameState, 5000));
+        gameState.setGameMode(GameMode.HUMAN);
+        assertEquals(5000, SearchBudget.defaultFor(gameState, 5000).getTimeLimitMillis());
+    }
+
+    @Test
+    public void iterationCapLimitsTheSearch(){
+        int playerNo = gameState.getPlayerToMove();
+        List<Integer> playable = gameState.determineListOfPlayableCardIds(playerNo);
+        SearchBudget budget = new SearchBudget(SearchBudget.NO_TIME_LIMIT, 5, SearchBudget.NO_LIMIT, SearchBudget.NO_MEMORY_LIMIT);
+
+        SO_ISMCTS soAi = new SO_ISMCTS();
+        soAi.setSearchBudget(budget);
+        assertTrue(playable.contains(soAi.bestMove(gameState, playerNo)));
+        assertEquals(5, soAi.getCompletedIterations());
+
+        AiMCTSCheatingPIRoundSimUct mctsAi = new AiMCTSCheatingPIRoundSimUct();
+        mctsAi.setSearchBudget(budget);
+        assertTrue(playable.contains(mctsAi.bestMove(gameState, playerNo)));
+        assertEquals(5, mctsAi.getCompletedIterations());
+    }
+
+    @Test
+    public void deadlineEndsAnUnlimitedSearch(){
+        int playerNo = gameState.getPlayerToMove();
+        List<Integer> playable = gameState.determineListOfPlayableCardIds(playerNo);
+
+        SO_ISMCTS soAi = new SO_ISMCTS(2);
+        soAi.setSearchBudget(SearchBudget.ofMillis(50));
+        assertTrue(playable.contains(soAi.bestMove(gameState, playerNo)));
+        assertTrue(soAi.getCompletedIterations() > 0);
+
+        MO_ISMCTS moAi = new MO_ISMCTS();
+        moAi.setSearchBudget(SearchBudget.ofMillis(50));
+        assertTrue(playable.contains(moAi.bestMove(gameState, playerNo)));
+    }
+}
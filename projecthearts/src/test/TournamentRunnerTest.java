@@ -0,0 +1,96 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import game.DealCorpus;
+import game.Difficulty;
+import game.GameState;
+import game.Logger;
+import game.Memory;
+import game.TournamentRunner;
+import game.AI.AiTypes;
+
+public class TournamentRunnerTest {
+
+    private static GameState createSettings(){
+        GameState settings = new GameState();
+        settings.init();
+        settings.createDeck(true);
+        settings.setDifficulty(Difficulty.EASY);
+        settings.setMemory(Memory.NORMAL);
+        settings.setDifficulty4thAi(Difficulty.EASY);
+        settings.setMemory4thAi(Memory.NORMAL);
+        settings.setIsGameWithPassing(true);
+        return settings;
+    }
+
+    @Test
+    public void mergedStatisticsCoverAllGames(){
+        TournamentRunner runner = new TournamentRunner(AiTypes.RULE_BASED, AiTypes.RULE_BASED, 3);
+        Logger logger = runner.run(createSettings(), 10, 7);
+
+        for (int playerNo = 0; playerNo < 4; playerNo++){
+            int placements = logger.getNumberOfWins()[playerNo] + logger.getNumber2ndPlaces()[playerNo]
+                            + logger.getNumberOf3rdPlaces()[playerNo] + logger.getNumberOf4thPlaces()[playerNo];
+            assertEquals(10, placements);
+            assertEquals(logger.getTotalGamePts()[playerNo] / 10.0, logger.getAvgGamePts()[playerNo], 1e-9);
+            assertEquals(logger.getTotalGamePtsPayoff()[playerNo] / 10.0, logger.getAvgGamePtsPayoff()[playerNo], 1e-9);
+        }
+        assertTrue(runner.getGamesPerMinute() > 0);
+    }
+
+    @Test
+    public void sameSeedGivesSameResultsForAnyNumberOfWorkers(){
+        Logger sequential = new TournamentRunner(AiTypes.RULE_BASED, AiTypes.RULE_BASED, 1).run(createSettings(), 6, 42);
+        Logger parallel = new TournamentRunner(AiTypes.RULE_BASED, AiTypes.RULE_BASED, 3).run(createSettings(), 6, 42);
+
+        assertArrayEquals(sequential.getTotalGamePts(), parallel.getTotalGamePts());
+        assertArrayEquals(sequential.getNumberOfWins(), parallel.getNumberOfWins());
+        assertArrayEquals(sequential.getNumberOf4thPlaces(), parallel.getNumberOf4thPlaces());
+    }
+
+    @Test
+    public void duplicateModePlaysEveryDealInEveryRotation() throws IOException{
+        Path file = Files.createTempFile("deals", ".bin");
+        file.toFile().deleteOnExit();
+        DealCorpus.generate(file, true, 3, 32, 5);
+        DealCorpus corpus = DealCorpus.open(file);
+
+        Logger sequential = new TournamentRunner(AiTypes.RULE_BASED, AiTypes.RULE_BASED, 1).runDuplicate(createSettings(), corpus, 2, 8);
+        Logger parallel = new TournamentRunner(AiTypes.RULE_BASED, AiTypes.RULE_BASED, 3).runDuplicate(createSettings(), corpus, 2, 8);
+
+        for (int playerNo = 0; playerNo < 4; playerNo++){
+            int placements = sequential.getNumberOfWins()[playerNo] + sequential.getNumber2ndPlaces()[playerNo]
+                            + sequential.getNumberOf3rdPlaces()[playerNo] + sequential.getNumberOf4thPlaces()[playerNo];
+            assertEquals(8, placements);
+        }
+        assertArrayEquals(sequential.getTotalGamePts(), parallel.getTotalGamePts());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateModeNeedsEnoughDeals() throws IOException{
+        Path file = Files.createTempFile("deals", ".bin");
+        file.toFile().deleteOnExit();
+        DealCorpus.generate(file, true, 1, 1, 5);
+
+        new TournamentRunner(AiTypes.RULE_BASED, AiTypes.RULE_BASED, 1).runDuplicate(createSettings(), DealCorpus.open(file), 2, 8);
+    }
+
+    @Test
+    public void gameSeedsDifferPerGame(){
+        assertNotEquals(TournamentRunner.gameSeed(1, 0), TournamentRunner.gameSeed(1, 1));
+        assertNotEquals(TournamentRunner.gameSeed(1, 0), TournamentRunner.gameSeed(2, 0));
+        assertEquals(TournamentRunner.gameSeed(5, 3), TournamentRunner.gameSeed(5, 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroWorkersAreRejected(){
+        new TournamentRunner(AiTypes.RULE_BASED, AiTypes.RULE_BASED, 0);
+    }
+}
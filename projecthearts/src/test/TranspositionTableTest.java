@@ -0,0 +1,107 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import game.*;
+import game.AI.AiMCTS.AiMCTSBasic.AiMCTSCheatingPIRoundSimUct;
+import game.AI.AiMCTS.AiMCTSBasic.TranspositionTable;
+
+public class TranspositionTableTest {
+    GameState gameState;
+
+    @Before
+    public void init(){
+        gameState = BitboardGameStateTest.createGameStateInFirstTrick(true);
+        gameState.setGameMode(GameMode.SIMULATION);
+        gameState.setDifficulty(Difficulty.MEDIUM);
+        gameState.setDifficulty4thAi(Difficulty.MEDIUM);
+        gameState.setMemory(Memory.NORMAL);
+        gameState.setMemory4thAi(Memory.NORMAL);
+    }
+
+    @Test
+    public void hashDependsOnTheStateOnly(){
+        int playerNo = gameState.getPlayerToMove();
+        long hash = TranspositionTable.hashOf(gameState, playerNo);
+
+        GameState copy = gameState.deepCopy();
+        assertEquals(hash, TranspositionTable.hashOf(copy, playerNo));
+        assertNotEquals(hash, TranspositionTable.hashOf(copy, (playerNo + 1) % 4));
+
+        copy.doMove(copy.determineListOfPlayableCardIds(playerNo).get(0));
+        assertNotEquals(hash, TranspositionTable.hashOf(copy, copy.getPlayerToMove()));
+
+        copy = gameState.deepCopy();
+        copy.setIsHeartBroken(true);
+        assertNotEquals(hash, TranspositionTable.hashOf(copy, playerNo));
+    }
+
+    @Test
+    public void sameHashGetsTheSameEntry(){
+        TranspositionTable table = new TranspositionTable(8);
+        TranspositionTable.Entry entry = table.getOrCreate(42L);
+        entry.setVisits(3);
+
+        assertSame(entry, table.getOrCreate(42L));
+        assertEquals(1, table.getHits());
+        assertNotSame(entry, table.getOrCreate(43L));
+    }
+
+    @Test
+    public void entryWithFewerVisitsIsReplaced(){
+        TranspositionTable table = new TranspositionTable(8);
+        // 2, 10 and 18 fall into the bucket of the slots 2 and 3
+        TranspositionTable.Entry visited = table.getOrCreate(2L);
+        visited.setVisits(5);
+        TranspositionTable.Entry notVisited = table.getOrCreate(10L);
+
+        TranspositionTable.Entry newEntry = table.getOrCreate(18L);
+
+        assertEquals(1, table.getReplacements());
+        assertSame(visited, table.getOrCreate(2L));
+        assertSame(newEntry, table.getOrCreate(18L));
+        assertNotSame(notVisited, table.getOrCreate(10L));
+
+        table.clear();
+        assertEquals(0, table.getHits());
+        assertNotSame(visited, table.getOrCreate(2L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityMustBeAPowerOfTwo(){
+        new TranspositionTable(12);
+    }
+
+    @Test
+    public void searchFindsTranspositions(){
+        gameState = new GameState();
+        gameState.init();
+        gameState.setSimulationAI();
+        gameState.createDeck(true, new SplittableRandom(2));
+        gameState.handOutCards();
+        gameState.setTricksPlayed(1);
+        gameState.initTrick(gameState.getStarterOfRound().getPlayerNo());
+        gameState.setPlayableCardsForEachPlayerInTrick0or1();
+        gameState.setDifficulty(Difficulty.MEDIUM);
+        // with six tricks left, different orders of a player's cards often reach the same states
+        for (int move = 0; move < 28; move++){
+            gameState.doMove(gameState.determineListOfPlayableCardIds(gameState.getPlayerToMove()).get(0));
+        }
+        int playerNo = gameState.getPlayerToMove();
+        List<Integer> playable = gameState.determineListOfPlayableCardIds(playerNo);
+
+        AiMCTSCheatingPIRoundSimUct ai = new AiMCTSCheatingPIRoundSimUct();
+        ai.setRandom(new SplittableRandom(1));
+        assertTrue(playable.contains(ai.bestMove(gameState, playerNo)));
+        assertTrue(ai.getTranspositionTable().getHits() > 0);
+
+        ai.setTranspositionTable(null);
+        assertTrue(playable.contains(ai.bestMove(gameState, playerNo)));
+    }
+}
@@ -8,12 +8,12 @@ import game.CardCoding;
 
 public class TrickTest {
 
-    private Card diamonds2 = new Card(CardCoding.DIAMONDS_2.getId());
-    private Card diamonds9 = new Card (CardCoding.DIAMONDS_9.getId());
-    private Card hearts10 = new Card (CardCoding.HEARTS_10.getId());
-    private Card queenOfSpades = new Card (CardCoding.SPADES_QUEEN.getId());
-    private Card clubs10 = new Card (CardCoding.CLUBS_10.getId());
-    private Card queenOfHearts = new Card(CardCoding.HEARTS_QUEEN.getId());
+    private Card diamonds2 = Card.of(CardCoding.DIAMONDS_2.getId());
+    private Card diamonds9 = Card.of(CardCoding.DIAMONDS_9.getId());
+    private Card hearts10 = Card.of(CardCoding.HEARTS_10.getId());
+    private Card queenOfSpades = Card.of(CardCoding.SPADES_QUEEN.getId());
+    private Card clubs10 = Card.of(CardCoding.CLUBS_10.getId());
+    private Card queenOfHearts = Card.of(CardCoding.HEARTS_QUEEN.getId());
      
     @Test
     public void numberOfPlayedCards(){